@@ -1,12 +1,14 @@
 package nars.control;
 
 import java.util.ArrayList;
+import java.util.function.Function;
 
 import nars.entity.*;
 import nars.entity.TLink.TLinkType;
 import nars.inference.*;
 import nars.language.*;
 import nars.storage.Memory;
+import nars.storage.MemoryChange;
 
 /**
  * 负责「概念」中「词项链」「任务链」的建立
@@ -156,7 +158,7 @@ public abstract class ConceptLinking {
         // * 🚩构建任务链
         buildTaskLinks(self, currentConcept, task);
         // * 🚩构建词项链
-        buildTermLinks(self, currentConcept, task); // recursively insert TermLink
+        buildTermLinks(self::getConceptOrCreate, self.mutMemory(), self.getShardRouter(), currentConcept, task); // recursively insert TermLink
     }
 
     /**
@@ -171,6 +173,7 @@ public abstract class ConceptLinking {
             final Concept currentConcept,
             final Task task) {
         final Memory memory = self.mutMemory(); // ! 可变：需要「取/创建 概念」
+        final ShardRouter router = self.getShardRouter();
         // 对自身 //
         // * 🚩对当前任务构造任务链，链接到传入的任务 | 构造「自身」
         final TaskLink selfLink = TaskLink.newSelf(task); // link type: SELF
@@ -190,7 +193,7 @@ public abstract class ConceptLinking {
             return;
         // * 🚩仅在「预算达到阈值」时：遍历预先构建好的所有「子项词项链模板」，递归链接到任务
         for (final TermLinkTemplate template : currentConcept.getLinkTemplatesToSelf()) {
-            linkTaskLinkFromTemplate(template, memory, task, subBudget);
+            linkTaskLinkFromTemplate(template, memory, router, task, subBudget);
         }
     }
 
@@ -200,15 +203,22 @@ public abstract class ConceptLinking {
      *
      * @param template  [&]
      * @param memory    [&m] 需要在其中申请创建概念
+     * @param router    [&m] 分片时的收发端 | 不分片时为空
      * @param task      [R] 共享引用的「任务」类型
      * @param subBudget [&] 会在构造任务链时拷贝其内值
      */
     private static void linkTaskLinkFromTemplate(
             final TermLinkTemplate template,
             final Memory memory,
+            final ShardRouter router,
             final Task task,
             final Budget subBudget) {
         final Term componentTerm = template.getTarget();
+        // * 🚩子项的概念属于别的分片⇒把任务链交给那个分片
+        if (router != null && !router.owns(componentTerm)) {
+            router.sendTaskLink(componentTerm, task, template, subBudget);
+            return;
+        }
         // ! 📝数据竞争：不能在「其它概念被拿出去后」并行推理，会导致重复创建概念
         final Concept componentConcept = memory.getConceptOrCreate(componentTerm);
         if (componentConcept == null)
@@ -221,6 +231,16 @@ public abstract class ConceptLinking {
         insertTaskLink(componentConcept, memory, link);
     }
 
+    /**
+     * 🆕在所属分片中接收别的分片送来的任务链
+     * * 🚩同{@link #linkTaskLinkFromTemplate}：取得或新建概念，插入任务链
+     */
+    static void receiveTaskLink(final Memory memory, final Term componentTerm, final TaskLink link) {
+        final Concept componentConcept = memory.getConceptOrCreate(componentTerm);
+        if (componentConcept != null)
+            insertTaskLink(componentConcept, memory, link);
+    }
+
     /**
      * Insert a TaskLink into the TaskLink bag
      * <p>
@@ -231,6 +251,7 @@ public abstract class ConceptLinking {
     private static void insertTaskLink(final Concept self, final Memory memory, final TaskLink taskLink) {
         // * 📝注意：任务链の预算 ≠ 任务の预算；「任务链」与「所链接的任务」是不同的Item对象
         self.putInTaskLink(taskLink);
+        memory.publishChange(MemoryChange.Kind.TASK_LINK_INSERTED, self, taskLink.getTarget());
         // * 🚩插入「任务链」的同时，以「任务链」激活概念 | 直接传入【可预算】的任务链
         memory.activateConcept(self, taskLink);
     }
@@ -242,10 +263,15 @@ public abstract class ConceptLinking {
      * * ❌【2024-05-30 00:49:19】无法断言原先传入的「概念」「预算值」都来自「直接推理上下文」
      * * 📝原因：需要递归处理，并在这其中改变「上下文」「概念」等参数
      *
-     * @param sourceBudget The Budget of the task
+     * @param getConceptOrCreate [&m] 取得或新建概念 | 直接推理中先匹配「当前概念」
+     * @param memory             [&m] 发布链接的变动
+     * @param router             [&m] 分片时的收发端 | 不分片时为空
+     * @param sourceBudget       The Budget of the task
      */
     private static void buildTermLinks(
-            final DerivationContextDirect self,
+            final Function<Term, Concept> getConceptOrCreate,
+            final Memory memory,
+            final ShardRouter router,
             final Concept current,
             final Budget sourceBudget) {
         // * 🚩仅在有「词项链模板」时
@@ -265,23 +291,45 @@ public abstract class ConceptLinking {
             // * 🚩仅在链接类型不是「转换」时
             final Term component = template.getTarget();
             final Term selfTerm = current.getTerm();
-            final Concept componentConcept = self.getConceptOrCreate(component);
+            // * 🚩元素的概念属于别的分片⇒只在此建立「整体⇒元素」，「元素⇒整体」与更深的链接交给那个分片
+            if (router != null && !router.owns(component)) {
+                insertTermLink(current, memory, TermLink.fromTemplate(component, template, subBudget));
+                router.sendTermLink(component, selfTerm, template, subBudget);
+                continue;
+            }
+            final Concept componentConcept = getConceptOrCreate.apply(component);
             // * 🚩仅在「元素词项所对应概念」存在时
             if (componentConcept == null)
                 continue;
             // * 🚩建立双向链接：整体⇒元素
             final TermLink termLink1 = TermLink.fromTemplate(component, template, subBudget);
-            insertTermLink(current, termLink1); // this termLink to that
+            insertTermLink(current, memory, termLink1); // this termLink to that
             // * 🚩建立双向链接：元素⇒整体
             final TermLink termLink2 = TermLink.fromTemplate(selfTerm, template, subBudget);
-            insertTermLink(componentConcept, termLink2); // that termLink to this
+            insertTermLink(componentConcept, memory, termLink2); // that termLink to this
             // * 🚩对复合子项 继续深入递归
             if (component instanceof CompoundTerm) {
-                buildTermLinks(self, componentConcept, subBudget);
+                buildTermLinks(getConceptOrCreate, memory, router, componentConcept, subBudget);
             }
         }
     }
 
+    /**
+     * 🆕在所属分片中接收别的分片送来的「元素⇒整体」词项链
+     * * 🚩同{@link #buildTermLinks}中对单个元素的处理：取得或新建概念，插入词项链，复合词项再向下递归
+     * * 📝与不分片时的差别：元素的概念新建失败时，「整体⇒元素」的词项链已在发送方建立
+     */
+    static void receiveTermLink(final Reasoner owner, final Term component, final TermLink link,
+            final Budget subBudget) {
+        final Memory memory = owner.getMemory();
+        final Concept componentConcept = memory.getConceptOrCreate(component);
+        if (componentConcept == null)
+            return;
+        insertTermLink(componentConcept, memory, link);
+        if (component instanceof CompoundTerm)
+            buildTermLinks(memory::getConceptOrCreate, memory, owner.getShardRouter(), componentConcept, subBudget);
+    }
+
     /**
      * Insert a TermLink into the TermLink bag
      * <p>
@@ -289,7 +337,8 @@ public abstract class ConceptLinking {
      *
      * @param termLink The termLink to be inserted
      */
-    private static void insertTermLink(final Concept self, final TermLink termLink) {
+    private static void insertTermLink(final Concept self, final Memory memory, final TermLink termLink) {
         self.putInTermLink(termLink);
+        memory.publishChange(MemoryChange.Kind.TERM_LINK_INSERTED, self, termLink.getTarget());
     }
 }
@@ -107,6 +107,14 @@ public interface DerivationContext extends DerivationIn, DerivationOut {
          */
         final Concept currentConcept;
 
+        /**
+         * 🆕分片推理中本分片的收发端
+         * * ️📝可空性：可空 | 不分片时为空
+         * * 📝可变性：只读
+         * * 📝所有权：共享引用
+         */
+        final ShardRouter router;
+
         /**
          * 用于「变量替换」中的「伪随机数生成器」
          * * ️📝可空性：非空
@@ -140,6 +148,7 @@ public interface DerivationContext extends DerivationIn, DerivationOut {
             this.currentConcept = currentConcept;
             this.silenceValue = reasoner.getSilenceValue().get();
             this.time = reasoner.getTime();
+            this.router = reasoner.getShardRouter();
             this.newTasks = newTasks;
             this.exportStrings = exportStrings;
             this.stringsToRecord = new ArrayList<>();
@@ -156,6 +156,11 @@ public final class DerivationContextDirect implements DerivationContext {
         return this.core.time;
     }
 
+    @Override
+    public ShardRouter getShardRouter() {
+        return this.core.router;
+    }
+
     @Override
     public float getSilencePercent() {
         return this.core.getSilencePercent();
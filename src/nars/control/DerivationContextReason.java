@@ -198,11 +198,8 @@ public final class DerivationContextReason implements DerivationContextConcept {
         final TermLink newBeliefLink = this.currentBeliefLink;
         // * 🚩尝试从「当前信念链的目标」获取「当前信念」所对应的概念
         final Term beliefTerm = newBeliefLink.getTarget();
-        final Concept beliefConcept = this.termToConcept(beliefTerm);
-        final Judgement newBelief = beliefConcept == null
-                ? null
-                // * 🚩找到新的「信念」充当currentBelief
-                : beliefConcept.getBelief(this.getCurrentTask()); // ! may be null
+        // * 🚩找到新的「信念」充当currentBelief | 分片时可能来自别的分片
+        final Judgement newBelief = this.termToBelief(beliefTerm, this.getCurrentTask()); // ! may be null
         // * 🚩最后返回当前信念（可空性相对独立）
         return newBelief;
     }
@@ -238,6 +235,11 @@ public final class DerivationContextReason implements DerivationContextConcept {
         return this.core.time;
     }
 
+    @Override
+    public ShardRouter getShardRouter() {
+        return this.core.router;
+    }
+
     @Override
     public float getSilencePercent() {
         return this.core.getSilencePercent();
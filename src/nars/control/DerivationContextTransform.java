@@ -125,6 +125,11 @@ public final class DerivationContextTransform implements DerivationContextConcep
         return this.core.time;
     }
 
+    @Override
+    public ShardRouter getShardRouter() {
+        return this.core.router;
+    }
+
     @Override
     public float getSilencePercent() {
         return this.core.getSilencePercent();
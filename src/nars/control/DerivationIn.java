@@ -1,8 +1,11 @@
 package nars.control;
 
 import nars.entity.Concept;
+import nars.entity.Judgement;
+import nars.entity.Sentence;
 import nars.entity.Task;
 import nars.language.Term;
+import nars.storage.KnowledgeBase;
 import nars.storage.Memory;
 
 public interface DerivationIn {
@@ -90,4 +93,43 @@ public interface DerivationIn {
         else
             return this.getMemory().termToConcept(term);
     }
+
+    /**
+     * 🆕获取分片推理中本分片的收发端
+     * * ️📝可空性：可空 | 不分片时为空
+     */
+    public ShardRouter getShardRouter();
+
+    /**
+     * 🆕获取词项的概念中，与任务的证据基不重复的最好信念
+     * * 🚩先在本地查找概念；分片时概念属于别的分片⇒用其信念的副本
+     * * 🚩本地没有⇒查共享的背景知识库，不复制概念
+     *
+     * @return 信念的拷贝 / 空
+     */
+    public default Judgement termToBelief(Term term, Sentence taskSentence) {
+        final Concept concept = this.termToConcept(term);
+        if (concept != null)
+            return concept.getBelief(taskSentence);
+        final ShardRouter router = this.getShardRouter();
+        if (router != null && !router.owns(term))
+            return router.getBelief(term, taskSentence, this.getTime());
+        final KnowledgeBase base = this.getMemory().getKnowledgeBase();
+        return base == null ? null : base.getBelief(term, taskSentence);
+    }
+
+    /**
+     * 🆕获取词项的概念的优先级，无概念则为0
+     * * 🚩同{@link #termToBelief}
+     */
+    public default float termToConceptPriority(Term term) {
+        final Concept concept = this.termToConcept(term);
+        if (concept != null)
+            return concept.getPriority();
+        final ShardRouter router = this.getShardRouter();
+        if (router != null && !router.owns(term))
+            return router.getPriority(term, this.getTime());
+        final KnowledgeBase base = this.getMemory().getKnowledgeBase();
+        return base == null ? 0f : base.getPriority(term);
+    }
 }
@@ -18,6 +18,12 @@ public class Parameters {
     /* ---------- time management ---------- */
     /** Task decay rate in TaskBuffer, in [1, 99]. */
     public static final int NEW_TASK_FORGETTING_CYCLE = 1;
+    /**
+     * 🆕Whether Bags forget lazily, by the number of accesses an Item has sat
+     * through, instead of once on every put-back. Set with
+     * {@code -Dnars.lazyForgetting=true}.
+     */
+    public static final boolean LAZY_FORGETTING = Boolean.getBoolean("nars.lazyForgetting");
     /** Maximum TermLinks checked for novelty for each TaskLink in TermLinkBag */
     public static final int MAX_MATCHED_TERM_LINK = 10;
     /** Maximum TermLinks used in reasoning for each Task in Concept */
@@ -57,10 +63,74 @@ public class Parameters {
      * management (fixed)
      */
     public static final int BAG_THRESHOLD = 10;
+    /**
+     * 🆕Level granularity of ConceptBag, defaulting to {@link #BAG_LEVEL}. Set
+     * with {@code -Dnars.conceptBagLevel=N}.
+     */
+    public static final int CONCEPT_BAG_LEVEL = Integer.getInteger("nars.conceptBagLevel", BAG_LEVEL);
+    /** 🆕Level separation of ConceptBag, at the same relative height as {@link #BAG_THRESHOLD} */
+    public static final int CONCEPT_BAG_THRESHOLD = CONCEPT_BAG_LEVEL * BAG_THRESHOLD / BAG_LEVEL;
+    /**
+     * 🆕Level granularity of TaskLinkBag and TermLinkBag, defaulting to
+     * {@link #BAG_LEVEL}. Set with {@code -Dnars.linkBagLevel=N}.
+     */
+    public static final int LINK_BAG_LEVEL = Integer.getInteger("nars.linkBagLevel", BAG_LEVEL);
+    /** 🆕Level separation of TaskLinkBag and TermLinkBag */
+    public static final int LINK_BAG_THRESHOLD = LINK_BAG_LEVEL * BAG_THRESHOLD / BAG_LEVEL;
+    /** 🆕Maximum number of display refreshes per second for each observed Bag */
+    public static final int BAG_OBSERVER_REFRESH_RATE = 20;
     /** Hashtable load factor in Bag */
     public static final float LOAD_FACTOR = 0.5f;
+    /**
+     * 🆕Whether the ConceptBag samples exactly by priority with a sum tree
+     * instead of by levels. Set with {@code -Dnars.exactConceptBag=true}.
+     */
+    public static final boolean EXACT_CONCEPT_BAG = Boolean.getBoolean("nars.exactConceptBag");
+    /**
+     * 🆕Whether the ConceptBag is a thread-safe level bag, so that Concepts
+     * can be taken out and put back from several threads; ignored when
+     * {@link #EXACT_CONCEPT_BAG} is set. Set with
+     * {@code -Dnars.concurrentConceptBag=true}.
+     */
+    public static final boolean CONCURRENT_CONCEPT_BAG = Boolean.getBoolean("nars.concurrentConceptBag");
     /** Size of ConceptBag */
     public static final int CONCEPT_BAG_SIZE = 10000;
+    /**
+     * 🆕Directory of the archive that keeps Concepts overflowed from the
+     * ConceptBag, to be brought back on demand; no archive if unset. Set with
+     * {@code -Dnars.conceptArchiveDir=DIR}.
+     */
+    public static final String CONCEPT_ARCHIVE_DIR = System.getProperty("nars.conceptArchiveDir");
+    /**
+     * 🆕Concepts in the ConceptBag with priority below this are frozen into a
+     * compact byte form by the dormancy sweep, and thawed when next used; 0
+     * disables. Set with {@code -Dnars.dormantPriority=P}.
+     */
+    public static final float DORMANT_PRIORITY = Float.parseFloat(System.getProperty("nars.dormantPriority", "0"));
+    /**
+     * 🆕Concepts left unused for this many dormancy sweeps are frozen whatever
+     * their priority; 0 disables. Set with {@code -Dnars.dormantAge=N}.
+     */
+    public static final int DORMANT_AGE = Integer.getInteger("nars.dormantAge", 0);
+    /**
+     * 🆕Number of working cycles between two dormancy sweeps, at least 1. Set
+     * with {@code -Dnars.dormantSweepInterval=N}.
+     */
+    public static final int DORMANT_SWEEP_INTERVAL = Math.max(1, Integer.getInteger("nars.dormantSweepInterval", 1000));
+    /**
+     * 🆕Estimated heap bytes the ConceptBag may retain, with its Concepts and
+     * their contents; 0 disables. When set, the lowest Concepts are evicted
+     * while the accounted size is over budget, and the bag holds as many
+     * Concepts as fit rather than {@link #CONCEPT_BAG_SIZE}. Set with
+     * {@code -Dnars.memoryBudget=BYTES}, optionally suffixed k, m or g.
+     */
+    public static final long MEMORY_BUDGET = parseBytes(System.getProperty("nars.memoryBudget", "0"));
+    /**
+     * 🆕Number of working cycles between two full recounts of the accounted
+     * memory size, which catch up with Concepts grown in place; at least 1.
+     * Set with {@code -Dnars.memoryRecountInterval=N}.
+     */
+    public static final int MEMORY_RECOUNT_INTERVAL = Math.max(1, Integer.getInteger("nars.memoryRecountInterval", 1000));
     /** Size of TaskLinkBag */
     public static final int TASK_LINK_BAG_SIZE = 20;
     /** Size of TermLinkBag */
@@ -79,8 +149,61 @@ public class Parameters {
     public static final int MAXIMUM_STAMP_LENGTH = 8;
     /** Remember recently used TermLink on a Task */
     public static final int TERM_LINK_RECORD_LENGTH = 10;
-    /** Maximum number of beliefs kept in a Concept */
-    public static final int MAXIMUM_BELIEF_LENGTH = 7;
-    /** Maximum number of goals kept in a Concept */
-    public static final int MAXIMUM_QUESTIONS_LENGTH = 5;
+    /**
+     * Maximum number of beliefs kept in a Concept. Set with
+     * {@code -Dnars.beliefTableSize=N}.
+     */
+    public static final int MAXIMUM_BELIEF_LENGTH = Integer.getInteger("nars.beliefTableSize", 7);
+    /**
+     * Maximum number of goals kept in a Concept. Set with
+     * {@code -Dnars.questionTableSize=N}.
+     */
+    public static final int MAXIMUM_QUESTIONS_LENGTH = Integer.getInteger("nars.questionTableSize", 5);
+
+    /* ---------- crash recovery ---------- */
+    /**
+     * 🆕Number of working cycles between two checkpoints of a journaled
+     * Reasoner, at least 1. Set with {@code -Dnars.checkpointInterval=N}.
+     */
+    public static final int CHECKPOINT_INTERVAL = Math.max(1, Integer.getInteger("nars.checkpointInterval", 10000));
+    /**
+     * 🆕Longest time in milliseconds the input journal keeps records in its
+     * buffer. Set with {@code -Dnars.journalFlushMillis=N}.
+     */
+    public static final int JOURNAL_FLUSH_MILLIS = Integer.getInteger("nars.journalFlushMillis", 200);
+
+    /* ---------- sharding ---------- */
+    /**
+     * 🆕Capacity of the inbox of each shard of a ShardedReasoner; messages
+     * sent to a full inbox are dropped. Set with
+     * {@code -Dnars.shardInboxSize=N}.
+     */
+    public static final int SHARD_INBOX_SIZE = Integer.getInteger("nars.shardInboxSize", 4096);
+    /**
+     * 🆕Number of working cycles a shard reuses its copy of the beliefs of a
+     * Concept owned by another shard before asking for them again. Set with
+     * {@code -Dnars.shardReplicaCycles=N}.
+     */
+    public static final int SHARD_REPLICA_CYCLES = Integer.getInteger("nars.shardReplicaCycles", 20);
+
+    /* ---------- change stream ---------- */
+    /**
+     * 🆕Default capacity of the ring buffer of each subscriber to the stream of
+     * Memory changes. Set with {@code -Dnars.changeStreamCapacity=N}.
+     */
+    public static final int CHANGE_STREAM_CAPACITY = Integer.getInteger("nars.changeStreamCapacity", 4096);
+
+    /**
+     * 🆕解析字节数，可带k、m、g后缀（按1024进位）
+     *
+     * @param value 如`512m`
+     */
+    private static long parseBytes(String value) {
+        final String v = value.trim().toLowerCase();
+        final int shift = v.endsWith("g") ? 30 : v.endsWith("m") ? 20 : v.endsWith("k") ? 10 : 0;
+        final long bytes = Long.parseLong(shift == 0 ? v : v.substring(0, v.length() - 1)) << shift;
+        if (bytes < 0)
+            throw new IllegalArgumentException("negative byte count: " + value);
+        return bytes;
+    }
 }
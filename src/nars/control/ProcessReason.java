@@ -1,5 +1,6 @@
 package nars.control;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
 
 import nars.entity.Concept;
@@ -187,15 +188,12 @@ public abstract class ProcessReason {
             final Concept concept,
             final TaskLink currentTaskLink) {
         final LinkedList<TermLink> toReasonLinks = new LinkedList<>();
-        int termLinkCount = Parameters.MAX_REASONED_TERM_LINK;
-        // while (self.noResult() && (termLinkCount > 0)) {
-        while (termLinkCount > 0) {
-            final TermLink termLink = concept.takeOutTermLinkFromTaskLink(currentTaskLink, self.getTime());
-            if (termLink == null)
-                break;
+        // * 🚩一次选出至多`MAX_REASONED_TERM_LINK`个词项链
+        final ArrayList<TermLink> selected = concept.takeOutTermLinksFromTaskLink(
+                currentTaskLink, self.getTime(), Parameters.MAX_REASONED_TERM_LINK);
+        for (final TermLink termLink : selected) {
             self.getRecorder().append(" * Selected TermLink: " + termLink + "\n");
             toReasonLinks.add(termLink);
-            termLinkCount--;
         }
         return toReasonLinks;
     }
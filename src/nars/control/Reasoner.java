@@ -1,9 +1,21 @@
 package nars.control;
 
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import nars.control.DerivationContext.DerivationContextCore;
 import nars.entity.Concept;
 import nars.entity.Sentence;
 import nars.entity.Task;
@@ -13,14 +25,20 @@ import nars.inference.InferenceEngineV1;
 import nars.io.IInferenceRecorder;
 import nars.io.IInferenceRecorder.NullInferenceRecorder;
 import nars.io.InputChannel;
+import nars.io.InputJournal;
 import nars.io.OutputChannel;
+import nars.io.SnapshotInput;
+import nars.io.SnapshotOutput;
 import nars.io.StringParser;
 import nars.io.Symbols;
 import nars.main.NARS;
-import nars.storage.Bag;
 import nars.storage.Bag.MergeOrderF;
 import nars.storage.BagObserver;
+import nars.storage.KnowledgeBase;
+import nars.storage.LevelBag;
+import nars.storage.ManagedBag;
 import nars.storage.Memory;
+import nars.storage.ObservableBag;
 
 /**
  * 主推理器
@@ -141,6 +159,42 @@ public class Reasoner {
      */
     private final InferenceEngine inferenceEngine = new InferenceEngineV1();
 
+    /**
+     * 🆕预写输入日志，见{@link #openJournal}
+     *
+     * * 📝可空性：可空 | 未开启日志时为空
+     * * 📝可变性：可变 | 每个检查点换一份
+     * * 📝所有权：具所有权
+     */
+    private InputJournal journal;
+    /**
+     * 🆕存放检查点与日志的目录
+     *
+     * * 📝可空性：可空 | 与{@link #journal}同时为空
+     * * 📝可变性：可变
+     * * 📝所有权：共享
+     */
+    private File journalDir;
+    /** 🆕当前检查点的代数：每次检查点加一，日志文件与之对应 */
+    private long checkpointGeneration;
+    /** 🆕上次检查点时的时钟 */
+    private long checkpointClock;
+    /** 🆕是否正在重放日志：重放时不从输入通道读取，也不向输出通道输出 */
+    private boolean replaying;
+    /** 🆕输入文件已读的行数，见{@link #setInputPosition} */
+    private long inputLines;
+    /** 🆕输入文件读下一行前尚待空转的步数，见{@link #setInputPosition} */
+    private int inputDelay;
+
+    /**
+     * 🆕分片推理中本分片的收发端，见{@link ShardedReasoner}
+     *
+     * * 📝可空性：可空 | 不分片时为空
+     * * 📝可变性：不变 | 仅由{@link ShardedReasoner}在构造后设置一次
+     * * 📝所有权：具所有权
+     */
+    private ShardRouter shardRouter;
+
     /* ---------- Short-term workspace for a single cycle ---------- */
     /**
      * List of new tasks accumulated in one cycle, to be processed in the next
@@ -151,7 +205,7 @@ public class Reasoner {
     /**
      * New tasks with novel composed terms, for delayed and selective processing
      */
-    private final Bag<Task> novelTasks;
+    private final ManagedBag<Task> novelTasks;
     /**
      * List of Strings or Tasks to be sent to the output channels
      */
@@ -178,10 +232,11 @@ public class Reasoner {
         this.outputChannels = new ArrayList<>();
         this.recorder = new NullInferenceRecorder();
         this.newTasks = new LinkedList<>();
-        this.novelTasks = new Bag<Task>(
+        this.novelTasks = new LevelBag<Task>(
                 new AtomicInteger(Parameters.NEW_TASK_FORGETTING_CYCLE),
                 Parameters.TASK_BUFFER_SIZE,
                 (MergeOrderF<Task>) Task::mergeOrder);
+        this.memory.getBagMetrics().registerNovelTaskBag(this.novelTasks);
         this.exportStrings = new ArrayList<>();
     }
 
@@ -190,6 +245,12 @@ public class Reasoner {
      * from {@link MainWindow}.
      */
     public void reset() {
+        this.journal(InputJournal::reset);
+        this.resetState();
+    }
+
+    /** 🆕重置，但不记入日志 */
+    private void resetState() {
         this.running = false;
         this.walkingSteps = 0;
         this.clock = 0;
@@ -200,7 +261,10 @@ public class Reasoner {
         this.newTasks.clear();
         this.novelTasks.init();
         this.exportStrings.clear();
-        this.stampCurrentSerial = 0;
+        // * 🚩使用背景知识库时，新证据从库中证据之后编号
+        final KnowledgeBase base = this.memory.getKnowledgeBase();
+        this.stampCurrentSerial = base == null ? 0 : base.getSerial();
+        this.checkpointClock = 0; // * 🚩时钟归零，检查点的间隔也从头算
         // timer = 0;
     }
 
@@ -208,6 +272,300 @@ public class Reasoner {
         return memory;
     }
 
+    /** 🆕分片推理中本分片的收发端 | 不分片时为空 */
+    public ShardRouter getShardRouter() {
+        return shardRouter;
+    }
+
+    /** 🆕作为分片加入{@link ShardedReasoner} */
+    void setShardRouter(ShardRouter shardRouter) {
+        this.shardRouter = shardRouter;
+    }
+
+    /* ---------- knowledge base ---------- */
+
+    /**
+     * 🆕把当前记忆区中的概念建成只读的背景知识库
+     * * 🎯载入一次大语料，供许多推理器共享
+     *
+     * @return [] 与本推理器再无关联的知识库
+     */
+    public KnowledgeBase toKnowledgeBase() {
+        return KnowledgeBase.of(this.memory, this.stampCurrentSerial);
+    }
+
+    /**
+     * 🆕以共享的背景知识库为起点
+     * * 📌本推理器只保存自己用到或改动过的概念；重置后仍保留知识库
+     * * 🚩时间戳序列号跳到库中证据之后，以免新证据与库中证据误判为重复
+     *
+     * @param base [&] 可空 | 空⇒停用
+     */
+    public void useKnowledgeBase(KnowledgeBase base) {
+        this.memory.useKnowledgeBase(base);
+        if (base != null)
+            this.stampCurrentSerial = Math.max(this.stampCurrentSerial, base.getSerial());
+    }
+
+    /* ---------- snapshot ---------- */
+
+    /**
+     * 🆕把推理器的完整状态存为二进制快照
+     * * 🎯重启后免去重新输入经验、重新推导
+     * * 📌包括：时钟、计时器、时间戳序列号、剩余步数、静默等级、记忆区（概念及其信念、问题、链接）、
+     * * 新近任务袋、新任务、待输出的字符串，以及「推理上下文」所用的随机数状态
+     * * 📌不包括：输入输出通道、运行开关、记录器与袋的计数
+     * * 📝还原后继续运行，与不经快照直接运行的轨迹完全相同
+     *
+     * @param output The stream to write to; not closed
+     */
+    public void saveSnapshot(OutputStream output) throws IOException {
+        final SnapshotOutput out = new SnapshotOutput(output);
+        out.writeHeader();
+        out.writeLong(this.clock);
+        out.writeLong(this.timer);
+        out.writeLong(this.stampCurrentSerial);
+        out.writeInt(this.walkingSteps);
+        out.writeInt(this.silenceValue.get());
+        this.memory.writeSnapshot(out);
+        this.novelTasks.writeState(out, out::writeTask);
+        out.writeInt(this.newTasks.size());
+        for (final Task task : this.newTasks)
+            out.writeTask(task);
+        out.writeInt(this.exportStrings.size());
+        for (final String s : this.exportStrings)
+            out.writeUTF(s);
+        out.writeRandom(DerivationContextCore.randomNumber);
+        out.flush();
+    }
+
+    /**
+     * 🆕从{@link #saveSnapshot}存下的快照还原推理器
+     * * 🚩直接重建各对象，不经推理
+     * * ⚠️快照损坏或与当前参数（袋的容量、层级）不符⇒{@link IOException}，此时推理器的状态不完整，应{@link #reset}
+     *
+     * @param input The stream to read from; not closed, may be read past the end of the snapshot
+     */
+    public void loadSnapshot(InputStream input) throws IOException {
+        final SnapshotInput in = new SnapshotInput(input);
+        in.readHeader();
+        this.newTasks.clear();
+        this.exportStrings.clear();
+        this.clock = in.readLong();
+        this.timer = in.readLong();
+        this.stampCurrentSerial = in.readLong();
+        this.walkingSteps = in.readInt();
+        this.silenceValue.set(in.readInt());
+        this.memory.readSnapshot(in);
+        this.novelTasks.readState(in, in::readTask);
+        for (int n = in.readInt(); n > 0; n--)
+            this.newTasks.add(in.readTask());
+        for (int n = in.readInt(); n > 0; n--)
+            this.exportStrings.add(in.readUTF());
+        DerivationContextCore.randomNumber = in.readRandom();
+    }
+
+    /* ---------- journal ---------- */
+
+    /** 🆕检查点的文件名 */
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    /**
+     * 🆕在目录中开启预写输入日志，此后定期存检查点
+     * * 🎯长时间运行中途崩溃后，从最近的检查点加日志重放恢复，而非从头开始
+     * * 📌日志记下{@link #textInputLine}、{@link #walk}、{@link #run}、{@link #stop}、{@link #reset}、
+     * * {@link #handleOutput}与时钟滴答
+     * * * 这些与固定种子的随机数一起，完全决定推理器的运行
+     * * 📌每隔{@link Parameters#CHECKPOINT_INTERVAL}个工作周期存一次检查点（快照），并换用新的日志
+     * * 🚩目录中已有检查点⇒先还原它并重放其后的日志（即崩溃恢复），再存一个新的检查点
+     * * ⚠️不记入日志：直接对{@link #getSilenceValue}、记忆区的遗忘速率等的修改，只在下一个检查点生效
+     * * 📌输入文件已读到的位置（见{@link #setInputPosition}）随之恢复：读取器据此跳过已读的行，从中断处续读
+     * * ⚠️其它输入通道不会随之恢复：恢复后须由调用者从中断处继续输入
+     *
+     * @param dir [] 存放检查点与日志的目录 | 不存在则新建
+     */
+    public void openJournal(File dir) throws IOException {
+        this.closeJournal();
+        Files.createDirectories(dir.toPath());
+        final File checkpoint = new File(dir, CHECKPOINT_FILE);
+        long generation = 0;
+        if (checkpoint.exists()) {
+            // * 🚩还原检查点
+            try (DataInputStream in = new DataInputStream(
+                    new BufferedInputStream(new FileInputStream(checkpoint), 1 << 16))) {
+                generation = in.readLong();
+                final boolean running = in.readBoolean();
+                this.inputLines = in.readLong();
+                this.inputDelay = in.readInt();
+                this.loadSnapshot(in);
+                this.running = running;
+            }
+            // * 🚩重放其后的日志 | 在存新检查点前崩溃⇒日志可能尚未建立
+            final File journalFile = journalFile(dir, generation);
+            if (journalFile.exists())
+                this.replayJournal(journalFile, generation);
+        }
+        this.journalDir = dir;
+        this.checkpointGeneration = generation;
+        this.checkpoint();
+    }
+
+    /**
+     * 🆕立即存一个检查点，并换用新的日志
+     * * 🚩先落盘旧日志；新检查点写完并同步后，原子地替换旧检查点，再删除旧日志
+     * * 📝任一步中途崩溃，目录中总有一对一致的检查点与日志
+     */
+    public void checkpoint() throws IOException {
+        if (this.journalDir == null)
+            throw new IllegalStateException("no journal opened");
+        if (this.journal != null)
+            this.journal.flush();
+        final long generation = this.checkpointGeneration + 1;
+        final File temp = new File(this.journalDir, CHECKPOINT_FILE + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(temp)) {
+            final DataOutputStream out = new DataOutputStream(file);
+            out.writeLong(generation);
+            out.writeBoolean(this.running);
+            out.writeLong(this.inputLines);
+            out.writeInt(this.inputDelay);
+            this.saveSnapshot(file);
+            file.getFD().sync();
+        }
+        final InputJournal next = new InputJournal(
+                journalFile(this.journalDir, generation), generation, Parameters.JOURNAL_FLUSH_MILLIS);
+        Files.move(temp.toPath(), new File(this.journalDir, CHECKPOINT_FILE).toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        if (this.journal != null)
+            this.journal.close();
+        Files.deleteIfExists(journalFile(this.journalDir, this.checkpointGeneration).toPath());
+        this.journal = next;
+        this.checkpointGeneration = generation;
+        this.checkpointClock = this.clock;
+    }
+
+    /**
+     * 🆕把日志中尚在缓冲的记录交给操作系统
+     * * 📌平时按{@link Parameters#JOURNAL_FLUSH_MILLIS}自动落盘；此处用于需要立即落盘的场合
+     */
+    public void flushJournal() throws IOException {
+        if (this.journal != null)
+            this.journal.flush();
+    }
+
+    /** 🆕关闭日志；检查点与日志留在目录中，可再次{@link #openJournal} */
+    public void closeJournal() throws IOException {
+        if (this.journal != null)
+            this.journal.close();
+        this.journal = null;
+        this.journalDir = null;
+    }
+
+    /**
+     * 🆕记下输入文件已读到的位置，随检查点与日志保存
+     * * 🎯批处理从日志恢复后，读取器跳过崩溃前已读的行，不再从头重读输入文件
+     * * 📌由{@link nars.io.ExperienceReader}在读入每行的输入之前、及每次空转之后调用
+     *
+     * @param lines [] 已读的行数
+     * @param delay [] 读下一行前尚待空转的步数
+     */
+    public void setInputPosition(long lines, int delay) {
+        this.inputLines = lines;
+        this.inputDelay = delay;
+        if (this.journal != null)
+            this.journal.position(lines, delay);
+    }
+
+    /** 🆕输入文件已读的行数 | 从日志恢复后即崩溃前读到的位置 */
+    public long getInputLines() {
+        return this.inputLines;
+    }
+
+    /** 🆕输入文件读下一行前尚待空转的步数 */
+    public int getInputDelay() {
+        return this.inputDelay;
+    }
+
+    private static File journalFile(File dir, long generation) {
+        return new File(dir, "journal-" + generation);
+    }
+
+    /** 🆕重放日志：不再记入日志，也不经过输入输出通道 */
+    private void replayJournal(File journalFile, long generation) throws IOException {
+        this.replaying = true;
+        try {
+            InputJournal.replay(journalFile, generation, new InputJournal.Replayer() {
+                @Override
+                public void line(String text) {
+                    Reasoner.this.textInputLine(text);
+                }
+
+                @Override
+                public void walk(int steps) {
+                    Reasoner.this.walk(steps);
+                }
+
+                @Override
+                public void run() {
+                    Reasoner.this.run();
+                }
+
+                @Override
+                public void stop() {
+                    Reasoner.this.stop();
+                }
+
+                @Override
+                public void reset() {
+                    Reasoner.this.reset();
+                }
+
+                @Override
+                public void ticks(long n) {
+                    for (long i = 0; i < n; i++)
+                        Reasoner.this.tick();
+                }
+
+                @Override
+                public void output() {
+                    Reasoner.this.handleOutput();
+                }
+
+                @Override
+                public void position(long lines, int delay) {
+                    Reasoner.this.setInputPosition(lines, delay);
+                }
+            });
+        } finally {
+            this.replaying = false;
+        }
+    }
+
+    /** 🆕写日志的一步操作 */
+    @FunctionalInterface
+    private interface JournalAction {
+        void apply(InputJournal journal) throws IOException;
+    }
+
+    /**
+     * 🆕记入日志（若已开启）
+     * * 🚩写入失败⇒报告并关闭日志，推理照常进行
+     */
+    private void journal(JournalAction action) {
+        if (this.journal == null)
+            return;
+        try {
+            action.apply(this.journal);
+        } catch (IOException e) {
+            System.out.println("i/o error: journal disabled: " + e.getMessage());
+            try {
+                this.closeJournal();
+            } catch (IOException ignored) {
+                this.journal = null;
+                this.journalDir = null;
+            }
+        }
+    }
+
     public void addInputChannel(InputChannel channel) {
         inputChannels.add(channel);
     }
@@ -237,6 +595,7 @@ public class Reasoner {
      * Start the inference process
      */
     public void run() {
+        this.journal(InputJournal::run);
         running = true;
     }
 
@@ -246,6 +605,7 @@ public class Reasoner {
      * @param n The number of inference steps to be carried
      */
     public void walk(int n) {
+        this.journal(journal -> journal.walk(n));
         walkingSteps = n;
     }
 
@@ -253,6 +613,7 @@ public class Reasoner {
      * Will stop the inference process
      */
     public void stop() {
+        this.journal(InputJournal::stop);
         running = false;
     }
 
@@ -265,9 +626,20 @@ public class Reasoner {
             handleDebug();
 
         handleInput();
+        // * 🚩分片时先处理别的分片送来的消息
+        if (this.shardRouter != null)
+            this.shardRouter.receive(this);
         // forward to output Channels
-        handleOutput();
+        deliverOutput();
         handleWorkCycle();
+        // * 🚩补发本记忆区中被观察的袋尚未显示的变动
+        this.memory.getBagMetrics().observedBags().publishPending();
+        // * 🚩记入日志，到期则存检查点
+        if (this.journal != null) {
+            this.journal(InputJournal::tick);
+            if (this.clock - this.checkpointClock >= Parameters.CHECKPOINT_INTERVAL)
+                this.journal(journal -> this.checkpoint());
+        }
     }
 
     private void handleDebug() {
@@ -282,7 +654,7 @@ public class Reasoner {
     }
 
     private void handleInput() {
-        if (walkingSteps == 0) {
+        if (walkingSteps == 0 && !replaying) {
             boolean reasonerShouldRun = false;
             for (final InputChannel channelIn : inputChannels) {
                 reasonerShouldRun = reasonerShouldRun
@@ -293,11 +665,22 @@ public class Reasoner {
     }
 
     public void handleOutput() {
+        if (!this.exportStrings.isEmpty())
+            this.journal(InputJournal::output);
+        this.deliverOutput();
+    }
+
+    /**
+     * 🆕把待输出的字符串交给输出通道，不记入日志
+     * * 🚩重放日志时只清空：这些输出在崩溃前已经给出过
+     */
+    private void deliverOutput() {
         final ArrayList<String> output = this.exportStrings;
         if (!output.isEmpty()) {
-            for (final OutputChannel channelOut : outputChannels) {
-                channelOut.nextOutput(output);
-            }
+            if (!replaying)
+                for (final OutputChannel channelOut : outputChannels) {
+                    channelOut.nextOutput(output);
+                }
             output.clear(); // this will trigger display the current value of timer in Memory.report()
         }
     }
@@ -307,6 +690,12 @@ public class Reasoner {
             clock++;
             tickTimer();
             workCycle();
+            // * 🚩定期冻结长期不用的概念
+            if (clock % Parameters.DORMANT_SWEEP_INTERVAL == 0)
+                this.memory.compactDormantConcepts();
+            // * 🚩定期重算按字节预算的占用
+            if (clock % Parameters.MEMORY_RECOUNT_INTERVAL == 0)
+                this.memory.recountFootprint();
             if (walkingSteps > 0) {
                 walkingSteps--;
             }
@@ -407,9 +796,15 @@ public class Reasoner {
         context.absorbedByReasoner(this);
     }
 
-    /** 🆕对外接口：添加新任务 */
+    /**
+     * 🆕对外接口：添加新任务
+     * * 🚩分片时，内容的概念属于别的分片⇒交给那个分片
+     */
     public final void addNewTask(Task newTask) {
-        this.newTasks.add(newTask);
+        if (this.shardRouter != null && !this.shardRouter.owns(newTask.getContent()))
+            this.shardRouter.sendTask(newTask);
+        else
+            this.newTasks.add(newTask);
     }
 
     /** 🆕对外接口：判断「是否有新任务」 */
@@ -454,15 +849,16 @@ public class Reasoner {
         if (text.isEmpty()) {
             return;
         }
+        this.journal(journal -> journal.line(text));
         char c = text.charAt(0);
         if (c == Symbols.RESET_MARK) {
-            reset();
+            resetState();
             this.exportStrings.add(text);
         } else if (c != Symbols.COMMENT_MARK) {
             // read NARS language or an integer : TODo duplicated code
             try {
                 final int i = Integer.parseInt(text);
-                walk(i);
+                walkingSteps = i;
             } catch (NumberFormatException e) {
                 final Task task = StringParser.parseExperience(
                         new StringBuffer(text),
@@ -548,7 +944,7 @@ public class Reasoner {
      * {@link ConceptBag#addBagObserver(BagObserver, String)} ;
      *
      * see design for {@link Bag} and {@link nars.gui.BagWindow}
-     * in {@link Bag#addBagObserver(BagObserver, String)}
+     * in {@link ObservableBag#addBagObserver(BagObserver, String)}
      *
      * @param bagObserver bag Observer that will receive notifications
      * @param title       the window title
@@ -556,6 +952,7 @@ public class Reasoner {
     public void conceptsStartPlay(BagObserver<Concept> bagObserver, String title) {
         bagObserver.setBag(this.memory.getConceptBagForDisplay());
         this.memory.getConceptBagForDisplay().addBagObserver(bagObserver, title);
+        this.memory.getBagMetrics().observedBags().add(this.memory.getConceptBagForDisplay());
     }
 
     /**
@@ -568,6 +965,7 @@ public class Reasoner {
     public void taskBuffersStartPlay(BagObserver<Task> bagObserver, String s) {
         bagObserver.setBag(novelTasks);
         novelTasks.addBagObserver(bagObserver, s);
+        this.memory.getBagMetrics().observedBags().add(novelTasks);
     }
 
     @Override
@@ -584,7 +982,7 @@ public class Reasoner {
         return result;
     }
 
-    private String toStringLongIfNotNull(Bag<?> item, String title) {
+    private String toStringLongIfNotNull(ObservableBag<?> item, String title) {
         return item == null ? ""
                 : "\n " + title + ":\n"
                         + item.toStringLong();
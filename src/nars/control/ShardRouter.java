@@ -0,0 +1,240 @@
+package nars.control;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+
+import nars.entity.BudgetValue;
+import nars.entity.Concept;
+import nars.entity.Judgement;
+import nars.entity.Sentence;
+import nars.entity.Task;
+import nars.entity.TaskLink;
+import nars.entity.TermLink;
+import nars.entity.TermLinkTemplate;
+import nars.inference.Budget;
+import nars.language.Term;
+import nars.storage.KnowledgeBase;
+
+/**
+ * 🆕分片推理中一个分片的收发端
+ * * 🎯多个推理器各持一份记忆区，按词项散列划分概念，各自在一个线程上运行（见{@link ShardedReasoner}）
+ * * 📌每个词项的概念只属于一个分片：新任务、指向别的分片的概念的链接，都以消息交给所属分片
+ * * 📌消息在所属分片自己的线程上、两个工作周期之间处理：概念始终只被一个线程访问
+ * * 📌消息只带副本（任务、词项、预算、信念）：分片之间不共享可变对象
+ * * 📌收件箱有界：满⇒丢弃消息并计数，如同袋满时丢弃物品
+ * * 📌别的分片的信念经请求、回复复制到本地（{@link Replica}），在{@link Parameters#SHARD_REPLICA_CYCLES}个周期内复用
+ */
+public final class ShardRouter {
+
+    /** 🆕一条消息：在所属分片的线程上，对其推理器执行 */
+    @FunctionalInterface
+    interface Message {
+        void deliver(Reasoner owner);
+    }
+
+    /**
+     * 🆕别的分片中一个概念的信念的副本
+     * * 📌信念按排名从高到低；概念不存在⇒空
+     * * 📝信念由所属分片复制后送来，此后只读
+     */
+    private static final class Replica {
+        private final Judgement[] beliefs;
+        private final float priority;
+        /** 上次请求（或收到回复）时本分片的时钟 */
+        private long time;
+
+        private Replica(Judgement[] beliefs, float priority, long time) {
+            this.beliefs = beliefs;
+            this.priority = priority;
+            this.time = time;
+        }
+    }
+
+    private static final Judgement[] NO_BELIEFS = new Judgement[0];
+
+    /** 分片的序号 */
+    private final int index;
+    /**
+     * 所有分片的收发端 | 下标即序号
+     *
+     * * 📝可空性：非空
+     * * 📝可变性：不变 | 由{@link ShardedReasoner}构造后填满
+     * * 📝所有权：共享
+     */
+    private final ShardRouter[] shards;
+    /**
+     * 收件箱
+     *
+     * * 📝可空性：非空
+     * * 📝可变性：可变 | 任何分片的线程放入，仅本分片的线程取出
+     * * 📝所有权：具所有权
+     */
+    private final ArrayBlockingQueue<Message> inbox = new ArrayBlockingQueue<>(Parameters.SHARD_INBOX_SIZE);
+    /**
+     * 别的分片的概念的信念副本：词项名称⇒副本
+     *
+     * * 📝可空性：非空
+     * * 📝可变性：可变 | 仅本分片的线程访问
+     * * 📝所有权：具所有权
+     */
+    private final HashMap<String, Replica> replicas = new HashMap<>();
+    /** 一次取出的消息 | 复用 */
+    private final ArrayList<Message> received = new ArrayList<>();
+
+    /** 发出的消息数 | 仅本分片的线程修改 */
+    private long sent;
+    /** 因对方收件箱已满而丢弃的消息数 | 仅本分片的线程修改 */
+    private long dropped;
+
+    ShardRouter(int index, ShardRouter[] shards) {
+        this.index = index;
+        this.shards = shards;
+    }
+
+    /**
+     * 词项的概念所属的分片
+     * * 🚩按名称散列：与运行顺序无关，同名词项总在同一分片
+     */
+    public static int shardOf(Term term, int shardCount) {
+        final int h = term.getName().hashCode() * 0x9E3779B9;
+        return Math.floorMod(h ^ (h >>> 16), shardCount);
+    }
+
+    /** 词项的概念是否属于本分片 */
+    public boolean owns(Term term) {
+        return shardOf(term, this.shards.length) == this.index;
+    }
+
+    public int getIndex() {
+        return this.index;
+    }
+
+    public long getSent() {
+        return this.sent;
+    }
+
+    public long getDropped() {
+        return this.dropped;
+    }
+
+    /** 发给词项的概念所属的分片 */
+    private void send(Term term, Message message) {
+        this.send(shardOf(term, this.shards.length), message);
+    }
+
+    private void send(int shard, Message message) {
+        this.sent++;
+        if (!this.shards[shard].inbox.offer(message))
+            this.dropped++;
+    }
+
+    /**
+     * 🆕处理收件箱中已有的消息
+     * * 🚩在本分片的线程上、工作周期之外调用；处理中新到的消息留到下一次
+     */
+    void receive(Reasoner self) {
+        this.inbox.drainTo(this.received);
+        for (final Message message : this.received)
+            message.deliver(self);
+        this.received.clear();
+    }
+
+    /** 🆕清空收件箱与副本 | 计数保留 */
+    void clear() {
+        this.inbox.clear();
+        this.replicas.clear();
+    }
+
+    /* ---------- messages ---------- */
+
+    /**
+     * 🆕复制一份任务，交给别的分片
+     * * 🎯分片之间不共享可变对象：任务的预算只由持有它的分片修改
+     * * 🚩语句（连同内容词项）、预算、父信念、最优解都复制；父任务只复制一层，只读其内容
+     */
+    private static Task detach(Task task) {
+        final Task parent = task.getParentTask();
+        final Task parentCopy = parent == null ? null : new Task(parent, parent, null, null, null);
+        return new Task(task, task, parentCopy, task.getParentBelief(), task.getBestSolution());
+    }
+
+    /** 新任务：复制后交给所属分片的「新任务」 */
+    void sendTask(Task task) {
+        final Task copy = detach(task);
+        this.send(copy.getContent(), owner -> owner.addNewTask(copy));
+    }
+
+    /**
+     * 任务链：插入所属分片中词项的概念（必要时新建）
+     * * 🚩链接到任务的副本：在别的分片中被修改的预算不影响本分片
+     */
+    void sendTaskLink(Term term, Task task, TermLinkTemplate template, Budget subBudget) {
+        final Term component = term.clone();
+        final TaskLink link = TaskLink.fromTemplate(detach(task), template, subBudget);
+        this.send(term, owner -> ConceptLinking.receiveTaskLink(owner.getMemory(), component, link));
+    }
+
+    /**
+     * 词项链「元素⇒整体」：插入所属分片中元素的概念（必要时新建），复合词项再向下建立词项链
+     * * 🚩词项与预算都复制
+     */
+    void sendTermLink(Term component, Term whole, TermLinkTemplate template, Budget subBudget) {
+        final Term target = component.clone();
+        final TermLink link = TermLink.fromTemplate(whole.clone(), template, subBudget);
+        final Budget budget = BudgetValue.from(subBudget);
+        this.send(component, owner -> ConceptLinking.receiveTermLink(owner, target, link, budget));
+    }
+
+    /* ---------- replicas ---------- */
+
+    /**
+     * 🆕别的分片中词项的概念里，与任务的证据基不重复的最好信念
+     * * 🚩没有副本或副本已过期⇒向所属分片请求；回复到来前用旧的副本，没有则视作没有信念
+     *
+     * @param time 本分片的当前时间
+     * @return 信念的拷贝 / 空
+     */
+    Judgement getBelief(Term term, Sentence taskSentence, long time) {
+        for (final Judgement belief : this.replicaOf(term, time).beliefs)
+            if (!taskSentence.evidentialOverlap(belief))
+                return (Judgement) belief.sentenceClone();
+        return null;
+    }
+
+    /** 🆕别的分片中词项的概念的优先级 | 规则同{@link #getBelief} */
+    float getPriority(Term term, long time) {
+        return this.replicaOf(term, time).priority;
+    }
+
+    private Replica replicaOf(Term term, long time) {
+        final String name = term.getName();
+        Replica replica = this.replicas.get(name);
+        if (replica == null) {
+            replica = new Replica(NO_BELIEFS, 0f, time);
+            this.replicas.put(name, replica);
+        } else if (time - replica.time < Parameters.SHARD_REPLICA_CYCLES)
+            return replica;
+        replica.time = time;
+        final int requester = this.index;
+        this.send(term, owner -> owner.getShardRouter().answer(owner, term, requester));
+        return replica;
+    }
+
+    /** 所属分片：把概念的信念与优先级复制一份，回复给请求者 */
+    private void answer(Reasoner self, Term term, int requester) {
+        final Concept concept = self.getMemory().termToConcept(term);
+        final KnowledgeBase base = self.getMemory().getKnowledgeBase();
+        final ArrayList<Judgement> beliefs = new ArrayList<>();
+        if (concept != null)
+            for (final Judgement belief : concept.getBeliefs())
+                beliefs.add((Judgement) belief.sentenceClone());
+        // * 🚩尚未复制的概念⇒用背景知识库中的信念（只读，可直接共享）
+        final Judgement[] copied = concept == null && base != null ? base.beliefsOf(term)
+                : beliefs.toArray(NO_BELIEFS);
+        final float priority = concept != null ? concept.getPriority() : base != null ? base.getPriority(term) : 0f;
+        final String name = term.getName();
+        this.send(requester, owner -> owner.getShardRouter().replicas.put(
+                name, new Replica(copied, priority, owner.getTime())));
+    }
+}
@@ -0,0 +1,201 @@
+package nars.control;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import nars.entity.Task;
+import nars.io.OutputChannel;
+import nars.io.StringParser;
+import nars.io.Symbols;
+
+/**
+ * 🆕分片推理器：多个推理器并行运行，按词项散列划分概念
+ * * 🎯单个记忆区、单个工作周期只能用满一个核
+ * * 📌每个分片是一个完整的{@link Reasoner}，有自己的记忆区与时钟，在自己的线程上运行工作周期
+ * * 📌词项的概念只属于一个分片（{@link ShardRouter#shardOf}）：输入的任务直接交给所属分片，
+ * * 推导出的新任务、指向别的分片的概念的任务链与词项链，经有界的收件箱送到所属分片
+ * * 📌推理中用到别的分片的信念时，用请求得来的副本，见{@link ShardRouter}
+ * * 📌各分片的时钟同步前进：{@link #walk}让每个分片走相同的步数，全部走完才返回
+ * * ⚠️与单个推理器相比：
+ * * * 结果依线程调度而定，不可重现；别的分片的信念晚几个周期才可见；收件箱满时丢弃消息
+ * * * 送到别的分片的任务是副本：两个分片各自调整其预算，不再互相影响
+ * * ⚠️除{@link #walk}在分片线程上运行外，各方法应在同一个线程上调用
+ */
+public class ShardedReasoner {
+
+    /** 各分片 | 下标即序号 */
+    private final Reasoner[] shards;
+    /** 各分片的收发端 | 下标即序号 */
+    private final ShardRouter[] routers;
+    /** 运行各分片的线程，每个分片一个 */
+    private final ExecutorService workers;
+    /** 各分片输出的字符串 | 由分片线程放入，由{@link #handleOutput}取出 */
+    private final ConcurrentLinkedQueue<String> pendingOutput = new ConcurrentLinkedQueue<>();
+    /** 输出通道 */
+    private final ArrayList<OutputChannel> outputChannels = new ArrayList<>();
+    /** 输入任务的时间戳序列号：各分片共用一个，以免证据基误判为重叠 */
+    private long stampCurrentSerial = 0;
+
+    /**
+     * @param shardCount 分片数，一般为可用的核数
+     */
+    public ShardedReasoner(int shardCount) {
+        if (shardCount < 1)
+            throw new IllegalArgumentException("shard count must be positive: " + shardCount);
+        this.shards = new Reasoner[shardCount];
+        this.routers = new ShardRouter[shardCount];
+        final OutputChannel collector = new OutputChannel() {
+            @Override
+            public void nextOutput(ArrayList<String> output) {
+                pendingOutput.addAll(output);
+            }
+
+            @Override
+            public void tickTimer() {
+            }
+        };
+        for (int i = 0; i < shardCount; i++) {
+            this.routers[i] = new ShardRouter(i, this.routers);
+            this.shards[i] = new Reasoner("shard-" + i);
+            this.shards[i].setShardRouter(this.routers[i]);
+            this.shards[i].addOutputChannel(collector);
+        }
+        final AtomicInteger threads = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(shardCount, runnable -> {
+            final Thread thread = new Thread(runnable, "NARS shard " + threads.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public int getShardCount() {
+        return this.shards.length;
+    }
+
+    /** 第`i`个分片 | 只应在{@link #walk}之外访问 */
+    public Reasoner getShard(int i) {
+        return this.shards[i];
+    }
+
+    /** 任务内容的概念所属的分片 */
+    public Reasoner shardOf(Task task) {
+        return this.shards[ShardRouter.shardOf(task.getContent(), this.shards.length)];
+    }
+
+    /** 当前时间 | 各分片的时钟同步前进 */
+    public long getTime() {
+        return this.shards[0].getTime();
+    }
+
+    public void addOutputChannel(OutputChannel channel) {
+        this.outputChannels.add(channel);
+    }
+
+    public void removeOutputChannel(OutputChannel channel) {
+        this.outputChannels.remove(channel);
+    }
+
+    /** 重置所有分片，清空收件箱 */
+    public void reset() {
+        for (int i = 0; i < this.shards.length; i++) {
+            this.shards[i].reset();
+            this.routers[i].clear();
+        }
+        this.pendingOutput.clear();
+        this.stampCurrentSerial = 0;
+    }
+
+    /**
+     * To process a line of input text
+     * * 🚩同{@link Reasoner#textInputLine}，但：整数⇒立即{@link #walk}；任务⇒交给所属分片
+     */
+    public void textInputLine(String text) {
+        if (text.isEmpty())
+            return;
+        final char c = text.charAt(0);
+        if (c == Symbols.RESET_MARK) {
+            this.reset();
+            this.pendingOutput.add(text);
+        } else if (c != Symbols.COMMENT_MARK) {
+            try {
+                this.walk(Integer.parseInt(text));
+            } catch (NumberFormatException e) {
+                final Task task = StringParser.parseExperience(
+                        new StringBuffer(text),
+                        this.shards[0].getMemory(),
+                        ++this.stampCurrentSerial,
+                        this.getTime());
+                if (task != null)
+                    this.shardOf(task).inputTask(task);
+            }
+        }
+    }
+
+    /**
+     * 各分片在自己的线程上并行运行若干个工作周期
+     * * 🚩每个周期先处理收件箱，再运行工作周期；全部分片走完才返回
+     *
+     * @param cycles 每个分片运行的周期数
+     */
+    public void walk(int cycles) {
+        final ArrayList<Future<?>> running = new ArrayList<>(this.shards.length);
+        for (final Reasoner shard : this.shards)
+            running.add(this.workers.submit(() -> {
+                shard.walk(cycles);
+                for (int i = 0; i < cycles; i++)
+                    shard.tick();
+            }));
+        for (final Future<?> future : running) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("interrupted while walking shards", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("shard failed", e.getCause());
+            }
+        }
+    }
+
+    /**
+     * 把各分片的输出交给输出通道
+     * * 🚩先让各分片交出尚未输出的字符串，以免在下一次{@link #walk}前被重置清空
+     */
+    public void handleOutput() {
+        for (final Reasoner shard : this.shards)
+            shard.handleOutput();
+        if (this.pendingOutput.isEmpty())
+            return;
+        final ArrayList<String> output = new ArrayList<>();
+        for (String s; (s = this.pendingOutput.poll()) != null;)
+            output.add(s);
+        for (final OutputChannel channel : this.outputChannels)
+            channel.nextOutput(output);
+    }
+
+    /** 分片间发出的消息总数 */
+    public long getMessagesSent() {
+        long sent = 0;
+        for (final ShardRouter router : this.routers)
+            sent += router.getSent();
+        return sent;
+    }
+
+    /** 因收件箱已满而丢弃的消息总数 */
+    public long getMessagesDropped() {
+        long dropped = 0;
+        for (final ShardRouter router : this.routers)
+            dropped += router.getDropped();
+        return dropped;
+    }
+
+    /** 停止分片线程 | 此后不能再{@link #walk} */
+    public void shutdown() {
+        this.workers.shutdown();
+    }
+}
@@ -7,31 +7,28 @@ import nars.inference.*;
  * average).
  */
 public class BudgetValue implements Cloneable, Budget {
-    /** The relative share of time resource to be allocated */
-    protected final ShortFloat priority;
     /**
-     * The percent of priority to be kept in a constant period; All priority
-     * values “decay” over time, though at different rates. Each item is given a
-     * “durability” factor in (0, 1) to specify the percentage of priority level
-     * left after each reevaluation
+     * The three factors, packed as in {@link Budget#packBudget}
+     * <p>
+     * Priority: the relative share of time resource to be allocated
+     * <p>
+     * Durability: the percent of priority to be kept in a constant period; All
+     * priority values “decay” over time, though at different rates. Each item is
+     * given a “durability” factor in (0, 1) to specify the percentage of priority
+     * level left after each reevaluation
+     * <p>
+     * Quality: the overall (context-independent) evaluation
      */
-    protected final ShortFloat durability;
-    /** The overall (context-independent) evaluation */
-    protected final ShortFloat quality;
+    private long budget;
 
     @Override
-    public ShortFloat __priority() {
-        return this.priority;
+    public long __budget() {
+        return this.budget;
     }
 
     @Override
-    public ShortFloat __durability() {
-        return this.durability;
-    }
-
-    @Override
-    public ShortFloat __quality() {
-        return this.quality;
+    public void __budget(long budget) {
+        this.budget = budget;
     }
 
     /**
@@ -43,9 +40,7 @@ public class BudgetValue implements Cloneable, Budget {
      * @param q Initial quality
      */
     public BudgetValue(final float p, final float d, final float q) {
-        this.priority = new ShortFloat(p);
-        this.durability = new ShortFloat(d);
-        this.quality = new ShortFloat(q);
+        this.budget = Budget.packBudget(p, d, q);
     }
 
     /**
@@ -54,10 +49,7 @@ public class BudgetValue implements Cloneable, Budget {
      * @param v Budget value to be cloned
      */
     protected BudgetValue(Budget v) {
-        // priority = new ShortFloat(v.getPriority());
-        // durability = new ShortFloat(v.getDurability());
-        // quality = new ShortFloat(v.getQuality());
-        this(v.getPriority(), v.getDurability(), v.getQuality());
+        this.budget = v.__budget();
     }
 
     /** 🎯兼容null的构造函数 */
@@ -70,7 +62,7 @@ public class BudgetValue implements Cloneable, Budget {
      */
     @Override
     public BudgetValue clone() {
-        return new BudgetValue(this.getPriority(), this.getDurability(), this.getQuality());
+        return new BudgetValue(this);
     }
 
     /**
@@ -79,9 +71,7 @@ public class BudgetValue implements Cloneable, Budget {
     @Override
     public boolean equals(Object that) {
         return (that instanceof BudgetValue
-                && this.getPriority() == ((BudgetValue) that).getPriority()
-                && this.getDurability() == ((BudgetValue) that).getDurability()
-                && this.getQuality() == ((BudgetValue) that).getQuality());
+                && this.budget == ((BudgetValue) that).budget);
     }
 
     /**
@@ -1,20 +1,30 @@
 package nars.entity;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import nars.control.ConceptLinking;
 import nars.control.Parameters;
 import nars.inference.Budget;
 import nars.inference.BudgetFunctions;
+import nars.io.SnapshotInput;
+import nars.io.SnapshotOutput;
 import nars.io.ToStringBriefAndLong;
 import nars.language.Term;
 import nars.main.NARS;
-import nars.storage.ArrayBuffer;
 import nars.storage.ArrayRankTable;
 import nars.storage.Bag;
+import nars.storage.BagMetrics;
+import nars.storage.BagMetricsRegistry;
 import nars.storage.BagObserver;
+import nars.storage.Footprint;
+import nars.storage.LevelBag;
+import nars.storage.ManagedBag;
 import nars.storage.RankTable;
+import nars.storage.RingBuffer;
 
 /**
  * A concept contains information associated with a term, including directly and
@@ -67,19 +77,19 @@ public final class Concept implements Item, ToStringBriefAndLong {
     /**
      * Task links for indirect processing
      *
-     * * 📝可空性：非空
+     * * 📝可空性：可空 | 仅在冻结时为空，见{@link #freeze}
      * * 📝可变性：可变 | 需要内部修改
      * * 📝所有权：具所有权
      */
-    private final Bag<TaskLink> taskLinks;
+    private ManagedBag<TaskLink> taskLinks;
     /**
      * Term links between the term and its components and compounds
      *
-     * * 📝可空性：非空
+     * * 📝可空性：可空 | 仅在冻结时为空，见{@link #freeze}
      * * 📝可变性：可变 | 需要内部修改
      * * 📝所有权：具所有权
      */
-    private final Bag<TermLink> termLinks;
+    private ManagedBag<TermLink> termLinks;
     /**
      * Link templates of TermLink, only in concepts with CompoundTerm
      * * 🎯用于「复合词项构建词项链」如「链接到任务」
@@ -87,27 +97,37 @@ public final class Concept implements Item, ToStringBriefAndLong {
      * * 📝只会创建「从内部元素链接到自身」（target=）
      * * 📝在{@link ConceptLinking#prepareTermLinkTemplates}中被准备，随后不再变化
      *
-     * * 📝可空性：非空
+     * * 📝可空性：可空 | 仅在冻结时为空，解冻时重新生成
      * * 📝可变性：不变 | 仅构造时生成
      * * 📝所有权：具所有权
      */
-    private final ArrayList<TermLinkTemplate> linkTemplatesToSelf;
+    private ArrayList<TermLinkTemplate> linkTemplatesToSelf;
     /**
      * Question directly asked about the term
      *
-     * * 📝可空性：非空
+     * * 📝可空性：可空 | 仅在冻结时为空，见{@link #freeze}
      * * 📝可变性：可变 | 需要内部修改
      * * 📝所有权：具所有权
      */
-    private final ArrayBuffer<Task> questions;
+    private RingBuffer<Task> questions;
+    /**
+     * 🆕问题的索引：内容词项→问题
+     * * 🎯按内容查找已有问题时免去遍历
+     * * 📌问题按内容不重复（见「直接推理」中的「查找已有问题」）
+     *
+     * * 📝可空性：可空 | 首次加入问题时才创建
+     * * 📝可变性：可变 | 与{@link #questions}同步
+     * * 📝所有权：具所有权
+     */
+    private HashMap<Term, Task> questionIndex;
     /**
      * Sentences directly made about the term, with non-future tense
      *
-     * * 📝可空性：非空
+     * * 📝可空性：可空 | 仅在冻结时为空，见{@link #freeze}
      * * 📝可变性：可变 | 需要内部修改
      * * 📝所有权：具所有权
      */
-    private final RankTable<Judgement> beliefs;
+    private RankTable<Judgement> beliefs;
     /**
      * The display window
      *
@@ -117,21 +137,60 @@ public final class Concept implements Item, ToStringBriefAndLong {
      */
     private EntityObserver entityObserver = new EntityObserver.NullObserver();
 
-    // impl Budget for Concept
+    /**
+     * 🆕两个链接袋的遗忘速率，以及链接袋计数的去处
+     * * 🎯解冻时重建链接袋
+     *
+     * * 📝可空性：非空
+     * * 📝可变性：不变
+     * * 📝所有权：共享引用 | 属于记忆区
+     */
+    private final AtomicInteger taskLinkForgettingRate, termLinkForgettingRate;
+    private final BagMetricsRegistry bagMetrics;
 
-    @Override
-    public ShortFloat __priority() {
-        return this.token.__priority();
-    }
+    /**
+     * 🆕冻结的内容：信念、问题及其索引、两个链接袋，按快照格式写成的字节
+     * * 🎯长期不被用到的概念只留词项、预算与这份字节，不再持有整套对象
+     * * 📌非空⇒已冻结：{@link #taskLinks}等内容字段均为空；任何访问内容的方法都先解冻
+     * * 📌任务不在其中，只记编号：见{@link #frozenTasks}
+     *
+     * * 📝可空性：可空 | 未冻结时为空
+     * * 📝可变性：不变 | 冻结与解冻时整体替换
+     * * 📝所有权：具所有权
+     */
+    private byte[] frozen;
+    /**
+     * 🆕冻结的内容所引用的任务，下标即{@link #frozen}中的编号
+     * * 🎯解冻出的问题、任务链的目标仍是原先的任务：与其它概念、缓冲区共享，「最优解」与预算的更新各处可见
+     *
+     * * 📝可空性：可空 | 与{@link #frozen}同时为空
+     * * 📝可变性：不变 | 冻结与解冻时整体替换
+     * * 📝所有权：共享
+     */
+    private Task[] frozenTasks;
+    /** 🆕冻结时指向自身的任务链之任务的估算字节数 | 任务仍被持有，冻结后照样计入，见{@link #estimateBytes} */
+    private int frozenTaskBytes;
+    /** 🆕冻结时{@link #isEmpty}的结果 | 冻结期间无需解冻即可回答 */
+    private boolean frozenEmpty;
+    /**
+     * 🆕记忆区按字节预算为此概念计入的字节数
+     * * 🎯移出时减去的正是当初计入的数，而非移出时的估算：两次重算之间的增长不会被多减
+     * * 📌由{@link nars.storage.Memory}在放入与重算时记下，移出时取回
+     */
+    private long chargedBytes;
+    /** 🆕连续未被用到的清扫次数，见{@link #passIdleSweep} */
+    private int idleSweeps = 0;
+
+    // impl Budget for Concept
 
     @Override
-    public ShortFloat __durability() {
-        return this.token.__durability();
+    public long __budget() {
+        return this.token.__budget();
     }
 
     @Override
-    public ShortFloat __quality() {
-        return this.token.__quality();
+    public void __budget(long budget) {
+        this.token.__budget(budget);
     }
 
     // impl Item for Concept
@@ -141,6 +200,11 @@ public final class Concept implements Item, ToStringBriefAndLong {
         return token.getKey();
     }
 
+    @Override
+    public int getKeyId() {
+        return token.getKeyId();
+    }
+
     // impl ToStringBriefAndLong for Concept
 
     /**
@@ -158,7 +222,7 @@ public final class Concept implements Item, ToStringBriefAndLong {
     public String toString() { // called from concept bag
         if (detailedString) {
             // * 🚩同义修正：本身就是「预算值+自身key」
-            return this.token.getBudgetValue().toStringBrief() + " " + this.getKey().toString();
+            return this.token.budgetToStringBrief() + " " + this.getKey().toString();
         } else {
             return getKey();
         }
@@ -171,6 +235,7 @@ public final class Concept implements Item, ToStringBriefAndLong {
      */
     @Override
     public String toStringLong() {
+        this.touch();
         String res = toStringBrief() + " " + getKey()
                 + toStringIfNotNull(termLinks, "termLinks")
                 + toStringIfNotNull(taskLinks, "taskLinks");
@@ -208,6 +273,7 @@ public final class Concept implements Item, ToStringBriefAndLong {
      * @param term                   [R]
      * @param taskLinkForgettingRate [R]
      * @param termLinkForgettingRate [R]
+     * @param bagMetrics             [R] 🆕链接袋累加计数的去处
      * @param initialBudget          [&] 零信任的「预算引用」
      * @param linkTemplatesToSelf    [] 所有到自身的词项链
      * @return []
@@ -215,14 +281,35 @@ public final class Concept implements Item, ToStringBriefAndLong {
     public Concept(
             Term term,
             AtomicInteger taskLinkForgettingRate, AtomicInteger termLinkForgettingRate,
+            BagMetricsRegistry bagMetrics,
             Budget initialBudget,
             ArrayList<TermLinkTemplate> linkTemplatesToSelf) {
         this.token = new Token(term.getName(), initialBudget);
         this.term = term;
-        this.questions = new ArrayBuffer<Task>(Parameters.MAXIMUM_QUESTIONS_LENGTH);
+        this.taskLinkForgettingRate = taskLinkForgettingRate;
+        this.termLinkForgettingRate = termLinkForgettingRate;
+        this.bagMetrics = bagMetrics;
+        this.allocateContents(linkTemplatesToSelf);
+    }
+
+    /**
+     * 🆕新建空的内容：信念表、问题表、两个链接袋
+     * * 🎯构造与解冻共用
+     *
+     * @param linkTemplatesToSelf [] 所有到自身的词项链
+     */
+    private void allocateContents(ArrayList<TermLinkTemplate> linkTemplatesToSelf) {
+        this.questions = new RingBuffer<Task>(Parameters.MAXIMUM_QUESTIONS_LENGTH);
+        this.questionIndex = null;
         this.beliefs = createBeliefTable();
-        this.taskLinks = new Bag<TaskLink>(taskLinkForgettingRate, Parameters.TASK_LINK_BAG_SIZE);
-        this.termLinks = new Bag<TermLink>(termLinkForgettingRate, Parameters.TERM_LINK_BAG_SIZE);
+        this.taskLinks = new LevelBag<TaskLink>(this.taskLinkForgettingRate, Parameters.TASK_LINK_BAG_SIZE,
+                Parameters.LINK_BAG_LEVEL, Parameters.LINK_BAG_THRESHOLD, Bag.KeyMode.Name);
+        // * 🚩词项链的键由词项与链接类型构成，数量有界⇒按整数ID散列
+        this.termLinks = new LevelBag<TermLink>(this.termLinkForgettingRate, Parameters.TERM_LINK_BAG_SIZE,
+                Parameters.LINK_BAG_LEVEL, Parameters.LINK_BAG_THRESHOLD, Bag.KeyMode.Id);
+        // * 🚩同类的链接袋共用计数
+        this.taskLinks.useMetrics(this.bagMetrics.taskLinks());
+        this.termLinks.useMetrics(this.bagMetrics.termLinks());
         // * 🚩只有「复合词项←其内元素」的链接模板
         // * 📝所有信息基于「内容包含」关系
         this.linkTemplatesToSelf = linkTemplatesToSelf;
@@ -251,8 +338,10 @@ public final class Concept implements Item, ToStringBriefAndLong {
         final ArrayRankTable.RankFunction<Judgement> rank = BudgetFunctions::rankBelief;
         // * 🚩直接引用静态方法
         final ArrayRankTable.CompatibleFunction<Judgement> isCompatibleToAdd = Concept::beliefCompatibleToAdd;
+        // * 🚩【2024-06-12】以缓存的「等价键」判重，免去每次构造证据集合
+        final ArrayRankTable.KeyFunction<Judgement> key = Judgement::equivalenceKey;
         // * 🚩现在通过 函数指针/匿名函数 无需额外创建类
-        return new ArrayRankTable<Judgement>(capacity, rank, isCompatibleToAdd);
+        return new ArrayRankTable<Judgement>(capacity, rank, isCompatibleToAdd, key);
     }
 
     /**
@@ -264,6 +353,7 @@ public final class Concept implements Item, ToStringBriefAndLong {
      * @return [&]
      */
     public RankTable<Judgement> getBeliefs() {
+        this.touch();
         return this.beliefs;
     }
 
@@ -274,9 +364,24 @@ public final class Concept implements Item, ToStringBriefAndLong {
      *
      * @param &m-this
      * @param belief  [] The table to be revised
+     * @return [] 被挤出的信念 | 没有⇒空；加入失败⇒所加入的信念
+     */
+    public Judgement addBelief(Judgement belief) {
+        this.touch();
+        return this.beliefs.add(belief);
+    }
+
+    /**
+     * 🆕是否尚无任何内容：没有信念、问题与任务链
+     * * 📝新建后被概念袋立即拒绝的概念即如此
+     *
+     * @param &this
+     * @return []
      */
-    public void addBelief(Judgement belief) {
-        this.beliefs.add(belief);
+    public boolean isEmpty() {
+        if (this.frozen != null)
+            return this.frozenEmpty;
+        return this.beliefs.size() == 0 && this.questions.size() == 0 && this.taskLinks.isEmpty();
     }
 
     /**
@@ -288,6 +393,7 @@ public final class Concept implements Item, ToStringBriefAndLong {
      * @return [&]
      */
     public Iterable<Task> getQuestions() {
+        this.touch();
         return this.questions;
     }
 
@@ -299,8 +405,28 @@ public final class Concept implements Item, ToStringBriefAndLong {
      * @param task    []
      */
     public void addQuestion(final Task task) {
+        this.touch();
         // * 🚩不会添加重复的问题
-        this.questions.add(task);
+        final Task overflow = this.questions.add(task);
+        // * 🚩同步索引：加入新问题，移除被挤出的问题
+        if (this.questionIndex == null)
+            this.questionIndex = new HashMap<>();
+        this.questionIndex.putIfAbsent(task.getContent(), task);
+        if (overflow != null)
+            this.questionIndex.remove(overflow.getContent(), overflow);
+    }
+
+    /**
+     * 🆕对外接口：按内容查找已有问题
+     * * 🚩查索引：O(1)
+     *
+     * @param &this
+     * @param content [&] 问题的内容词项
+     * @return [&] 内容相等的已有问题，或为空
+     */
+    public Task getQuestion(final Term content) {
+        this.touch();
+        return this.questionIndex == null ? null : this.questionIndex.get(content);
     }
 
     /**
@@ -313,6 +439,7 @@ public final class Concept implements Item, ToStringBriefAndLong {
      * @return [&] The template get
      */
     public ArrayList<TermLinkTemplate> getLinkTemplatesToSelf() {
+        this.touch();
         return this.linkTemplatesToSelf;
     }
 
@@ -323,6 +450,7 @@ public final class Concept implements Item, ToStringBriefAndLong {
      * @param termLink []
      */
     public void putInTermLink(TermLink termLink) {
+        this.touch();
         this.termLinks.putIn(termLink);
     }
 
@@ -333,6 +461,7 @@ public final class Concept implements Item, ToStringBriefAndLong {
      * @param taskLink []
      */
     public void putInTaskLink(TaskLink taskLink) {
+        this.touch();
         this.taskLinks.putIn(taskLink);
     }
 
@@ -344,6 +473,7 @@ public final class Concept implements Item, ToStringBriefAndLong {
      * @return [?]
      */
     public TaskLink takeOutTaskLink() {
+        this.touch();
         return this.taskLinks.takeOut();
     }
 
@@ -356,6 +486,7 @@ public final class Concept implements Item, ToStringBriefAndLong {
      * @return []
      */
     public boolean putTaskLinkBack(TaskLink link) {
+        this.touch();
         return this.taskLinks.putBack(link);
     }
 
@@ -368,10 +499,27 @@ public final class Concept implements Item, ToStringBriefAndLong {
      * @return []
      */
     public boolean putTermLinkBack(TermLink link) {
+        this.touch();
         return this.termLinks.putBack(link);
     }
 
     /* ---------- access local information ---------- */
+    /**
+     * 🆕把两个链接袋当前的占用计入给定的计数
+     * * 🎯供{@link BagMetricsRegistry#collect}汇总所有概念的链接袋
+     * * 📌冻结的概念不计入
+     *
+     * @param taskLinkMetrics [&m]
+     * @param termLinkMetrics [&m]
+     */
+    public void addLinkOccupancyTo(BagMetrics taskLinkMetrics, BagMetrics termLinkMetrics) {
+        // * 🚩冻结的概念没有链接袋：不计入，也不为此解冻
+        if (this.frozen != null)
+            return;
+        this.taskLinks.addOccupancyTo(taskLinkMetrics);
+        this.termLinks.addOccupancyTo(termLinkMetrics);
+    }
+
     /**
      * Return the associated term, called from Memory only
      *
@@ -390,6 +538,7 @@ public final class Concept implements Item, ToStringBriefAndLong {
      * @return [] The quality value
      */
     public float termLinksAveragePriority() {
+        this.touch();
         return this.termLinks.averagePriority();
     }
 
@@ -408,6 +557,7 @@ public final class Concept implements Item, ToStringBriefAndLong {
      * @return [?] The selected belief
      */
     public Judgement getBelief(Sentence taskSentence) {
+        this.touch();
         // * 🚩此处按「信念排名」从大到小遍历；第一个满足「证据基不重复」的信念将被抽取
         for (final Judgement belief : beliefs) {
             // * 📝在OpenNARS 3.0.4中会被覆盖：
@@ -428,25 +578,254 @@ public final class Concept implements Item, ToStringBriefAndLong {
      * * 📌特殊的「根据任务链拿出词项链（信念链）」
      * * 🎯在「概念推理」的「准备待推理词项链」的过程中用到
      * * 🔗ProcessReason.chooseTermLinksToReason
+     * * 🚩【2024-06-11】改为一次批量选取：不「新近」的词项链就地遗忘、放回，不再经过「名称表」
+     * * 📌连续{@link Parameters#MAX_MATCHED_TERM_LINK}个词项链都不「新近」⇒停止
      *
      * @param &m-this
      * @param taskLink [&] The selected TaskLink
      * @param time     [] The current time
-     * @return [?] The selected TermLink
-     */
-    public TermLink takeOutTermLinkFromTaskLink(TaskLink taskLink, long time) {
-        for (int i = 0; i < Parameters.MAX_MATCHED_TERM_LINK; i++) {
-            // * 🚩尝试拿出词项链 | 📝此间存在资源竞争
-            final TermLink termLink = this.termLinks.takeOut();
-            if (termLink == null)
-                return null;
-            // * 🚩任务链相对词项链「新近」⇒直接返回
-            if (taskLink.novel(termLink, time))
-                return termLink;
-            // * 🚩当即放回
-            this.termLinks.putBack(termLink);
+     * @param maxCount [] The maximum number of TermLinks to take out
+     * @return [] The selected TermLinks
+     */
+    public ArrayList<TermLink> takeOutTermLinksFromTaskLink(TaskLink taskLink, long time, int maxCount) {
+        this.touch();
+        return this.termLinks.takeOutBatch(
+                maxCount,
+                Parameters.MAX_MATCHED_TERM_LINK,
+                // * 🚩任务链相对词项链「新近」⇒选取
+                termLink -> taskLink.novel(termLink, time));
+    }
+
+    /* ---------- snapshot ---------- */
+
+    /**
+     * 🆕写入快照：词项、预算、信念（按排行）、问题（按先后）及其索引、两个链接袋
+     * * 📌链接模板由词项决定，还原时重新生成
+     *
+     * @param &this
+     * @param out   [&m]
+     */
+    public void writeSnapshot(SnapshotOutput out) throws IOException {
+        out.writeTerm(this.term);
+        out.writeLong(this.__budget());
+        // * 🚩冻结的字节自成一体（编号自成体系），不能嵌入：解冻出一份临时的副本写出，本身保持冻结
+        // * 📌副本中的任务即原先的任务：按此流的编号写出，与别处的引用一致
+        (this.frozen == null ? this : this.thawedCopy()).writeContents(out);
+    }
+
+    /** 🆕写出内容：信念、问题及其索引、两个链接袋 */
+    private void writeContents(SnapshotOutput out) throws IOException {
+        out.writeShort(this.beliefs.size());
+        for (final Judgement belief : this.beliefs)
+            out.writeSentence(belief);
+        out.writeShort(this.questions.size());
+        for (final Task question : this.questions)
+            out.writeTask(question);
+        // * 🚩索引照原样保存：内容重复的问题被挤出后，索引与「重新加入」的结果不同
+        out.writeShort(this.questionIndex == null ? 0 : this.questionIndex.size());
+        if (this.questionIndex != null)
+            for (final Task question : this.questionIndex.values())
+                out.writeTask(question);
+        this.taskLinks.writeState(out, link -> link.writeSnapshot(out));
+        this.termLinks.writeState(out, link -> link.writeSnapshot(out));
+    }
+
+    /**
+     * 🆕从快照还原
+     * * 📌参数同构造函数
+     *
+     * @param in [&m]
+     * @return []
+     */
+    public static Concept readSnapshot(
+            SnapshotInput in,
+            AtomicInteger taskLinkForgettingRate, AtomicInteger termLinkForgettingRate,
+            BagMetricsRegistry bagMetrics) throws IOException {
+        final Term term = in.readTerm();
+        if (term == null)
+            throw new IOException("concept without term");
+        final long budget = in.readLong();
+        final Concept concept = new Concept(
+                term,
+                taskLinkForgettingRate, termLinkForgettingRate,
+                bagMetrics,
+                new BudgetValue(0, 0, 0),
+                ConceptLinking.prepareTermLinkTemplates(term));
+        concept.__budget(budget);
+        concept.readContents(in);
+        return concept;
+    }
+
+    /** 🆕读入内容到新建的空内容中，见{@link #writeContents} */
+    private void readContents(SnapshotInput in) throws IOException {
+        final int nBeliefs = in.readShort();
+        if (nBeliefs > this.beliefs.capacity())
+            throw new IOException("too many beliefs in " + this.term + ": " + nBeliefs);
+        for (int i = 0; i < nBeliefs; i++)
+            this.beliefs.__insert(in.readJudgement());
+        final int nQuestions = in.readShort();
+        if (nQuestions > this.questions.capacity())
+            throw new IOException("too many questions in " + this.term + ": " + nQuestions);
+        for (int i = 0; i < nQuestions; i++)
+            this.questions.__push(in.readTask());
+        final int nIndexed = in.readShort();
+        if (nIndexed > 0)
+            this.questionIndex = new HashMap<>();
+        for (int i = 0; i < nIndexed; i++) {
+            final Task question = in.readTask();
+            this.questionIndex.put(question.getContent(), question);
         }
-        return null;
+        this.taskLinks.readState(in, () -> TaskLink.readSnapshot(in));
+        this.termLinks.readState(in, () -> TermLink.readSnapshot(in));
+    }
+
+    /* ---------- dormancy ---------- */
+
+    /**
+     * 🆕访问内容之前：已冻结⇒先解冻；并记为「刚被用到」
+     */
+    private void touch() {
+        if (this.frozen != null)
+            this.thaw();
+        this.idleSweeps = 0;
+    }
+
+    /**
+     * 🆕记下又一次「未被用到」的清扫
+     *
+     * @return 连续未被用到的清扫次数（含本次）
+     */
+    public int passIdleSweep() {
+        return ++this.idleSweeps;
+    }
+
+    /** 🆕是否已冻结 */
+    public boolean isFrozen() {
+        return this.frozen != null;
+    }
+
+    /**
+     * 🆕冻结：把内容写成字节，放下整套对象
+     * * 🎯长期低优先级的概念只占几百字节，而非几千
+     * * 📌正被显示的概念不冻结：观察者挂在它的链接袋上
+     * * 📌任务按引用保留（见{@link #frozenTasks}）：解冻前后是同一对象，冻结对推理不可见
+     *
+     * @return 是否冻结了 | 已冻结或正被显示⇒否
+     */
+    public boolean freeze() {
+        if (this.frozen != null || !(this.entityObserver instanceof EntityObserver.NullObserver))
+            return false;
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        final ArrayList<Task> tasks = new ArrayList<>();
+        final long[] taskBytes = { 0 };
+        this.taskLinks.forEach(link -> {
+            if (link.getType() == TLink.TLinkType.SELF)
+                taskBytes[0] += Footprint.task(link.getTarget());
+        });
+        try {
+            this.writeContents(new SnapshotOutput(bytes, tasks));
+        } catch (IOException e) {
+            throw new AssertionError("writing to memory cannot fail", e);
+        }
+        this.frozenEmpty = this.isEmpty();
+        this.frozen = bytes.toByteArray();
+        this.frozenTasks = tasks.toArray(new Task[tasks.size()]);
+        this.frozenTaskBytes = (int) Math.min(Integer.MAX_VALUE, taskBytes[0]);
+        this.questions = null;
+        this.questionIndex = null;
+        this.beliefs = null;
+        this.taskLinks = null;
+        this.termLinks = null;
+        this.linkTemplatesToSelf = null;
+        this.bagMetrics.countFreeze();
+        return true;
+    }
+
+    /** 🆕冻结的字节数 | 未冻结⇒0 */
+    public int frozenSize() {
+        return this.frozen == null ? 0 : this.frozen.length;
+    }
+
+    /** 🆕解冻：重建内容，读回冻结的字节 */
+    private void thaw() {
+        final byte[] bytes = this.frozen;
+        final Task[] tasks = this.frozenTasks;
+        this.frozen = null;
+        this.frozenTasks = null;
+        this.allocateContents(ConceptLinking.prepareTermLinkTemplates(this.term));
+        this.readFrozen(bytes, tasks);
+        this.bagMetrics.countThaw();
+    }
+
+    /** 🆕解冻出一份临时的副本，本身保持冻结 | 链接模板不需要，留空 */
+    private Concept thawedCopy() {
+        final Concept copy = new Concept(
+                this.term,
+                this.taskLinkForgettingRate, this.termLinkForgettingRate,
+                this.bagMetrics,
+                new BudgetValue(0, 0, 0),
+                new ArrayList<>());
+        copy.readFrozen(this.frozen, this.frozenTasks);
+        return copy;
+    }
+
+    private void readFrozen(byte[] bytes, Task[] tasks) {
+        try {
+            this.readContents(new SnapshotInput(bytes, tasks));
+        } catch (IOException e) {
+            throw new AssertionError("corrupt frozen concept: " + this.term, e);
+        }
+    }
+
+    /* ---------- footprint ---------- */
+
+    /**
+     * 🆕估算此概念占用的堆字节数
+     * * 🎯按字节预算限制记忆区（见{@link nars.control.Parameters#MEMORY_BUDGET}）
+     * * 🚩词项的最上一层，加冻结的字节，或加各内容：链接袋的结构与各链接、信念、问题、链接模板
+     * * 📌不解冻，也不算作「被用到」
+     * * 📌词项的元素多为别的概念的词项，只算最上一层；任务只随指向自身的任务链计入
+     *
+     * @return 估算的字节数，见{@link Footprint}
+     */
+    public long estimateBytes() {
+        final long termBytes = Footprint.termShell(this.term);
+        if (this.frozen != null)
+            return termBytes + Footprint.FROZEN_SHELL + Footprint.array(this.frozen.length, 1)
+                    + Footprint.array(this.frozenTasks.length, Footprint.REFERENCE) + this.frozenTaskBytes;
+        final long[] bytes = { termBytes + Footprint.CONCEPT_SHELL
+                + Footprint.array(this.linkTemplatesToSelf.size(), Footprint.REFERENCE)
+                + (long) this.linkTemplatesToSelf.size() * Footprint.TEMPLATE
+                + (long) this.questions.size() * Footprint.QUESTION
+                + this.taskLinks.estimateBytes() + this.termLinks.estimateBytes() };
+        for (final Judgement belief : this.beliefs)
+            bytes[0] += Footprint.BELIEF + Footprint.sentence(belief);
+        // * 🚩任务只在指向自身的任务链中计入：同一任务还经元素、复合词项的链接挂在别的概念上
+        this.taskLinks.forEach(link -> bytes[0] += Footprint.TASK_LINK + Footprint.string(link.getKey())
+                + (link.getType() == TLink.TLinkType.SELF ? Footprint.task(link.getTarget()) : 0));
+        this.termLinks.forEach(link -> bytes[0] += Footprint.TERM_LINK + Footprint.string(link.getKey()));
+        return bytes[0];
+    }
+
+    /**
+     * 🆕按当前估算记下计入预算的字节数
+     *
+     * @return 本次计入的字节数，见{@link #estimateBytes}
+     */
+    public long chargeBytes() {
+        return this.chargedBytes = this.estimateBytes();
+    }
+
+    /**
+     * 🆕取回计入预算的字节数，并清零
+     * * 📌未计入过（或已取回）⇒0：重复移出不会重复减去
+     *
+     * @return 上次{@link #chargeBytes}记下的字节数
+     */
+    public long releaseBytes() {
+        final long bytes = this.chargedBytes;
+        this.chargedBytes = 0;
+        return bytes;
     }
 
     /* ---------- display ---------- */
@@ -456,7 +835,7 @@ public final class Concept implements Item, ToStringBriefAndLong {
      *
      * same design as for {@link nars.storage.Bag} and
      * {@link nars.gui.BagWindow}; see
-     * {@link nars.storage.Bag#addBagObserver(BagObserver, String)}
+     * {@link nars.storage.ObservableBag#addBagObserver(BagObserver, String)}
      *
      * @param entityObserver {@link EntityObserver} to set; TODo make it a real
      *                       observer pattern (i.e. with a plurality of observers)
@@ -464,12 +843,16 @@ public final class Concept implements Item, ToStringBriefAndLong {
      */
     @SuppressWarnings("unchecked")
     public void startPlay(EntityObserver entityObserver, boolean showLinks) {
+        this.touch();
         this.entityObserver = entityObserver;
         entityObserver.startPlay(this, showLinks);
         entityObserver.post(displayContent());
         if (showLinks) {
             taskLinks.addBagObserver(entityObserver.createBagObserver(), "Task Links in " + term);
             termLinks.addBagObserver(entityObserver.createBagObserver(), "Term Links in " + term);
+            // * 🚩登记到本记忆区：由拥有此概念的推理器补发最后一次变动
+            bagMetrics.observedBags().add(taskLinks);
+            bagMetrics.observedBags().add(termLinks);
         }
     }
 
@@ -493,6 +876,7 @@ public final class Concept implements Item, ToStringBriefAndLong {
      * @return String representation of direct content
      */
     public String displayContent() {
+        this.touch();
         final StringBuilder buffer = new StringBuilder();
         buffer.append("\n  Beliefs:\n");
         if (beliefs.size() > 0) {
@@ -2,6 +2,7 @@ package nars.entity;
 
 import nars.inference.Budget;
 import nars.io.ToStringBriefAndLong;
+import nars.storage.KeyRegistry;
 
 /**
  * An item is an object that can be put into a Bag,
@@ -18,6 +19,17 @@ public interface Item extends Budget {
      */
     public String getKey();
 
+    /**
+     * 🆕获取键对应的整数ID
+     * * 🎯用于按ID散列的「袋」
+     * * 🚩默认每次查询{@link KeyRegistry}；持有{@link Token}的实现应转发到其缓存
+     *
+     * @return The id of the current key
+     */
+    public default int getKeyId() {
+        return KeyRegistry.idOf(this.getKey());
+    }
+
     /**
      * * 📝【2024-06-01 20:35:41】回答{@link Token}中的考虑——困难重重：
      * * 虽然设计上确实能在最后通过复合对象「BagItem<Task>」等解耦存储，
@@ -29,13 +41,13 @@ public interface Item extends Budget {
     public static final class BagItem<T> implements Item {
         private final T value;
         private final String key;
-        private final BudgetValue budget;
+        private long budget;
 
         public BagItem(T value, String key, Budget budget) {
             this.value = value;
             this.key = key;
-            // * 🚩不能直接赋值，必须复制构造
-            this.budget = new BudgetValue(budget);
+            // * 🚩打包值直接复制，不共享
+            this.budget = budget.__budget();
         }
 
         public T getValue() {
@@ -48,18 +60,13 @@ public interface Item extends Budget {
         }
 
         @Override
-        public ShortFloat __priority() {
-            return budget.priority;
-        }
-
-        @Override
-        public ShortFloat __durability() {
-            return budget.durability;
+        public long __budget() {
+            return budget;
         }
 
         @Override
-        public ShortFloat __quality() {
-            return budget.quality;
+        public void __budget(long budget) {
+            this.budget = budget;
         }
     }
 
@@ -81,31 +88,31 @@ public interface Item extends Budget {
         /**
          * The budget of the Item, consisting of 3 numbers
          * * 📝仅用于各预算值函数，以及在「袋」中的选取（优先级）
+         * * 🚩【2024-06-11】直接存放打包值，见{@link Budget#packBudget}
          *
          * * ️📝可空性：非空
-         * * 📝可变性：不变 | 仅构造时，无需可变
+         * * 📝可变性：可变 | 预算值随推理更新
          * * 📝所有权：始终具所有权
          */
-        private final BudgetValue budget;
-
-        /** 🆕用于「预算值」的字符串呈现 */
-        public BudgetValue getBudgetValue() {
-            return budget;
-        }
-
-        @Override
-        public ShortFloat __priority() {
-            return budget.priority;
-        }
+        private long budget;
+        /**
+         * 🆕缓存的键ID
+         * * 🚩首次使用时向{@link KeyRegistry}查询
+         *
+         * * ️📝可空性：非空 | 未查询时为{@link KeyRegistry#NO_ID}
+         * * 📝可变性：可变 | 仅首次查询时赋值
+         * * 📝所有权：具所有权
+         */
+        private int keyId = KeyRegistry.NO_ID;
 
         @Override
-        public ShortFloat __durability() {
-            return budget.durability;
+        public long __budget() {
+            return budget;
         }
 
         @Override
-        public ShortFloat __quality() {
-            return budget.quality;
+        public void __budget(long budget) {
+            this.budget = budget;
         }
 
         /**
@@ -124,7 +131,7 @@ public interface Item extends Budget {
             // * ✅【2024-06-21 23:48:54】信任所有权：目前没有任何可能修改Key对象的代码
             this.key = key;
             // * 🚩【2024-06-07 13:59:21】现在由于「外部构造均以『可预算的』特征对象传递」更加必须使用「复制构造」，否则会共享引用
-            this.budget = new BudgetValue(budget); // clone, not assignment
+            this.budget = budget.__budget(); // clone, not assignment
         }
 
         @Override
@@ -132,14 +139,21 @@ public interface Item extends Budget {
             return this.key;
         }
 
+        @Override
+        public int getKeyId() {
+            if (this.keyId == KeyRegistry.NO_ID)
+                this.keyId = KeyRegistry.idOf(this.key);
+            return this.keyId;
+        }
+
         @Override
         public String toString() {
-            return this.budget.toString() + " " + this.getKey();
+            return this.budgetToString() + " " + this.getKey();
         }
 
         @Override
         public String toStringBrief() {
-            return this.budget.toStringBrief() + " " + this.getKey();
+            return this.budgetToStringBrief() + " " + this.getKey();
         }
 
         /**
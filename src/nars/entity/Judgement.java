@@ -1,5 +1,7 @@
 package nars.entity;
 
+import java.util.Arrays;
+
 import nars.inference.Truth;
 
 /**
@@ -66,6 +68,55 @@ public interface Judgement extends Sentence, Truth {
                 && self.evidentialEqual(that));
     }
 
+    /**
+     * 🆕「信念等价」的键
+     * * 🎯以散列判重，免去逐个构造证据集合比较
+     * * 📌键相等 ⇔ {@link #isBeliefEquivalent}：真值相等，且证据基作为集合相等
+     *
+     * @param self The judgment
+     * @return The key, with equals and hashCode
+     */
+    public static Object equivalenceKey(Judgement self) {
+        return new EquivalenceKey(self.__truth(), self.getEvidentialBase());
+    }
+
+    /**
+     * 🆕「信念等价」的键：短浮点真值 + 去重排序后的证据基
+     */
+    static final class EquivalenceKey {
+        private final int truth;
+        private final long[] evidence;
+        private final int hash;
+
+        EquivalenceKey(int truth, long[] evidentialBase) {
+            final long[] sorted = evidentialBase.clone();
+            Arrays.sort(sorted);
+            int n = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                if (i == 0 || sorted[i] != sorted[i - 1])
+                    sorted[n++] = sorted[i];
+            }
+            this.truth = truth;
+            this.evidence = n == sorted.length ? sorted : Arrays.copyOf(sorted, n);
+            this.hash = 31 * truth + Arrays.hashCode(this.evidence);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof EquivalenceKey))
+                return false;
+            final EquivalenceKey that = (EquivalenceKey) obj;
+            return this.truth == that.truth && Arrays.equals(this.evidence, that.evidence);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
     /**
      * Get a String representation of the sentence for key of Task and TaskLink
      *
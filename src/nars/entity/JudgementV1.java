@@ -32,12 +32,22 @@ public class JudgementV1 extends SentenceV1 implements Judgement {
 
     /**
      * The truth value of Judgment
+     * * 🚩【2024-06-11】直接存放打包的「频率」「信度」，见{@link Truth#packTruth}
      *
      * * ️📝可空性：非空
      * * 📝可变性：不变 | 仅构造时，无需可变
      * * 📝所有权：具所有权
      */
-    private final TruthValue truth;
+    private final int truth;
+
+    /**
+     * Whether the truth value is derived from a definition
+     *
+     * * ️📝可空性：非空
+     * * 📝可变性：不变 | 仅构造时，无需可变
+     * * 📝所有权：具所有权
+     */
+    private final boolean isAnalytic;
 
     // impl JudgementV1
 
@@ -46,31 +56,28 @@ public class JudgementV1 extends SentenceV1 implements Judgement {
             throw new AssertionError("truth can't be null");
         this.inner = new SentenceInner(content, stamp);
         this.revisable = revisable;
-        this.truth = TruthValue.from(truth);
+        this.truth = truth.__truth();
+        this.isAnalytic = truth.__isAnalytic();
     }
 
     /** 复制构造函数 */
     protected JudgementV1(JudgementV1 j) {
         this.inner = j.inner.clone();
-        this.truth = j.truth.clone();
+        this.truth = j.truth;
+        this.isAnalytic = j.isAnalytic;
         this.revisable = j.revisable;
     }
 
     // impl Truth for JudgementV1
 
     @Override
-    public ShortFloat __frequency() {
-        return this.truth.__frequency();
-    }
-
-    @Override
-    public ShortFloat __confidence() {
-        return this.truth.__confidence();
+    public int __truth() {
+        return this.truth;
     }
 
     @Override
     public boolean __isAnalytic() {
-        return this.truth.__isAnalytic();
+        return this.isAnalytic;
     }
 
     // ! 🚩【2024-06-08 23:30:24】经实验，只会生成key再加入散列表；因此无需参与散列化
@@ -44,7 +44,7 @@ public class ShortFloat implements Cloneable {
      * @return The current value in float
      */
     public float getValue() {
-        return value * 0.0001f;
+        return toFloat(value);
     }
 
     // /**
@@ -65,12 +65,7 @@ public class ShortFloat implements Cloneable {
      * @param v The new value
      */
     public final void setValue(float v) {
-        // * 🚩在范围内⇒转换为短整数并赋值
-        if (0 <= v && v <= 1)
-            value = (short) (v * 10000.0 + 0.5);
-        // * 🚩在范围外⇒报错
-        else
-            throw new Error("Invalid value: " + v);
+        value = toShort(v);
     }
 
     /**
@@ -112,6 +107,77 @@ public class ShortFloat implements Cloneable {
      */
     @Override
     public String toString() {
+        return toString(value);
+    }
+
+    /**
+     * Round the value into a short String
+     *
+     * @return The String representation, with 2 digits accuracy
+     */
+    public String toStringBrief() {
+        return toStringBrief(value);
+    }
+
+    /* ---------- 🆕以「短整数」直接存储的短浮点 ---------- */
+
+    /**
+     * 🆕短整数→浮点
+     *
+     * @param value The value as short
+     * @return The value in float
+     */
+    public static float toFloat(final short value) {
+        return value * 0.0001f;
+    }
+
+    /**
+     * 🆕浮点→短整数，带范围检查
+     * * 🚩取整方式：+0.5，然后向下取整 → 四舍五入
+     *
+     * @param v The value in float
+     * @return The value as short
+     */
+    public static short toShort(final float v) {
+        // * 🚩在范围内⇒转换为短整数
+        if (0 <= v && v <= 1)
+            return (short) (v * 10000.0 + 0.5);
+        // * 🚩在范围外⇒报错
+        throw new Error("Invalid value: " + v);
+    }
+
+    /**
+     * 🆕从打包的整数中取出第`lane`个短浮点
+     * * 📌每个短浮点占16位，第0个在最低位
+     *
+     * @param packed The packed values
+     * @param lane   The index of the value
+     * @return The value as short
+     */
+    public static short lane(final long packed, final int lane) {
+        return (short) (packed >>> (lane << 4));
+    }
+
+    /**
+     * 🆕替换打包的整数中第`lane`个短浮点
+     *
+     * @param packed The packed values
+     * @param lane   The index of the value
+     * @param value  The new value as short
+     * @return The packed values after replacement
+     */
+    public static long withLane(final long packed, final int lane, final short value) {
+        final int shift = lane << 4;
+        return (packed & ~(0xFFFFL << shift)) | ((value & 0xFFFFL) << shift);
+    }
+
+    /**
+     * 🆕以四位小数呈现
+     *
+     * @param value The value as short
+     * @return The String representation, with 4 digits accuracy
+     */
+    public static String toString(final short value) {
         // * 🚩大于1 ⇒ 补足「1」
         if (value >= 10000)
             return "1.0000";
@@ -124,15 +190,14 @@ public class ShortFloat implements Cloneable {
     }
 
     /**
-     * Round the value into a short String
+     * 🆕以两位小数呈现
      *
+     * @param value The value as short
      * @return The String representation, with 2 digits accuracy
      */
-    public String toStringBrief() {
+    public static String toStringBrief(final short value) {
         // * 🚩手动四舍五入
-        value += 50;
-        final String s = toString();
-        value -= 50;
+        final String s = toString((short) (value + 50));
         // * 🚩`0.xx`削减
         return s.length() > 4 ? s.substring(0, 4) : s;
     }
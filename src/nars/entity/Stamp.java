@@ -66,6 +66,18 @@ public class Stamp implements Cloneable, Evidential {
         this(new long[] { currentSerial }, time);
     }
 
+    /**
+     * 🆕从已保存的字段还原时间戳
+     * * 🎯用于从快照还原
+     *
+     * @param evidentialBase [] 证据基
+     * @param creationTime   [] 创建时间
+     * @return []
+     */
+    public static Stamp restore(final long[] evidentialBase, final long creationTime) {
+        return new Stamp(evidentialBase, creationTime);
+    }
+
     /**
      * Generate a new stamp identical with a given one
      *
@@ -164,18 +164,13 @@ public class Task implements Sentence, Item {
     // impl Budget for Task
 
     @Override
-    public ShortFloat __priority() {
-        return this.token.__priority();
+    public long __budget() {
+        return this.token.__budget();
     }
 
     @Override
-    public ShortFloat __durability() {
-        return this.token.__durability();
-    }
-
-    @Override
-    public ShortFloat __quality() {
-        return this.token.__quality();
+    public void __budget(long budget) {
+        this.token.__budget(budget);
     }
 
     // impl Item for Task
@@ -185,6 +180,11 @@ public class Task implements Sentence, Item {
         return token.getKey();
     }
 
+    @Override
+    public int getKeyId() {
+        return token.getKeyId();
+    }
+
     // impl Evidential for Task
 
     @Override
@@ -1,7 +1,11 @@
 package nars.entity;
 
+import java.io.IOException;
+
 import nars.control.Parameters;
 import nars.inference.Budget;
+import nars.io.SnapshotInput;
+import nars.io.SnapshotOutput;
 import nars.io.ToStringBriefAndLong;
 import nars.language.Term;
 
@@ -70,18 +74,13 @@ public class TaskLink implements TLink<Task>, Item, ToStringBriefAndLong {
     // impl Budget for TaskLink
 
     @Override
-    public ShortFloat __priority() {
-        return this.token.__priority();
+    public long __budget() {
+        return this.token.__budget();
     }
 
     @Override
-    public ShortFloat __durability() {
-        return this.token.__durability();
-    }
-
-    @Override
-    public ShortFloat __quality() {
-        return this.token.__quality();
+    public void __budget(long budget) {
+        this.token.__budget(budget);
     }
 
     // impl Item for TaskLink
@@ -91,6 +90,11 @@ public class TaskLink implements TLink<Task>, Item, ToStringBriefAndLong {
         return this.token.getKey();
     }
 
+    @Override
+    public int getKeyId() {
+        return this.token.getKeyId();
+    }
+
     // impl TLink<Task> for TaskLink
 
     @Override
@@ -234,11 +238,60 @@ public class TaskLink implements TLink<Task>, Item, ToStringBriefAndLong {
         return true;
     }
 
+    // impl TaskLink (snapshot)
+
+    /**
+     * 🆕写入快照：目标任务（按引用）、预算、类型、索引，以及「新近」判断所用的记录
+     *
+     * @param &this
+     * @param out   [&m]
+     */
+    public void writeSnapshot(SnapshotOutput out) throws IOException {
+        out.writeTask(this.getTarget());
+        out.writeLong(this.__budget());
+        out.writeByte(this.getType().ordinal());
+        out.writeShorts(this.getIndices());
+        out.writeShort(this.recordedLinks.length);
+        out.writeShort(this.nRecordedTermLinks);
+        for (int i = 0; i < this.nRecordedTermLinks; i++) {
+            out.writeUTF(this.recordedLinks[i]);
+            out.writeLong(this.recordingTime[i]);
+        }
+    }
+
+    /**
+     * 🆕从快照还原
+     * * 📌记录长度照快照：与当前参数不同也能还原
+     *
+     * @param in [&m]
+     * @return []
+     */
+    public static TaskLink readSnapshot(SnapshotInput in) throws IOException {
+        final Task target = in.readTask();
+        if (target == null)
+            throw new IOException("task link without target");
+        final long budget = in.readLong();
+        final TLinkType type = TermLink.readType(in);
+        final short[] indices = in.readShorts();
+        final int recordLength = in.readShort();
+        final int nRecorded = in.readShort();
+        if (nRecorded > recordLength)
+            throw new IOException("too many recorded term links: " + nRecorded);
+        final TaskLink link = new TaskLink(target, new BudgetValue(0, 0, 0), type, indices, recordLength);
+        link.__budget(budget);
+        for (int i = 0; i < nRecorded; i++) {
+            link.recordedLinks[i] = in.readUTF();
+            link.recordingTime[i] = in.readLong();
+        }
+        link.nRecordedTermLinks = nRecorded;
+        return link;
+    }
+
     // impl ToStringBriefAndLong for TaskLink
 
     @Override
     public String toString() {
-        final String superString = this.token.getBudgetValue().toString() + " " + this.getKey().toString();
+        final String superString = this.token.budgetToString() + " " + this.getKey().toString();
         return superString + " " + getTarget().stampToString();
     }
 
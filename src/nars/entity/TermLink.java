@@ -1,6 +1,10 @@
 package nars.entity;
 
+import java.io.IOException;
+
 import nars.inference.Budget;
+import nars.io.SnapshotInput;
+import nars.io.SnapshotOutput;
 import nars.io.ToStringBriefAndLong;
 import nars.language.Term;
 
@@ -42,18 +46,13 @@ public class TermLink implements TLink<Term>, Item, ToStringBriefAndLong {
     // impl Budget for TermLink
 
     @Override
-    public ShortFloat __priority() {
-        return this.token.__priority();
-    }
-
-    @Override
-    public ShortFloat __durability() {
-        return this.token.__durability();
+    public long __budget() {
+        return this.token.__budget();
     }
 
     @Override
-    public ShortFloat __quality() {
-        return this.token.__quality();
+    public void __budget(long budget) {
+        this.token.__budget(budget);
     }
 
     // impl Item for TermLink
@@ -63,6 +62,11 @@ public class TermLink implements TLink<Term>, Item, ToStringBriefAndLong {
         return token.getKey();
     }
 
+    @Override
+    public int getKeyId() {
+        return token.getKeyId();
+    }
+
     // impl TLink<Term> for TermLink
 
     @Override
@@ -162,6 +166,48 @@ public class TermLink implements TLink<Term>, Item, ToStringBriefAndLong {
         return result;
     }
 
+    // impl TermLink (snapshot)
+
+    /**
+     * 🆕写入快照：目标词项（按引用）、预算、类型、索引
+     * * 📌键由这些字段生成，无需保存
+     *
+     * @param &this
+     * @param out   [&m]
+     */
+    public void writeSnapshot(SnapshotOutput out) throws IOException {
+        out.writeTerm(this.getTarget());
+        out.writeLong(this.__budget());
+        out.writeByte(this.getType().ordinal());
+        out.writeShorts(this.getIndices());
+    }
+
+    /**
+     * 🆕从快照还原
+     *
+     * @param in [&m]
+     * @return []
+     */
+    public static TermLink readSnapshot(SnapshotInput in) throws IOException {
+        final Term target = in.readTerm();
+        if (target == null)
+            throw new IOException("term link without target");
+        final long budget = in.readLong();
+        final TLinkType type = readType(in);
+        final TermLink link = new TermLink(target, new BudgetValue(0, 0, 0), type, in.readShorts());
+        link.__budget(budget);
+        return link;
+    }
+
+    /** 🆕读入链接类型（按序数保存） */
+    static TLinkType readType(SnapshotInput in) throws IOException {
+        final int ordinal = in.readByte();
+        final TLinkType[] types = TLinkType.values();
+        if (ordinal < 0 || ordinal >= types.length)
+            throw new IOException("unknown link type: " + ordinal);
+        return types[ordinal];
+    }
+
     // impl ToStringBriefAndLong for TermLink
 
     /**
@@ -171,7 +217,7 @@ public class TermLink implements TLink<Term>, Item, ToStringBriefAndLong {
      */
     @Override
     public String toString() {
-        return this.token.getBudgetValue().toString() + " " + getKey();
+        return this.token.budgetToString() + " " + getKey();
     }
 
     /**
@@ -181,7 +227,7 @@ public class TermLink implements TLink<Term>, Item, ToStringBriefAndLong {
      */
     @Override
     public String toStringBrief() {
-        return this.token.getBudgetValue().toStringBrief() + " " + getKey();
+        return this.token.budgetToStringBrief() + " " + getKey();
     }
 
     @Override
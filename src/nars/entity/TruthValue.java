@@ -9,21 +9,14 @@ import nars.inference.Truth;
  */
 public class TruthValue implements Truth {
     /**
-     * The frequency factor of the truth value
+     * The frequency and confidence factors of the truth value
+     * * 📌打包的两个短浮点，见{@link Truth#packTruth}
      *
      * * ️📝可空性：非空
      * * 📝可变性：不变 | 仅构造时，无需可变
      * * 📝所有权：具所有权
      */
-    private final ShortFloat frequency;
-    /**
-     * The confidence factor of the truth value
-     *
-     * * ️📝可空性：非空
-     * * 📝可变性：不变 | 仅构造时，无需可变
-     * * 📝所有权：具所有权
-     */
-    private final ShortFloat confidence;
+    private final int truth;
     /**
      * Whether the truth value is derived from a definition
      *
@@ -34,13 +27,8 @@ public class TruthValue implements Truth {
     private final boolean isAnalytic;
 
     @Override
-    public ShortFloat __frequency() {
-        return this.frequency;
-    }
-
-    @Override
-    public ShortFloat __confidence() {
-        return this.confidence;
+    public int __truth() {
+        return this.truth;
     }
 
     @Override
@@ -49,9 +37,8 @@ public class TruthValue implements Truth {
     }
 
     /** 🆕完全参数构造函数 */
-    private TruthValue(ShortFloat f, ShortFloat c, boolean analytic) {
-        this.frequency = f;
-        this.confidence = c;
+    private TruthValue(int truth, boolean analytic) {
+        this.truth = truth;
         this.isAnalytic = analytic;
     }
 
@@ -76,7 +63,7 @@ public class TruthValue implements Truth {
      */
     public TruthValue(float f, float c, boolean analytic) {
         // * 🚩构造 & 重定向
-        this(new ShortFloat(f), new ShortFloat(c), analytic);
+        this(Truth.packTruth(f, c), analytic);
     }
 
     /**
@@ -86,7 +73,7 @@ public class TruthValue implements Truth {
      * @param v The truth value to be cloned
      */
     protected TruthValue(final Truth v) {
-        this(v.__frequency().clone(), v.__confidence().clone(), v.__isAnalytic());
+        this(v.__truth(), v.__isAnalytic());
     }
 
     /** 🎯兼容null的构造函数 */
@@ -20,8 +20,8 @@ import javax.swing.JTextArea;
 
 import nars.control.Parameters;
 import nars.entity.Item;
-import nars.storage.Bag;
 import nars.storage.BagObserver;
+import nars.storage.ObservableBag;
 
 /**
  * JWindow display the priority distribution of items within a given bag
@@ -32,7 +32,7 @@ public class BagWindow<BagType extends Item> extends NarsFrame implements Action
     /**
      * The bag to be displayed
      */
-    private Bag<?> bag;
+    private ObservableBag<?> bag;
     /**
      * Control buttons
      */
@@ -160,8 +160,11 @@ public class BagWindow<BagType extends Item> extends NarsFrame implements Action
     }
 
     @Override
-    public void setBag(Bag<BagType> bag) {
+    public void setBag(ObservableBag<BagType> bag) {
         this.bag = bag;
+        // * 🚩按袋自身的层级数调整滑块范围
+        valueBar.setMaximum(bag.totalLevel());
+        adjustLabelAndCursor(bag.threshold());
     }
 
     @Override
@@ -9,17 +9,39 @@ import nars.io.Symbols;
  * * ✅可以获取预算值
  * * ✅可以修改预算值（设置、增减…）
  * * 🚩【2024-06-07 13:42:23】目前为了方便，直接要求「三元组」作为内部字段
+ * * 🚩【2024-06-11】「三元组」现打包为一个`long`：每个值是一个16位的{@link ShortFloat}短整数
+ * * * 🎯省去每个值各自的对象头与指针
  */
 public interface Budget {
 
-    /** 🆕内部的「优先级」属性 */
-    ShortFloat __priority();
+    /** 🆕「优先级」在打包值中的位置 */
+    static final int PRIORITY = 0;
+    /** 🆕「耐久度」在打包值中的位置 */
+    static final int DURABILITY = 1;
+    /** 🆕「质量」在打包值中的位置 */
+    static final int QUALITY = 2;
 
-    /** 🆕内部的「耐久度」属性 */
-    ShortFloat __durability();
+    /** 🆕内部的「预算值」属性：打包的三元组，见{@link #packBudget} */
+    long __budget();
 
-    /** 🆕内部的「质量」属性 */
-    ShortFloat __quality();
+    /** 🆕设置内部的「预算值」属性 */
+    void __budget(long budget);
+
+    /**
+     * 🆕将三个值打包为「预算值」属性
+     *
+     * @param p Priority
+     * @param d Durability
+     * @param q Quality
+     * @return The packed budget
+     */
+    public static long packBudget(final float p, final float d, final float q) {
+        long budget = 0;
+        budget = ShortFloat.withLane(budget, PRIORITY, ShortFloat.toShort(p));
+        budget = ShortFloat.withLane(budget, DURABILITY, ShortFloat.toShort(d));
+        budget = ShortFloat.withLane(budget, QUALITY, ShortFloat.toShort(q));
+        return budget;
+    }
 
     /**
      * Get priority value
@@ -27,7 +49,7 @@ public interface Budget {
      * @return The current priority
      */
     public default float getPriority() {
-        return __priority().getValue();
+        return ShortFloat.toFloat(ShortFloat.lane(__budget(), PRIORITY));
     }
 
     /**
@@ -36,7 +58,7 @@ public interface Budget {
      * @param v The new priority
      */
     public default void setPriority(float v) {
-        __priority().setValue(v);
+        __budget(ShortFloat.withLane(__budget(), PRIORITY, ShortFloat.toShort(v)));
     }
 
     /**
@@ -45,7 +67,7 @@ public interface Budget {
      * @return The current durability
      */
     public default float getDurability() {
-        return __durability().getValue();
+        return ShortFloat.toFloat(ShortFloat.lane(__budget(), DURABILITY));
     }
 
     /**
@@ -54,7 +76,7 @@ public interface Budget {
      * @param v The new durability
      */
     public default void setDurability(float v) {
-        __durability().setValue(v);
+        __budget(ShortFloat.withLane(__budget(), DURABILITY, ShortFloat.toShort(v)));
     }
 
     /**
@@ -63,7 +85,7 @@ public interface Budget {
      * @return The current quality
      */
     public default float getQuality() {
-        return __quality().getValue();
+        return ShortFloat.toFloat(ShortFloat.lane(__budget(), QUALITY));
     }
 
     /**
@@ -72,7 +94,7 @@ public interface Budget {
      * @param v The new quality
      */
     public default void setQuality(float v) {
-        __quality().setValue(v);
+        __budget(ShortFloat.withLane(__budget(), QUALITY, ShortFloat.toShort(v)));
     }
 
     /**
@@ -83,9 +105,8 @@ public interface Budget {
      * @param that    [&]
      */
     public default void copyBudgetFrom(final Budget that) {
-        this.setPriority(that.getPriority());
-        this.setDurability(that.getDurability());
-        this.setQuality(that.getQuality());
+        // * 🚩打包值相同⇒三个值都相同
+        this.__budget(that.__budget());
     }
 
     /**
@@ -104,7 +125,7 @@ public interface Budget {
      * @return The summary value
      */
     public default float budgetSummary() {
-        return UtilityFunctions.aveGeo(__priority().getValue(), __durability().getValue(), __quality().getValue());
+        return UtilityFunctions.aveGeo(getPriority(), getDurability(), getQuality());
     }
 
     /**
@@ -136,12 +157,13 @@ public interface Budget {
      */
     public default String budgetToString() {
         final StringBuilder b = new StringBuilder();
+        final long budget = __budget();
         b.append(MARK);
-        b.append(__priority().toString());
+        b.append(ShortFloat.toString(ShortFloat.lane(budget, PRIORITY)));
         b.append(SEPARATOR);
-        b.append(__durability().toString());
+        b.append(ShortFloat.toString(ShortFloat.lane(budget, DURABILITY)));
         b.append(SEPARATOR);
-        b.append(__quality().toString());
+        b.append(ShortFloat.toString(ShortFloat.lane(budget, QUALITY)));
         b.append(MARK);
         return b.toString();
     }
@@ -153,12 +175,13 @@ public interface Budget {
      */
     public default String budgetToStringBrief() {
         final StringBuilder b = new StringBuilder();
+        final long budget = __budget();
         b.append(MARK);
-        b.append(__priority().toStringBrief());
+        b.append(ShortFloat.toStringBrief(ShortFloat.lane(budget, PRIORITY)));
         b.append(SEPARATOR);
-        b.append(__durability().toStringBrief());
+        b.append(ShortFloat.toStringBrief(ShortFloat.lane(budget, DURABILITY)));
         b.append(SEPARATOR);
-        b.append(__quality().toStringBrief());
+        b.append(ShortFloat.toStringBrief(ShortFloat.lane(budget, QUALITY)));
         b.append(MARK);
         return b.toString();
     }
@@ -322,6 +322,22 @@ public final class BudgetFunctions extends UtilityFunctions {
      * @return [] The new priority value
      */
     public static float forget(Budget budgetToBeForget, int forgetRate, float relativeThreshold) {
+        return forget(budgetToBeForget, forgetRate, relativeThreshold, 1.0);
+    }
+
+    /**
+     * 🆕一次性遗忘多次访问的量
+     * * 🎯供「惰性遗忘」按闭式计算：不必逐次迭代
+     * * 🚩将单次遗忘中的指数乘以访问次数：`scaledQ + difPQ * bD^(accesses / (forgetRate * difPQ))`
+     * * 📌`accesses == 1`时与单次遗忘完全一致；多次时以初始的差值近似逐次迭代
+     *
+     * @param budgetToBeForget  [&] The previous budget value
+     * @param forgetRate        [] The budget for the new item
+     * @param relativeThreshold [] The relative threshold of the bag
+     * @param accesses          [] The number of accesses to forget for, may be fractional
+     * @return [] The new priority value
+     */
+    public static float forget(Budget budgetToBeForget, int forgetRate, float relativeThreshold, double accesses) {
         final float bP = budgetToBeForget.getPriority();
         final float bD = budgetToBeForget.getDurability();
         final float bQ = budgetToBeForget.getQuality();
@@ -334,7 +350,7 @@ public final class BudgetFunctions extends UtilityFunctions {
         if (difPQ > 0)
             // * 🚩差值 > 0 | 衰减 | 📝Math.pow接收两个float，返回一个double
             // priority Durability
-            newPriority = scaledQ + difPQ * Math.pow(bD, 1.0 / (forgetRate * difPQ));
+            newPriority = scaledQ + difPQ * Math.pow(bD, accesses / (forgetRate * difPQ));
         else
             // * 🚩差值 < 0 | 恒定
             newPriority = scaledQ;
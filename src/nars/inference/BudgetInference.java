@@ -3,7 +3,6 @@ package nars.inference;
 import nars.control.DerivationContext;
 import nars.control.DerivationContextConcept;
 import nars.control.DerivationContextReason;
-import nars.entity.Concept;
 import nars.entity.TermLink;
 import nars.inference.BudgetFunctions.BudgetInferenceFunction;
 import nars.inference.BudgetFunctions.BudgetInferenceResult;
@@ -198,8 +197,7 @@ public final class BudgetInference {
      */
     private static float getConceptActivation(Term t, DerivationContext context) {
         // * 🚩尝试获取概念，并获取其优先级；若无概念，返回0
-        final Concept c = context.termToConcept(t);
-        return c == null ? 0f : c.getPriority();
+        return context.termToConceptPriority(t);
     }
 
     /**
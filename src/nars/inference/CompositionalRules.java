@@ -394,11 +394,8 @@ class CompositionalRules {
             if (!Variable.containVarQ(task.getContent()))
                 return;
             // * 🚩只有在「回答合取问题」时，取出其中的项构建新任务
-            final Concept contentConcept = context.termToConcept(content);
-            if (contentConcept == null)
-                return;
             // * 🚩只在「内容对应了概念」时，取出「概念」中的信念
-            final Judgement contentBelief = contentConcept.getBelief(task);
+            final Judgement contentBelief = context.termToBelief(content, task);
             if (contentBelief == null)
                 return;
             // * 🚩只在「概念中有信念」时，以这个信念作为「当前信念」构建新任务
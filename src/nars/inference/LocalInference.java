@@ -8,6 +8,7 @@ import nars.entity.Stamp;
 import nars.entity.Task;
 import nars.io.Symbols;
 import nars.language.Term;
+import nars.storage.MemoryChange;
 
 /**
  * 本地推理
@@ -85,7 +86,11 @@ final class LocalInference {
                 LocalRules.trySolution(judgment, existedQuestion, context);
             }
             // * 🚩将信念追加至「信念表」
-            self.addBelief(judgment);
+            final Judgement overflow = self.addBelief(judgment);
+            if (overflow != judgment)
+                context.getMemory().publishChange(overflow == null
+                        ? MemoryChange.Kind.BELIEF_ADDED
+                        : MemoryChange.Kind.BELIEF_REPLACED, self, judgment);
         }
     }
 
@@ -109,8 +114,9 @@ final class LocalInference {
         final Concept self = context.getCurrentConcept();
 
         // * 🚩尝试寻找已有问题，若已有相同问题则直接处理已有问题
-        final boolean newQuestion = findExistedQuestion(self, questionTask.getContent()) == null;
-        final Sentence query = newQuestion ? questionTask : findExistedQuestion(self, questionTask.getContent());
+        final Task existedQuestion = findExistedQuestion(self, questionTask.getContent());
+        final boolean newQuestion = existedQuestion == null;
+        final Sentence query = newQuestion ? questionTask : existedQuestion;
 
         // * 🚩实际上「先找答案，再新增『问题任务』」区别不大——找答案的时候，不会用到「问题任务」
         final Judgement newAnswer = evaluation(
@@ -123,6 +129,7 @@ final class LocalInference {
         // * 🚩新增问题
         if (newQuestion) {
             self.addQuestion(questionTask);
+            context.getMemory().publishChange(MemoryChange.Kind.QUESTION_ADDED, self, questionTask);
         }
     }
 
@@ -161,6 +168,7 @@ final class LocalInference {
 
     /**
      * 🆕根据输入的任务，寻找并尝试返回已有的问题
+     * * 🚩【2024-06-12】现查概念中的索引，不再遍历所有问题
      * * ⚠️输出可空，且此时具有含义：概念中并没有「已有问题」
      * * 🚩经上游确认，此处的`task`只可能是`context.currentTask`
      *
@@ -168,14 +176,8 @@ final class LocalInference {
      * @return 已有的问题，或为空
      */
     private static Task findExistedQuestion(final Concept self, final Term taskContent) {
-        // * 🚩遍历所有已知问题：任意一个问题「词项相等」就返回
-        for (final Task existedQuestion : self.getQuestions()) {
-            final Term questionTerm = existedQuestion.getContent();
-            if (questionTerm.equals(taskContent))
-                // * 🚩词项相等⇒返回
-                return existedQuestion;
-        }
-        return null;
+        // * 🚩按内容查「问题索引」：任意一个问题「词项相等」就返回
+        return self.getQuestion(taskContent);
     }
 
     @FunctionalInterface
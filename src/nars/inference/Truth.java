@@ -10,32 +10,43 @@ import nars.io.Symbols;
  */
 public interface Truth extends Cloneable {
 
+    /** 🆕「频率」在打包值中的位置 */
+    static final int FREQUENCY = 0;
+    /** 🆕「信度」在打包值中的位置 */
+    static final int CONFIDENCE = 1;
+
     /**
-     * The frequency factor of the truth value
+     * The frequency and confidence factors of the truth value
+     * * 🚩【2024-06-11】打包为一个`int`：每个值是一个16位的{@link ShortFloat}短整数，见{@link #packTruth}
      *
      * * ️📝可空性：非空
      * * 📝可变性：不变 | 仅构造时，无需可变
      * * 📝所有权：具所有权
      */
-    ShortFloat __frequency();
+    int __truth();
 
     /**
-     * The confidence factor of the truth value
+     * Whether the truth value is derived from a definition
      *
      * * ️📝可空性：非空
      * * 📝可变性：不变 | 仅构造时，无需可变
      * * 📝所有权：具所有权
      */
-    ShortFloat __confidence();
+    boolean __isAnalytic();
 
     /**
-     * Whether the truth value is derived from a definition
+     * 🆕将「频率」与「信度」打包
      *
-     * * ️📝可空性：非空
-     * * 📝可变性：不变 | 仅构造时，无需可变
-     * * 📝所有权：具所有权
+     * @param f The frequency value
+     * @param c The confidence value
+     * @return The packed truth
      */
-    boolean __isAnalytic();
+    public static int packTruth(final float f, final float c) {
+        long truth = 0;
+        truth = ShortFloat.withLane(truth, FREQUENCY, ShortFloat.toShort(f));
+        truth = ShortFloat.withLane(truth, CONFIDENCE, ShortFloat.toShort(c));
+        return (int) truth;
+    }
 
     /**
      * Get the frequency value
@@ -43,7 +54,7 @@ public interface Truth extends Cloneable {
      * @return The frequency value
      */
     public default float getFrequency() {
-        return __frequency().getValue();
+        return ShortFloat.toFloat(ShortFloat.lane(__truth(), FREQUENCY));
     }
 
     /**
@@ -52,7 +63,7 @@ public interface Truth extends Cloneable {
      * @return The confidence value
      */
     public default float getConfidence() {
-        return __confidence().getValue();
+        return ShortFloat.toFloat(ShortFloat.lane(__truth(), CONFIDENCE));
     }
 
     /**
@@ -71,7 +82,7 @@ public interface Truth extends Cloneable {
      * @return The expectation value
      */
     public default float getExpectation() {
-        return (float) (__confidence().getValue() * (__frequency().getValue() - 0.5) + 0.5);
+        return (float) (getConfidence() * (getFrequency() - 0.5) + 0.5);
     }
 
     /**
@@ -103,8 +114,7 @@ public interface Truth extends Cloneable {
      */
     public default boolean truthEquals(Truth that) {
         // * 🚩【2024-06-03 08:41:50】弃用浮点判等，转为短浮点判等
-        return (__frequency().equals(that.__frequency()))
-                && (__confidence().equals(that.__confidence()));
+        return __truth() == that.__truth();
     }
 
     /**
@@ -123,7 +133,9 @@ public interface Truth extends Cloneable {
      */
     public default String truthToString() {
         // * 🚩格式化字符串"%【频率】;【信度】%"，没有`Brief`
-        return DELIMITER + __frequency().toString() + SEPARATOR + __confidence().toString() + DELIMITER;
+        final int truth = __truth();
+        return DELIMITER + ShortFloat.toString(ShortFloat.lane(truth, FREQUENCY))
+                + SEPARATOR + ShortFloat.toString(ShortFloat.lane(truth, CONFIDENCE)) + DELIMITER;
     }
 
     /**
@@ -135,9 +147,10 @@ public interface Truth extends Cloneable {
      */
     public default String truthToStringBrief() {
         // * 🚩格式化字符串"%【频率】;"
-        final String s1 = DELIMITER + __frequency().toStringBrief() + SEPARATOR;
+        final int truth = __truth();
+        final String s1 = DELIMITER + ShortFloat.toStringBrief(ShortFloat.lane(truth, FREQUENCY)) + SEPARATOR;
         // * 🚩准备「信度」字符串：1⇒0.99；其它⇒不变
-        final String s2 = __confidence().toStringBrief();
+        final String s2 = ShortFloat.toStringBrief(ShortFloat.lane(truth, CONFIDENCE));
         // * 🚩格式化字符串"%【频率】;【信度】%"
         return s1 + s2 + DELIMITER;
     }
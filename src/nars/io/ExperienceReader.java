@@ -24,6 +24,11 @@ public class ExperienceReader implements InputChannel {
      * Remaining working cycles before reading the next line
      */
     private int timer;
+    /**
+     * 🆕Number of lines read from the file, reported to the reasoner with
+     * {@link Reasoner#setInputPosition}
+     */
+    private long lines;
 
     /**
      * Default constructor
@@ -78,6 +83,28 @@ public class ExperienceReader implements InputChannel {
         reasoner.addInputChannel(this);
     }
 
+    /**
+     * 🆕Continue a file from where a journaled run stopped, see
+     * {@link Reasoner#openJournal}: skip the lines already read, and wait out
+     * the rest of the last step count
+     *
+     * @param lines Number of lines read before the crash
+     * @param delay Remaining working cycles before reading the next line
+     */
+    public void resume(long lines, int delay) {
+        if (inExp == null) {
+            return;
+        }
+        try {
+            while (this.lines < lines && inExp.readLine() != null) {
+                this.lines++;
+            }
+        } catch (IOException ex) {
+            System.out.println("i/o error: " + ex.getMessage());
+        }
+        timer = delay;
+    }
+
     /**
      * Process the next chunk of input data;
      * TODO some duplicated code with
@@ -89,6 +116,7 @@ public class ExperienceReader implements InputChannel {
     public boolean nextInput() {
         if (timer > 0) {
             timer--;
+            reasoner.setInputPosition(lines, timer);
             return true;
         }
         if (inExp == null) {
@@ -103,16 +131,20 @@ public class ExperienceReader implements InputChannel {
                     inExp = null;
                     return false;
                 }
+                lines++;
             } catch (IOException ex) {
                 System.out.println("i/o error: " + ex.getMessage());
             }
             line = line.trim();
             // read NARS language or an integer
             if (line.length() > 0) {
+                // * 🚩先记下位置，再输入：两者在日志中随同一次落盘写出
                 try {
                     timer = Integer.parseInt(line);
+                    reasoner.setInputPosition(lines, timer);
                     reasoner.walk(timer);
                 } catch (NumberFormatException e) {
+                    reasoner.setInputPosition(lines, timer);
                     reasoner.textInputLine(line);
                 }
             }
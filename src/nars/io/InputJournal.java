@@ -0,0 +1,266 @@
+package nars.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 🆕推理器的预写输入日志
+ * * 🎯崩溃后从最近的检查点（快照）重放日志，免去从头运行
+ * * 📝推理器的运行由「输入的文本行、步数、运行开关、清空输出与时钟滴答的先后」完全决定（随机数种子固定），故只需记下这些
+ * * 📌连续的时钟滴答合并为一条记录：空转与推理时每步只是计数加一
+ * * 📌输入文件已读到的位置也记下，只保留最新的一个，随下一条记录或落盘写出：恢复后读取器据此续读
+ * * 📌只追加写入，自带缓冲；距上次落盘超过{@link #flushMillis}毫秒时再落盘，每步的开销可忽略
+ * * ⚠️崩溃时丢失的只是最后一次落盘之后的部分；写到一半的末条记录在重放时忽略
+ */
+public final class InputJournal implements Closeable {
+
+    /** 文件头的魔数："NARJ" */
+    private static final int MAGIC = 0x4E41524A;
+    /** 格式版本；格式改变时递增 */
+    private static final int VERSION = 2;
+
+    /** 记录的种类 */
+    private static final byte LINE = 1, WALK = 2, RUN = 3, STOP = 4, RESET = 5, TICKS = 6, OUTPUT = 7,
+            POSITION = 8;
+
+    /**
+     * 重放日志的接收者
+     * * 📌与{@link InputJournal}的各记录方法一一对应
+     */
+    public interface Replayer {
+        void line(String text);
+
+        void walk(int steps);
+
+        void run();
+
+        void stop();
+
+        void reset();
+
+        void ticks(long n);
+
+        void output();
+
+        void position(long lines, int delay);
+    }
+
+    /**
+     * 底层的输出流
+     *
+     * * 📝可空性：非空
+     * * 📝可变性：可变 | 只追加
+     * * 📝所有权：具所有权 | 随{@link #close}关闭
+     */
+    private final DataOutputStream out;
+    /** 两次落盘之间的最长间隔（纳秒） */
+    private final long flushNanos;
+    /** 尚未写出的连续滴答数 */
+    private long pendingTicks = 0;
+    /** 是否有尚未写出的输入位置 */
+    private boolean pendingPosition = false;
+    /** 尚未写出的输入位置：已读的行数 */
+    private long pendingLines;
+    /** 尚未写出的输入位置：读下一行前尚待空转的步数 */
+    private int pendingDelay;
+    /** 上次落盘的时刻，见{@link System#nanoTime} */
+    private long lastFlush = System.nanoTime();
+
+    /**
+     * 新建日志文件；已存在则覆盖
+     *
+     * @param path        [] 日志文件
+     * @param generation  [] 日志的代数，与对应的检查点一致
+     * @param flushMillis [] 两次落盘之间的最长间隔（毫秒）
+     */
+    public InputJournal(File path, long generation, int flushMillis) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path), 1 << 16));
+        this.flushNanos = flushMillis * 1_000_000L;
+        this.out.writeInt(MAGIC);
+        this.out.writeInt(VERSION);
+        this.out.writeLong(generation);
+        this.out.flush();
+    }
+
+    /* ---------- 记录 ---------- */
+
+    /** 记录一行输入 */
+    public void line(String text) throws IOException {
+        this.writePending();
+        final byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        this.out.writeByte(LINE);
+        this.out.writeInt(bytes.length);
+        this.out.write(bytes);
+        this.flushIfDue();
+    }
+
+    /** 记录「步进若干步」 */
+    public void walk(int steps) throws IOException {
+        this.writePending();
+        this.out.writeByte(WALK);
+        this.out.writeInt(steps);
+        this.flushIfDue();
+    }
+
+    /** 记录「开始运行」 */
+    public void run() throws IOException {
+        this.writePending();
+        this.out.writeByte(RUN);
+        this.flushIfDue();
+    }
+
+    /** 记录「停止运行」 */
+    public void stop() throws IOException {
+        this.writePending();
+        this.out.writeByte(STOP);
+        this.flushIfDue();
+    }
+
+    /** 记录「重置」 */
+    public void reset() throws IOException {
+        this.writePending();
+        this.out.writeByte(RESET);
+        this.flushIfDue();
+    }
+
+    /** 记录「在时钟滴答之外清空待输出的字符串」 */
+    public void output() throws IOException {
+        this.writePending();
+        this.out.writeByte(OUTPUT);
+        this.flushIfDue();
+    }
+
+    /**
+     * 记录一次时钟滴答
+     * * 🚩只计数，等到下一条别的记录或落盘时再写出
+     */
+    public void tick() throws IOException {
+        this.pendingTicks++;
+        this.flushIfDue();
+    }
+
+    /**
+     * 记录输入文件已读到的位置
+     * * 🚩只保留最新的一个，等到下一条别的记录或落盘时再写出
+     * * ⚠️须在这一行的输入（{@link #line}、{@link #walk}）之前记录：两者随同一次落盘写出
+     *
+     * @param lines [] 已读的行数
+     * @param delay [] 读下一行前尚待空转的步数
+     */
+    public void position(long lines, int delay) {
+        this.pendingPosition = true;
+        this.pendingLines = lines;
+        this.pendingDelay = delay;
+    }
+
+    private void writePending() throws IOException {
+        if (this.pendingPosition) {
+            this.out.writeByte(POSITION);
+            this.out.writeLong(this.pendingLines);
+            this.out.writeInt(this.pendingDelay);
+            this.pendingPosition = false;
+        }
+        if (this.pendingTicks > 0) {
+            this.out.writeByte(TICKS);
+            this.out.writeLong(this.pendingTicks);
+            this.pendingTicks = 0;
+        }
+    }
+
+    private void flushIfDue() throws IOException {
+        if (System.nanoTime() - this.lastFlush >= this.flushNanos)
+            this.flush();
+    }
+
+    /* ---------- 落盘 ---------- */
+
+    /** 写出缓冲中的全部记录，交给操作系统 | 进程崩溃后不丢失 */
+    public void flush() throws IOException {
+        this.writePending();
+        this.out.flush();
+        this.lastFlush = System.nanoTime();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.flush();
+        this.out.close();
+    }
+
+    /* ---------- 重放 ---------- */
+
+    /**
+     * 按顺序重放日志中的记录
+     * * 🚩文件在记录中途结束（崩溃时写到一半）⇒忽略这条残缺的记录
+     *
+     * @param path       [] 日志文件
+     * @param generation [] 预期的代数 | 不符⇒{@link IOException}
+     * @param replayer   [&m] 接收者
+     * @return 重放的记录数
+     */
+    public static long replay(File path, long generation, Replayer replayer) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(path), 1 << 16))) {
+            if (in.readInt() != MAGIC)
+                throw new IOException("not a NARS journal: " + path);
+            final int version = in.readInt();
+            if (version != VERSION)
+                throw new IOException("unsupported journal version " + version + ", expected " + VERSION);
+            final long actual = in.readLong();
+            if (actual != generation)
+                throw new IOException("journal generation " + actual + " does not match checkpoint " + generation);
+            long n = 0;
+            while (true) {
+                final int kind = in.read();
+                if (kind < 0)
+                    return n;
+                try {
+                    switch (kind) {
+                        case LINE: {
+                            final byte[] bytes = new byte[in.readInt()];
+                            in.readFully(bytes);
+                            replayer.line(new String(bytes, StandardCharsets.UTF_8));
+                            break;
+                        }
+                        case WALK:
+                            replayer.walk(in.readInt());
+                            break;
+                        case RUN:
+                            replayer.run();
+                            break;
+                        case STOP:
+                            replayer.stop();
+                            break;
+                        case RESET:
+                            replayer.reset();
+                            break;
+                        case TICKS:
+                            replayer.ticks(in.readLong());
+                            break;
+                        case OUTPUT:
+                            replayer.output();
+                            break;
+                        case POSITION: {
+                            final long lines = in.readLong();
+                            replayer.position(lines, in.readInt());
+                            break;
+                        }
+                        default:
+                            throw new IOException("unknown journal record: " + kind);
+                    }
+                } catch (EOFException e) {
+                    return n;
+                }
+                n++;
+            }
+        }
+    }
+}
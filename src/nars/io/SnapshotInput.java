@@ -0,0 +1,231 @@
+package nars.io;
+
+import static nars.io.SnapshotOutput.*;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.util.ArrayList;
+import java.util.Random;
+
+import nars.entity.BudgetValue;
+import nars.entity.Judgement;
+import nars.entity.Sentence;
+import nars.entity.SentenceV1;
+import nars.entity.Stamp;
+import nars.entity.Task;
+import nars.inference.Truth;
+import nars.language.MakeTerm;
+import nars.language.Term;
+
+/**
+ * 🆕推理器快照的读入流
+ * * 📌与{@link SnapshotOutput}一一对应：按编号还原被共享的词项与任务
+ * * 🚩格式不符（魔数、版本、未知的记号）⇒{@link IOException}
+ */
+public final class SnapshotInput extends DataInputStream {
+
+    /**
+     * 已读入的词项，下标即编号
+     *
+     * * 📝可空性：非空
+     * * 📝可变性：可变 | 只增不减
+     * * 📝所有权：具所有权
+     */
+    private final ArrayList<Term> terms = new ArrayList<>();
+    /**
+     * 已读入的任务，下标即编号
+     *
+     * * 📝可空性：非空
+     * * 📝可变性：可变 | 只增不减
+     * * 📝所有权：具所有权
+     */
+    private final ArrayList<Task> tasks = new ArrayList<>();
+
+    /**
+     * @param in 底层流 | 自带缓冲：可能读过快照的末尾
+     */
+    public SnapshotInput(InputStream in) {
+        super(new BufferedInputStream(in, 1 << 16));
+    }
+
+    /**
+     * 从内存中的字节读入：无需再加缓冲
+     *
+     * @param bytes 一份完整的记录，如写到内存中的{@link SnapshotOutput}所写出的
+     */
+    public SnapshotInput(byte[] bytes) {
+        super(new ByteArrayInputStream(bytes));
+    }
+
+    /**
+     * 从内存中的字节读入，任务按编号取自给定的表
+     * * 📌与{@link SnapshotOutput#SnapshotOutput(java.io.ByteArrayOutputStream, ArrayList)}对应
+     *
+     * @param bytes     一份完整的记录
+     * @param liveTasks [&] 写出时登记的任务，下标即编号
+     */
+    public SnapshotInput(byte[] bytes, Task[] liveTasks) {
+        this(bytes);
+        for (final Task task : liveTasks)
+            this.tasks.add(task);
+    }
+
+    /** 读入并检查文件头 */
+    public void readHeader() throws IOException {
+        if (this.readInt() != MAGIC)
+            throw new IOException("not a NARS snapshot");
+        final int version = this.readInt();
+        if (version != VERSION)
+            throw new IOException("unsupported snapshot version " + version + ", expected " + VERSION);
+    }
+
+    /* ---------- 词项 ---------- */
+
+    /** @return 可空 */
+    public Term readTerm() throws IOException {
+        int id = this.readInt();
+        while (id == DEFINE) {
+            this.terms.add(this.readTermDefinition());
+            id = this.readInt();
+        }
+        return id == NULL ? null : lookup(this.terms, id);
+    }
+
+    private Term readTermDefinition() throws IOException {
+        final byte kind = this.readByte();
+        switch (kind) {
+            case WORD:
+                return MakeTerm.makeWord(this.readUTF());
+            case VARIABLE: {
+                final char type = this.readChar();
+                final long id = this.readLong();
+                switch (type) {
+                    case Symbols.VAR_INDEPENDENT:
+                        return MakeTerm.makeVarI(id);
+                    case Symbols.VAR_DEPENDENT:
+                        return MakeTerm.makeVarD(id);
+                    case Symbols.VAR_QUERY:
+                        return MakeTerm.makeVarQ(id);
+                    default:
+                        throw new IOException("unknown variable type: " + type);
+                }
+            }
+            case COMPOUND: {
+                final String operator = this.readUTF();
+                final short relationIndex = this.readShort();
+                final int size = this.readShort();
+                final ArrayList<Term> components = new ArrayList<>(size);
+                for (int i = 0; i < size; i++)
+                    components.add(lookup(this.terms, this.readInt()));
+                final Term compound = MakeTerm.makeCompoundTermUnchecked(operator, components, relationIndex);
+                if (compound == null)
+                    throw new IOException("unknown term operator: " + operator);
+                return compound;
+            }
+            default:
+                throw new IOException("unknown term kind: " + kind);
+        }
+    }
+
+    /* ---------- 语句 ---------- */
+
+    /** @return 可空 */
+    public Sentence readSentence() throws IOException {
+        final char punctuation = (char) this.readByte();
+        if (punctuation == 0)
+            return null;
+        final Term content = this.readTerm();
+        final long[] evidentialBase = new long[this.readShort()];
+        for (int i = 0; i < evidentialBase.length; i++)
+            evidentialBase[i] = this.readLong();
+        final Stamp stamp = Stamp.restore(evidentialBase, this.readLong());
+        Truth truth = null;
+        boolean revisable = false;
+        if (punctuation == Symbols.JUDGMENT_MARK) {
+            final int packed = this.readInt();
+            final boolean analytic = this.readBoolean();
+            revisable = this.readBoolean();
+            truth = new Truth() {
+                @Override
+                public int __truth() {
+                    return packed;
+                }
+
+                @Override
+                public boolean __isAnalytic() {
+                    return analytic;
+                }
+            };
+        }
+        try {
+            return SentenceV1.newSentenceFromPunctuation(content, punctuation, truth, stamp, revisable);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage());
+        }
+    }
+
+    /** @return 可空 */
+    public Judgement readJudgement() throws IOException {
+        final Sentence sentence = this.readSentence();
+        if (sentence != null && !sentence.isJudgement())
+            throw new IOException("expected a judgement: " + sentence);
+        return sentence == null ? null : sentence.asJudgement();
+    }
+
+    /* ---------- 任务 ---------- */
+
+    /** @return 可空 */
+    public Task readTask() throws IOException {
+        int id = this.readInt();
+        while (id == DEFINE) {
+            this.tasks.add(this.readTaskDefinition());
+            id = this.readInt();
+        }
+        return id == NULL ? null : lookup(this.tasks, id);
+    }
+
+    private Task readTaskDefinition() throws IOException {
+        final Sentence sentence = this.readSentence();
+        if (sentence == null)
+            throw new IOException("task without sentence");
+        final long budget = this.readLong();
+        final int parentId = this.readInt();
+        final Task parent = parentId == NULL ? null : lookup(this.tasks, parentId);
+        final Judgement parentBelief = this.readJudgement();
+        final Judgement bestSolution = this.readJudgement();
+        final Task task = new Task(sentence, new BudgetValue(0, 0, 0), parent, parentBelief, bestSolution);
+        task.__budget(budget);
+        return task;
+    }
+
+    /* ---------- 其它 ---------- */
+
+    /** 读入随机数生成器，见{@link SnapshotOutput#writeRandom} */
+    public Random readRandom() throws IOException {
+        final byte[] bytes = new byte[this.readInt()];
+        this.readFully(bytes);
+        try (ObjectInputStream objects = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return (Random) objects.readObject();
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("invalid random state", e);
+        }
+    }
+
+    /** 读入短整数数组（链接的索引） */
+    public short[] readShorts() throws IOException {
+        final short[] values = new short[this.readShort()];
+        for (int i = 0; i < values.length; i++)
+            values[i] = this.readShort();
+        return values;
+    }
+
+    private static <T> T lookup(ArrayList<T> table, int id) throws IOException {
+        if (id < 0 || id >= table.size())
+            throw new IOException("dangling reference: " + id);
+        return table.get(id);
+    }
+}
@@ -0,0 +1,241 @@
+package nars.io;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Random;
+
+import nars.entity.Judgement;
+import nars.entity.Sentence;
+import nars.entity.Task;
+import nars.language.CompoundTerm;
+import nars.language.Image;
+import nars.language.Term;
+import nars.language.Variable;
+
+/**
+ * 🆕推理器快照的写出流
+ * * 🎯把推理器的完整状态存成二进制，以便不经重新推导地还原（见{@link SnapshotInput}）
+ * * 📌在{@link DataOutputStream}之上，对「词项」与「任务」按引用去重
+ * * * 同一对象只写出一次，之后只写编号；还原后对象间的共享关系与原先一致
+ * * * 📄多个概念的任务链共享同一个任务，「最优解」的更新须对各处都可见
+ * * 📌「语句」（信念、问题）不可变，按值写出
+ * * 🚩编号按「定义完成」的顺序分配，与读入时登记的顺序一致
+ */
+public final class SnapshotOutput extends DataOutputStream {
+
+    /** 文件头的魔数："NARS" */
+    static final int MAGIC = 0x4E415253;
+    /** 格式版本；格式改变时递增 */
+    static final int VERSION = 2;
+
+    /** 记号：空引用 */
+    static final int NULL = -1;
+    /** 记号：后随一个新对象的定义 */
+    static final int DEFINE = -2;
+
+    /** 词项的种类 */
+    static final byte WORD = 0, VARIABLE = 1, COMPOUND = 2;
+
+    /**
+     * 已写出的词项⇒编号
+     * * 📌按引用判等：相等而不同一的词项各写一份
+     *
+     * * 📝可空性：非空
+     * * 📝可变性：可变 | 只增不减
+     * * 📝所有权：具所有权
+     */
+    private final IdentityHashMap<Term, Integer> terms = new IdentityHashMap<>();
+    /**
+     * 已写出的任务⇒编号
+     *
+     * * 📝可空性：非空
+     * * 📝可变性：可变 | 只增不减
+     * * 📝所有权：具所有权
+     */
+    private final IdentityHashMap<Task, Integer> tasks = new IdentityHashMap<>();
+    /**
+     * 🆕按引用保留的任务，下标即编号
+     * * 🎯冻结的概念（见{@link nars.entity.Concept#freeze}）：任务不写成字节，解冻后仍是原先的对象
+     *
+     * * 📝可空性：可空 | 空⇒任务照常写出定义
+     * * 📝可变性：可变 | 只增不减
+     * * 📝所有权：借用
+     */
+    private final ArrayList<Task> liveTasks;
+
+    /**
+     * @param out 底层流 | 自带缓冲，写完须{@link #flush}
+     */
+    public SnapshotOutput(OutputStream out) {
+        super(new BufferedOutputStream(out, 1 << 16));
+        this.liveTasks = null;
+    }
+
+    /**
+     * 写到内存中：无需再加缓冲
+     * * 🎯逐个对象写出的小记录，如{@link nars.storage.ConceptArchive}中的概念
+     *
+     * @param out 内存中的流
+     */
+    public SnapshotOutput(ByteArrayOutputStream out) {
+        this(out, null);
+    }
+
+    /**
+     * 写到内存中，任务只按引用登记
+     * * 📌读回时须把同一张表交给{@link SnapshotInput#SnapshotInput(byte[], Task[])}
+     *
+     * @param out       内存中的流
+     * @param liveTasks [&m] 登记任务的表，下标即写出的编号 | 空⇒照常写出定义
+     */
+    public SnapshotOutput(ByteArrayOutputStream out, ArrayList<Task> liveTasks) {
+        super(out);
+        this.liveTasks = liveTasks;
+    }
+
+    /** 写出文件头：魔数与版本 */
+    public void writeHeader() throws IOException {
+        this.writeInt(MAGIC);
+        this.writeInt(VERSION);
+    }
+
+    /* ---------- 词项 ---------- */
+
+    /**
+     * 写出词项的引用；未写出过的词项（及其元素）先写出定义
+     * * 🚩元素先于整体定义：读入时构造整体所需的元素均已就绪
+     *
+     * @param term [&] 可空
+     */
+    public void writeTerm(Term term) throws IOException {
+        if (term == null) {
+            this.writeInt(NULL);
+            return;
+        }
+        this.defineTerm(term);
+        this.writeInt(this.terms.get(term));
+    }
+
+    private void defineTerm(Term term) throws IOException {
+        if (this.terms.containsKey(term))
+            return;
+        if (term instanceof CompoundTerm) {
+            final CompoundTerm compound = (CompoundTerm) term;
+            for (int i = 0; i < compound.size(); i++)
+                this.defineTerm(compound.componentAt(i));
+            this.writeInt(DEFINE);
+            this.writeByte(COMPOUND);
+            this.writeUTF(compound.operator());
+            this.writeShort(compound instanceof Image ? ((Image) compound).getRelationIndex() : -1);
+            this.writeShort(compound.size());
+            for (int i = 0; i < compound.size(); i++)
+                this.writeInt(this.terms.get(compound.componentAt(i)));
+        } else if (term instanceof Variable) {
+            final Variable variable = (Variable) term;
+            this.writeInt(DEFINE);
+            this.writeByte(VARIABLE);
+            this.writeChar(variable.getType());
+            this.writeLong(variable.getId());
+        } else {
+            this.writeInt(DEFINE);
+            this.writeByte(WORD);
+            this.writeUTF(term.getName());
+        }
+        this.terms.put(term, this.terms.size());
+    }
+
+    /* ---------- 语句 ---------- */
+
+    /**
+     * 按值写出语句：标点、内容、时间戳，以及判断的真值与「可修正」
+     *
+     * @param sentence [&] 可空
+     */
+    public void writeSentence(Sentence sentence) throws IOException {
+        if (sentence == null) {
+            this.writeByte(0);
+            return;
+        }
+        this.writeByte(sentence.getPunctuation());
+        this.writeTerm(sentence.getContent());
+        final long[] evidentialBase = sentence.__evidentialBase();
+        this.writeShort(evidentialBase.length);
+        for (final long serial : evidentialBase)
+            this.writeLong(serial);
+        this.writeLong(sentence.__creationTime());
+        if (sentence.isJudgement()) {
+            final Judgement judgement = sentence.asJudgement();
+            this.writeInt(judgement.__truth());
+            this.writeBoolean(judgement.__isAnalytic());
+            this.writeBoolean(judgement.getRevisable());
+        }
+    }
+
+    /* ---------- 任务 ---------- */
+
+    /**
+     * 写出任务的引用；未写出过的任务先写出定义
+     * * 🚩「父任务」链可能很长：逐个收集尚未写出的祖先，从最早的开始定义，不递归
+     *
+     * @param task [&] 可空
+     */
+    public void writeTask(Task task) throws IOException {
+        if (task == null) {
+            this.writeInt(NULL);
+            return;
+        }
+        if (this.liveTasks != null) {
+            // * 🚩按引用保留：只登记，不写出定义（父任务也随对象一起保留）
+            if (!this.tasks.containsKey(task)) {
+                this.tasks.put(task, this.liveTasks.size());
+                this.liveTasks.add(task);
+            }
+        } else if (!this.tasks.containsKey(task)) {
+            final ArrayList<Task> undefined = new ArrayList<>();
+            for (Task t = task; t != null && !this.tasks.containsKey(t); t = t.getParentTask())
+                undefined.add(t);
+            for (int i = undefined.size() - 1; i >= 0; i--)
+                this.defineTask(undefined.get(i));
+        }
+        this.writeInt(this.tasks.get(task));
+    }
+
+    private void defineTask(Task task) throws IOException {
+        this.writeInt(DEFINE);
+        this.writeSentence(task);
+        this.writeLong(task.__budget());
+        final Task parent = task.getParentTask();
+        this.writeInt(parent == null ? NULL : this.tasks.get(parent));
+        this.writeSentence(task.getParentBelief());
+        this.writeSentence(task.getBestSolution());
+        this.tasks.put(task, this.tasks.size());
+    }
+
+    /* ---------- 其它 ---------- */
+
+    /**
+     * 写出随机数生成器的内部状态
+     * * 🚩借用Java序列化：{@link Random}不公开其种子，但可序列化
+     */
+    public void writeRandom(Random random) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream objects = new ObjectOutputStream(bytes)) {
+            objects.writeObject(random);
+        }
+        this.writeInt(bytes.size());
+        bytes.writeTo(this);
+    }
+
+    /** 写出短整数数组（链接的索引） */
+    public void writeShorts(short[] values) throws IOException {
+        this.writeShort(values.length);
+        for (final short value : values)
+            this.writeShort(value);
+    }
+}
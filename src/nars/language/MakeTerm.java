@@ -196,6 +196,58 @@ public abstract class MakeTerm {
         }
     }
 
+    /**
+     * 🆕按连接词与元素直接构造复合词项，不作任何化简与检查
+     * * 🎯用于从快照还原：快照中的词项在存入时已是规范形式，再化简可能改变其结构
+     * * 📌像的元素中，「关系」位于`relationIndex`处（与{@link Image}的存储形式一致）
+     * * ⚠️结果可空：未知的连接词⇒空
+     *
+     * @param op            [&] Term operator
+     * @param components    [] Component list, already in normal form
+     * @param relationIndex [] The index of the relation, only for images
+     * @return [] A compound term or null
+     */
+    public static CompoundTerm makeCompoundTermUnchecked(String op, ArrayList<Term> components, short relationIndex) {
+        switch (op) {
+            case Symbols.IMAGE_EXT_OPERATOR:
+                return new ImageExt(CompoundTerm.makeImageName(op, components, relationIndex), components,
+                        relationIndex);
+            case Symbols.IMAGE_INT_OPERATOR:
+                return new ImageInt(CompoundTerm.makeImageName(op, components, relationIndex), components,
+                        relationIndex);
+            case Symbols.INTERSECTION_EXT_OPERATOR:
+                return new IntersectionExt(components);
+            case Symbols.INTERSECTION_INT_OPERATOR:
+                return new IntersectionInt(components);
+            case Symbols.DIFFERENCE_EXT_OPERATOR:
+                return new DifferenceExt(components);
+            case Symbols.DIFFERENCE_INT_OPERATOR:
+                return new DifferenceInt(components);
+            case Symbols.PRODUCT_OPERATOR:
+                return new Product(components);
+            case Symbols.NEGATION_OPERATOR:
+                return new Negation(components);
+            case Symbols.DISJUNCTION_OPERATOR:
+                return new Disjunction(components);
+            case Symbols.CONJUNCTION_OPERATOR:
+                return new Conjunction(components);
+            case Symbols.INHERITANCE_RELATION:
+                return new Inheritance(components);
+            case Symbols.SIMILARITY_RELATION:
+                return new Similarity(components);
+            case Symbols.IMPLICATION_RELATION:
+                return new Implication(components);
+            case Symbols.EQUIVALENCE_RELATION:
+                return new Equivalence(components);
+            default:
+                if (op.equals("" + Symbols.SET_EXT_OPENER))
+                    return new SetExt(components);
+                if (op.equals("" + Symbols.SET_INT_OPENER))
+                    return new SetInt(components);
+                return null;
+        }
+    }
+
     // /**
     // * Try to add a component into a compound
     // * * 📝尝试增加复合词项的一个元素，
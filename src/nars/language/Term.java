@@ -1,6 +1,7 @@
 package nars.language;
 
 import nars.io.Symbols;
+import nars.storage.KeyRegistry;
 
 /**
  * Term is the basic component of Narsese, and the object of processing in NARS.
@@ -21,6 +22,26 @@ public class Term implements Cloneable, Comparable<Term> {
      */
     protected String name;
 
+    /**
+     * 🆕缓存的名称ID
+     * * 🎯让「词项⇒概念」查找免于重复的字符串散列与比较
+     * * 📌连同名称一起缓存：名称被修改（重命名变量）后自动失效
+     * * 📌名称与ID放在一个不可变对象中、经一个字段发布：分片间传递的词项在别的线程上读到的总是配对的两者
+     */
+    private NameId nameId;
+
+    /** 🆕名称及其ID | 不可变 */
+    private static final class NameId {
+        /** 按引用比较 */
+        final String name;
+        final int id;
+
+        NameId(String name, int id) {
+            this.name = name;
+            this.id = id;
+        }
+    }
+
     /**
      * Default constructor that build an internal Term
      * * 📌【2024-06-01 11:52:19】目前还不能移除：在「复合词项」中需要「构造后获取连接词」因此（暂时）需要空的名称
@@ -46,6 +67,41 @@ public class Term implements Cloneable, Comparable<Term> {
         return name;
     }
 
+    /**
+     * 🆕获取名称对应的整数ID，未注册则注册
+     * * 🚩名称未变⇒直接返回缓存；否则向{@link KeyRegistry}查询
+     * * ⚠️注册表只增不减：只应在放入（概念、索引…）时调用，只读的查找用{@link #findNameId}
+     *
+     * @return The id of the name of the Term
+     */
+    public int getNameId() {
+        final String name = this.getName();
+        final NameId cached = this.nameId;
+        if (cached != null && cached.name == name)
+            return cached.id;
+        final int id = KeyRegistry.idOf(name);
+        this.nameId = new NameId(name, id);
+        return id;
+    }
+
+    /**
+     * 🆕获取名称对应的整数ID，不注册
+     * * 🎯只读的查找：未注册的名称不可能有概念，不必为其分配ID
+     * * 🚩未注册时不缓存：此后可能被注册
+     *
+     * @return The id of the name of the Term / {@link KeyRegistry#NO_ID}
+     */
+    public int findNameId() {
+        final String name = this.getName();
+        final NameId cached = this.nameId;
+        if (cached != null && cached.name == name)
+            return cached.id;
+        final int id = KeyRegistry.idIfPresent(name);
+        if (id != KeyRegistry.NO_ID)
+            this.nameId = new NameId(name, id);
+        return id;
+    }
+
     /**
      * Check whether the current Term can name a Concept.
      *
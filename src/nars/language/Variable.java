@@ -31,8 +31,9 @@ public class Variable extends Term {
     /**
      * 获取变量id
      * * 🎯用于「获取词项内最大变量id」
+     * * 🎯用于快照：变量按「类型+编号」保存
      */
-    long getId() {
+    public long getId() {
         return this.id;
     }
 
@@ -1,5 +1,8 @@
 package nars.main;
 
+import java.io.File;
+import java.io.IOException;
+
 import nars.control.Reasoner;
 
 /**
@@ -8,7 +11,8 @@ import nars.control.Reasoner;
 public class CommandLineParameters {
 
     /**
-     * Decode the silence level
+     * Decode the silence level, and the directory of the input journal
+     * ({@code --journal dir}, see {@link Reasoner#openJournal})
      *
      * @param args Given arguments
      * @param r    The corresponding reasoner
@@ -19,6 +23,13 @@ public class CommandLineParameters {
             if ("--silence".equals(arg)) {
                 arg = args[++i];
                 r.getSilenceValue().set(Integer.parseInt(arg));
+            } else if ("--journal".equals(arg)) {
+                arg = args[++i];
+                try {
+                    r.openJournal(new File(arg));
+                } catch (IOException ex) {
+                    System.out.println("i/o error: " + ex.getMessage());
+                }
             }
         }
     }
@@ -30,6 +41,6 @@ public class CommandLineParameters {
      * @return Whether the argument is not the silence level
      */
     public static boolean isReallyFile(String param) {
-        return !"--silence".equals(param);
+        return !"--silence".equals(param) && !"--journal".equals(param);
     }
 }
@@ -2,6 +2,7 @@ package nars.main;
 
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
+import java.io.IOException;
 import java.io.PrintStream;
 import java.io.PrintWriter;
 
@@ -47,6 +48,11 @@ public class NARS {
         setStandAlone(true);
         CommandLineParameters.decode(args, nars.getReasoner());
         nars.runInference(args);
+        try {
+            nars.reasoner.closeJournal();
+        } catch (IOException ex) {
+            System.out.println("i/o error: " + ex.getMessage());
+        }
         // TODO only if single run ( no reset in between )
         if (nars.dumpLastState) {
             System.out.println("\n==== Dump Last State ====\n"
@@ -74,6 +80,8 @@ public class NARS {
         if (args.length > 0) {
             ExperienceReader experienceReader = new ExperienceReader(reasoner);
             experienceReader.openLoadFile(args[0]);
+            // * 🚩从日志恢复时，跳过崩溃前已读的行
+            experienceReader.resume(reasoner.getInputLines(), reasoner.getInputDelay());
         }
         reasoner.addOutputChannel(new ExperienceWriter(reasoner,
                 new PrintWriter(out, true)));
@@ -0,0 +1,438 @@
+package nars.storage;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import nars.control.Parameters;
+import nars.entity.Item;
+import nars.inference.BudgetFunctions;
+import nars.io.SnapshotInput;
+import nars.io.SnapshotOutput;
+import nars.io.ToStringBriefAndLong;
+
+/**
+ * 🆕各种「袋」的共同部分
+ * * 📌容量、遗忘、合并顺序、观察者与显示
+ * * 📌抽样与存储由子类决定；子类只需给出{@link #snapshot}以供显示
+ *
+ * @param <E> The type of the Item in the Bag
+ */
+abstract class AbstractBag<E extends Item> implements ManagedBag<E> {
+    /**
+     * hashtable load factor
+     */
+    static final float LOAD_FACTOR = Parameters.LOAD_FACTOR;
+
+    /**
+     * 🆕名称表、求和树等首次分配时所按的物品数
+     * * 🎯按字节预算时概念袋的容量可达数百万（见{@link Memory}）：结构随物品数增长，而非按容量一次分配
+     * * 📌不超过{@link Parameters#CONCEPT_BAG_SIZE}的容量照旧一次分配到位
+     *
+     * @param capacity 袋的容量
+     */
+    static int presize(int capacity) {
+        return Math.min(capacity, Parameters.CONCEPT_BAG_SIZE);
+    }
+
+    /**
+     * defined in different bags
+     */
+    private final int capacity;
+
+    /**
+     * priority levels
+     * * 🚩【2024-06-12】由全局常量改为各袋的构造参数
+     */
+    final int totalLevel;
+    /**
+     * firing threshold
+     */
+    final int threshold;
+    /**
+     * relative threshold, only calculate once
+     */
+    final float relativeThreshold;
+
+    /**
+     * The item decay rate, which differs in difference subclass,
+     * and can be changed in run time by the user, so not a constant.
+     *
+     * @return The number of times for a decay factor to be fully applied
+     */
+    final AtomicInteger forgetRate;
+
+    /**
+     * 🆕是否「惰性遗忘」
+     * * 🚩惰性⇒不在放回时遗忘，而在物品被读出时按其在袋中经历的访问次数一次算出
+     * * 📌取自{@link Parameters#LAZY_FORGETTING}
+     */
+    final boolean lazyForgetting = Parameters.LAZY_FORGETTING;
+
+    /** 🆕决定「预算合并顺序」的函数指针 */
+    final MergeOrderF<E> mergeOrderF;
+
+    /**
+     * 🆕溢出物品的去处
+     *
+     * * 📝可空性：可空 | 空⇒直接丢弃
+     * * 📝可变性：可变 | 由外部设置
+     * * 📝所有权：共享
+     */
+    private Consumer<? super E> overflowSink = null;
+
+    /**
+     * 🆕运行计数
+     * * 📌默认为此袋独有；可经{@link #useMetrics}与同类的袋共用
+     */
+    BagMetrics metrics = new BagMetrics();
+
+    private BagObserver<E> observer = new BagObserver.NullObserver<>();
+
+    /**
+     * 🆕自上次向观察者发布以来是否有变动
+     * * 🎯变动只置此标记，由{@link #publishPending}按限定频率合并发布
+     */
+    private boolean dirty = false;
+
+    /**
+     * 🆕上次向观察者发布的时间（纳秒）
+     */
+    private long lastPublished = System.nanoTime() - SnapshotPublisher.MIN_INTERVAL_NANOS;
+
+    /**
+     * 🆕是否有一次发布已提交、尚未完成
+     * * 🎯渲染慢于发布间隔时，不让后台队列与其中的快照无限增长
+     */
+    private final AtomicBoolean publishing = new AtomicBoolean(false);
+
+    /**
+     * The display level; initialized at lowest
+     */
+    private int showLevel;
+
+    /**
+     * 使用{@link Parameters#BAG_LEVEL}与{@link Parameters#BAG_THRESHOLD}的层级划分
+     */
+    AbstractBag(AtomicInteger forgetRate, int capacity, MergeOrderF<E> mergeOrderF) {
+        this(forgetRate, capacity, Parameters.BAG_LEVEL, Parameters.BAG_THRESHOLD, mergeOrderF);
+    }
+
+    /**
+     * 🆕指定层级数与阈值
+     *
+     * @param totalLevel The number of priority levels, at least 1
+     * @param threshold  The firing threshold, in [0, totalLevel]
+     */
+    AbstractBag(AtomicInteger forgetRate, int capacity, int totalLevel, int threshold, MergeOrderF<E> mergeOrderF) {
+        if (totalLevel < 1 || threshold < 0 || threshold > totalLevel)
+            throw new IllegalArgumentException("invalid levels: " + threshold + "/" + totalLevel);
+        this.capacity = capacity;
+        this.totalLevel = totalLevel;
+        this.threshold = threshold;
+        this.relativeThreshold = (float) threshold / (float) totalLevel;
+        this.showLevel = threshold;
+        this.forgetRate = forgetRate;
+        this.mergeOrderF = mergeOrderF;
+    }
+
+    @Override
+    public final int capacity() {
+        return capacity;
+    }
+
+    @Override
+    public final BagMetrics metrics() {
+        return metrics;
+    }
+
+    @Override
+    public final void useMetrics(BagMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public final int totalLevel() {
+        return totalLevel;
+    }
+
+    @Override
+    public final int threshold() {
+        return threshold;
+    }
+
+    /**
+     * 检查要放入的Item是否合法
+     * * 🚩非空检查：`null`⇒NPE报错
+     * * 🚩已有检查：已有⇒重复置入⇒报错
+     *
+     * @param in
+     */
+    final void validateIn(E in) {
+        if (in == null)
+            throw new AssertionError("尝试放进null");
+        if (this.contains(in))
+            throw new AssertionError("尝试放进重复的项 " + in);
+    }
+
+    /**
+     * 🆕按「合并顺序」合并同键物品的预算值
+     *
+     * @param oldItem The Item already in the Bag
+     * @param newItem The Item being put in
+     */
+    final void mergeDuplicate(E oldItem, E newItem) {
+        this.metrics.merges++;
+        switch (this.mergeOrderF.call(oldItem, newItem)) {
+            case OldToNew:
+                newItem.mergeBudget(oldItem);
+                break;
+            case NewToOld: // * 📝原先统一是相当于这个
+                oldItem.mergeBudget(newItem);
+                break;
+        }
+    }
+
+    @Override
+    public final void setOverflowSink(Consumer<? super E> sink) {
+        this.overflowSink = sink;
+    }
+
+    /** 🆕把溢出的物品交给{@link #overflowSink} */
+    final void overflowed(E item) {
+        if (this.overflowSink != null)
+            this.overflowSink.accept(item);
+    }
+
+    /**
+     * Put an item back into the Bag
+     * <p>
+     * The only place where the forgetting rate is applied
+     *
+     * @param oldItem The Item to put back
+     * @return Whether the new Item is added into the Bag
+     */
+    @Override
+    public final boolean putBack(E oldItem) {
+        // * 🚩检查
+        this.validateIn(oldItem);
+        // * 🚩在「放入」前进行一次「遗忘」 | 惰性遗忘⇒已在拿出时结算
+        if (!this.lazyForgetting)
+            this.forget(oldItem);
+        // * 🚩继续「放入」
+        return this.putIn(oldItem);
+    }
+
+    /**
+     * 以一定函数修改某个Item的优先级
+     * * 📌无论是否「惰性遗忘」，都只遗忘一次
+     */
+    @Override
+    public final void forget(E oldItem) {
+        final float newPriority = BudgetFunctions.forget(oldItem, this.forgetRate.get(), this.relativeThreshold);
+        oldItem.setPriority(newPriority);
+        this.metrics.forgets++;
+    }
+
+    /**
+     * 🆕「惰性遗忘」：一次结算若干次访问的遗忘
+     *
+     * @param item     The Item to forget
+     * @param accesses The number of accesses it has sat through, may be fractional
+     */
+    final void forget(E item, double accesses) {
+        item.setPriority(BudgetFunctions.forget(item, this.forgetRate.get(), this.relativeThreshold, accesses));
+        this.metrics.forgets++;
+    }
+
+    /**
+     * Decide the put-in level according to priority
+     *
+     * @param item The Item to put in
+     * @return The put-in level
+     */
+    final int getLevel(Item item) {
+        // * 🚩优先级×总层级
+        float fl = item.getPriority() * this.totalLevel;
+        // * 🚩舍入 | 💫其中的机制稍许令人困惑
+        int level = (int) Math.ceil(fl) - 1;
+        return Math.max(level, 0); // cannot be -1
+    }
+
+    /* ---------- snapshot ---------- */
+
+    /**
+     * 🆕写出袋的种类与形状，供还原时核对
+     *
+     * @param kind 各实现自定的标记
+     */
+    final void writeStateHeader(SnapshotOutput out, byte kind) throws IOException {
+        out.writeByte(kind);
+        out.writeInt(this.capacity);
+        out.writeInt(this.totalLevel);
+        out.writeInt(this.threshold);
+    }
+
+    /**
+     * 🆕核对袋的种类与形状：与快照不符⇒后续的抽取顺序无从还原
+     *
+     * @param kind 各实现自定的标记
+     */
+    final void readStateHeader(SnapshotInput in, byte kind) throws IOException {
+        final byte savedKind = in.readByte();
+        final int savedCapacity = in.readInt();
+        final int savedLevel = in.readInt();
+        final int savedThreshold = in.readInt();
+        if (savedKind != kind)
+            throw new IOException("bag kind mismatch: " + savedKind + " in snapshot, " + kind + " expected");
+        if (savedCapacity != this.capacity || savedLevel != this.totalLevel || savedThreshold != this.threshold)
+            throw new IOException("bag shape mismatch: " + savedCapacity + "/" + savedLevel + "/" + savedThreshold
+                    + " in snapshot, " + this.capacity + "/" + this.totalLevel + "/" + this.threshold + " expected");
+    }
+
+    /* ---------- display ---------- */
+
+    @Override
+    public final void addBagObserver(BagObserver<E> bagObserver, String title) {
+        this.observer = bagObserver;
+        this.observer.post(toString());
+        this.observer.setTitle(title);
+        this.observer.setBag(this);
+    }
+
+    @Override
+    public final void play() {
+        this.observer.post(toString());
+    }
+
+    @Override
+    public final void stop() {
+        this.observer.stop();
+    }
+
+    /**
+     * Refresh display
+     * * 🚩【2024-06-10】现只标记「有变动」，不再在每次变动时重建整个字符串
+     * * 🚩距上次发布已超过最小间隔⇒抓取快照，交由后台线程渲染并发给观察者
+     */
+    @Override
+    public final void refresh() {
+        if (this.observer instanceof BagObserver.NullObserver)
+            return;
+        this.dirty = true;
+        this.publishPending();
+    }
+
+    /**
+     * 🆕若有未发布的变动且已到发布时间，则向观察者发布快照
+     * * 📌只应在修改袋的线程上调用：物品的字符串在此取出，后台只负责拼接与发送
+     * * 🚩上一次发布尚未完成⇒不抓取、不提交，变动留待下次：每个袋至多有一个发布在排队
+     */
+    @Override
+    public final void publishPending() {
+        if (!this.dirty || this.publishing.get())
+            return;
+        final long now = System.nanoTime();
+        if (now - this.lastPublished < SnapshotPublisher.MIN_INTERVAL_NANOS)
+            return;
+        this.lastPublished = now;
+        this.dirty = false;
+        final Snapshot snapshot = this.snapshot(this.showLevel, false);
+        final BagObserver<E> observer = this.observer;
+        this.publishing.set(true);
+        SnapshotPublisher.render(() -> {
+            try {
+                observer.refresh(snapshot.render());
+            } finally {
+                this.publishing.set(false);
+            }
+        });
+    }
+
+    /**
+     * 🆕抓取不低于指定层级的各层级中物品的字符串
+     * * 📌层级从高到低；同层级内按各实现的取出顺序
+     *
+     * @param lowestLevel The lowest level to include, from 1 to {@link #totalLevel}
+     * @param longForm    取{@link ToStringBriefAndLong#toStringLong}，否则取简要字符串
+     */
+    abstract Snapshot snapshot(int lowestLevel, boolean longForm);
+
+    /**
+     * Collect Bag content into a String for display
+     *
+     * @return A String representation of the content
+     */
+    @Override
+    public final String toString() {
+        return this.snapshot(this.showLevel, false).render();
+    }
+
+    @Override
+    public final String toStringLong() {
+        final String name = getClass().getSimpleName();
+        return " BAG " + name
+                + " " + this.snapshot(1, false).renderSizes()
+                + this.snapshot(this.showLevel, true).render()
+                + ">>>> end of Bag" + name;
+    }
+
+    @Override
+    public final void setShowLevel(int showLevel) {
+        this.showLevel = showLevel;
+    }
+
+    /**
+     * 🆕袋内容的快照
+     * * 📌抓取时即取出各物品的字符串：此后物品在推理线程上的修改与快照无关，可在任意线程中渲染
+     */
+    static final class Snapshot {
+        /** 取长字符串还是简要字符串 */
+        private final boolean longForm;
+        /** 层级编号（从1开始） */
+        private final ArrayList<Integer> levels = new ArrayList<>();
+        /** 各层级中物品的字符串 | 与{@link #levels}一一对应 */
+        private final ArrayList<String[]> items = new ArrayList<>();
+
+        Snapshot(boolean longForm) {
+            this.longForm = longForm;
+        }
+
+        /** 追加一个层级 | 须按层级从高到低调用；在抓取的线程上取出字符串 */
+        void add(int level, Item[] levelItems) {
+            final String[] strings = new String[levelItems.length];
+            int n = 0;
+            for (final Item item : levelItems)
+                if (item instanceof ToStringBriefAndLong)
+                    strings[n++] = this.longForm
+                            ? ((ToStringBriefAndLong) item).toStringLong()
+                            : ((ToStringBriefAndLong) item).toStringBrief();
+            levels.add(level);
+            items.add(n == strings.length ? strings : Arrays.copyOf(strings, n));
+        }
+
+        /** 渲染成原{@link Bag#toString}（或{@link ObservableBag#toStringLong}）的格式 */
+        String render() {
+            final StringBuilder buf = new StringBuilder(this.longForm ? "" : " ");
+            final String header = this.longForm ? "\n --- LEVEL " : "\n --- Level ";
+            for (int i = 0; i < levels.size(); i++) {
+                buf.append(header).append(levels.get(i)).append(":\n ");
+                for (final String item : items.get(i))
+                    buf.append(item).append("\n ");
+            }
+            return buf.toString();
+        }
+
+        /** 各层级的物品数，层级从低到高 */
+        String renderSizes() {
+            final StringBuilder buf = new StringBuilder(" ");
+            for (int i = levels.size() - 1; i >= 0; i--) {
+                buf.append(items.get(i).length).append(" ");
+            }
+            return "Levels: " + levels.size() + ", sizes: " + buf;
+        }
+    }
+}
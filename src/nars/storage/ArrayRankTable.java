@@ -1,25 +1,48 @@
 package nars.storage;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.function.BiPredicate;
 
 /**
  * 🆕使用「变长数组」实现的「排行表」类型
  * * 📌直接使用Java的「函数指针」
+ * * 🚩【2024-06-12】缓存各元素的排行，二分查找插入位置
+ * * * 📌要求元素在表中时排行不变（如不可变的「判断」）
+ * * 🚩【2024-06-12】可选「等价键」：缓存各元素的键，以键的比较取代「是否兼容」的计算
+ * * 📌数组惰性分配、按需增长，直至「容量+1」
  */
 public final class ArrayRankTable<T> implements RankTable<T> {
 
     // struct ArrayRankTable<T>
 
+    /** 空表共用的空数组 */
+    private static final Object[] EMPTY = new Object[0];
+    /** 空表共用的空排行数组 */
+    private static final float[] EMPTY_RANKS = new float[0];
+
     /**
-     * 内部数组
+     * 内部数组 | 按排行从大到小
      *
      * * 📝可空性：非空
      * * 📝可变性：可变
      * * 📝所有权：具所有权
      */
-    private final ArrayList<T> inner;
+    private Object[] elements = EMPTY;
+    /**
+     * 🆕各元素的排行 | 与{@link #elements}一一对应
+     * * 🎯避免每次比较都重新计算排行
+     */
+    private float[] ranks = EMPTY_RANKS;
+    /**
+     * 🆕各元素的等价键 | 与{@link #elements}一一对应；无键函数时不用
+     */
+    private Object[] keys = EMPTY;
+    /**
+     * 🆕已有元素数量
+     */
+    private int size;
     /**
      * 排行表容量
      *
@@ -39,6 +62,15 @@ public final class ArrayRankTable<T> implements RankTable<T> {
         // boolean call(T newElement, T existedElement);
     }
 
+    /**
+     * 🆕「等价键」函数：键相等（`equals`）的元素视作重复
+     * * 📌键须实现`equals`与`hashCode`
+     */
+    @FunctionalInterface
+    public interface KeyFunction<T> {
+        Object call(T element);
+    }
+
     /**
      * 「计算排行」函数（函数指针）
      *
@@ -57,6 +89,15 @@ public final class ArrayRankTable<T> implements RankTable<T> {
      */
     private final CompatibleFunction<T> isCompatibleToAddF;
 
+    /**
+     * 🆕「等价键」函数
+     *
+     * * 📝可空性：可空 | 为空⇒按{@link #isCompatibleToAddF}判断
+     * * 📝可变性：不变
+     * * 📝所有权：具所有权
+     */
+    private final KeyFunction<T> keyF;
+
     // impl<T> ArrayRankTable<T>
 
     /** 构造函数 */
@@ -64,17 +105,44 @@ public final class ArrayRankTable<T> implements RankTable<T> {
             final int capacity,
             final RankFunction<T> rank,
             final CompatibleFunction<T> isCompatibleToAdd) {
+        this(capacity, rank, isCompatibleToAdd, null);
+    }
+
+    /**
+     * 🆕构造函数：附带「等价键」函数
+     * * 📌键须与「是否兼容」一致：键相等 ⇔ 不兼容
+     * * 📌判重的范围不变：仍只与插入位置上的元素比较
+     */
+    public ArrayRankTable(
+            final int capacity,
+            final RankFunction<T> rank,
+            final CompatibleFunction<T> isCompatibleToAdd,
+            final KeyFunction<T> key) {
         this.capacity = capacity;
-        this.inner = new ArrayList<T>(capacity);
         this.rankF = rank;
         this.isCompatibleToAddF = isCompatibleToAdd;
+        this.keyF = key;
     }
 
     // impl<T> Iterator<T> for ArrayRankTable<T>
 
     @Override
     public Iterator<T> iterator() {
-        return this.inner.iterator();
+        return new Iterator<T>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public T next() {
+                if (next >= size)
+                    throw new NoSuchElementException();
+                return __get(next++);
+            }
+        };
     }
 
     // impl<T> RankTable<T> for ArrayRankTable<T>
@@ -91,7 +159,7 @@ public final class ArrayRankTable<T> implements RankTable<T> {
 
     @Override
     public int size() {
-        return this.inner.size();
+        return this.size;
     }
 
     @Override
@@ -100,22 +168,110 @@ public final class ArrayRankTable<T> implements RankTable<T> {
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public T __get(int index) {
-        return this.inner.get(index);
+        if (index >= this.size)
+            throw new IndexOutOfBoundsException(index);
+        return (T) this.elements[index];
     }
 
     @Override
     public void __insert(int index, T newElement) {
-        this.inner.add(index, newElement);
+        this.insertAt(index, newElement, this.rank(newElement), this.keyOf(newElement));
     }
 
     @Override
     public void __insert(T newElement) {
-        this.inner.add(newElement);
+        this.__insert(this.size, newElement);
     }
 
     @Override
     public T __pop() {
-        return this.inner.remove(this.inner.size() - 1);
+        final T last = this.__get(this.size - 1);
+        this.size--;
+        this.elements[this.size] = null;
+        if (this.keyF != null)
+            this.keys[this.size] = null;
+        return last;
+    }
+
+    /**
+     * 计算将插入位置
+     * * 🚩二分查找第一个「排行不大于新元素」的位置，与逐个比较的结果相同
+     */
+    @Override
+    public int rankIndexToAdd(T element) {
+        final float rankNew = this.rank(element);
+        final int iToAdd = this.searchIndex(rankNew);
+        if (iToAdd < this.size && !this.compatibleAt(iToAdd, element, this.keyOf(element)))
+            return -1;
+        return iToAdd;
+    }
+
+    /**
+     * 加入元素
+     * * 🚩与{@link RankTable#add}相同，只是排行与键各只算一次
+     */
+    @Override
+    public T add(T newElement) {
+        final float rankNew = this.rank(newElement);
+        final Object key = this.keyOf(newElement);
+        final int iToAdd = this.searchIndex(rankNew);
+        // * 🚩与插入位置上的元素不兼容⇒添加失败
+        if (iToAdd < this.size && !this.compatibleAt(iToAdd, newElement, key))
+            return newElement;
+        // * 🚩插入到末尾，且已满⇒添加失败
+        if (iToAdd == this.size && this.size == this.capacity)
+            return newElement;
+        this.insertAt(iToAdd, newElement, rankNew, key);
+        // * 🚩排行表溢出⇒从末尾移除 | 📌一次只增加一个
+        if (this.size > this.capacity)
+            return this.__pop();
+        return null;
+    }
+
+    /** 二分查找：第一个排行不大于`rankNew`的位置 */
+    private int searchIndex(float rankNew) {
+        int low = 0, high = this.size;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (rankNew >= this.ranks[mid])
+                high = mid;
+            else
+                low = mid + 1;
+        }
+        return low;
+    }
+
+    /** 与指定位置上的元素是否兼容 | 有键⇒比较缓存的键 */
+    private boolean compatibleAt(int index, T element, Object key) {
+        if (key != null)
+            return !this.keys[index].equals(key);
+        return this.isCompatibleToAdd(element, this.__get(index));
+    }
+
+    private Object keyOf(T element) {
+        return this.keyF == null ? null : this.keyF.call(element);
+    }
+
+    /** 在指定位置插入元素及其排行与键，必要时扩容 */
+    private void insertAt(int index, T element, float rank, Object key) {
+        if (this.size == this.elements.length) {
+            final int newLength = Math.min(Math.max(4, this.size * 2), this.capacity + 1);
+            this.elements = Arrays.copyOf(this.elements, newLength);
+            this.ranks = Arrays.copyOf(this.ranks, newLength);
+            if (this.keyF != null)
+                this.keys = Arrays.copyOf(this.keys, newLength);
+        }
+        final int moved = this.size - index;
+        System.arraycopy(this.elements, index, this.elements, index + 1, moved);
+        System.arraycopy(this.ranks, index, this.ranks, index + 1, moved);
+        this.elements[index] = element;
+        this.ranks[index] = rank;
+        if (this.keyF != null) {
+            System.arraycopy(this.keys, index, this.keys, index + 1, moved);
+            this.keys[index] = key;
+        }
+        this.size++;
     }
 }
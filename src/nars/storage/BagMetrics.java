@@ -0,0 +1,121 @@
+package nars.storage;
+
+import java.util.Arrays;
+
+/**
+ * 🆕一类「袋」的运行计数
+ * * 🎯在不构造字符串的前提下观察袋的占用与周转，以便确定各袋的容量
+ * * 📌同类的袋（如所有概念的词项链袋）共用一个实例，计数自然累加
+ * * 📌计数：由袋在各操作中直接累加，只是字段自增
+ * * 📌占用（各层级物品数、质量）：不随操作维护，由{@link BagMetricsRegistry#collect}按需统计
+ * * ⚠️非线程安全：与袋本身一样，只应在推理线程上读写
+ */
+public final class BagMetrics {
+
+    /** 调用`putIn`（含`putBack`）的次数 */
+    long insertions;
+    /** 放入时与已有物品同键、合并预算值的次数 */
+    long merges;
+    /** 溢出时移除已有物品的次数 */
+    long evictions;
+    /** 溢出时新物品本身被拒绝的次数 */
+    long rejections;
+    /** 按优先级分布取出物品的次数 */
+    long takeOuts;
+    /** 施加遗忘的次数 */
+    long forgets;
+
+    /** 参与统计的袋数 */
+    private int bags;
+    /** 各层级的物品数 */
+    private int[] levelCounts = new int[0];
+    /** 所有物品的「层级+1」之和 */
+    private long mass;
+
+    public long insertions() {
+        return insertions;
+    }
+
+    public long merges() {
+        return merges;
+    }
+
+    public long evictions() {
+        return evictions;
+    }
+
+    public long rejections() {
+        return rejections;
+    }
+
+    public long takeOuts() {
+        return takeOuts;
+    }
+
+    public long forgets() {
+        return forgets;
+    }
+
+    /** 上次统计时的袋数 */
+    public int bags() {
+        return bags;
+    }
+
+    /** 上次统计时的各层级物品数 | 下标即层级（从0开始） */
+    public int[] levelCounts() {
+        return levelCounts.clone();
+    }
+
+    /** 上次统计时的总质量 */
+    public long mass() {
+        return mass;
+    }
+
+    /** 上次统计时的物品总数 */
+    public long size() {
+        long size = 0;
+        for (final int count : levelCounts)
+            size += count;
+        return size;
+    }
+
+    /** 清零计数与占用 */
+    void reset() {
+        insertions = merges = evictions = rejections = takeOuts = forgets = 0;
+        clearOccupancy();
+    }
+
+    /** 清空占用，准备重新统计 */
+    void clearOccupancy() {
+        bags = 0;
+        Arrays.fill(levelCounts, 0);
+        mass = 0;
+    }
+
+    /**
+     * 计入一个袋中某层级的物品数
+     *
+     * @param totalLevel The number of levels of the bag
+     * @param level      The level index, from 0
+     * @param count      The number of items on that level
+     */
+    void addLevel(int totalLevel, int level, int count) {
+        if (levelCounts.length < totalLevel)
+            levelCounts = Arrays.copyOf(levelCounts, totalLevel);
+        levelCounts[level] += count;
+        mass += (long) (level + 1) * count;
+    }
+
+    /** 计入一个袋 */
+    void addBag() {
+        bags++;
+    }
+
+    @Override
+    public String toString() {
+        return "bags=" + bags + " size=" + size() + " mass=" + mass
+                + " insertions=" + insertions + " merges=" + merges
+                + " evictions=" + evictions + " rejections=" + rejections
+                + " takeOuts=" + takeOuts + " forgets=" + forgets;
+    }
+}
@@ -0,0 +1,150 @@
+package nars.storage;
+
+import nars.entity.Concept;
+
+/**
+ * 🆕记忆区中各类「袋」的计数汇总
+ * * 📌四类：概念袋、新近任务袋、所有概念的任务链袋、所有概念的词项链袋
+ * * 🚩计数由各袋随操作累加到共用的{@link BagMetrics}中
+ * * 🚩占用在{@link #collect}时遍历各袋统计：不在推理的热路径上
+ */
+public final class BagMetricsRegistry {
+
+    private final BagMetrics concepts = new BagMetrics();
+    private final BagMetrics novelTasks = new BagMetrics();
+    private final BagMetrics taskLinks = new BagMetrics();
+    private final BagMetrics termLinks = new BagMetrics();
+
+    /** 🆕概念被冻结、解冻的次数，见{@link Concept#freeze} */
+    private long freezes, thaws;
+    /** 🆕上次统计时概念袋中冻结的概念数，及其字节数 */
+    private int frozenConcepts;
+    private long frozenBytes;
+    /** 🆕上次统计时概念袋（含其中各概念）估算占用的堆字节数，见{@link Footprint} */
+    private long footprintBytes;
+
+    /** 概念袋 | 由记忆区登记 */
+    private ManagedBag<Concept> conceptBag;
+    /** 新近任务袋 | 由推理器登记，可空 */
+    private MeasuredBag novelTaskBag;
+    /** 🆕本记忆区中被观察的袋 | 概念的链接袋也经此登记 */
+    private final ObservedBags observedBags = new ObservedBags();
+
+    public BagMetrics concepts() {
+        return concepts;
+    }
+
+    public BagMetrics novelTasks() {
+        return novelTasks;
+    }
+
+    public BagMetrics taskLinks() {
+        return taskLinks;
+    }
+
+    public BagMetrics termLinks() {
+        return termLinks;
+    }
+
+    /** 🆕本记忆区中被观察的袋，由本推理器补发其变动 */
+    public ObservedBags observedBags() {
+        return observedBags;
+    }
+
+    public long freezes() {
+        return freezes;
+    }
+
+    public long thaws() {
+        return thaws;
+    }
+
+    /** 上次统计时冻结的概念数 */
+    public int frozenConcepts() {
+        return frozenConcepts;
+    }
+
+    /** 上次统计时冻结的概念所占字节数 */
+    public long frozenBytes() {
+        return frozenBytes;
+    }
+
+    /** 上次统计时概念袋（含其中各概念）估算占用的堆字节数 */
+    public long footprintBytes() {
+        return footprintBytes;
+    }
+
+    /** 🆕计入一次冻结 | 由概念调用 */
+    public void countFreeze() {
+        freezes++;
+    }
+
+    /** 🆕计入一次解冻 | 由概念调用 */
+    public void countThaw() {
+        thaws++;
+    }
+
+    /** 登记概念袋，并让其计入{@link #concepts()} */
+    void registerConceptBag(ManagedBag<Concept> bag) {
+        this.conceptBag = bag;
+        bag.useMetrics(this.concepts);
+    }
+
+    /** 登记新近任务袋，并让其计入{@link #novelTasks()} */
+    public void registerNovelTaskBag(MeasuredBag bag) {
+        this.novelTaskBag = bag;
+        bag.useMetrics(this.novelTasks);
+    }
+
+    /** 清零所有计数 | 随记忆区一同重置 */
+    void reset() {
+        concepts.reset();
+        novelTasks.reset();
+        taskLinks.reset();
+        termLinks.reset();
+        freezes = thaws = 0;
+    }
+
+    /**
+     * 统计各类袋当前的占用
+     * * 🚩遍历概念袋中的每个概念，累加其任务链袋与词项链袋
+     * * 📌耗时与概念数成正比，只应按需调用
+     *
+     * @return this, for chaining
+     */
+    public BagMetricsRegistry collect() {
+        concepts.clearOccupancy();
+        novelTasks.clearOccupancy();
+        taskLinks.clearOccupancy();
+        termLinks.clearOccupancy();
+        frozenConcepts = 0;
+        frozenBytes = 0;
+        footprintBytes = 0;
+        if (conceptBag != null) {
+            conceptBag.addOccupancyTo(concepts);
+            footprintBytes = conceptBag.estimateBytes();
+            conceptBag.forEach(concept -> {
+                concept.addLinkOccupancyTo(taskLinks, termLinks);
+                footprintBytes += concept.estimateBytes();
+                if (concept.isFrozen()) {
+                    frozenConcepts++;
+                    frozenBytes += concept.frozenSize();
+                }
+            });
+        }
+        if (novelTaskBag != null)
+            novelTaskBag.addOccupancyTo(novelTasks);
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "concepts: " + concepts
+                + "\nnovelTasks: " + novelTasks
+                + "\ntaskLinks: " + taskLinks
+                + "\ntermLinks: " + termLinks
+                + "\ndormancy: frozen=" + frozenConcepts + " bytes=" + frozenBytes
+                + " freezes=" + freezes + " thaws=" + thaws
+                + "\nfootprint: bytes=" + footprintBytes;
+    }
+}
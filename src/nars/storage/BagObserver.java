@@ -16,7 +16,7 @@ public interface BagObserver<BagType extends Item> {
     /**
      * Set the observed Bag
      */
-    public abstract void setBag(Bag<BagType> concepts);
+    public abstract void setBag(ObservableBag<BagType> concepts);
 
     /**
      * Post given bag content
@@ -42,7 +42,7 @@ public interface BagObserver<BagType extends Item> {
         }
 
         @Override
-        public void setBag(Bag<BagType> concepts) {
+        public void setBag(ObservableBag<BagType> concepts) {
         }
 
         @Override
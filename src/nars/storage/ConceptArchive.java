@@ -0,0 +1,447 @@
+package nars.storage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+
+import nars.control.Parameters;
+import nars.entity.Concept;
+import nars.io.SnapshotInput;
+import nars.io.SnapshotOutput;
+import nars.language.Term;
+
+/**
+ * 🆕概念的第二层存储：从概念袋溢出的概念存到磁盘上，需要时再取回
+ * * 🎯原先溢出的概念连同其信念一并丢失，再用到时只能从零新建；现在工作集仍为{@link Parameters#CONCEPT_BAG_SIZE}，知识库却可远超堆的容量
+ * * 📌文件只追加，按固定大小分段做内存映射；每条记录是一个概念的快照（见{@link Concept#writeSnapshot}）
+ * * 📌堆中只留「词项ID⇒记录位置」的索引
+ * * 🚩取回即从索引中删除：记录成为垃圾，垃圾多于存活的记录时整理一次文件
+ * * 📌整理写入同目录下的新文件，不覆盖仍被映射的旧文件（Windows上不能改名覆盖、也不能删除映射中的文件）
+ * * 📌记录各自独立：取回的概念不再与工作集中的对象共享任务，「最优解」等的更新互不可见
+ * * ⚠️不持久：索引只在堆中，关闭即删除文件；要跨进程保留，由快照一并写出（见{@link Memory#writeSnapshot}）
+ * * ⚠️非线程安全：与概念袋一样，只应在推理线程上使用
+ */
+public final class ConceptArchive implements Closeable {
+
+    /** 映射分段的大小；记录不跨段 */
+    static final int SEGMENT_SIZE = 1 << 24;
+
+    /**
+     * 一个映射文件：分段映射，从头追加
+     * * 🎯整理时写入新的文件，完成后整体替换
+     * * ⚠️映射在分段被回收之前一直有效：关闭通道后文件未必能立即删除
+     */
+    private static final class Store {
+        final FileChannel channel;
+        final ArrayList<MappedByteBuffer> segments = new ArrayList<>();
+        /** 下一条记录的位置 */
+        long position = 0;
+
+        Store(File file) throws IOException {
+            this.channel = FileChannel.open(file.toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+
+        private MappedByteBuffer segment(int index) throws IOException {
+            while (this.segments.size() <= index)
+                this.segments.add(this.channel.map(
+                        FileChannel.MapMode.READ_WRITE, (long) this.segments.size() * SEGMENT_SIZE, SEGMENT_SIZE));
+            return this.segments.get(index);
+        }
+
+        /**
+         * 追加一条记录：长度，后随内容
+         *
+         * @return 记录的位置 | 超过一个分段⇒-1
+         */
+        long append(byte[] bytes, int length) throws IOException {
+            final int size = 4 + length;
+            if (size > SEGMENT_SIZE)
+                return -1;
+            // * 🚩本段剩余不足⇒跳到下一段开头
+            if (this.position % SEGMENT_SIZE + size > SEGMENT_SIZE)
+                this.position += SEGMENT_SIZE - this.position % SEGMENT_SIZE;
+            final ByteBuffer buffer = this.segment((int) (this.position / SEGMENT_SIZE)).duplicate();
+            buffer.position((int) (this.position % SEGMENT_SIZE));
+            buffer.putInt(length);
+            buffer.put(bytes, 0, length);
+            final long at = this.position;
+            this.position += size;
+            return at;
+        }
+
+        /** 记录在文件中占用的字节数 */
+        int sizeAt(long at) {
+            return 4 + this.segments.get((int) (at / SEGMENT_SIZE)).getInt((int) (at % SEGMENT_SIZE));
+        }
+
+        byte[] read(long at) {
+            final ByteBuffer buffer = this.segments.get((int) (at / SEGMENT_SIZE)).duplicate();
+            buffer.position((int) (at % SEGMENT_SIZE));
+            final byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            return bytes;
+        }
+    }
+
+    /**
+     * 存档文件
+     *
+     * * 📝可空性：非空
+     * * 📝可变性：可变 | 整理后换成新文件
+     * * 📝所有权：具所有权 | 关闭时删除
+     */
+    private File file;
+    /**
+     * 整理后换下、尚未删除的旧文件
+     * * 📌其分段可能仍被映射（直到被回收）：每次整理与关闭时再试着删除
+     *
+     * * 📝可空性：非空
+     * * 📝可变性：可变
+     * * 📝所有权：具所有权
+     */
+    private final ArrayList<File> retired = new ArrayList<>();
+    /** 整理失败过 | 此后不再整理，只追加：失败只报告一次 */
+    private boolean compactionFailed = false;
+    /**
+     * 当前的映射文件
+     *
+     * * 📝可空性：非空
+     * * 📝可变性：可变 | 整理时整体替换
+     * * 📝所有权：具所有权
+     */
+    private Store store;
+    /**
+     * 词项ID⇒记录位置
+     * * 📌键即概念袋所用的ID，见{@link Term#getNameId}
+     *
+     * * 📝可空性：非空
+     * * 📝可变性：可变
+     * * 📝所有权：具所有权
+     */
+    private final IntHashMap<Long> index = new IntHashMap<>(Parameters.CONCEPT_BAG_SIZE, Parameters.LOAD_FACTOR);
+    /** 存活记录的总字节数 */
+    private long liveBytes = 0;
+    /** 序列化概念的缓冲，逐个复用 */
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(1 << 12);
+
+    // 计数
+    private long archived, skipped, dropped, hits, misses, rehydrateNanos, maxRehydrateNanos, compactions;
+
+    /**
+     * 在目录中新建一个临时的存档
+     * * 🚩进程退出时删除
+     *
+     * @param dir [] 存放存档的目录 | 不存在则新建
+     */
+    public static ConceptArchive createTemp(File dir) throws IOException {
+        Files.createDirectories(dir.toPath());
+        final File file = File.createTempFile("concepts", ".archive", dir);
+        file.deleteOnExit();
+        return new ConceptArchive(file);
+    }
+
+    /**
+     * @param file [] 存档文件 | 已存在则清空
+     */
+    public ConceptArchive(File file) throws IOException {
+        this.file = file;
+        this.store = new Store(file);
+    }
+
+    /* ---------- 存取 ---------- */
+
+    /**
+     * 存入一个概念
+     * * 🎯作为概念袋的{@link OverflowBag#setOverflowSink 溢出去处}
+     * * 🚩同一词项已有记录⇒新的取代旧的
+     * * 🚩没有内容的概念⇒不存：取回与新建无异
+     * * * 📝概念袋满时，溢出的几乎总是刚新建、处于最低层级的概念本身
+     * * 🚩写入失败或记录过大⇒报告并丢弃，与未开启存档时相同
+     *
+     * @param concept [&] 已移出概念袋的概念
+     */
+    public void archive(Concept concept) {
+        if (concept.isEmpty()) {
+            this.skipped++;
+            return;
+        }
+        this.buffer.reset();
+        try {
+            final SnapshotOutput out = new SnapshotOutput(this.buffer);
+            concept.writeSnapshot(out);
+            out.flush();
+            if (this.put(concept.getKeyId(), this.buffer.toByteArray()))
+                this.archived++;
+            else
+                this.dropped++;
+        } catch (IOException e) {
+            System.out.println("i/o error: concept archive: " + e.getMessage());
+            this.dropped++;
+        }
+    }
+
+    /**
+     * 取回词项对应的概念，并从存档中删除
+     *
+     * @param term   [&] 概念的词项
+     * @param memory [&] 取回的概念所属的记忆区 | 提供遗忘速率与计数
+     * @return 取回的概念 | 未存档（或记录已损坏）⇒空
+     */
+    Concept rehydrate(Term term, Memory memory) {
+        final Long at = this.index.remove(term.findNameId());
+        if (at == null) {
+            this.misses++;
+            return null;
+        }
+        final long start = System.nanoTime();
+        final byte[] record = this.store.read(at);
+        this.liveBytes -= 4 + record.length;
+        final Concept concept;
+        try {
+            concept = memory.readConcept(new SnapshotInput(record));
+        } catch (IOException e) {
+            System.out.println("i/o error: concept archive: " + e.getMessage());
+            this.misses++;
+            return null;
+        }
+        final long nanos = System.nanoTime() - start;
+        this.hits++;
+        this.rehydrateNanos += nanos;
+        this.maxRehydrateNanos = Math.max(this.maxRehydrateNanos, nanos);
+        return concept;
+    }
+
+    /** 存入一条记录 */
+    private boolean put(int key, byte[] record) throws IOException {
+        final long at = this.store.append(record, record.length);
+        if (at < 0)
+            return false;
+        final Long old = this.index.put(key, at);
+        if (old != null)
+            this.liveBytes -= this.store.sizeAt(old);
+        this.liveBytes += 4 + record.length;
+        // * 🚩记录已存入：整理失败不影响本次存入
+        this.compactIfWasteful();
+        return true;
+    }
+
+    /** 已存档的概念数 */
+    public int size() {
+        return this.index.size();
+    }
+
+    /** 清空存档 | 随记忆区一同重置 */
+    public void clear() {
+        this.index.clear();
+        this.store.position = 0;
+        this.liveBytes = 0;
+        this.archived = this.skipped = this.dropped = this.hits = this.misses = 0;
+        this.rehydrateNanos = this.maxRehydrateNanos = this.compactions = 0;
+    }
+
+    /* ---------- 整理 ---------- */
+
+    /**
+     * 垃圾多于存活的记录（且文件已有两段以上）⇒整理
+     * * 📝每次整理至少回收一半的文件，均摊到每次存入是常数
+     * * 🚩整理失败⇒报告一次，此后不再整理：存档照常追加，只是不再回收垃圾
+     */
+    private void compactIfWasteful() {
+        if (this.compactionFailed)
+            return;
+        if (this.store.position >= 2L * SEGMENT_SIZE && this.store.position - this.liveBytes > this.liveBytes) {
+            try {
+                this.compact();
+            } catch (IOException e) {
+                this.compactionFailed = true;
+                System.out.println("i/o error: concept archive: compaction disabled: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 把存活的记录依次写入同目录下的新文件，再换用新文件
+     * * 🚩全部写完才改动索引：中途失败⇒索引与旧文件照旧可用
+     * * 🚩旧文件关闭后试着删除；仍被映射而删除不了⇒留待下次（见{@link #retired}）
+     */
+    private void compact() throws IOException {
+        this.deleteRetired();
+        final File next = File.createTempFile("concepts", ".archive", this.file.getAbsoluteFile().getParentFile());
+        next.deleteOnExit();
+        final int[] keys = new int[this.index.size()];
+        final long[] positions = new long[keys.length];
+        final int[] n = { 0 };
+        this.index.forEach((key, at) -> {
+            keys[n[0]] = key;
+            positions[n[0]++] = at;
+        });
+        final Store compacted;
+        try {
+            compacted = new Store(next);
+        } catch (IOException e) {
+            Files.deleteIfExists(next.toPath());
+            throw e;
+        }
+        try {
+            for (int i = 0; i < keys.length; i++) {
+                final byte[] record = this.store.read(positions[i]);
+                positions[i] = compacted.append(record, record.length);
+            }
+        } catch (IOException e) {
+            this.retire(compacted, next);
+            throw e;
+        }
+        for (int i = 0; i < keys.length; i++)
+            this.index.put(keys[i], positions[i]);
+        this.retire(this.store, this.file);
+        this.store = compacted;
+        this.file = next;
+        this.compactions++;
+    }
+
+    /** 关闭换下的文件，放下其分段，并试着删除 */
+    private void retire(Store store, File file) {
+        try {
+            store.channel.close();
+        } catch (IOException e) {
+            System.out.println("i/o error: concept archive: " + e.getMessage());
+        }
+        store.segments.clear();
+        this.retired.add(file);
+        this.deleteRetired();
+    }
+
+    /** 删除换下的旧文件 | 删除不了的留待下次，最迟在进程退出时 */
+    private void deleteRetired() {
+        this.retired.removeIf(file -> {
+            try {
+                Files.deleteIfExists(file.toPath());
+                return true;
+            } catch (IOException e) {
+                file.deleteOnExit();
+                return false;
+            }
+        });
+    }
+
+    /* ---------- 快照 ---------- */
+
+    /**
+     * 把所有存活的记录按原样写入快照
+     */
+    void writeRecords(SnapshotOutput out) throws IOException {
+        final ArrayList<Long> positions = new ArrayList<>(this.index.size());
+        this.index.forEach((key, at) -> positions.add(at));
+        out.writeInt(positions.size());
+        for (final long at : positions) {
+            final byte[] record = this.store.read(at);
+            out.writeInt(record.length);
+            out.write(record);
+        }
+    }
+
+    /**
+     * 读入{@link #writeRecords}写出的记录
+     * * 🚩存档为空⇒跳过：与未开启存档时溢出的概念一样丢弃
+     *
+     * @param archive [&m] 可空
+     */
+    static void readRecords(SnapshotInput in, ConceptArchive archive) throws IOException {
+        for (int n = in.readInt(); n > 0; n--) {
+            final byte[] record = new byte[in.readInt()];
+            in.readFully(record);
+            if (archive == null)
+                continue;
+            // * 🚩记录以概念的词项开头
+            final Term term = new SnapshotInput(record).readTerm();
+            if (!archive.put(term.getNameId(), record))
+                throw new IOException("archived concept too large: " + term);
+        }
+    }
+
+    /* ---------- 计数 ---------- */
+
+    /** 存入的次数 */
+    public long archived() {
+        return archived;
+    }
+
+    /** 因没有内容而不存的次数 */
+    public long skipped() {
+        return skipped;
+    }
+
+    /** 因写入失败或过大而丢弃的次数 */
+    public long dropped() {
+        return dropped;
+    }
+
+    /** 新建概念前查到存档、取回概念的次数 */
+    public long hits() {
+        return hits;
+    }
+
+    /** 新建概念前未查到存档的次数 */
+    public long misses() {
+        return misses;
+    }
+
+    /** 取回占查询的比例 */
+    public double hitRate() {
+        final long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    /** 取回一个概念的平均耗时（纳秒） */
+    public double averageRehydrateNanos() {
+        return hits == 0 ? 0 : (double) rehydrateNanos / hits;
+    }
+
+    /** 取回一个概念的最长耗时（纳秒） */
+    public long maxRehydrateNanos() {
+        return maxRehydrateNanos;
+    }
+
+    /** 存活记录的总字节数 */
+    public long liveBytes() {
+        return liveBytes;
+    }
+
+    /** 文件中已用的字节数（含垃圾） */
+    public long usedBytes() {
+        return this.store.position;
+    }
+
+    /** 整理的次数 */
+    public long compactions() {
+        return compactions;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "archive: %d concepts, %.1f/%.1f MB live/used, hits %d/%d (%.1f%%), rehydrate avg %.1f us max %.1f us, archived %d, skipped %d, dropped %d, compactions %d",
+                this.size(), this.liveBytes / 1e6, this.usedBytes() / 1e6,
+                hits, hits + misses, 100 * this.hitRate(),
+                this.averageRehydrateNanos() / 1e3, maxRehydrateNanos / 1e3,
+                archived, skipped, dropped, compactions);
+    }
+
+    /**
+     * 关闭并删除存档文件
+     * * 📌仍被映射而删除不了的文件留给{@link File#deleteOnExit}
+     */
+    @Override
+    public void close() {
+        this.retire(this.store, this.file);
+    }
+}
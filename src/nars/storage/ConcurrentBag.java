@@ -0,0 +1,876 @@
+package nars.storage;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import nars.control.Parameters;
+import nars.entity.Item;
+import nars.inference.BudgetFunctions;
+import nars.io.SnapshotInput;
+import nars.io.SnapshotOutput;
+
+/**
+ * 🆕线程安全的「袋」
+ * * 🎯允许多个线程同时对同一个袋（如「概念袋」）执行
+ * * * {@link #takeOut}、{@link #pickOut}、{@link #putIn}、{@link #putBack}、{@link #update}
+ * * 📌算法与{@link LevelBag}一致：同样的层级划分、同样的{@link Distributor}取样顺序、同样的溢出规则与惰性遗忘
+ * * 🚩并发设计：
+ * * * 名称表：{@link ConcurrentHashMap}，读操作无锁
+ * * * 层级：每个层级一把锁，只在链入/链出槽位时持有；层级的物品数只在其锁内改写，可不加锁读取
+ * * * 同键操作：按键散列的分段锁，保证「合并重复项」「就地修改」的原子性
+ * * * 取样游标（层级索引、当前层级、计数器、访问时钟）：一把小锁，只在选定层级时持有
+ * * 📌锁序：分段锁 → 层级锁；游标锁与层级锁从不嵌套，故无死锁
+ * * 📌每个槽位至多被一次「链出」所认领：拿到它的那个操作（取出/挑出/溢出/修改）独占该物品
+ * * 📌由{@link Parameters#CONCURRENT_CONCEPT_BAG}选作概念袋
+ * * ⚠️单线程下的结果与{@link LevelBag}相同；多线程下的取样顺序取决于线程交错
+ * * ⚠️多线程下{@link BagMetrics}的计数是近似值；快照的存取与{@link #init}不应与其它操作并发
+ *
+ * @param <E> The type of the Item in the Bag
+ */
+public final class ConcurrentBag<E extends Item> extends AbstractBag<E> {
+
+    /**
+     * 同键操作的分段锁数量 | 2的幂
+     */
+    private static final int STRIPES = 64;
+
+    /**
+     * shared DISTRIBUTOR that produce the probability distribution
+     * * 📝只读数组，多线程共享安全
+     */
+    private final Distributor distributor;
+    /**
+     * 名称表的键类型
+     * * 📌按ID散列时以装箱的整数为键，按ID查找时免去注册表的锁
+     */
+    private final KeyMode keyMode;
+    /**
+     * mapping from key to item
+     * * 📌键为名称字符串或整数ID，见{@link #keyMode}
+     */
+    private final ConcurrentHashMap<Object, Slot<E>> nameTable;
+    /**
+     * array of lists of items, for items on different level
+     * * 📌每个层级对象同时作为该层级的锁
+     */
+    private final Level<E>[] itemTable;
+    /**
+     * 层级占用位图：第n位为1 ⇔ 第n层非空
+     * * 📌只在持有对应层级锁时写入
+     */
+    private final AtomicLongArray occupancy;
+    /**
+     * 同键操作的分段锁
+     */
+    private final Object[] stripes;
+    /**
+     * 取样游标锁
+     */
+    private final Object cursorLock = new Object();
+    /**
+     * current sum of occupied level
+     */
+    private final AtomicInteger mass = new AtomicInteger();
+    /**
+     * 物品数量：名称表中的键数
+     * * 📝{@link ConcurrentHashMap#size}在并发下只是估计值，此处单独计数
+     */
+    private final AtomicInteger size = new AtomicInteger();
+    /**
+     * index to get next level, kept in individual objects
+     * * 📌由游标锁保护
+     */
+    private int levelIndex;
+    /**
+     * current take out level
+     * * 📌由游标锁保护
+     */
+    private int currentLevel;
+    /**
+     * maximum number of items to be taken out at current level
+     * * 📌由游标锁保护
+     */
+    private int currentCounter;
+    /**
+     * 袋的访问时钟：按优先级分布选中物品的次数，用于「惰性遗忘」
+     * * 📌只在游标锁内改写
+     */
+    private volatile long accessClock;
+
+    /**
+     * constructor
+     *
+     * @param forgetRate the priority decay rate
+     * @param capacity   the capacity of the bag
+     */
+    public ConcurrentBag(AtomicInteger forgetRate, int capacity) {
+        // * 📜默认就是「旧的并入新的」
+        this(forgetRate, capacity, (oldValue, newValue) -> MergeOrder.OldToNew);
+    }
+
+    /**
+     * 除了以上参数外，还附加「并入顺序决定函数」
+     *
+     * @param forgetRate  the priority decay rate
+     * @param capacity    the capacity of the bag
+     * @param mergeOrderF the merge order function
+     */
+    public ConcurrentBag(AtomicInteger forgetRate, int capacity, MergeOrderF<E> mergeOrderF) {
+        this(forgetRate, capacity, Parameters.BAG_LEVEL, Parameters.BAG_THRESHOLD, mergeOrderF, KeyMode.Name);
+    }
+
+    /**
+     * 指定层级数、阈值与名称表的键类型
+     *
+     * @param forgetRate the priority decay rate
+     * @param capacity   the capacity of the bag
+     * @param totalLevel the number of priority levels
+     * @param threshold  the firing threshold, in levels
+     * @param keyMode    how the name table hashes keys
+     */
+    public ConcurrentBag(AtomicInteger forgetRate, int capacity, int totalLevel, int threshold, KeyMode keyMode) {
+        this(forgetRate, capacity, totalLevel, threshold, (oldValue, newValue) -> MergeOrder.OldToNew, keyMode);
+    }
+
+    /**
+     * 指定层级数、阈值、并入顺序与名称表的键类型
+     *
+     * @param forgetRate  the priority decay rate
+     * @param capacity    the capacity of the bag
+     * @param totalLevel  the number of priority levels
+     * @param threshold   the firing threshold, in levels
+     * @param mergeOrderF the merge order function
+     * @param keyMode     how the name table hashes keys
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentBag(AtomicInteger forgetRate, int capacity, int totalLevel, int threshold,
+            MergeOrderF<E> mergeOrderF, KeyMode keyMode) {
+        super(forgetRate, capacity, totalLevel, threshold, mergeOrderF);
+        this.distributor = Distributor.get(totalLevel);
+        this.keyMode = keyMode;
+        this.nameTable = new ConcurrentHashMap<>((int) (presize(capacity) / LOAD_FACTOR), LOAD_FACTOR);
+        this.itemTable = (Level<E>[]) new Level<?>[totalLevel];
+        for (int i = 0; i < totalLevel; i++) {
+            this.itemTable[i] = new Level<E>();
+        }
+        this.occupancy = new AtomicLongArray((totalLevel + 63) >>> 6);
+        this.stripes = new Object[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            this.stripes[i] = new Object();
+        }
+        init();
+    }
+
+    /**
+     * 清空袋
+     * * ⚠️不应与其它操作并发调用
+     */
+    @Override
+    public void init() {
+        for (int i = 0; i < this.totalLevel; i++) {
+            synchronized (this.itemTable[i]) {
+                this.itemTable[i].clear();
+            }
+        }
+        for (int i = 0; i < this.occupancy.length(); i++) {
+            this.occupancy.set(i, 0L);
+        }
+        this.nameTable.clear();
+        this.mass.set(0);
+        this.size.set(0);
+        synchronized (this.cursorLock) {
+            this.currentLevel = this.totalLevel - 1;
+            this.levelIndex = this.capacity() % this.totalLevel; // so that different bags start at different point
+            this.currentCounter = 0;
+            this.accessClock = 0;
+        }
+    }
+
+    /**
+     * The number of items in the bag
+     *
+     * @return The number of items
+     */
+    @Override
+    public int size() {
+        return this.size.get();
+    }
+
+    /**
+     * 获取是否为空
+     */
+    @Override
+    public boolean isEmpty() {
+        return this.size() == 0;
+    }
+
+    /**
+     * Get the average priority of Items
+     *
+     * @return The average priority of Items in the bag
+     */
+    @Override
+    public float averagePriority() {
+        final int size = this.size();
+        if (size == 0)
+            return 0.01f;
+        final float f = (float) this.mass.get() / (size * this.totalLevel);
+        return Math.min(f, 1.0f);
+    }
+
+    /**
+     * Check if an item is in the bag
+     *
+     * @param it An item
+     * @return Whether the Item is in the Bag
+     */
+    @Override
+    public boolean contains(E it) {
+        if (it == null)
+            return false;
+        final Slot<E> slot = this.nameTable.get(this.keyOf(it));
+        return slot != null && slot.item == it && slot.linked;
+    }
+
+    @Override
+    public boolean has(String key) {
+        return this.get(key) != null;
+    }
+
+    @Override
+    public boolean has(int keyId) {
+        return this.get(keyId) != null;
+    }
+
+    /**
+     * Get an Item by key
+     *
+     * @param key The key of the Item
+     * @return The Item with the given key
+     */
+    @Override
+    public E get(String key) {
+        return itemOf(this.slotOf(this.keyOf(key)));
+    }
+
+    @Override
+    public E get(int keyId) {
+        return itemOf(this.slotOf(this.keyOf(keyId)));
+    }
+
+    /**
+     * Add a new Item into the Bag
+     *
+     * @param newItem The new Item
+     * @return Whether the new Item is added into the Bag
+     */
+    @Override
+    public boolean putIn(E newItem) {
+        this.validateIn(newItem);
+        this.metrics.insertions++;
+        return this.insert(newItem);
+    }
+
+    /**
+     * 放入物品：合并同键者、链入层级、处理溢出
+     * * 🚩新物品先链入再溢出：若新物品独占最低层级，被链出的就是新物品
+     * * * 📝与{@link LevelBag}「比较层级后拒绝或移出」等价
+     */
+    private boolean insert(E newItem) {
+        final Object key = this.keyOf(newItem);
+        final Slot<E> newSlot;
+        // * 🚩同键操作互斥：取出旧项→合并→链入新项
+        synchronized (this.stripeOf(key)) {
+            final Slot<E> oldSlot = this.nameTable.get(key);
+            // * 🚩旧项仍在层级中⇒认领并合并 | 已被其它线程取走⇒无需合并
+            if (oldSlot != null && this.unlink(oldSlot)) {
+                this.decay(oldSlot);
+                this.mergeDuplicate(oldSlot.item, newItem);
+            }
+            // * 🚩合并后才能确定层级
+            newSlot = new Slot<>(newItem, this.getLevel(newItem), this.accessClock);
+            if (this.nameTable.put(key, newSlot) == null)
+                this.size.incrementAndGet();
+            this.link(newSlot);
+        }
+        // * 🚩溢出⇒链出最低非空层级的第一个物品
+        while (this.size() > this.capacity()) {
+            final Slot<E> overflow = this.takeOutLowest();
+            if (overflow == null)
+                break;
+            this.removeFromTable(overflow);
+            this.overflowed(overflow.item);
+            if (overflow == newSlot) {
+                this.metrics.rejections++;
+                this.refresh();
+                return false;
+            }
+            this.metrics.evictions++;
+        }
+        this.refresh();
+        return true;
+    }
+
+    /**
+     * 移出最低非空层级中最早放入的物品：同袋满时的选择
+     */
+    @Override
+    public E evictLowest() {
+        final Slot<E> slot = this.takeOutLowest();
+        if (slot == null)
+            return null;
+        this.removeFromTable(slot);
+        this.metrics.evictions++;
+        this.overflowed(slot.item);
+        this.refresh();
+        return slot.item;
+    }
+
+    /**
+     * Choose an Item according to priority distribution and take it out of the
+     * Bag
+     *
+     * @return The selected Item (or null)
+     */
+    @Override
+    public E takeOut() {
+        final Slot<E> slot = this.selectSlot();
+        if (slot == null)
+            return null;
+        this.decay(slot);
+        this.removeFromTable(slot);
+        this.metrics.takeOuts++;
+        this.refresh();
+        return slot.item;
+    }
+
+    /**
+     * 批量取出：按优先级分布逐个选中物品，交由调用者筛选
+     * * 🚩被拒绝的物品遗忘后挂回层级；其间若有同键的物品放入，则按放入合并
+     * * ⚠️筛选函数中不应访问本袋
+     */
+    @Override
+    public ArrayList<E> takeOutBatch(int maxAccepted, int maxRejections, Predicate<E> accept) {
+        final ArrayList<E> accepted = new ArrayList<>(maxAccepted);
+        final int forgetRate = this.forgetRate.get();
+        int rejectionsInRow = 0;
+        while (accepted.size() < maxAccepted && rejectionsInRow < maxRejections) {
+            final Slot<E> selected = this.selectSlot();
+            if (selected == null)
+                break;
+            this.decay(selected);
+            final E item = selected.item;
+            if (accept.test(item)) {
+                // * 🚩接受⇒真正移出
+                this.removeFromTable(selected);
+                this.metrics.takeOuts++;
+                accepted.add(item);
+                rejectionsInRow = 0;
+            } else {
+                // * 🚩拒绝⇒遗忘后挂回
+                if (!this.lazyForgetting) {
+                    item.setPriority(BudgetFunctions.forget(item, forgetRate, this.relativeThreshold));
+                    this.metrics.forgets++;
+                }
+                this.relink(selected);
+                rejectionsInRow++;
+            }
+        }
+        this.refresh();
+        return accepted;
+    }
+
+    /**
+     * Pick an item by key, then remove it from the bag
+     *
+     * @param key The given key
+     * @return The Item with the key (or null)
+     */
+    @Override
+    public E pickOut(String key) {
+        return this.pickOut(this.keyOf(key));
+    }
+
+    @Override
+    public E pickOut(int keyId) {
+        return this.pickOut(this.keyOf(keyId));
+    }
+
+    private E pickOut(final Object key) {
+        if (key == null)
+            return null;
+        final Slot<E> picked;
+        synchronized (this.stripeOf(key)) {
+            picked = this.nameTable.get(key);
+            if (picked == null || !this.unlink(picked))
+                return null;
+            // * 🚩同{@link LevelBag}：先移出名称表，再结算遗忘
+            this.removeFromTable(picked);
+            this.decay(picked);
+        }
+        this.refresh();
+        return picked.item;
+    }
+
+    @Override
+    public E update(String key, Consumer<E> mutator) {
+        return this.update(this.keyOf(key), mutator);
+    }
+
+    @Override
+    public E update(int keyId, Consumer<E> mutator) {
+        return this.update(this.keyOf(keyId), mutator);
+    }
+
+    /**
+     * 就地修改袋中的物品
+     * * 🚩在分段锁内：链出→结算遗忘→修改→遗忘→以新的槽位链入所在层级的队尾
+     * * 📌物品不离开名称表，也不会溢出
+     */
+    private E update(final Object key, final Consumer<E> mutator) {
+        if (key == null)
+            return null;
+        final E item;
+        synchronized (this.stripeOf(key)) {
+            final Slot<E> slot = this.nameTable.get(key);
+            // * 🚩已被其它线程取走⇒视作不在袋中
+            if (slot == null || !this.unlink(slot))
+                return null;
+            item = slot.item;
+            this.decay(slot);
+            mutator.accept(item);
+            if (!this.lazyForgetting)
+                this.forget(item);
+            final Slot<E> updated = new Slot<>(item, this.getLevel(item), this.accessClock);
+            this.nameTable.put(key, updated);
+            this.link(updated);
+        }
+        this.refresh();
+        return item;
+    }
+
+    /**
+     * 遍历袋中的所有物品
+     * * 📌逐层级在锁内复制后再遍历：并发修改时只是近似
+     */
+    @Override
+    public void forEach(Consumer<? super E> action) {
+        for (int n = 0; n < this.totalLevel; n++) {
+            for (final Item item : this.copyLevel(n)) {
+                @SuppressWarnings("unchecked")
+                final E e = (E) item;
+                action.accept(e);
+            }
+        }
+    }
+
+    @Override
+    public void addOccupancyTo(BagMetrics metrics) {
+        metrics.addBag();
+        for (int n = 0; n < this.totalLevel; n++) {
+            final int count = this.itemTable[n].size;
+            if (count > 0)
+                metrics.addLevel(this.totalLevel, n, count);
+        }
+    }
+
+    /** {@link ConcurrentHashMap}的一个结点：对象头、散列值与三个引用 */
+    private static final int TABLE_NODE = 32;
+    /** 装箱的整数键 */
+    private static final int BOXED_KEY = 16;
+
+    /**
+     * 各层级与分段锁在构造时即分配；名称表的表长从{@link #presize}起随物品数扩大，另计每项一个结点
+     */
+    @Override
+    public long estimateBytes() {
+        final long initialCapacity = (long) (1.0 + (int) (presize(this.capacity()) / LOAD_FACTOR) / LOAD_FACTOR);
+        final int initialLength = (int) Math.min(1 << 30, Long.highestOneBit(Math.max(1, initialCapacity - 1)) << 1);
+        // * 📝ConcurrentHashMap构造后按0.75的负载扩容
+        final int tableLength = Footprint.tableLength(this.size(), 0.75f, initialLength);
+        final int perItem = Footprint.SLOT + TABLE_NODE + (this.keyMode == KeyMode.Id ? BOXED_KEY : 0);
+        return Footprint.BAG
+                + Footprint.array(this.occupancy.length(), 8)
+                + Footprint.array(STRIPES, Footprint.REFERENCE) + (long) STRIPES * Footprint.HEADER
+                + Footprint.array(this.totalLevel, Footprint.REFERENCE) + (long) this.totalLevel * Footprint.LEVEL
+                + Footprint.array(tableLength, Footprint.REFERENCE)
+                + (long) this.size() * perItem;
+    }
+
+    /** 快照中此类袋的标记 */
+    private static final byte STATE_KIND = 3;
+
+    /**
+     * 写出：抽取游标与访问时钟，再逐个非空层级按先后写出槽位
+     * * 📌与{@link LevelBag}的格式相同，标记不同
+     * * ⚠️不应与其它操作并发调用
+     */
+    @Override
+    public void writeState(SnapshotOutput out, ItemWriter<E> writer) throws IOException {
+        this.writeStateHeader(out, STATE_KIND);
+        synchronized (this.cursorLock) {
+            out.writeInt(this.levelIndex);
+            out.writeInt(this.currentLevel);
+            out.writeInt(this.currentCounter);
+            out.writeLong(this.accessClock);
+        }
+        for (int n = 0; n < this.totalLevel; n++) {
+            final Level<E> level = this.itemTable[n];
+            synchronized (level) {
+                if (level.size == 0)
+                    continue;
+                out.writeInt(n);
+                out.writeInt(level.size);
+                for (Slot<E> slot = level.head; slot != null; slot = slot.next) {
+                    out.writeLong(slot.since);
+                    writer.write(slot.item);
+                }
+            }
+        }
+        out.writeInt(-1);
+    }
+
+    /**
+     * ⚠️不应与其它操作并发调用
+     */
+    @Override
+    public void readState(SnapshotInput in, ItemReader<E> reader) throws IOException {
+        this.init();
+        this.readStateHeader(in, STATE_KIND);
+        final int levelIndex = in.readInt();
+        final int currentLevel = in.readInt();
+        final int currentCounter = in.readInt();
+        final long accessClock = in.readLong();
+        for (int n = in.readInt(); n >= 0; n = in.readInt()) {
+            if (n >= this.totalLevel)
+                throw new IOException("level out of range: " + n);
+            for (int count = in.readInt(); count > 0; count--) {
+                final long since = in.readLong();
+                final E item = reader.read();
+                final Slot<E> slot = new Slot<>(item, n, since);
+                if (this.nameTable.put(this.keyOf(item), slot) != null)
+                    throw new IOException("duplicate key in bag: " + item.getKey());
+                this.size.incrementAndGet();
+                this.link(slot);
+            }
+        }
+        if (this.size() > this.capacity())
+            throw new IOException("bag overflow: " + this.size() + " > " + this.capacity());
+        synchronized (this.cursorLock) {
+            this.levelIndex = levelIndex;
+            this.currentLevel = currentLevel;
+            this.currentCounter = currentCounter;
+            this.accessClock = accessClock;
+        }
+        this.refresh();
+    }
+
+    @Override
+    Snapshot snapshot(int lowestLevel, boolean longForm) {
+        final Snapshot snapshot = new Snapshot(longForm);
+        for (int i = this.totalLevel; i >= lowestLevel; i--) {
+            final Item[] levelItems = this.copyLevel(i - 1);
+            if (levelItems.length > 0)
+                snapshot.add(i, levelItems);
+        }
+        return snapshot;
+    }
+
+    /* ---------- 内部：名称表 ---------- */
+
+    /** 物品在名称表中的键 */
+    private Object keyOf(final E item) {
+        return this.keyMode == KeyMode.Id ? (Object) item.getKeyId() : item.getKey();
+    }
+
+    /** 字符串键在名称表中的键 | 按ID散列而键未注册⇒空 */
+    private Object keyOf(final String key) {
+        if (this.keyMode != KeyMode.Id)
+            return key;
+        final int id = KeyRegistry.idIfPresent(key);
+        return id == KeyRegistry.NO_ID ? null : (Object) id;
+    }
+
+    /** 键ID在名称表中的键 | 按名称散列而ID未注册⇒空 */
+    private Object keyOf(final int keyId) {
+        return this.keyMode == KeyMode.Id ? (Object) keyId : KeyRegistry.keyOf(keyId);
+    }
+
+    /** 仍在层级中的槽位 | 没有或正被其它操作认领⇒空 */
+    private Slot<E> slotOf(final Object key) {
+        if (key == null)
+            return null;
+        final Slot<E> slot = this.nameTable.get(key);
+        return slot == null || !slot.linked ? null : slot;
+    }
+
+    private static <E> E itemOf(final Slot<E> slot) {
+        return slot == null ? null : slot.item;
+    }
+
+    /**
+     * 把已链出的槽位移出名称表
+     * * 📌期间同键的新物品已放入⇒名称表中已是新的槽位，不动
+     */
+    private void removeFromTable(final Slot<E> slot) {
+        if (this.nameTable.remove(this.keyOf(slot.item), slot))
+            this.size.decrementAndGet();
+    }
+
+    /**
+     * 把被拒绝的物品以新的槽位挂回
+     * * 🚩名称表中仍是原槽位⇒换成新槽位；已被同键的新物品取代⇒按放入合并
+     */
+    private void relink(final Slot<E> selected) {
+        final E item = selected.item;
+        final Object key = this.keyOf(item);
+        synchronized (this.stripeOf(key)) {
+            if (this.nameTable.get(key) == selected) {
+                final Slot<E> slot = new Slot<>(item, this.getLevel(item), this.accessClock);
+                this.nameTable.put(key, slot);
+                this.link(slot);
+                return;
+            }
+        }
+        this.insert(item);
+    }
+
+    /** 同键操作的分段锁 */
+    private Object stripeOf(final Object key) {
+        final int h = key.hashCode();
+        return this.stripes[(h ^ (h >>> 16)) & (STRIPES - 1)];
+    }
+
+    /* ---------- 内部：层级操作 ---------- */
+
+    /**
+     * 按优先级分布选中一个槽位，并将其从层级中链出
+     * * 🚩在游标锁内选定层级，在层级锁内链出 | 被其它线程抢先清空⇒重新选择
+     * * 📌不改动名称表
+     *
+     * @return 被链出的槽位 / 空（袋已空）
+     */
+    private Slot<E> selectSlot() {
+        while (!this.isEmpty()) {
+            final int level;
+            synchronized (this.cursorLock) {
+                if (this.emptyLevel(this.currentLevel) || this.currentCounter == 0) {
+                    if (this.allLevelsEmpty())
+                        return null;
+                    this.currentLevel = this.distributor.pick(this.levelIndex);
+                    this.levelIndex = this.distributor.next(this.levelIndex);
+                    while (this.emptyLevel(this.currentLevel)) {
+                        // * 🚩其它线程可能在此期间清空所有层级
+                        if (this.allLevelsEmpty())
+                            return null;
+                        this.currentLevel = this.distributor.pick(this.levelIndex);
+                        this.levelIndex = this.distributor.next(this.levelIndex);
+                    }
+                    // * 🚩层级的物品数只在层级锁内改写，此处读到的是某一时刻的值
+                    this.currentCounter = (this.currentLevel < this.threshold)
+                            // for dormant levels, take one item
+                            ? 1
+                            // for active levels, take all current items
+                            : this.itemTable[this.currentLevel].size;
+                }
+                level = this.currentLevel;
+                this.currentCounter--;
+                this.accessClock++;
+            }
+            final Slot<E> selected = this.takeOutFirst(level);
+            if (selected != null)
+                return selected;
+        }
+        return null;
+    }
+
+    /**
+     * 「惰性遗忘」：结算物品自放入以来应有的遗忘
+     * * 📌同{@link LevelBag}；非惰性⇒什么都不做
+     *
+     * @param slot The slot of the Item, just unlinked from its level
+     */
+    private void decay(final Slot<E> slot) {
+        if (!this.lazyForgetting)
+            return;
+        final long elapsed = this.accessClock - slot.since;
+        if (elapsed <= 0)
+            return;
+        final double accesses = (double) elapsed / Math.max(1, this.size());
+        this.forget(slot.item, accesses);
+    }
+
+    private boolean emptyLevel(final int n) {
+        return (this.occupancy.get(n >>> 6) & (1L << n)) == 0;
+    }
+
+    private boolean allLevelsEmpty() {
+        for (int word = 0; word < this.occupancy.length(); word++) {
+            if (this.occupancy.get(word) != 0)
+                return false;
+        }
+        return true;
+    }
+
+    private int lowestOccupiedLevel() {
+        for (int word = 0; word < this.occupancy.length(); word++) {
+            final long bits = this.occupancy.get(word);
+            if (bits != 0)
+                return (word << 6) + Long.numberOfTrailingZeros(bits);
+        }
+        return -1;
+    }
+
+    /** 【须持有层级锁】同步层级占用位图 */
+    private void updateOccupancy(final int n) {
+        final long bit = 1L << n;
+        final int word = n >>> 6;
+        long bits, updated;
+        do {
+            bits = this.occupancy.get(word);
+            updated = this.itemTable[n].size == 0 ? bits & ~bit : bits | bit;
+        } while (!this.occupancy.compareAndSet(word, bits, updated));
+    }
+
+    /** 链入层级 */
+    private void link(final Slot<E> slot) {
+        final Level<E> level = this.itemTable[slot.level];
+        synchronized (level) {
+            level.addLast(slot);
+            slot.linked = true;
+            this.updateOccupancy(slot.level);
+        }
+        this.mass.addAndGet(slot.level + 1);
+    }
+
+    /**
+     * 认领并链出指定槽位
+     *
+     * @return 是否由本次调用链出 | 已被链出⇒false
+     */
+    private boolean unlink(final Slot<E> slot) {
+        final Level<E> level = this.itemTable[slot.level];
+        synchronized (level) {
+            if (!slot.linked)
+                return false;
+            level.remove(slot);
+            slot.linked = false;
+            this.updateOccupancy(slot.level);
+        }
+        this.mass.addAndGet(-(slot.level + 1));
+        return true;
+    }
+
+    /**
+     * 认领并链出指定层级的第一个槽位
+     * * 📌不改动名称表
+     *
+     * @return 被链出的槽位 / 空（层级已空）
+     */
+    private Slot<E> takeOutFirst(final int n) {
+        final Level<E> level = this.itemTable[n];
+        final Slot<E> first;
+        synchronized (level) {
+            first = level.head;
+            if (first == null)
+                return null;
+            level.remove(first);
+            first.linked = false;
+            this.updateOccupancy(n);
+        }
+        this.mass.addAndGet(-(n + 1));
+        return first;
+    }
+
+    /** 链出最低非空层级的第一个槽位 | 用于溢出 */
+    private Slot<E> takeOutLowest() {
+        while (true) {
+            final int n = this.lowestOccupiedLevel();
+            if (n < 0)
+                return null;
+            final Slot<E> slot = this.takeOutFirst(n);
+            if (slot != null)
+                return slot;
+        }
+    }
+
+    /** 在层级锁内复制一个层级中的物品，按先后 */
+    private Item[] copyLevel(final int n) {
+        final Level<E> level = this.itemTable[n];
+        synchronized (level) {
+            final Item[] items = new Item[level.size];
+            int i = 0;
+            for (Slot<E> slot = level.head; slot != null; slot = slot.next)
+                items[i++] = slot.item;
+            return items;
+        }
+    }
+
+    /**
+     * 物品在层级中的槽位
+     * * 📌层级在构造时确定且不再改变：换层级即换槽位；链接状态与前后邻居由层级锁保护
+     */
+    private static final class Slot<E> {
+        final E item;
+        final int level;
+        /** 放入层级时的访问时钟，用于「惰性遗忘」 */
+        final long since;
+        /** 是否仍在层级中 | 写入须持有层级锁 */
+        volatile boolean linked;
+        Slot<E> prev;
+        Slot<E> next;
+
+        Slot(E item, int level, long since) {
+            this.item = item;
+            this.level = level;
+            this.since = since;
+        }
+    }
+
+    /**
+     * 单个层级：槽位组成的先进先出双向链表
+     * * 📌除{@link #size}外，所有访问都须持有该对象自身的锁
+     */
+    private static final class Level<E> {
+        Slot<E> head;
+        Slot<E> tail;
+        /** 槽位数量 | 只在锁内改写，可不加锁读取 */
+        volatile int size;
+
+        void addLast(Slot<E> slot) {
+            slot.prev = tail;
+            slot.next = null;
+            if (tail == null)
+                head = slot;
+            else
+                tail.next = slot;
+            tail = slot;
+            size++;
+        }
+
+        void remove(Slot<E> slot) {
+            if (slot.prev == null)
+                head = slot.next;
+            else
+                slot.prev.next = slot.next;
+            if (slot.next == null)
+                tail = slot.prev;
+            else
+                slot.next.prev = slot.prev;
+            slot.prev = null;
+            slot.next = null;
+            size--;
+        }
+
+        void clear() {
+            head = null;
+            tail = null;
+            size = 0;
+        }
+    }
+}
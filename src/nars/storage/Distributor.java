@@ -1,12 +1,29 @@
 package nars.storage;
 
 import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A pseudo-random number generator, used in Bag.
  */
 class Distributor {
 
+    /**
+     * 🆕按「范围」缓存的分派器
+     * * 🎯层级数相同的袋共用同一份（只读的）分布列
+     */
+    private static final ConcurrentHashMap<Integer, Distributor> CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * 🆕获取指定范围的分派器：每个范围只构造一次
+     *
+     * @param range Range of valid numbers
+     * @return The shared Distributor
+     */
+    static Distributor get(int range) {
+        return CACHE.computeIfAbsent(range, Distributor::new);
+    }
+
     /** Shuffled sequence of index numbers */
     private final int[] order;
     /** Capacity of the array */
@@ -0,0 +1,125 @@
+package nars.storage;
+
+import nars.entity.Sentence;
+import nars.entity.Task;
+import nars.language.CompoundTerm;
+import nars.language.Term;
+
+/**
+ * 🆕堆占用的估算：对象、数组、字符串各占多少字节
+ * * 🎯按字节而非个数限制记忆区的大小（见{@link Memory}与{@link nars.control.Parameters#MEMORY_BUDGET}）
+ * * 📌按64位JVM、压缩指针（堆小于32GB时的默认）估算：对象头12字节，引用4字节，按8字节对齐
+ * * 📌只是估算：不追踪共享的对象，量级对即可；各「每项」常数按实测的堆直方图校准
+ */
+public final class Footprint {
+
+    /** 对象头 */
+    public static final int HEADER = 12;
+    /** 数组头：对象头加长度 */
+    public static final int ARRAY_HEADER = 16;
+    /** 引用 */
+    public static final int REFERENCE = 4;
+
+    /** 不含内容的概念：概念、词元、信念表与问题表的外壳、链接模板表 | 链接袋另计 */
+    public static final int CONCEPT_SHELL = 240;
+    /** 冻结的概念：概念与词元 | 字节数组另计 */
+    public static final int FROZEN_SHELL = 120;
+    /** 袋本身：袋对象与其观察者 | 名称表、层级与槽位另计 */
+    public static final int BAG = 120;
+    /** 袋中每个物品的槽位 */
+    public static final int SLOT = 40;
+    /** 每个非空层级 */
+    public static final int LEVEL = 24;
+    /** 每个语句：语句、内部语句与时间戳 | 词项与证据基另计 */
+    public static final int SENTENCE = 72;
+    /** 每个任务：任务与其词元 | 语句与键另计 */
+    public static final int TASK = 64;
+    /** 信念表中每个信念的条目：引用、排名与等价键 | 语句另计 */
+    public static final int BELIEF = 40;
+    /** 问题表中每个问题的条目：环形缓冲中的引用与索引的节点 | 任务由任务链计入 */
+    public static final int QUESTION = 40;
+    /** 每个任务链：链接、词元、链接类型与索引数组 | 键与任务另计 */
+    public static final int TASK_LINK = 112;
+    /** 每个词项链：同上 | 键另计，所指词项与概念的词项共享 */
+    public static final int TERM_LINK = 104;
+    /** 每个链接模板：模板与其索引数组 | 所指词项与概念的词项共享 */
+    public static final int TEMPLATE = 48;
+
+    private Footprint() {
+    }
+
+    /** 按8字节对齐 */
+    public static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    /**
+     * 数组
+     *
+     * @param length      元素个数
+     * @param elementSize 每个元素的字节数
+     */
+    public static long array(int length, int elementSize) {
+        return align(ARRAY_HEADER + (long) length * elementSize);
+    }
+
+    /** 字符串：对象本身加（紧凑编码的）字节数组 */
+    public static long string(String s) {
+        return 24 + array(s.length(), 1);
+    }
+
+    /**
+     * 词项：各层的对象、名称字符串与元素表
+     * * 📌不追踪与其它词项共享的元素：逐层都算
+     */
+    public static long term(Term term) {
+        long bytes = termShell(term);
+        if (term instanceof CompoundTerm) {
+            final CompoundTerm compound = (CompoundTerm) term;
+            for (int i = 0; i < compound.size(); i++)
+                bytes += term(compound.componentAt(i));
+        }
+        return bytes;
+    }
+
+    /**
+     * 词项的最上一层：对象、名称字符串与元素表，不含各元素
+     * * 🎯概念的词项：其元素多为别的概念的词项，由那些概念计入
+     */
+    public static long termShell(Term term) {
+        final long bytes = 24 + string(term.getName());
+        return term instanceof CompoundTerm ? bytes + 32 + array(((CompoundTerm) term).size(), REFERENCE) : bytes;
+    }
+
+    /**
+     * 语句：语句本身、词项与证据基
+     * * 📌词项即使与概念的相同也照算：语句各自持有一份
+     */
+    public static long sentence(Sentence sentence) {
+        return SENTENCE + term(sentence.getContent()) + array(sentence.evidenceLength(), 8);
+    }
+
+    /**
+     * 任务：任务本身、键与语句，加上一层来源（父任务与父信念）
+     * * 📌推导出的任务经来源持有一串祖先，只往上算一层：更远的多与别的任务共享
+     */
+    public static long task(Task task) {
+        long bytes = TASK + string(task.getKey()) + sentence(task);
+        if (task.getParentTask() != null)
+            bytes += TASK + string(task.getParentTask().getKey()) + sentence(task.getParentTask());
+        if (task.getParentBelief() != null)
+            bytes += sentence(task.getParentBelief());
+        return bytes;
+    }
+
+    /**
+     * 开放寻址或链式散列表的表长
+     * * 🚩2的幂，且按负载因子能装下给定数量
+     */
+    static int tableLength(int size, float loadFactor, int initial) {
+        int length = initial;
+        while (length * loadFactor < size)
+            length <<= 1;
+        return length;
+    }
+}
@@ -0,0 +1,206 @@
+package nars.storage;
+
+import java.util.Arrays;
+
+/**
+ * 🆕以「非负整数」为键的开放寻址散列表
+ * * 🎯为{@link KeyRegistry}分配的ID提供无装箱、无节点对象的查找
+ * * 📌线性探测；删除时向后移位，不留墓碑
+ */
+final class IntHashMap<V> {
+
+    /** 空槽位的键 */
+    private static final int EMPTY = -1;
+
+    /**
+     * 🆕尚未分配时共用的单槽位表
+     * * 🎯未放入过任何键的表不占用自己的数组
+     * * ⚠️只读：阈值为0，首次置入前必先扩容
+     */
+    private static final int[] UNALLOCATED_KEYS = { EMPTY };
+    private static final Object[] UNALLOCATED_VALUES = { null };
+
+    /** 键数组 | 长度为2的幂 */
+    private int[] keys;
+    /** 值数组 | 与键数组一一对应 */
+    private Object[] values;
+    /** 已有键值对数量 */
+    private int size;
+    /** 扩容阈值 */
+    private int threshold;
+    /** 负载因子 */
+    private final float loadFactor;
+    /** 🆕首次分配时的表长 */
+    private final int initialTableSize;
+
+    /**
+     * 构造函数
+     *
+     * @param expectedSize 预期容纳的键值对数量
+     * @param loadFactor   负载因子
+     */
+    IntHashMap(final int expectedSize, final float loadFactor) {
+        this.loadFactor = loadFactor;
+        int tableSize = 4;
+        while (tableSize * loadFactor < expectedSize)
+            tableSize <<= 1;
+        this.initialTableSize = tableSize;
+        // * 🚩延迟到首次置入时再分配
+        this.keys = UNALLOCATED_KEYS;
+        this.values = UNALLOCATED_VALUES;
+        this.threshold = 0;
+    }
+
+    private void allocate(final int tableSize) {
+        this.keys = new int[tableSize];
+        Arrays.fill(this.keys, EMPTY);
+        this.values = new Object[tableSize];
+        this.threshold = (int) (tableSize * loadFactor);
+    }
+
+    /** 整数散列 | 打散连续分配的ID */
+    private static int mix(final int key) {
+        final int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /** 查找键所在槽位，或应插入的空槽位 */
+    private int slotOf(final int key) {
+        final int mask = keys.length - 1;
+        int i = mix(key) & mask;
+        while (keys[i] != EMPTY && keys[i] != key)
+            i = (i + 1) & mask;
+        return i;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * 🆕估算占用的堆字节数：本身与两个数组，不含值
+     * * 📌未分配时共用的表不计入
+     */
+    long estimateBytes() {
+        if (keys == UNALLOCATED_KEYS)
+            return 40;
+        return 40 + Footprint.array(keys.length, 4) + Footprint.array(values.length, Footprint.REFERENCE);
+    }
+
+    boolean containsKey(final int key) {
+        return key >= 0 && keys[slotOf(key)] == key;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(final int key) {
+        if (key < 0)
+            return null;
+        return (V) values[slotOf(key)];
+    }
+
+    /**
+     * 置入键值对
+     *
+     * @return 被替换的旧值 / 空
+     */
+    @SuppressWarnings("unchecked")
+    V put(final int key, final V value) {
+        if (key < 0)
+            throw new IllegalArgumentException("key must be non-negative: " + key);
+        int i = slotOf(key);
+        if (keys[i] == key) {
+            final V old = (V) values[i];
+            values[i] = value;
+            return old;
+        }
+        if (size >= threshold) {
+            rehash(keys == UNALLOCATED_KEYS ? initialTableSize : keys.length << 1);
+            i = slotOf(key);
+        }
+        keys[i] = key;
+        values[i] = value;
+        size++;
+        return null;
+    }
+
+    /**
+     * 移除键
+     *
+     * @return 被移除的值 / 空
+     */
+    @SuppressWarnings("unchecked")
+    V remove(final int key) {
+        if (key < 0)
+            return null;
+        final int mask = keys.length - 1;
+        int i = slotOf(key);
+        if (keys[i] != key)
+            return null;
+        final V old = (V) values[i];
+        // * 🚩向后移位：把探测链上后续的键挪回其应在的位置
+        int gap = i;
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            if (keys[j] == EMPTY)
+                break;
+            final int home = mix(keys[j]) & mask;
+            // * 📝home不在(gap, j]之间（循环意义下）⇒可挪到gap
+            final boolean movable = gap <= j ? (home <= gap || home > j) : (home <= gap && home > j);
+            if (movable) {
+                keys[gap] = keys[j];
+                values[gap] = values[j];
+                gap = j;
+            }
+        }
+        keys[gap] = EMPTY;
+        values[gap] = null;
+        size--;
+        return old;
+    }
+
+    /** 🆕键值对的遍历者 */
+    @FunctionalInterface
+    interface EntryConsumer<V> {
+        void accept(int key, V value);
+    }
+
+    /**
+     * 🆕遍历所有键值对
+     * * ⚠️遍历中只可改写已有键的值，不可增删键
+     */
+    @SuppressWarnings("unchecked")
+    void forEach(final EntryConsumer<? super V> action) {
+        if (size == 0)
+            return;
+        for (int i = 0; i < keys.length; i++)
+            if (keys[i] != EMPTY)
+                action.accept(keys[i], (V) values[i]);
+    }
+
+    void clear() {
+        // * 🚩空表无需清理 | 亦保护共用的未分配表
+        if (size == 0)
+            return;
+        Arrays.fill(keys, EMPTY);
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    private void rehash(final int newTableSize) {
+        final int[] oldKeys = this.keys;
+        final Object[] oldValues = this.values;
+        allocate(newTableSize);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                final int slot = slotOf(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
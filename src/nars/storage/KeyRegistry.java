@@ -0,0 +1,90 @@
+package nars.storage;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 🆕键注册表
+ * * 🎯为每个不同的「键」（词项名称、链接键…）分配一个稠密的整数ID
+ * * 📌ID从0开始连续分配，一经分配永不改变
+ * * 📌全局共享：同名词项在任何记忆区中都有相同的ID
+ * * ⚠️注册表只增不减：仅应为「数量有界」的键（词项、词项链）分配ID
+ * * ⚠️只在放入时注册（{@link #idOf}）；只读的查找用{@link #idIfPresent}，未注册的键不可能在任何表中
+ * * * 📄任务链的键包含语句与真值，数量无界，不应注册
+ */
+public final class KeyRegistry {
+
+    /** 表示「未注册」的ID */
+    public static final int NO_ID = -1;
+
+    /**
+     * 键⇒ID
+     *
+     * * 📝可空性：非空
+     * * 📝可变性：可变 | 只增不减
+     * * 📝所有权：具所有权
+     */
+    private static final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+
+    /**
+     * ID⇒键
+     * * 📌下标即ID
+     *
+     * * 📝可空性：非空
+     * * 📝可变性：可变 | 只增不减
+     * * 📝所有权：具所有权
+     */
+    private static final ArrayList<String> keys = new ArrayList<>();
+
+    private KeyRegistry() {
+    }
+
+    /**
+     * 获取键对应的ID，未注册则注册
+     *
+     * @param key [&] 键
+     * @return 稠密的非负整数ID
+     */
+    public static int idOf(final String key) {
+        final Integer id = ids.get(key);
+        if (id != null)
+            return id;
+        return ids.computeIfAbsent(key, KeyRegistry::register);
+    }
+
+    /**
+     * 获取键对应的ID，不注册
+     *
+     * @param key [&] 键
+     * @return 已注册的ID / {@link #NO_ID}
+     */
+    public static int idIfPresent(final String key) {
+        final Integer id = ids.get(key);
+        return id == null ? NO_ID : id;
+    }
+
+    /**
+     * 根据ID获取键
+     *
+     * @param id 已注册的ID
+     * @return 对应的键 / 空
+     */
+    public static String keyOf(final int id) {
+        synchronized (keys) {
+            return 0 <= id && id < keys.size() ? keys.get(id) : null;
+        }
+    }
+
+    /** 已注册的键数量 */
+    public static int size() {
+        return ids.size();
+    }
+
+    /** 【内部】分配新ID | 仅在{@link ConcurrentHashMap#computeIfAbsent}中调用 */
+    private static Integer register(final String key) {
+        synchronized (keys) {
+            keys.add(key);
+            return keys.size() - 1;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package nars.storage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import nars.entity.Concept;
+import nars.entity.Judgement;
+import nars.entity.Sentence;
+import nars.io.SnapshotInput;
+import nars.io.SnapshotOutput;
+import nars.language.Term;
+
+/**
+ * 🆕只读的「背景知识库」：一次建好，由多个推理器按引用共享
+ * * 🎯许多推理器从同一份大语料起步时，不必各自载入一遍：每个推理器只保存自己改动过的概念，占用与改动量成正比
+ * * 📌每个概念存为一条快照记录（见{@link Concept#writeSnapshot}），另解码出其信念与优先级，供只读查询
+ * * 🚩写时复制：推理器要用到（激活、加信念、加链接）某个概念时，才从记录解出一份私有的副本放入自己的概念袋
+ * * 📌副本之间、副本与库之间不共享对象：库在建好后不再改变，可在多个线程上同时读
+ * * ⚠️建库时概念中的问题也一并收录，副本中照样存在
+ */
+public final class KnowledgeBase {
+
+    /** 一个概念：快照记录，及从中解码出的只读信念与优先级 */
+    private static final class Entry {
+        final byte[] record;
+        /** 按排行排列 | 只读，查询时返回拷贝 */
+        final Judgement[] beliefs;
+        final float priority;
+
+        Entry(byte[] record, Judgement[] beliefs, float priority) {
+            this.record = record;
+            this.beliefs = beliefs;
+            this.priority = priority;
+        }
+    }
+
+    private static final Judgement[] NO_BELIEFS = {};
+
+    /**
+     * 词项ID⇒概念
+     * * 📝可变性：不变 | 在构造函数结束前填满，此后只读
+     */
+    private final IntHashMap<Entry> entries;
+
+    /** 库中证据的最大序列号 | 使用者的新证据须从其后编号，否则与库中证据误判为重复 */
+    private final long serial;
+
+    /** 所有记录的总字节数 */
+    private final long recordBytes;
+
+    private KnowledgeBase(IntHashMap<Entry> entries, long serial, long recordBytes) {
+        this.entries = entries;
+        this.serial = serial;
+        this.recordBytes = recordBytes;
+    }
+
+    /**
+     * 从载入了语料的记忆区建库
+     * * 📌只收录概念袋中的概念，不含存档中的；记忆区本身不被改动
+     *
+     * @param memory [&] 已载入语料的记忆区
+     * @param serial [] 建库时推理器的时间戳序列号
+     * @return [] 与记忆区再无关联的知识库
+     */
+    public static KnowledgeBase of(Memory memory, long serial) {
+        final IntHashMap<Entry> entries = new IntHashMap<>(memory.getConceptBag().size(), 0.5f);
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        // * 🚩解码用的遗忘速率与计数：信念不需要，只为构造出临时的概念
+        final AtomicInteger rate = new AtomicInteger(0);
+        final BagMetricsRegistry metrics = new BagMetricsRegistry();
+        final long[] maxSerial = { serial };
+        final long[] bytes = { 0 };
+        memory.getConceptBag().forEach(concept -> {
+            try {
+                buffer.reset();
+                final SnapshotOutput out = new SnapshotOutput(buffer);
+                concept.writeSnapshot(out);
+                out.flush();
+                final byte[] record = buffer.toByteArray();
+                // * 🚩信念从记录中解出：与记忆区中的对象不共享
+                final Concept decoded = Concept.readSnapshot(new SnapshotInput(record), rate, rate, metrics);
+                final Judgement[] beliefs = new Judgement[decoded.getBeliefs().size()];
+                int i = 0;
+                for (final Judgement belief : decoded.getBeliefs()) {
+                    beliefs[i++] = belief;
+                    for (int j = 0; j < belief.evidenceLength(); j++)
+                        maxSerial[0] = Math.max(maxSerial[0], belief.get(j));
+                }
+                entries.put(decoded.getTerm().getNameId(),
+                        new Entry(record, i == 0 ? NO_BELIEFS : beliefs, decoded.getPriority()));
+                bytes[0] += record.length;
+            } catch (IOException e) {
+                System.out.println("i/o error: knowledge base: " + e.getMessage());
+            }
+        });
+        return new KnowledgeBase(entries, maxSerial[0], bytes[0]);
+    }
+
+    /** 收录的概念数 */
+    public int size() {
+        return this.entries.size();
+    }
+
+    /** 库中证据的最大序列号 */
+    public long getSerial() {
+        return this.serial;
+    }
+
+    /** 估算占用的堆字节数：记录本身与索引，不含解码出的信念 */
+    public long estimateBytes() {
+        return this.recordBytes + this.entries.estimateBytes() + (long) this.entries.size() * 40;
+    }
+
+    /** 库中是否有词项的概念 */
+    public boolean contains(Term term) {
+        return this.entries.containsKey(term.findNameId());
+    }
+
+    /**
+     * 解出词项的概念的一份私有副本
+     *
+     * @param term   [&] 概念的词项
+     * @param memory [&] 副本所属的记忆区 | 提供遗忘速率与计数
+     * @return 新的概念 | 库中没有⇒空
+     */
+    Concept copyOut(Term term, Memory memory) {
+        final Entry entry = this.entries.get(term.findNameId());
+        if (entry == null)
+            return null;
+        try {
+            return memory.readConcept(new SnapshotInput(entry.record));
+        } catch (IOException e) {
+            System.out.println("i/o error: knowledge base: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 词项的概念中，与任务的证据基不重复的最好信念
+     * * 🚩同{@link Concept#getBelief}，不复制概念
+     *
+     * @return 信念的拷贝 / 空
+     */
+    public Judgement getBelief(Term term, Sentence taskSentence) {
+        for (final Judgement belief : this.beliefsOf(term))
+            if (!taskSentence.evidentialOverlap(belief))
+                return (Judgement) belief.sentenceClone();
+        return null;
+    }
+
+    /**
+     * 词项的概念的全部信念
+     *
+     * @return 只读 | 库中没有⇒空数组
+     */
+    public Judgement[] beliefsOf(Term term) {
+        final Entry entry = this.entries.get(term.findNameId());
+        return entry == null ? NO_BELIEFS : entry.beliefs;
+    }
+
+    /** 词项的概念的优先级 | 库中没有⇒0 */
+    public float getPriority(Term term) {
+        final Entry entry = this.entries.get(term.findNameId());
+        return entry == null ? 0f : entry.priority;
+    }
+}
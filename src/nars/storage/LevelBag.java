@@ -0,0 +1,853 @@
+package nars.storage;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import nars.control.Parameters;
+import nars.entity.Item;
+import nars.inference.BudgetFunctions;
+import nars.io.SnapshotInput;
+import nars.io.SnapshotOutput;
+
+/**
+ * A Bag is a storage with a constant capacity and maintains an internal
+ * priority distribution for retrieval.
+ * <p>
+ * Each entity in a bag must extend Item, which has a BudgetValue and a key.
+ * <p>
+ * A name table is used to merge duplicate items that have the same key.
+ * <p>
+ * The bag space is divided by a threshold, above which is mainly time
+ * management, and below, space management. Differences: (1) level selection vs.
+ * item selection, (2) decay rate
+ * <p>
+ * * 🚩【2024-06-12】原先的`Bag`类，现为{@link Bag}的经典实现
+ *
+ * @param <E> The type of the Item in the Bag
+ */
+public final class LevelBag<E extends Item> extends AbstractBag<E> {
+    /**
+     * shared DISTRIBUTOR that produce the probability distribution
+     * * 🚩【2024-06-12】按层级数共享：同层级数的袋用同一个
+     */
+    private final Distributor distributor;
+    /**
+     * mapping from key to item
+     * * 🚩【2024-06-09】现映射到物品所在的「槽位」，以便O(1)地从层级中移除
+     * * 🚩按{@link KeyMode}选择「按名称散列」或「按整数ID散列」
+     */
+    private final NameTable<Slot<E>> nameTable;
+    /**
+     * array of lists of items, for items on different level
+     * * 🚩使用侵入式双向链表：增、删、取首皆为O(1)
+     * * 🚩【2024-06-11】惰性分配：首次放入物品时才分配数组，各层级在首次用到时才创建
+     * * * 🎯概念中的小容量袋大多只用到少数层级，甚至一直为空
+     * * 📌为`null`的层级必定为空；非空层级以{@link #occupancy}为准
+     */
+    private Level<E>[] itemTable;
+    /**
+     * 🆕层级占用位图：第n位为1 ⇔ 第n层非空
+     * * 🎯使「判断层级是否为空」「查找最低非空层级」均为位运算
+     * * 📌与{@link #itemTable}同步更新
+     */
+    private final long[] occupancy;
+    /**
+     * current sum of occupied level
+     */
+    private int mass;
+    /**
+     * index to get next level, kept in individual objects
+     */
+    private int levelIndex;
+    /**
+     * current take out level
+     */
+    private int currentLevel;
+    /**
+     * maximum number of items to be taken out at current level
+     */
+    private int currentCounter;
+
+    /**
+     * 🆕袋的访问时钟：按优先级分布选中物品的次数
+     * * 🎯「惰性遗忘」中计算物品在袋中经历的访问次数
+     */
+    private long accessClock;
+
+    // impl<E> Bag<E>
+
+    /**
+     * constructor, called from subclasses
+     *
+     * @param forgetRate the priority decay rate
+     * @param capacity   the capacity of the bag
+     */
+    public LevelBag(AtomicInteger forgetRate, int capacity) {
+        // * 📜默认就是「旧的并入新的」
+        this(forgetRate, capacity, KeyMode.Name);
+    }
+
+    /**
+     * 🆕除了以上参数外，还指定「名称表」的键类型
+     *
+     * @param forgetRate the priority decay rate
+     * @param capacity   the capacity of the bag
+     * @param keyMode    how the name table hashes keys
+     */
+    public LevelBag(AtomicInteger forgetRate, int capacity, KeyMode keyMode) {
+        // * 📜默认就是「旧的并入新的」
+        this(forgetRate, capacity, (oldValue, newValue) -> MergeOrder.OldToNew, keyMode);
+    }
+
+    /**
+     * 除了以上参数外，还附加「并入顺序决定函数」
+     *
+     * @param forgetRate  the priority decay rate
+     * @param capacity    the capacity of the bag
+     * @param mergeOrderF the merge order function
+     */
+    public LevelBag(AtomicInteger forgetRate, int capacity, MergeOrderF<E> mergeOrderF) {
+        this(forgetRate, capacity, mergeOrderF, KeyMode.Name);
+    }
+
+    /**
+     * 🆕除了以上参数外，还指定「名称表」的键类型
+     *
+     * @param forgetRate  the priority decay rate
+     * @param capacity    the capacity of the bag
+     * @param mergeOrderF the merge order function
+     * @param keyMode     how the name table hashes keys
+     */
+    public LevelBag(AtomicInteger forgetRate, int capacity, MergeOrderF<E> mergeOrderF, KeyMode keyMode) {
+        this(forgetRate, capacity, Parameters.BAG_LEVEL, Parameters.BAG_THRESHOLD, mergeOrderF, keyMode);
+    }
+
+    /**
+     * 🆕指定层级数与阈值
+     * * 🎯小容量的袋可用较粗的层级，少查空层级；大容量的袋可用较细的层级
+     *
+     * @param forgetRate the priority decay rate
+     * @param capacity   the capacity of the bag
+     * @param totalLevel the number of priority levels
+     * @param threshold  the firing threshold, in levels
+     * @param keyMode    how the name table hashes keys
+     */
+    public LevelBag(AtomicInteger forgetRate, int capacity, int totalLevel, int threshold, KeyMode keyMode) {
+        this(forgetRate, capacity, totalLevel, threshold, (oldValue, newValue) -> MergeOrder.OldToNew, keyMode);
+    }
+
+    /**
+     * 🆕指定层级数与阈值
+     *
+     * @param forgetRate  the priority decay rate
+     * @param capacity    the capacity of the bag
+     * @param totalLevel  the number of priority levels
+     * @param threshold   the firing threshold, in levels
+     * @param mergeOrderF the merge order function
+     * @param keyMode     how the name table hashes keys
+     */
+    public LevelBag(AtomicInteger forgetRate, int capacity, int totalLevel, int threshold,
+            MergeOrderF<E> mergeOrderF, KeyMode keyMode) {
+        super(forgetRate, capacity, totalLevel, threshold, mergeOrderF);
+        this.distributor = Distributor.get(totalLevel);
+        this.occupancy = new long[(totalLevel + 63) >>> 6];
+        this.nameTable = keyMode == KeyMode.Id
+                ? new NameTable.ById<>(presize(capacity), LOAD_FACTOR)
+                : new NameTable.ByName<>(presize(capacity), LOAD_FACTOR);
+        init();
+    }
+
+    @Override
+    public void init() {
+        this.itemTable = null;
+        Arrays.fill(this.occupancy, 0L);
+        this.nameTable.clear();
+        this.currentLevel = this.totalLevel - 1;
+        this.levelIndex = this.capacity() % this.totalLevel; // so that different bags start at different point
+        this.mass = 0;
+        this.currentCounter = 0;
+        this.accessClock = 0;
+    }
+
+    /**
+     * The number of items in the bag
+     *
+     * @return The number of items
+     */
+    public final int size() {
+        return this.nameTable.size();
+    }
+
+    /**
+     * 🆕获取是否为空
+     *
+     * @return
+     */
+    public final boolean isEmpty() {
+        return this.nameTable.isEmpty();
+    }
+
+    /**
+     * Get the average priority of Items
+     * * 📝【2024-06-09 23:56:10】目前仅在「概念」的「平均词项链优先级」中用到
+     *
+     * @return The average priority of Items in the bag
+     */
+    public final float averagePriority() {
+        // * 🚩没内容⇒默认0.01
+        if (size() == 0)
+            return 0.01f;
+        // * 🚩有内容⇒所有「占据的层级」除以「层级总数」（所有优先级的平均值）
+        final float f = (float) mass / (size() * this.totalLevel);
+        // * 🚩和1取最小值
+        return Math.min(f, 1.0f);
+    }
+
+    /**
+     * Check if an item is in the bag
+     * * 🚩按「键」查「名称表」，再比对引用：O(1)
+     * * 📝「名称表」中每个键至多对应一个物品，且物品不覆写`equals`
+     * * * 故与原先的`nameTable.containsValue(it)`（线性扫描）等价
+     *
+     * @param it An item
+     * @return Whether the Item is in the Bag
+     */
+    public final boolean contains(E it) {
+        if (it == null)
+            return false;
+        final Slot<E> slot = nameTable.get(it);
+        return slot != null && slot.item == it;
+    }
+
+    /**
+     * 🆕获取一个键ID是否在一个袋内
+     *
+     * @param keyId The id of the key, see {@link Item#getKeyId}
+     * @return Whether the Item with the given key is in the Bag
+     */
+    public final boolean has(int keyId) {
+        return nameTable.get(keyId) != null;
+    }
+
+    /**
+     * 🆕Get an Item by key id
+     * * 🎯按ID散列的袋中，免去字符串散列与比较
+     *
+     * @param keyId The id of the key, see {@link Item#getKeyId}
+     * @return The Item with the given key
+     */
+    public final E get(int keyId) {
+        final Slot<E> slot = nameTable.get(keyId);
+        return slot == null ? null : slot.item;
+    }
+
+    /**
+     * 🆕获取一个Key是否在一个袋内
+     *
+     * @param key The key of the Item
+     * @return Whether the Item with the given key is in the Bag
+     */
+    public final boolean has(String key) {
+        return nameTable.get(key) != null;
+    }
+
+    /**
+     * Get an Item by key
+     *
+     * @param key The key of the Item
+     * @return The Item with the given key
+     */
+    public final E get(String key) {
+        final Slot<E> slot = nameTable.get(key);
+        return slot == null ? null : slot.item;
+    }
+
+    /**
+     * 检查要放出的Item是否合法
+     * // * 🚩非空检查：`null`⇒NPE报错 | `null`在此属正常情况
+     * * 🚩已有检查：已有⇒虚空放出⇒报错
+     *
+     * @param in
+     */
+    private final E validateOut(E out) {
+        // if (out == null)
+        // throw new AssertionError("尝试放出null");
+        if (this.nameTable.get(out) == null)
+            throw new AssertionError("尝试放出没有的项" + out);
+        return out;
+    }
+
+    /**
+     * Add a new Item into the Bag
+     *
+     * @param newItem The new Item
+     * @return Whether the new Item is added into the Bag
+     */
+    public final boolean putIn(E newItem) {
+        // * 🚩预先检查
+        validateIn(newItem);
+        this.metrics.insertions++;
+        // * 🚩新物品的槽位
+        final Slot<E> newSlot = new Slot<>(newItem);
+        // * 🚩置入名称表
+        final Slot<E> oldSlot = nameTable.put(newItem, newSlot);
+        // * 🚩检查并处理「同名」情况
+        if (oldSlot != null) { // merge duplications
+            // * 🚩重复的键
+            final E oldItem = oldSlot.item;
+            this.outOfBase(oldSlot);
+            this.decay(oldSlot);
+            // * 🚩按照计算出的「合并顺序」合并预算值
+            this.mergeDuplicate(oldItem, newItem);
+        }
+        // * 🚩置入层级表
+        final Slot<E> overflowSlot = this.intoBase(newSlot); // put the (new or merged) item into itemTable
+        // * 🚩检查并处理「溢出」情况
+        if (overflowSlot != null) { // remove overflow
+            final E overflowItem = overflowSlot.item;
+            // * 🚩对应移除「名称表」的元素
+            nameTable.remove(overflowItem);
+            this.overflowed(overflowItem);
+            // * 🚩移出的是新增元素⇒添加失败
+            if (overflowItem == newItem) {
+                this.metrics.rejections++;
+                return false;
+            }
+            this.metrics.evictions++;
+            return true;
+        }
+        // * 🚩添加成功
+        return true;
+    }
+
+    /**
+     * 🆕移出最低非空层级中最早放入的物品：同{@link #intoBase}袋满时的选择
+     */
+    @Override
+    public final E evictLowest() {
+        final int level = this.lowestOccupiedLevel();
+        if (level < 0)
+            return null;
+        final E item = this.takeOutFirst(level).item;
+        nameTable.remove(item);
+        this.metrics.evictions++;
+        this.overflowed(item);
+        return item;
+    }
+
+    /**
+     * Choose an Item according to priority distribution and take it out of the
+     * Bag
+     *
+     * @return The selected Item (or null)
+     */
+    public final E takeOut() {
+        // * 🚩空袋⇒返回空
+        if (this.isEmpty()) // empty bag
+            return null;
+        // * 🚩拿取物品
+        final Slot<E> slot = this.selectSlot();
+        this.decay(slot);
+        final E selected = slot.item;
+        this.validateOut(selected);
+        this.nameTable.remove(selected);
+        this.metrics.takeOuts++;
+        this.refresh();
+        // * 🚩返回被选中者
+        return selected;
+    }
+
+    /**
+     * 🆕批量取出：按优先级分布逐个选中物品，交由调用者筛选
+     * * 🎯替代「取出→不合要求→放回」的反复往返，如「根据任务链选取词项链」
+     * * 🚩被拒绝的物品不移出「名称表」：遗忘后直接把原槽位挂回层级
+     * * * 省去每次往返的散列移除、重复检查与重新插入，且放回顺序与逐个「取出→放回」完全一致
+     * * 📌遗忘速率在整批中只读取一次
+     * * ⚠️筛选函数中不应访问本袋
+     *
+     * @param maxAccepted   The maximum number of Items to accept
+     * @param maxRejections The number of rejections in a row to give up after
+     * @param accept        Whether to accept a selected Item
+     * @return The accepted Items, already taken out of the Bag, in selection order
+     */
+    public final ArrayList<E> takeOutBatch(int maxAccepted, int maxRejections, Predicate<E> accept) {
+        final ArrayList<E> accepted = new ArrayList<>(maxAccepted);
+        final int forgetRate = this.forgetRate.get();
+        int rejectionsInRow = 0;
+        while (accepted.size() < maxAccepted && rejectionsInRow < maxRejections && !this.isEmpty()) {
+            final Slot<E> selected = this.selectSlot();
+            this.decay(selected);
+            final E item = selected.item;
+            if (accept.test(item)) {
+                // * 🚩接受⇒真正移出
+                this.nameTable.remove(item);
+                this.metrics.takeOuts++;
+                accepted.add(item);
+                rejectionsInRow = 0;
+            } else {
+                // * 🚩拒绝⇒遗忘后就地挂回 | 名称表中的数目未变，不会溢出
+                if (!this.lazyForgetting) {
+                    item.setPriority(BudgetFunctions.forget(item, forgetRate, this.relativeThreshold));
+                    this.metrics.forgets++;
+                }
+                this.linkSlot(selected, getLevel(item));
+                rejectionsInRow++;
+            }
+        }
+        this.refresh();
+        return accepted;
+    }
+
+    /**
+     * 🆕按优先级分布选中一个槽位，并将其从层级中摘下
+     * * ⚠️调用前须保证至少有一个非空层级
+     * * 📌不改动「名称表」
+     *
+     * @return The selected slot
+     */
+    private final Slot<E> selectSlot() {
+        // * 🚩切换随机索引 | 当前层级为空/多次取到某层的值 ⇒ 更新
+        if (this.emptyLevel(currentLevel) || currentCounter == 0) { // done with the current level
+            // * 🚩伪随机循环到第一个「非空层级」
+            this.currentLevel = this.distributor.pick(this.levelIndex);
+            this.levelIndex = this.distributor.next(this.levelIndex);
+            while (this.emptyLevel(this.currentLevel)) { // look for a non-empty level
+                this.currentLevel = this.distributor.pick(levelIndex);
+                this.levelIndex = this.distributor.next(levelIndex);
+            }
+            // * 🚩最后更新计数器
+            this.currentCounter = (this.currentLevel < this.threshold)
+                    // for dormant levels, take one item
+                    ? 1
+                    // for active levels, take all current items
+                    : this.itemTable[this.currentLevel].size();
+        }
+        // * 🚩摘下槽位、更新计数器
+        final Slot<E> selected = this.takeOutFirst(currentLevel); // take out the first item in the level
+        this.currentCounter--;
+        this.accessClock++;
+        return selected;
+    }
+
+    /**
+     * Pick an item by key, then remove it from the bag
+     *
+     * @param key The given key
+     * @return The Item with the key (or null)
+     */
+    public final E pickOut(String key) {
+        // * 🚩从「名称表」中拿出一个物品
+        final Slot<E> picked = this.nameTable.remove(key);
+        if (picked == null)
+            return null;
+        // * 🚩真的拿出物品
+        this.outOfBase(picked);
+        this.decay(picked);
+        return picked.item;
+    }
+
+    /**
+     * 🆕Pick an item by key id, then remove it from the bag
+     *
+     * @param keyId The id of the given key, see {@link Item#getKeyId}
+     * @return The Item with the key (or null)
+     */
+    public final E pickOut(int keyId) {
+        final Slot<E> picked = this.nameTable.remove(keyId);
+        if (picked == null)
+            return null;
+        this.outOfBase(picked);
+        this.decay(picked);
+        return picked.item;
+    }
+
+    @Override
+    public final E update(String key, Consumer<E> mutator) {
+        return this.update(this.nameTable.get(key), mutator);
+    }
+
+    @Override
+    public final E update(int keyId, Consumer<E> mutator) {
+        return this.update(this.nameTable.get(keyId), mutator);
+    }
+
+    /**
+     * 🆕就地修改槽位中的物品
+     * * 🚩摘下→结算遗忘→修改→遗忘→挂回
+     * * 📌层级未变⇒只在同层级内挪到队尾，不动「层级占用位图」与「质量」
+     *
+     * @param slot The slot of the Item, still in the name table
+     */
+    private final E update(Slot<E> slot, Consumer<E> mutator) {
+        if (slot == null)
+            return null;
+        final E item = slot.item;
+        final int oldLevel = slot.level;
+        final Level<E> level = this.itemTable[oldLevel];
+        level.remove(slot);
+        this.decay(slot);
+        mutator.accept(item);
+        if (!this.lazyForgetting)
+            this.forget(item);
+        final int newLevel = getLevel(item);
+        if (newLevel == oldLevel) {
+            slot.since = this.accessClock;
+            level.addLast(slot); // FIFO
+        } else {
+            this.updateOccupancy(oldLevel);
+            this.mass -= oldLevel + 1;
+            this.linkSlot(slot, newLevel);
+        }
+        this.refresh();
+        return item;
+    }
+
+    @Override
+    public final void forEach(Consumer<? super E> action) {
+        if (this.itemTable == null)
+            return;
+        for (final Level<E> level : this.itemTable) {
+            if (level == null)
+                continue;
+            for (Slot<E> slot = level.head; slot != null; slot = slot.next)
+                action.accept(slot.item);
+        }
+    }
+
+    @Override
+    public final void addOccupancyTo(BagMetrics metrics) {
+        metrics.addBag();
+        for (int word = 0; word < occupancy.length; word++) {
+            for (long bits = occupancy[word]; bits != 0; bits &= bits - 1) {
+                final int n = (word << 6) + Long.numberOfTrailingZeros(bits);
+                metrics.addLevel(this.totalLevel, n, this.itemTable[n].size());
+            }
+        }
+    }
+
+    /**
+     * 🆕层级表与各层级惰性分配：只计入已分配的
+     */
+    @Override
+    public final long estimateBytes() {
+        long bytes = Footprint.BAG + Footprint.array(this.occupancy.length, 8) + this.nameTable.estimateBytes()
+                + (long) this.size() * Footprint.SLOT;
+        if (this.itemTable != null) {
+            bytes += Footprint.array(this.totalLevel, Footprint.REFERENCE);
+            for (final Level<E> level : this.itemTable)
+                if (level != null)
+                    bytes += Footprint.LEVEL;
+        }
+        return bytes;
+    }
+
+    /** 🆕快照中此类袋的标记 */
+    private static final byte STATE_KIND = 1;
+
+    /**
+     * 🆕写出：抽取游标与访问时钟，再逐个非空层级按先后写出槽位
+     * * 📌槽位所在层级照原样保存：物品的优先级可能在袋中被改过，不一定与层级相符
+     */
+    @Override
+    public final void writeState(SnapshotOutput out, ItemWriter<E> writer) throws IOException {
+        this.writeStateHeader(out, STATE_KIND);
+        out.writeInt(this.levelIndex);
+        out.writeInt(this.currentLevel);
+        out.writeInt(this.currentCounter);
+        out.writeLong(this.accessClock);
+        for (int n = 0; n < this.totalLevel; n++) {
+            if (this.emptyLevel(n))
+                continue;
+            final Level<E> level = this.itemTable[n];
+            out.writeInt(n);
+            out.writeInt(level.size());
+            for (Slot<E> slot = level.head; slot != null; slot = slot.next) {
+                out.writeLong(slot.since);
+                writer.write(slot.item);
+            }
+        }
+        out.writeInt(-1);
+    }
+
+    @Override
+    public final void readState(SnapshotInput in, ItemReader<E> reader) throws IOException {
+        this.init();
+        this.readStateHeader(in, STATE_KIND);
+        final int levelIndex = in.readInt();
+        final int currentLevel = in.readInt();
+        final int currentCounter = in.readInt();
+        final long accessClock = in.readLong();
+        for (int n = in.readInt(); n >= 0; n = in.readInt()) {
+            if (n >= this.totalLevel)
+                throw new IOException("level out of range: " + n);
+            for (int count = in.readInt(); count > 0; count--) {
+                final long since = in.readLong();
+                final Slot<E> slot = new Slot<>(reader.read());
+                if (this.nameTable.put(slot.item, slot) != null)
+                    throw new IOException("duplicate key in bag: " + slot.item.getKey());
+                this.linkSlot(slot, n);
+                slot.since = since;
+            }
+        }
+        if (this.size() > this.capacity())
+            throw new IOException("bag overflow: " + this.size() + " > " + this.capacity());
+        this.levelIndex = levelIndex;
+        this.currentLevel = currentLevel;
+        this.currentCounter = currentCounter;
+        this.accessClock = accessClock;
+        this.refresh();
+    }
+
+    /**
+     * Check whether a level is empty
+     * * 🚩查「层级占用位图」
+     *
+     * @param n The level index
+     * @return Whether that level is empty
+     */
+    private final boolean emptyLevel(int n) {
+        return (occupancy[n >>> 6] & (1L << n)) == 0;
+    }
+
+    /**
+     * 🆕获取最低的非空层级
+     * * 🚩逐字查找第一个非零字，再取其最低位
+     *
+     * @return The lowest non-empty level, or -1 if all levels are empty
+     */
+    private final int lowestOccupiedLevel() {
+        for (int word = 0; word < occupancy.length; word++) {
+            if (occupancy[word] != 0)
+                return (word << 6) + Long.numberOfTrailingZeros(occupancy[word]);
+        }
+        return -1;
+    }
+
+    /**
+     * 🆕在层级的增删后同步「层级占用位图」
+     *
+     * @param n The level index
+     */
+    private final void updateOccupancy(int n) {
+        if (itemTable[n].isEmpty())
+            occupancy[n >>> 6] &= ~(1L << n);
+        else
+            occupancy[n >>> 6] |= 1L << n;
+    }
+
+    /**
+     * Insert an item into the itemTable, and return the overflow
+     *
+     * @param newSlot The slot of the Item to put in
+     * @return The slot of the overflow Item (may be null)
+     */
+    private final Slot<E> intoBase(Slot<E> newSlot) {
+        Slot<E> oldSlot = null;
+        // * 🚩获取新物品要被放到的层级
+        final int inLevel = getLevel(newSlot.item);
+        // * 🚩容量已满，准备放出物品
+        if (this.size() > this.capacity()) { // the bag is full
+            // * 🚩查看第一个非空层级
+            final int outLevel = this.lowestOccupiedLevel();
+            // * 🚩非空层级高于新物品⇒弹出新物品 | 始终弹出层级最低的物品（放进去就最低⇒拒绝置入）
+            if (outLevel > inLevel) // ignore the item and exit
+                return newSlot;
+            // * 🚩从对应层级拿出旧的物品（先进先出）
+            else // remove an old item in the lowest non-empty level
+                oldSlot = this.takeOutFirst(outLevel);
+        }
+        // * 🚩加入层级
+        this.linkSlot(newSlot, inLevel);
+        // * 🚩刷新显示呈现
+        this.refresh(); // refresh the window
+        // * 🚩返回「溢出的旧物品」
+        return oldSlot; // TODo return null is a bad smell
+    }
+
+    /**
+     * 🆕获取要放入物品的层级，必要时分配
+     *
+     * @param n The level index
+     * @return The level, never null
+     */
+    @SuppressWarnings("unchecked")
+    private final Level<E> levelForInsert(int n) {
+        if (this.itemTable == null)
+            this.itemTable = (Level<E>[]) new Level<?>[this.totalLevel];
+        Level<E> level = this.itemTable[n];
+        if (level == null) {
+            level = new Level<>();
+            this.itemTable[n] = level;
+        }
+        return level;
+    }
+
+    /**
+     * 🆕把槽位挂到指定层级的队尾，并在槽位中记下层级
+     *
+     * @param slot  The slot to link
+     * @param level The level to put in
+     */
+    private final void linkSlot(Slot<E> slot, int level) {
+        slot.level = level;
+        slot.since = this.accessClock;
+        this.levelForInsert(level).addLast(slot); // FIFO
+        this.updateOccupancy(level);
+        // * 🚩更新状态变量
+        this.mass += level + 1; // increase total mass
+    }
+
+    /**
+     * 🆕「惰性遗忘」：结算物品自放入以来应有的遗忘
+     * * 🚩以「袋的访问次数 / 袋内物品数」估计物品自身经历的访问次数，按闭式一次算出
+     * * 📌非惰性⇒什么都不做
+     *
+     * @param slot The slot of the Item, just unlinked from its level
+     */
+    private final void decay(Slot<E> slot) {
+        if (!this.lazyForgetting)
+            return;
+        final long elapsed = this.accessClock - slot.since;
+        if (elapsed <= 0)
+            return;
+        final double accesses = (double) elapsed / Math.max(1, this.size());
+        this.forget(slot.item, accesses);
+    }
+
+    /**
+     * Take out the first or last E in a level from the itemTable
+     *
+     * @param level The current level
+     * @return The slot of the first Item
+     */
+    private final Slot<E> takeOutFirst(int level) {
+        // * 🚩尝试在指定层级中取出一个元素 | 📝同义重构：获取第一个=移除第一个（后的返回值）
+        final Slot<E> selected = this.itemTable[level].removeFirst();
+        this.updateOccupancy(level);
+        // * 🚩更新自身的「质量」值
+        this.mass -= level + 1;
+        // * 🚩刷新显示呈现
+        this.refresh();
+        return selected;
+    }
+
+    /**
+     * Remove an item from itemTable, then adjust mass
+     *
+     * * 🚩槽位记录了物品放入时的层级，无需在层级中查找：O(1)
+     *
+     * @param oldSlot The slot of the Item to be removed
+     */
+    private final void outOfBase(Slot<E> oldSlot) {
+        // * 🚩从「层级表」中移除对应物品
+        final int level = oldSlot.level;
+        this.itemTable[level].remove(oldSlot);
+        this.updateOccupancy(level);
+        // * 🚩更新自身的「质量」值
+        this.mass -= level + 1;
+        // * 🚩刷新显示呈现
+        this.refresh();
+    }
+
+    @Override
+    final Snapshot snapshot(int lowestLevel, boolean longForm) {
+        final Snapshot snapshot = new Snapshot(longForm);
+        for (int i = this.totalLevel; i >= lowestLevel; i--) {
+            if (!emptyLevel(i - 1)) {
+                final Level<E> level = itemTable[i - 1];
+                final Item[] levelItems = new Item[level.size()];
+                int j = 0;
+                for (Slot<E> slot = level.head; slot != null; slot = slot.next) {
+                    levelItems[j++] = slot.item;
+                }
+                snapshot.add(i, levelItems);
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * 🆕物品在「层级表」中的槽位
+     * * 📌侵入式双向链表的节点：记录物品、所在层级与前后邻居
+     * * 🎯使「从层级中移除指定物品」无需线性查找
+     */
+    private static final class Slot<E> {
+        /** 所存放的物品 */
+        final E item;
+        /** 所在层级；仅在放入「层级表」时设置 */
+        int level;
+        /** 🆕放入「层级表」时的访问时钟，用于「惰性遗忘」 */
+        long since;
+        /** 同层级中的前一个槽位 */
+        Slot<E> prev;
+        /** 同层级中的后一个槽位 */
+        Slot<E> next;
+
+        Slot(E item) {
+            this.item = item;
+        }
+    }
+
+    /**
+     * 🆕单个层级：槽位组成的先进先出双向链表
+     * * 📌保持原{@link LinkedList}的「队尾加入、队首取出」顺序
+     */
+    private static final class Level<E> {
+        /** 队首（最早加入） */
+        Slot<E> head;
+        /** 队尾（最晚加入） */
+        Slot<E> tail;
+        /** 槽位数量 */
+        int size;
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        int size() {
+            return size;
+        }
+
+        /** 加入到队尾 */
+        void addLast(Slot<E> slot) {
+            slot.prev = tail;
+            slot.next = null;
+            if (tail == null)
+                head = slot;
+            else
+                tail.next = slot;
+            tail = slot;
+            size++;
+        }
+
+        /** 从队首取出 */
+        Slot<E> removeFirst() {
+            final Slot<E> first = head;
+            if (first == null)
+                throw new NoSuchElementException();
+            remove(first);
+            return first;
+        }
+
+        /** 移除指定槽位：O(1) */
+        void remove(Slot<E> slot) {
+            if (slot.prev == null)
+                head = slot.next;
+            else
+                slot.prev.next = slot.next;
+            if (slot.next == null)
+                tail = slot.prev;
+            else
+                slot.next.prev = slot.prev;
+            slot.prev = null;
+            slot.next = null;
+            size--;
+        }
+    }
+
+}
@@ -0,0 +1,14 @@
+package nars.storage;
+
+import nars.entity.Item;
+
+/**
+ * 🆕记忆区、概念与推理器所持有的袋
+ * * 📌抽样与容器操作之外，还可存取快照、计量、设置溢出去处与显示
+ * * 📌实现：{@link LevelBag}、{@link SumTreeBag}、{@link ConcurrentBag}
+ *
+ * @param <E> The type of the Item in the Bag
+ */
+public interface ManagedBag<E extends Item>
+        extends ObservableBag<E>, PersistentBag<E>, MeasuredBag, OverflowBag<E> {
+}
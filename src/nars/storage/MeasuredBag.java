@@ -0,0 +1,39 @@
+package nars.storage;
+
+/**
+ * 🆕有运行计数与占用估算的袋
+ * * 🎯见{@link BagMetricsRegistry}与{@link Footprint}
+ */
+public interface MeasuredBag {
+
+    /**
+     * 此袋累加计数的对象
+     *
+     * @return The (possibly shared) metrics of the bag
+     */
+    BagMetrics metrics();
+
+    /**
+     * 让此袋把计数累加到给定的对象上
+     * * 🎯同类的袋共用一个{@link BagMetrics}，见{@link BagMetricsRegistry}
+     *
+     * @param metrics The metrics to count into
+     */
+    void useMetrics(BagMetrics metrics);
+
+    /**
+     * 把此袋当前的占用（各层级物品数、质量）计入给定的对象
+     * * 📌不构造字符串
+     *
+     * @param metrics The metrics to add the occupancy to
+     */
+    void addOccupancyTo(BagMetrics metrics);
+
+    /**
+     * 估算袋本身占用的堆字节数：名称表、层级与槽位，不含物品
+     * * 📌见{@link Footprint}
+     *
+     * @return The estimated retained bytes of the bag structure
+     */
+    long estimateBytes();
+}
@@ -1,5 +1,7 @@
 package nars.storage;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import nars.control.ConceptLinking;
@@ -8,6 +10,8 @@ import nars.entity.BudgetValue;
 import nars.entity.Concept;
 import nars.inference.Budget;
 import nars.inference.BudgetFunctions;
+import nars.io.SnapshotInput;
+import nars.io.SnapshotOutput;
 import nars.language.Term;
 
 /**
@@ -25,7 +29,61 @@ public class Memory {
      * * 📝可变性：可变 | 需要内部修改
      * * 📝所有权：具所有权
      */
-    private final Bag<Concept> concepts;
+    private final ManagedBag<Concept> concepts;
+
+    /**
+     * 🆕各类袋的运行计数
+     *
+     * * 📝可空性：非空
+     * * 📝可变性：可变 | 由各袋累加
+     * * 📝所有权：具所有权
+     */
+    private final BagMetricsRegistry bagMetrics = new BagMetricsRegistry();
+
+    /**
+     * 🆕从概念袋溢出的概念的存档
+     *
+     * * 📝可空性：可空 | 未开启时为空，溢出的概念直接丢弃
+     * * 📝可变性：可变 | 见{@link #useConceptArchive}
+     * * 📝所有权：具所有权
+     */
+    private ConceptArchive archive;
+
+    /**
+     * 🆕共享的只读背景知识库
+     *
+     * * 📝可空性：可空 | 未使用时为空
+     * * 📝可变性：不变 | 由多个记忆区共享，见{@link #useKnowledgeBase}
+     * * 📝所有权：共享引用
+     */
+    private KnowledgeBase knowledgeBase;
+
+    /**
+     * 🆕记忆区变动的记录流
+     *
+     * * 📝可空性：非空
+     * * 📝可变性：可变 | 订阅者随时加入、退出
+     * * 📝所有权：具所有权
+     */
+    private final MemoryChangeStream changes = new MemoryChangeStream();
+
+    /**
+     * 🆕概念袋的倒排索引：元素词项⇒含有它的概念
+     *
+     * * 📝可空性：非空
+     * * 📝可变性：可变 | 随概念进出概念袋增量维护
+     * * 📝所有权：具所有权
+     */
+    private final SubtermIndex subtermIndex = new SubtermIndex(Parameters.CONCEPT_BAG_SIZE);
+
+    /**
+     * 🆕概念袋中各概念计入预算的字节数之和
+     * * 🚩新建、取回概念时按其估算计入（{@link Concept#chargeBytes}），离开概念袋时减去当初计入的数（{@link Concept#releaseBytes}）
+     * * 🚩定期全部重算（{@link #recountFootprint}），补上概念在袋中的增长
+     * * 📌概念袋自身的结构不在其中：随物品数增长，每次按{@link ManagedBag#estimateBytes}另计
+     * * 📌只在按字节预算时维护，否则恒为0
+     */
+    private long accountedBytes = 0;
 
     // 各超参数
     /**
@@ -99,7 +157,123 @@ public class Memory {
         this.beliefForgettingRate = new AtomicInteger(Parameters.TERM_LINK_FORGETTING_CYCLE);
         this.taskForgettingRate = new AtomicInteger(Parameters.TASK_LINK_FORGETTING_CYCLE);
         // * 🚩概念袋
-        this.concepts = new Bag<Concept>(this.conceptForgettingRate, Parameters.CONCEPT_BAG_SIZE);
+        // * 🚩概念的键即词项名称，数量有界⇒按整数ID散列
+        // * 🚩按参数选择实现：默认按层级，可选按优先级精确抽样，或按层级且线程安全
+        this.concepts = Parameters.EXACT_CONCEPT_BAG
+                ? new SumTreeBag<Concept>(this.conceptForgettingRate, conceptBagCapacity(), Bag.KeyMode.Id)
+                : Parameters.CONCURRENT_CONCEPT_BAG
+                        ? new ConcurrentBag<Concept>(this.conceptForgettingRate, conceptBagCapacity(),
+                                Parameters.CONCEPT_BAG_LEVEL, Parameters.CONCEPT_BAG_THRESHOLD, Bag.KeyMode.Id)
+                        : new LevelBag<Concept>(this.conceptForgettingRate, conceptBagCapacity(),
+                                Parameters.CONCEPT_BAG_LEVEL, Parameters.CONCEPT_BAG_THRESHOLD, Bag.KeyMode.Id);
+        this.bagMetrics.registerConceptBag(this.concepts);
+        this.concepts.setOverflowSink(this::conceptOverflowed);
+        // * 🚩按参数开启概念存档
+        if (Parameters.CONCEPT_ARCHIVE_DIR != null) {
+            try {
+                this.useConceptArchive(ConceptArchive.createTemp(new File(Parameters.CONCEPT_ARCHIVE_DIR)));
+            } catch (IOException ex) {
+                System.out.println("i/o error: " + ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 🆕概念袋的容量
+     * * 🚩按字节预算⇒放宽到预算所能容纳的最多（不含内容的）概念数，使字节先于个数成为限制
+     * * 📌以{@link Footprint#CONCEPT_SHELL}估计最小的概念；冻结的概念更小，此时仍可能先满
+     * * 📌容量只是放入的上限：名称表等结构从{@link Parameters#CONCEPT_BAG_SIZE}起随物品数增长，其占用计入预算
+     */
+    private static int conceptBagCapacity() {
+        if (Parameters.MEMORY_BUDGET <= 0)
+            return Parameters.CONCEPT_BAG_SIZE;
+        final long fit = Parameters.MEMORY_BUDGET / Footprint.CONCEPT_SHELL;
+        return (int) Math.max(Parameters.CONCEPT_BAG_SIZE, Math.min(fit, MAX_BUDGETED_CAPACITY));
+    }
+
+    /** 🆕按字节预算时概念袋容量的上限 */
+    private static final int MAX_BUDGETED_CAPACITY = 1 << 22;
+
+    /**
+     * 🆕开启（或关闭）概念存档
+     * * 📌开启后，从概念袋溢出的概念存入存档，{@link #getConceptOrCreate}新建概念前先从中取回
+     *
+     * @param archive [] 可空 | 空⇒关闭，溢出的概念直接丢弃
+     */
+    public void useConceptArchive(ConceptArchive archive) {
+        this.archive = archive;
+    }
+
+    /**
+     * 🆕使用（或停用）共享的背景知识库
+     * * 📌使用后，概念袋中没有的概念先从知识库中复制一份私有的副本，见{@link #getConceptOrCreate}
+     * * 📌不写入快照：知识库由外部持有，还原后须重新指定
+     *
+     * @param base [&] 可空 | 空⇒停用
+     */
+    public void useKnowledgeBase(KnowledgeBase base) {
+        this.knowledgeBase = base;
+    }
+
+    /**
+     * 🆕获取共享的背景知识库
+     *
+     * @return 可空 | 未使用时为空
+     */
+    public KnowledgeBase getKnowledgeBase() {
+        return this.knowledgeBase;
+    }
+
+    /**
+     * 🆕获取记忆区变动的记录流
+     * * 🎯订阅概念的进出与激活、信念与问题的加入、链接的插入等变动
+     */
+    public MemoryChangeStream getChangeStream() {
+        return this.changes;
+    }
+
+    /**
+     * 🆕发布一条变动 | 无人订阅时几乎无开销
+     * * 📌只应在推理线程上调用
+     *
+     * @param kind    [] 变动的种类
+     * @param concept [&] 变动的概念
+     * @param detail  [&] 可空 | 见{@link MemoryChange.Kind}
+     */
+    public void publishChange(MemoryChange.Kind kind, Concept concept, Object detail) {
+        this.changes.publish(kind, concept, detail);
+    }
+
+    /**
+     * 🆕概念离开概念袋（被挤出，或新概念被拒之门外）
+     * * 🚩从倒排索引中注销；开启存档时存入存档
+     */
+    private void conceptOverflowed(Concept concept) {
+        this.subtermIndex.remove(concept);
+        if (Parameters.MEMORY_BUDGET > 0)
+            this.accountedBytes -= concept.releaseBytes();
+        this.changes.publish(MemoryChange.Kind.CONCEPT_EVICTED, concept, null);
+        if (this.archive != null)
+            this.archive.archive(concept);
+    }
+
+    /**
+     * 🆕获取概念存档
+     *
+     * @return 可空 | 未开启时为空
+     */
+    public ConceptArchive getConceptArchive() {
+        return this.archive;
+    }
+
+    /**
+     * 🆕获取概念袋的倒排索引
+     * * 🎯按元素词项查询概念，如「哪些概念以`murder`为谓项」
+     *
+     * @return 只应在推理线程上查询
+     */
+    public SubtermIndex getSubtermIndex() {
+        return this.subtermIndex;
     }
 
     /**
@@ -110,6 +284,60 @@ public class Memory {
      */
     public void init() {
         concepts.init();
+        subtermIndex.clear();
+        accountedBytes = 0;
+        bagMetrics.reset();
+        if (archive != null)
+            archive.clear();
+    }
+
+    /* ---------- snapshot ---------- */
+
+    /**
+     * 🆕写入快照：各遗忘速率、整个概念袋，以及存档中的概念
+     *
+     * @param &this
+     * @param out   [&m]
+     */
+    public void writeSnapshot(SnapshotOutput out) throws IOException {
+        out.writeInt(this.conceptForgettingRate.get());
+        out.writeInt(this.beliefForgettingRate.get());
+        out.writeInt(this.taskForgettingRate.get());
+        this.concepts.writeState(out, concept -> concept.writeSnapshot(out));
+        if (this.archive == null)
+            out.writeInt(0);
+        else
+            this.archive.writeRecords(out);
+    }
+
+    /**
+     * 🆕清空记忆区，再从快照还原
+     * * 📌遗忘速率就地改写：GUI持有的引用仍然有效
+     * * 📌未开启存档⇒快照中存档的概念被丢弃
+     *
+     * @param &m-this
+     * @param in      [&m]
+     */
+    public void readSnapshot(SnapshotInput in) throws IOException {
+        this.init();
+        this.conceptForgettingRate.set(in.readInt());
+        this.beliefForgettingRate.set(in.readInt());
+        this.taskForgettingRate.set(in.readInt());
+        this.concepts.readState(in, () -> this.readConcept(in));
+        this.concepts.forEach(this.subtermIndex::add);
+        ConceptArchive.readRecords(in, this.archive);
+        // * 🚩只重算占用，不逐出：照原样还原
+        if (Parameters.MEMORY_BUDGET > 0)
+            this.accountedBytes = this.chargeConcepts();
+    }
+
+    /** 🆕读入属于此记忆区的一个概念 */
+    Concept readConcept(SnapshotInput in) throws IOException {
+        return Concept.readSnapshot(
+                in,
+                this.getTaskForgettingRate(),
+                this.getBeliefForgettingRate(),
+                this.bagMetrics);
     }
 
     /* ---------- conversion utilities ---------- */
@@ -134,7 +362,9 @@ public class Memory {
      */
     public Concept termToConcept(Term term) {
         // * ✅【2024-05-24 22:09:35】现在不会在推理规则中被调用了
-        return nameToConcept(term.getName());
+        // * 🚩使用词项缓存的名称ID，免去字符串散列与比较
+        // * 🚩只查不注册：没有概念的词项不应在注册表中留下ID
+        return concepts.get(term.findNameId());
     }
 
     /**
@@ -145,11 +375,15 @@ public class Memory {
      * @return true if the Term has a Concept in the memory
      */
     public boolean hasConcept(Term term) {
-        return termToConcept(term) != null;
+        // * 🆕背景知识库中的概念也算：用到时再复制
+        return termToConcept(term) != null
+                || this.knowledgeBase != null && this.knowledgeBase.contains(term);
     }
 
     /**
      * Get the Concept associated to a Term, or create it.
+     * * 🆕开启存档时，先从存档中取回溢出的概念，没有再新建
+     * * 🆕使用背景知识库时，存档中也没有⇒从知识库复制一份（写时复制）
      *
      * @param term indicating the concept
      * @return an existing Concept, or a new one, or null ( bad smell ? )
@@ -158,9 +392,19 @@ public class Memory {
         // * 🚩不给「非常量词项」新建概念 | 「非常量词项」也不可能作为一个「概念」被放进「记忆区」中
         if (!term.isConstant())
             return null;
-        // * 🚩尝试从概念袋中获取「已有概念」，否则尝试创建概念
+        // * 🚩尝试从概念袋中获取「已有概念」，否则尝试取回或创建概念
         final Concept concept = termToConcept(term);
-        return concept == null ? makeNewConcept(term) : concept;
+        if (concept != null)
+            return concept;
+        // * 🚩存档优先：其中是本记忆区改动过的副本
+        final Concept restored = this.archive == null ? null : this.archive.rehydrate(term, this);
+        if (restored != null)
+            return this.admitConcept(restored, MemoryChange.Kind.CONCEPT_RESTORED);
+        // * 🚩知识库的副本对本记忆区而言仍是新概念
+        final Concept copied = this.knowledgeBase == null ? null : this.knowledgeBase.copyOut(term, this);
+        if (copied != null)
+            return this.admitConcept(copied, MemoryChange.Kind.CONCEPT_CREATED);
+        return makeNewConcept(term);
     }
 
     /**
@@ -176,10 +420,77 @@ public class Memory {
                 term,
                 this.getTaskForgettingRate(),
                 this.getBeliefForgettingRate(),
+                this.bagMetrics,
                 initialConceptBudget(),
                 ConceptLinking.prepareTermLinkTemplates(term));
-        final boolean created = concepts.putIn(concept);
-        return created ? concept : null;
+        return this.admitConcept(concept, MemoryChange.Kind.CONCEPT_CREATED);
+    }
+
+    /**
+     * 🆕把新建或取回的概念放入概念袋
+     * * 🚩按字节预算⇒先计入其占用（被拒之门外时经溢出减去），再逐出超出预算的部分
+     *
+     * @param kind 发布的变动种类 | 新建或从知识库复制⇒{@link MemoryChange.Kind#CONCEPT_CREATED}，从存档取回⇒{@link MemoryChange.Kind#CONCEPT_RESTORED}
+     * @return 已在概念袋中的概念 | 被拒绝或随即被逐出时返回`null`
+     */
+    private Concept admitConcept(Concept concept, MemoryChange.Kind kind) {
+        final boolean budgeted = Parameters.MEMORY_BUDGET > 0;
+        if (budgeted)
+            this.accountedBytes += concept.chargeBytes();
+        // * 🚩先发布：被拒之门外时，溢出的记录随后
+        this.changes.publish(kind, concept, null);
+        if (!concepts.putIn(concept))
+            return null;
+        this.subtermIndex.add(concept);
+        if (budgeted && this.enforceBudget() > 0 && !concepts.contains(concept))
+            return null;
+        return concept;
+    }
+
+    /**
+     * 🆕超出字节预算时，逐出袋满时会先被挤出的概念，直到不超出
+     * * 📌逐出的概念与溢出的相同：注销索引、存入存档，并减去其占用
+     * * 📌概念袋自身的结构一并计入
+     *
+     * @return 逐出的概念数
+     */
+    private int enforceBudget() {
+        int evicted = 0;
+        while (this.getAccountedBytes() > Parameters.MEMORY_BUDGET && this.concepts.evictLowest() != null)
+            evicted++;
+        return evicted;
+    }
+
+    /**
+     * 🆕重算概念袋的估算占用，并逐出超出字节预算的部分
+     * * 🎯概念在袋中增长（新的信念、链接）不经过概念袋，只能定期补上
+     * * 🚩未按字节预算⇒什么也不做
+     *
+     * @return 逐出的概念数
+     */
+    public int recountFootprint() {
+        if (Parameters.MEMORY_BUDGET <= 0)
+            return 0;
+        this.accountedBytes = this.chargeConcepts();
+        return this.enforceBudget();
+    }
+
+    /** 🆕按当前估算重新记下概念袋中各概念计入的字节数，返回其和 */
+    private long chargeConcepts() {
+        final long[] bytes = { 0 };
+        this.concepts.forEach(concept -> bytes[0] += concept.chargeBytes());
+        return bytes[0];
+    }
+
+    /**
+     * 🆕概念袋（含其中各概念）当前估算占用的堆字节数
+     * * 🚩各概念计入的字节数，加概念袋结构的当前估算
+     * * 📌未按字节预算时恒为0；全部重算见{@link BagMetricsRegistry#footprintBytes}
+     */
+    public long getAccountedBytes() {
+        if (Parameters.MEMORY_BUDGET <= 0)
+            return 0;
+        return this.accountedBytes + this.concepts.estimateBytes();
     }
 
     /**
@@ -219,11 +530,11 @@ public class Memory {
     public void activateConceptInner(final Concept concept, final Budget incomeBudget) {
         // * 🚩存在性检查
         final boolean hasConcept = this.concepts.contains(concept);
-        // * 🚩若已有⇒拿出→放回 | 会改变「概念」的优先级，因此可能会调整位置
+        // * 🚩若已有⇒就地更新 | 会改变「概念」的优先级，因此可能会调整位置
+        // * 📝【2024-06-12】原先是「拿出→放回」，现免去名称表的移除与重新插入
         if (hasConcept) {
-            this.concepts.pickOut(concept.getKey());
-            activateConceptBudget(concept, incomeBudget);
-            this.concepts.putBack(concept);
+            this.concepts.update(concept.getKeyId(), c -> activateConceptBudget(c, incomeBudget));
+            this.changes.publish(MemoryChange.Kind.CONCEPT_ACTIVATED, concept, null);
         } else
             throw new AssertionError("激活「内部的概念」需要已有概念！");
     }
@@ -238,6 +549,7 @@ public class Memory {
         else {
             activateConceptBudget(concept, incomeBudget);
             this.concepts.forget(concept); // * 📝此方法将改变「概念」的预算值，需要保证顺序一致
+            this.changes.publish(MemoryChange.Kind.CONCEPT_ACTIVATED, concept, null);
         }
     }
 
@@ -278,13 +590,55 @@ public class Memory {
      */
     public final void putBackConcept(Concept concept) {
         this.concepts.putBack(concept);
+        // * 🚩放回时经过遗忘；被挤出⇒已有溢出的记录
+        if (this.changes.isActive() && this.concepts.contains(concept))
+            this.changes.publish(MemoryChange.Kind.BUDGET_CHANGED, concept, null);
+    }
+
+    /**
+     * 🆕清扫概念袋，冻结长期不用的概念
+     * * 📌优先级低于{@link Parameters#DORMANT_PRIORITY}，或连续{@link Parameters#DORMANT_AGE}次清扫都未被用到⇒冻结
+     * * 📌冻结的概念仍在概念袋中，照常参与抽取与遗忘；拿出、链接等任何访问其内容之处自动解冻
+     * * 🚩两项都未设置⇒什么也不做
+     *
+     * @return 本次冻结的概念数
+     */
+    public int compactDormantConcepts() {
+        final float priority = Parameters.DORMANT_PRIORITY;
+        final int age = Parameters.DORMANT_AGE;
+        if (priority <= 0 && age <= 0)
+            return 0;
+        final int[] frozen = { 0 };
+        this.concepts.forEach(concept -> {
+            if (concept.isFrozen())
+                return;
+            final int idle = concept.passIdleSweep();
+            if ((concept.getPriority() < priority || age > 0 && idle >= age) && concept.freeze())
+                frozen[0]++;
+        });
+        return frozen[0];
     }
 
     /**
      * 🆕对外接口：获取「概念袋」
      * * 🎯显示用
      */
-    public final Bag<Concept> getConceptBagForDisplay() {
+    public final ManagedBag<Concept> getConceptBagForDisplay() {
         return this.concepts;
     }
+
+    /** 🆕包内接口：获取「概念袋」，供建立{@link KnowledgeBase} */
+    ManagedBag<Concept> getConceptBag() {
+        return this.concepts;
+    }
+
+    /**
+     * 🆕各类袋的运行计数
+     * * 🎯观察袋的占用与周转，以确定各袋的容量
+     *
+     * @return The registry; call {@link BagMetricsRegistry#collect} to update occupancy
+     */
+    public final BagMetricsRegistry getBagMetrics() {
+        return this.bagMetrics;
+    }
 }
@@ -0,0 +1,90 @@
+package nars.storage;
+
+import nars.entity.ShortFloat;
+import nars.inference.Budget;
+import nars.language.Term;
+
+/**
+ * 🆕记忆区的一条变动记录
+ * * 🎯见{@link MemoryChangeStream}
+ * * 📌内容：概念的词项、变动涉及的信念、任务或词项，以及概念变动后的预算（打包）
+ * * ⚠️任务的预算仍会在推理线程上变动：别的线程上只应读其语句
+ */
+public final class MemoryChange {
+
+    /** 变动的种类 */
+    public enum Kind {
+        /** 新概念进入概念袋：新建或从知识库复制 | 随即被拒之门外时，紧接着有一条{@link #CONCEPT_EVICTED} */
+        CONCEPT_CREATED,
+        /** 从存档取回的概念重新进入概念袋 | 随即被拒之门外时，紧接着有一条{@link #CONCEPT_EVICTED} */
+        CONCEPT_RESTORED,
+        /** 概念离开概念袋 */
+        CONCEPT_EVICTED,
+        /** 概念被激活 | 预算为激活后的 */
+        CONCEPT_ACTIVATED,
+        /** 信念加入信念表 | 细节为信念 */
+        BELIEF_ADDED,
+        /** 信念加入信念表，挤出了排行最低的信念 | 细节为新的信念 */
+        BELIEF_REPLACED,
+        /** 问题加入问题表 | 细节为问题的任务 */
+        QUESTION_ADDED,
+        /** 任务链放入概念 | 细节为所链接的任务 */
+        TASK_LINK_INSERTED,
+        /** 词项链放入概念 | 细节为链接的目标词项 */
+        TERM_LINK_INSERTED,
+        /** 概念放回概念袋，预算经过遗忘 | 预算为放回后的 */
+        BUDGET_CHANGED,
+    }
+
+    /** 在流中的序号 | 从1起连续；订阅者据此发现丢弃的记录 */
+    private final long sequence;
+    private final Kind kind;
+    /** 概念的词项 */
+    private final Term term;
+    /** 细节 | 可空，见各种类 */
+    private final Object detail;
+    /** 概念变动后的预算（打包，见{@link Budget#__budget}） */
+    private final long budget;
+
+    MemoryChange(long sequence, Kind kind, Term term, Object detail, long budget) {
+        this.sequence = sequence;
+        this.kind = kind;
+        this.term = term;
+        this.detail = detail;
+        this.budget = budget;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public Term getTerm() {
+        return term;
+    }
+
+    /** @return 可空 | 信念、任务或词项，见{@link Kind} */
+    public Object getDetail() {
+        return detail;
+    }
+
+    public float getPriority() {
+        return ShortFloat.toFloat(ShortFloat.lane(budget, Budget.PRIORITY));
+    }
+
+    public float getDurability() {
+        return ShortFloat.toFloat(ShortFloat.lane(budget, Budget.DURABILITY));
+    }
+
+    public float getQuality() {
+        return ShortFloat.toFloat(ShortFloat.lane(budget, Budget.QUALITY));
+    }
+
+    @Override
+    public String toString() {
+        return sequence + " " + kind + " " + term + (detail == null ? "" : " " + detail);
+    }
+}
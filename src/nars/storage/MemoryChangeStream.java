@@ -0,0 +1,168 @@
+package nars.storage;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import nars.control.Parameters;
+import nars.entity.Concept;
+
+/**
+ * 🆕记忆区变动的有序记录流
+ * * 🎯让跟随的副本、增量持久化、统计分析等得知记忆区的变动，不必轮询或导出整个推理器
+ * * 📌推理线程是唯一的生产者：按发生的先后编号，逐个放入每个订阅者各自的有界环形缓冲区
+ * * 📌缓冲区满时按订阅时选定的策略：丢弃（计数，序号留下空缺）或阻塞推理线程直到订阅者取走
+ * * 🚩无人订阅时，发布只读一次订阅者数组即返回：不创建记录
+ */
+public final class MemoryChangeStream {
+
+    /** 订阅者的缓冲区满时的处理 */
+    public enum OverflowPolicy {
+        /** 丢弃新的记录 | 推理不受影响 */
+        DROP,
+        /** 阻塞推理线程，直到有空位 | 不丢记录，但订阅者不取时推理停顿 */
+        BLOCK,
+    }
+
+    /**
+     * 一个订阅者：一个有界环形缓冲区
+     * * 📌可在任意线程上取出记录
+     */
+    public static final class Subscription implements AutoCloseable {
+        private final MemoryChangeStream stream;
+        private final ArrayBlockingQueue<MemoryChange> ring;
+        private final OverflowPolicy policy;
+        private final AtomicLong dropped = new AtomicLong();
+        private volatile boolean closed = false;
+
+        private Subscription(MemoryChangeStream stream, int capacity, OverflowPolicy policy) {
+            this.stream = stream;
+            this.ring = new ArrayBlockingQueue<>(capacity);
+            this.policy = policy;
+        }
+
+        /** 推理线程上：放入一条记录 */
+        private void offer(MemoryChange change) {
+            if (this.closed)
+                return;
+            if (this.policy == OverflowPolicy.DROP) {
+                if (!this.ring.offer(change))
+                    this.dropped.incrementAndGet();
+                return;
+            }
+            try {
+                this.ring.put(change);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                this.dropped.incrementAndGet();
+            }
+        }
+
+        /** 取出下一条记录，没有则等待 */
+        public MemoryChange take() throws InterruptedException {
+            return this.ring.take();
+        }
+
+        /** 取出下一条记录，至多等待给定的时间 | 超时⇒空 */
+        public MemoryChange poll(long timeout, TimeUnit unit) throws InterruptedException {
+            return this.ring.poll(timeout, unit);
+        }
+
+        /** 取出下一条记录 | 没有⇒空 */
+        public MemoryChange poll() {
+            return this.ring.poll();
+        }
+
+        /**
+         * 取出所有已有的记录
+         *
+         * @return 取出的条数
+         */
+        public int drainTo(Collection<? super MemoryChange> sink) {
+            return this.ring.drainTo(sink);
+        }
+
+        /** 缓冲区满而被丢弃的记录数 */
+        public long getDropped() {
+            return this.dropped.get();
+        }
+
+        /**
+         * 退订
+         * * 🚩清空缓冲区：唤醒可能被阻塞的推理线程
+         */
+        @Override
+        public void close() {
+            this.closed = true;
+            this.stream.unsubscribe(this);
+            this.ring.clear();
+        }
+    }
+
+    private static final Subscription[] NONE = {};
+
+    /**
+     * 订阅者
+     * * 📝可变性：写时复制 | 发布时不加锁遍历
+     */
+    private volatile Subscription[] subscribers = NONE;
+
+    /** 已发布的记录数 | 只在推理线程上改写 */
+    private long sequence = 0;
+
+    /**
+     * 订阅此后的变动
+     *
+     * @param capacity 缓冲区容量
+     * @param policy   缓冲区满时的处理
+     */
+    public synchronized Subscription subscribe(int capacity, OverflowPolicy policy) {
+        final Subscription subscription = new Subscription(this, capacity, policy);
+        final Subscription[] old = this.subscribers;
+        final Subscription[] updated = Arrays.copyOf(old, old.length + 1);
+        updated[old.length] = subscription;
+        this.subscribers = updated;
+        return subscription;
+    }
+
+    /** 订阅，缓冲区容量为{@link Parameters#CHANGE_STREAM_CAPACITY} */
+    public Subscription subscribe(OverflowPolicy policy) {
+        return this.subscribe(Parameters.CHANGE_STREAM_CAPACITY, policy);
+    }
+
+    private synchronized void unsubscribe(Subscription subscription) {
+        final Subscription[] old = this.subscribers;
+        for (int i = 0; i < old.length; i++)
+            if (old[i] == subscription) {
+                final Subscription[] updated = new Subscription[old.length - 1];
+                System.arraycopy(old, 0, updated, 0, i);
+                System.arraycopy(old, i + 1, updated, i, old.length - i - 1);
+                this.subscribers = updated;
+                return;
+            }
+    }
+
+    /** 是否有订阅者 | 发布前要做额外计算时先查此 */
+    public boolean isActive() {
+        return this.subscribers.length != 0;
+    }
+
+    /**
+     * 发布一条变动
+     *
+     * @param kind    [] 变动的种类
+     * @param concept [&] 变动的概念
+     * @param detail  [&] 可空 | 见{@link MemoryChange.Kind}
+     */
+    void publish(MemoryChange.Kind kind, Concept concept, Object detail) {
+        final Subscription[] subscribers = this.subscribers;
+        if (subscribers.length == 0)
+            return;
+        final MemoryChange change = new MemoryChange(
+                ++this.sequence, kind, concept.getTerm(), detail, concept.__budget());
+        for (final Subscription subscription : subscribers)
+            subscription.offer(change);
+    }
+}
@@ -0,0 +1,201 @@
+package nars.storage;
+
+import java.util.HashMap;
+
+import nars.entity.Item;
+
+/**
+ * 🆕「袋」的名称表 抽象类型
+ * * 🎯将「键⇒值」映射与「袋」的层级机制解耦
+ * * 📌两种实现：按「名称字符串」散列 / 按{@link KeyRegistry}分配的整数ID散列
+ * * 📌两种实现均同时支持「字符串键」与「整数ID」查找
+ */
+interface NameTable<V> {
+
+    /** 按键查找 */
+    V get(String key);
+
+    /** 按ID查找 */
+    V get(int keyId);
+
+    /** 以物品的键查找 */
+    V get(Item item);
+
+    /**
+     * 以物品的键置入
+     *
+     * @return 被替换的旧值 / 空
+     */
+    V put(Item item, V value);
+
+    /** 以物品的键移除 */
+    V remove(Item item);
+
+    /** 按键移除 */
+    V remove(String key);
+
+    /** 按ID移除 */
+    V remove(int keyId);
+
+    int size();
+
+    boolean isEmpty();
+
+    void clear();
+
+    /**
+     * 🆕估算占用的堆字节数：散列表本身，不含键与值
+     * * 📌见{@link Footprint}
+     */
+    long estimateBytes();
+
+    /**
+     * 按「名称字符串」散列的名称表
+     * * 📌原先的实现：{@link HashMap}
+     */
+    static final class ByName<V> implements NameTable<V> {
+        private final HashMap<String, V> inner;
+        /** 🆕负载因子与首次分配的表长 | 仅用于估算占用 */
+        private final float loadFactor;
+        private final int initialTableLength;
+
+        ByName(final int capacity, final float loadFactor) {
+            final int initialCapacity = (int) (capacity / loadFactor);
+            this.inner = new HashMap<>(initialCapacity, loadFactor);
+            this.loadFactor = loadFactor;
+            this.initialTableLength = Integer.highestOneBit(Math.max(1, initialCapacity - 1)) << 1;
+        }
+
+        @Override
+        public V get(String key) {
+            return inner.get(key);
+        }
+
+        @Override
+        public V get(int keyId) {
+            final String key = KeyRegistry.keyOf(keyId);
+            return key == null ? null : inner.get(key);
+        }
+
+        @Override
+        public V get(Item item) {
+            return inner.get(item.getKey());
+        }
+
+        @Override
+        public V put(Item item, V value) {
+            return inner.put(item.getKey(), value);
+        }
+
+        @Override
+        public V remove(Item item) {
+            return inner.remove(item.getKey());
+        }
+
+        @Override
+        public V remove(String key) {
+            return inner.remove(key);
+        }
+
+        @Override
+        public V remove(int keyId) {
+            final String key = KeyRegistry.keyOf(keyId);
+            return key == null ? null : inner.remove(key);
+        }
+
+        @Override
+        public int size() {
+            return inner.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return inner.isEmpty();
+        }
+
+        @Override
+        public void clear() {
+            inner.clear();
+        }
+
+        /**
+         * 🚩表在首次置入时才分配；每个条目一个32字节的节点
+         */
+        @Override
+        public long estimateBytes() {
+            final int size = inner.size();
+            if (size == 0)
+                return 48;
+            final int length = Footprint.tableLength(size, this.loadFactor, this.initialTableLength);
+            return 48 + Footprint.array(length, Footprint.REFERENCE) + 32L * size;
+        }
+    }
+
+    /**
+     * 按整数ID散列的名称表
+     * * 🚩物品一侧使用缓存的{@link Item#getKeyId}，字符串键经{@link KeyRegistry}转换
+     */
+    static final class ById<V> implements NameTable<V> {
+        private final IntHashMap<V> inner;
+
+        ById(final int capacity, final float loadFactor) {
+            this.inner = new IntHashMap<>(capacity, loadFactor);
+        }
+
+        @Override
+        public V get(String key) {
+            // * 🚩未注册的键不可能在表中，亦无需注册
+            return inner.get(KeyRegistry.idIfPresent(key));
+        }
+
+        @Override
+        public V get(int keyId) {
+            return inner.get(keyId);
+        }
+
+        @Override
+        public V get(Item item) {
+            return inner.get(item.getKeyId());
+        }
+
+        @Override
+        public V put(Item item, V value) {
+            return inner.put(item.getKeyId(), value);
+        }
+
+        @Override
+        public V remove(Item item) {
+            return inner.remove(item.getKeyId());
+        }
+
+        @Override
+        public V remove(String key) {
+            return inner.remove(KeyRegistry.idIfPresent(key));
+        }
+
+        @Override
+        public V remove(int keyId) {
+            return inner.remove(keyId);
+        }
+
+        @Override
+        public int size() {
+            return inner.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return inner.isEmpty();
+        }
+
+        @Override
+        public void clear() {
+            inner.clear();
+        }
+
+        @Override
+        public long estimateBytes() {
+            return 16 + inner.estimateBytes();
+        }
+    }
+}
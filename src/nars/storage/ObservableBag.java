@@ -0,0 +1,57 @@
+package nars.storage;
+
+import nars.entity.Item;
+
+/**
+ * 🆕可在窗口中显示的袋
+ * * 🎯见{@link nars.gui.BagWindow}
+ * * 📌窗口按层级显示，故要用到{@link Bag#totalLevel}等
+ *
+ * @param <E> The type of the Item in the Bag
+ */
+public interface ObservableBag<E extends Item> extends Bag<E> {
+
+    /**
+     * To start displaying the Bag in a BagWindow; {@link nars.gui.BagWindow}
+     * implements interface {@link BagObserver};
+     *
+     * @param bagObserver BagObserver to set
+     * @param title       The title of the window
+     */
+    void addBagObserver(BagObserver<E> bagObserver, String title);
+
+    /**
+     * Resume display
+     */
+    void play();
+
+    /**
+     * Stop display
+     */
+    void stop();
+
+    /**
+     * Refresh display
+     */
+    void refresh();
+
+    /**
+     * set Show Level
+     */
+    void setShowLevel(int showLevel);
+
+    /**
+     * 完整呈现袋中内容
+     *
+     * @return A String representation of the content, with all details
+     */
+    String toStringLong();
+
+    /**
+     * 🆕若有尚未发布的变动且已到发布时间，则向观察者发布
+     * * 🎯变动停止后，最后一次变动也能在一个发布间隔内显示出来
+     * * 📌由拥有此袋的推理器在其时钟周期末调用，见{@link ObservedBags}
+     * * ⚠️只应在修改此袋的线程上调用：物品的字符串在此取出
+     */
+    void publishPending();
+}
@@ -0,0 +1,45 @@
+package nars.storage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * 🆕一个记忆区中被观察的袋
+ * * 🎯推理器在自己的时钟周期末补发这些袋的最后一次变动（见{@link ObservableBag#publishPending}）
+ * * 📌每个记忆区一份（见{@link BagMetricsRegistry#observedBags}）：只补发本推理器所拥有、只由本推理线程修改的袋
+ * * 📌登记来自界面线程，补发在推理线程：集合本身加锁，补发前先复制
+ */
+public final class ObservedBags {
+
+    /** 被观察的袋 | 弱引用，窗口关闭、袋被回收后自动移除 */
+    private final Set<ObservableBag<?>> bags = Collections.synchronizedSet(
+            Collections.newSetFromMap(new WeakHashMap<ObservableBag<?>, Boolean>()));
+
+    /**
+     * 登记一个被观察的袋
+     * * 📌在{@link ObservableBag#addBagObserver}之后调用
+     *
+     * @param bag [&] 本记忆区所拥有的袋
+     */
+    public void add(final ObservableBag<?> bag) {
+        this.bags.add(bag);
+    }
+
+    /**
+     * 补发所有登记的袋中尚未发布的变动
+     * * 📌只应在拥有这些袋的推理线程上调用
+     */
+    public void publishPending() {
+        if (this.bags.isEmpty())
+            return;
+        final ArrayList<ObservableBag<?>> bags;
+        synchronized (this.bags) {
+            bags = new ArrayList<>(this.bags);
+        }
+        for (final ObservableBag<?> bag : bags) {
+            bag.publishPending();
+        }
+    }
+}
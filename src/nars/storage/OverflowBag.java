@@ -0,0 +1,32 @@
+package nars.storage;
+
+import java.util.function.Consumer;
+
+import nars.entity.Item;
+
+/**
+ * 🆕溢出的物品另有去处的袋
+ * * 🎯如概念袋溢出的概念存入{@link ConceptArchive}，而非直接丢弃
+ *
+ * @param <E> The type of the Item in the Bag
+ */
+public interface OverflowBag<E extends Item> {
+
+    /**
+     * 设置溢出物品的去处
+     * * 📌袋满时被移除的物品（含被拒绝的新物品）交给它
+     * * 📌在物品移出名称表之后调用；不经{@link Bag#takeOut}、{@link Bag#pickOut}取出的物品不算溢出
+     *
+     * @param sink The consumer of overflowed Items, or null to discard them
+     */
+    void setOverflowSink(Consumer<? super E> sink);
+
+    /**
+     * 不等袋满，移出袋满时会先被移出的物品
+     * * 🎯按字节预算限制概念袋：超出预算时逐个移出（见{@link Memory}）
+     * * 📌与袋满时的溢出相同：计为一次「逐出」，并交给溢出的去处
+     *
+     * @return The evicted Item, or null if the bag is empty
+     */
+    E evictLowest();
+}
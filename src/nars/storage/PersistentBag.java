@@ -0,0 +1,47 @@
+package nars.storage;
+
+import java.io.IOException;
+
+import nars.entity.Item;
+import nars.io.SnapshotInput;
+import nars.io.SnapshotOutput;
+
+/**
+ * 🆕可存入快照、从快照还原的袋
+ * * 🎯见{@link nars.control.Reasoner#saveSnapshot}
+ *
+ * @param <E> The type of the Item in the Bag
+ */
+public interface PersistentBag<E extends Item> {
+
+    /** 快照中写出单个物品的函数 */
+    @FunctionalInterface
+    public static interface ItemWriter<E> {
+        void write(E item) throws IOException;
+    }
+
+    /** 快照中读入单个物品的函数 */
+    @FunctionalInterface
+    public static interface ItemReader<E> {
+        E read() throws IOException;
+    }
+
+    /**
+     * 把袋的完整状态写入快照
+     * * 📌除物品外，还包括决定后续取出顺序的全部内部状态（各层级的先后、抽取游标、访问时钟等）
+     * * 📌不含计数与显示
+     *
+     * @param out    The snapshot to write to
+     * @param writer How to write each Item
+     */
+    void writeState(SnapshotOutput out, ItemWriter<E> writer) throws IOException;
+
+    /**
+     * 清空袋，再从快照还原{@link #writeState}写出的状态
+     * * 🚩容量、层级数与快照不符⇒{@link IOException}
+     *
+     * @param in     The snapshot to read from
+     * @param reader How to read each Item
+     */
+    void readState(SnapshotInput in, ItemReader<E> reader) throws IOException;
+}
@@ -0,0 +1,103 @@
+package nars.storage;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * 🆕使用「环形数组」实现的「缓冲区」类型
+ * * 🎯弹出队首为O(1)，不像{@link ArrayBuffer}那样整体前移
+ * * 📌数组在首次加入元素时才分配，长度为「容量+1」（加入后再弹出）
+ */
+public final class RingBuffer<T> implements Buffer<T> {
+
+    // struct RingBuffer<T>
+
+    /**
+     * 内部环形数组
+     *
+     * * 📝可空性：可空 | 尚未加入元素时为空
+     * * 📝可变性：可变
+     * * 📝所有权：具所有权
+     */
+    private Object[] ring;
+    /** 队首所在下标 */
+    private int head;
+    /** 已有元素数量 */
+    private int size;
+    /**
+     * 缓冲区容量
+     *
+     * * 📝可空性：非空
+     * * 📝可变性：不变
+     * * 📝所有权：具所有权
+     */
+    private final int capacity;
+
+    // impl<T> Buffer<T>
+
+    /** 构造函数 */
+    public RingBuffer(int capacity) {
+        this.capacity = capacity;
+    }
+
+    // impl<T> Iterator<T> for RingBuffer<T>
+
+    /** 从队首（最老）到队尾（最新） */
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public T next() {
+                if (next >= size)
+                    throw new NoSuchElementException();
+                return get(next++);
+            }
+        };
+    }
+
+    // impl<T> Buffer<T> for RingBuffer<T>
+
+    @Override
+    public void __push(T element) {
+        if (this.ring == null)
+            this.ring = new Object[this.capacity + 1];
+        if (this.size == this.ring.length)
+            throw new AssertionError("缓冲区一次只会溢出一个");
+        this.ring[(this.head + this.size) % this.ring.length] = element;
+        this.size++;
+    }
+
+    @Override
+    public T __pop() {
+        if (this.size == 0)
+            throw new NoSuchElementException();
+        final T first = get(0);
+        this.ring[this.head] = null;
+        this.head = (this.head + 1) % this.ring.length;
+        this.size--;
+        return first;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public int capacity() {
+        return this.capacity;
+    }
+
+    /** 获取从队首数起的第`index`个元素 */
+    @SuppressWarnings("unchecked")
+    private T get(int index) {
+        return (T) this.ring[(this.head + index) % this.ring.length];
+    }
+}
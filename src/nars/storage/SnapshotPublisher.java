@@ -0,0 +1,41 @@
+package nars.storage;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import nars.control.Parameters;
+
+/**
+ * 🆕「袋观察者」快照的发布器
+ * * 🎯把「渲染袋内容」移出推理线程，并限制发布频率
+ * * 📌后台只有一个守护线程，按提交顺序拼接字符串并调用{@link BagObserver#refresh}
+ * * 📌每个袋至多有一个发布在排队（见{@link AbstractBag#publishPending}）：队列长度不超过被观察的袋数
+ * * 📌只有渲染线程是全局的；哪些袋待补发由各记忆区自己记录，见{@link ObservedBags}
+ */
+final class SnapshotPublisher {
+
+    /** 同一个袋两次发布之间的最小间隔（纳秒） */
+    static final long MIN_INTERVAL_NANOS = 1_000_000_000L / Parameters.BAG_OBSERVER_REFRESH_RATE;
+
+    /** 渲染线程 | 惰性创建，未观察任何袋时不启动 */
+    private static ExecutorService renderer;
+
+    private SnapshotPublisher() {
+    }
+
+    /** 在后台渲染并发布 */
+    static void render(final Runnable task) {
+        getRenderer().execute(task);
+    }
+
+    private static synchronized ExecutorService getRenderer() {
+        if (renderer == null) {
+            renderer = Executors.newSingleThreadExecutor(runnable -> {
+                final Thread thread = new Thread(runnable, "BagObserver renderer");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return renderer;
+    }
+}
@@ -0,0 +1,183 @@
+package nars.storage;
+
+import java.util.ArrayList;
+
+import nars.entity.Concept;
+import nars.language.CompoundTerm;
+import nars.language.Statement;
+import nars.language.Term;
+import nars.language.Variable;
+
+/**
+ * 🆕概念袋的倒排索引：元素词项⇒词项中（任意深度）含有它的概念
+ * * 🎯回答「哪些概念提到了`{tim}`」之类的查询，无需遍历所有概念
+ * * 📌随概念的新建与溢出增量维护（见{@link Memory}）：每次只走一遍概念的词项，开销与词项大小成正比，与概念数无关
+ * * 📌不索引变量，也不索引概念自身的词项（按名称直接查找即可）
+ * * 📌键均为{@link KeyRegistry}的ID：元素词项⇒（概念词项⇒概念）
+ * * ⚠️非线程安全：与概念袋一样，只应在推理线程上使用
+ */
+public final class SubtermIndex {
+
+    /**
+     * 元素词项的ID⇒含有它的概念，按概念词项的ID
+     *
+     * * 📝可空性：非空 | 各概念表亦非空：空了即移除
+     * * 📝可变性：可变 | 随概念进出概念袋增删
+     * * 📝所有权：具所有权 | 只引用概念，不拥有
+     */
+    private final IntHashMap<IntHashMap<Concept>> postings;
+    /** 「元素词项⇒概念」的条目总数 */
+    private int entries = 0;
+
+    /**
+     * @param expectedComponents 预期的不同元素词项数
+     */
+    SubtermIndex(int expectedComponents) {
+        this.postings = new IntHashMap<>(expectedComponents, 0.75f);
+    }
+
+    /* ---------- 维护 ---------- */
+
+    /**
+     * 登记一个进入概念袋的概念
+     *
+     * @param concept [&] 已在概念袋中
+     */
+    void add(Concept concept) {
+        final Term term = concept.getTerm();
+        if (term instanceof CompoundTerm)
+            this.add((CompoundTerm) term, term.getNameId(), concept);
+    }
+
+    private void add(CompoundTerm compound, int conceptId, Concept concept) {
+        for (int i = 0; i < compound.size(); i++) {
+            final Term component = compound.componentAt(i);
+            if (component instanceof Variable)
+                continue;
+            IntHashMap<Concept> posting = this.postings.get(component.getNameId());
+            if (posting == null) {
+                posting = new IntHashMap<>(1, 0.75f);
+                this.postings.put(component.getNameId(), posting);
+            }
+            if (posting.put(conceptId, concept) == null)
+                this.entries++;
+            if (component instanceof CompoundTerm)
+                this.add((CompoundTerm) component, conceptId, concept);
+        }
+    }
+
+    /**
+     * 注销一个离开概念袋的概念
+     * * 🚩未登记过（如被拒之门外的新概念）⇒查一次首个元素即返回，不走整个词项
+     *
+     * @param concept [&]
+     */
+    void remove(Concept concept) {
+        final Term term = concept.getTerm();
+        if (!(term instanceof CompoundTerm))
+            return;
+        final CompoundTerm compound = (CompoundTerm) term;
+        final int conceptId = term.findNameId();
+        for (int i = 0; i < compound.size(); i++) {
+            final Term component = compound.componentAt(i);
+            if (component instanceof Variable)
+                continue;
+            final IntHashMap<Concept> posting = this.postings.get(component.findNameId());
+            if (posting == null || !posting.containsKey(conceptId))
+                return;
+            this.remove(compound, conceptId);
+            return;
+        }
+    }
+
+    private void remove(CompoundTerm compound, int conceptId) {
+        for (int i = 0; i < compound.size(); i++) {
+            final Term component = compound.componentAt(i);
+            if (component instanceof Variable)
+                continue;
+            final int id = component.findNameId();
+            final IntHashMap<Concept> posting = this.postings.get(id);
+            if (posting != null && posting.remove(conceptId) != null) {
+                this.entries--;
+                if (posting.isEmpty())
+                    this.postings.remove(id);
+            }
+            if (component instanceof CompoundTerm)
+                this.remove((CompoundTerm) component, conceptId);
+        }
+    }
+
+    /** 清空索引 | 随概念袋一同初始化 */
+    void clear() {
+        this.postings.clear();
+        this.entries = 0;
+    }
+
+    /* ---------- 查询 ---------- */
+
+    /**
+     * 词项中（任意深度）含有某词项的所有概念
+     *
+     * @param component [&] 元素词项
+     * @return 新列表，顺序不定 | 没有则为空列表
+     */
+    public ArrayList<Concept> containing(Term component) {
+        return this.containing(component.findNameId());
+    }
+
+    /**
+     * 同{@link #containing(Term)}，按词项名称查询
+     * * 🎯供GUI与监控使用：无需先解析出词项
+     *
+     * @param name [&] 元素词项的名称，如`{tim}`
+     */
+    public ArrayList<Concept> containing(String name) {
+        return this.containing(KeyRegistry.idIfPresent(name));
+    }
+
+    private ArrayList<Concept> containing(int id) {
+        final ArrayList<Concept> result = new ArrayList<>();
+        final IntHashMap<Concept> posting = id == KeyRegistry.NO_ID ? null : this.postings.get(id);
+        if (posting != null)
+            posting.forEach((conceptId, concept) -> result.add(concept));
+        return result;
+    }
+
+    /**
+     * 以某词项为主项的陈述概念
+     * * 🚩从{@link #containing}的结果中筛选
+     */
+    public ArrayList<Concept> withSubject(Term subject) {
+        final ArrayList<Concept> result = this.containing(subject);
+        result.removeIf(concept -> !(concept.getTerm() instanceof Statement
+                && ((Statement) concept.getTerm()).getSubject().equals(subject)));
+        return result;
+    }
+
+    /**
+     * 以某词项为谓项的陈述概念
+     * * 🚩从{@link #containing}的结果中筛选
+     */
+    public ArrayList<Concept> withPredicate(Term predicate) {
+        final ArrayList<Concept> result = this.containing(predicate);
+        result.removeIf(concept -> !(concept.getTerm() instanceof Statement
+                && ((Statement) concept.getTerm()).getPredicate().equals(predicate)));
+        return result;
+    }
+
+    /** 含有某词项的概念数 | 不建列表 */
+    public int count(Term component) {
+        final IntHashMap<Concept> posting = this.postings.get(component.findNameId());
+        return posting == null ? 0 : posting.size();
+    }
+
+    /** 已索引的不同元素词项数 */
+    public int components() {
+        return this.postings.size();
+    }
+
+    /** 「元素词项⇒概念」的条目总数 */
+    public int entries() {
+        return this.entries;
+    }
+}
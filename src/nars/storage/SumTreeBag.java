@@ -0,0 +1,588 @@
+package nars.storage;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import nars.entity.Item;
+import nars.entity.ShortFloat;
+import nars.io.SnapshotInput;
+import nars.io.SnapshotOutput;
+
+/**
+ * 🆕按优先级精确抽样的「袋」
+ * * 📌每个物品被取出的概率正比于其权重：四位精度的优先级（短整数）+1
+ * * * 「+1」保证优先级为0的物品仍有极小的机会，且总权重不为0
+ * * 🚩以一棵「求和树」（数组存储的完全二叉树）维护各槽位的权重：
+ * * * 放入、移除、按权重抽样均为O(log n)
+ * * * 同一棵树中再维护「(权重, 放入序号)」的最小值，溢出时O(log n)地找到「最低且最早」的物品
+ * * 📌与{@link LevelBag}的差别：没有层级量化、没有「阈值」与「同层级连续取出」
+ * * * 以对原算法的忠实度，换取大容量下的可扩展性
+ *
+ * @param <E> The type of the Item in the Bag
+ */
+public final class SumTreeBag<E extends Item> extends AbstractBag<E> {
+
+    /** 最小值树中空槽位的值 */
+    private static final long EMPTY = Long.MAX_VALUE;
+    /** 最小值中「放入序号」所占的位数 */
+    private static final int SERIAL_BITS = 40;
+
+    /**
+     * mapping from key to item
+     */
+    private final NameTable<Slot<E>> nameTable;
+    /**
+     * 叶子数：2的幂，从不小于「预分配数+1」起，空闲位置用尽时翻倍，见{@link #grow}
+     * * 📌放入时可能暂时多出一个物品，随后再按溢出移除：最多到不小于「容量+1」
+     */
+    private int leaves;
+    /**
+     * 求和树：`sum[1]`为总权重，`sum[leaves + i]`为第i个槽位的权重
+     * * 📌惰性分配：首次放入物品时才分配
+     */
+    private long[] sum;
+    /** 最小值树：各子树中最小的「(权重 << 40) | 放入序号」 */
+    private long[] min;
+    /** 各槽位中的物品 */
+    private Slot<E>[] slots;
+    /** 空闲槽位栈 */
+    private int[] free;
+    /** 空闲槽位数 */
+    private int freeCount;
+    /** 放入序号 | 同权重时先放入者先被移除 */
+    private long serial;
+    /**
+     * 袋的访问时钟：按权重抽中物品的次数
+     * * 🎯「惰性遗忘」中计算物品在袋中经历的访问次数
+     */
+    private long accessClock;
+    /** 抽样用的随机数 | 固定种子，以便复现；从快照还原时整个替换 */
+    private Random random;
+
+    public SumTreeBag(AtomicInteger forgetRate, int capacity, KeyMode keyMode) {
+        this(forgetRate, capacity, (oldValue, newValue) -> MergeOrder.OldToNew, keyMode);
+    }
+
+    public SumTreeBag(AtomicInteger forgetRate, int capacity, MergeOrderF<E> mergeOrderF, KeyMode keyMode) {
+        super(forgetRate, capacity, mergeOrderF);
+        this.nameTable = keyMode == KeyMode.Id
+                ? new NameTable.ById<>(presize(capacity), LOAD_FACTOR)
+                : new NameTable.ByName<>(presize(capacity), LOAD_FACTOR);
+        this.random = new Random(capacity);
+        init();
+    }
+
+    @Override
+    public void init() {
+        this.leaves = leavesFor(presize(this.capacity()));
+        this.sum = null;
+        this.min = null;
+        this.slots = null;
+        this.free = null;
+        this.freeCount = 0;
+        this.nameTable.clear();
+        this.serial = 0;
+        this.accessClock = 0;
+    }
+
+    @Override
+    public int size() {
+        return this.nameTable.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.nameTable.isEmpty();
+    }
+
+    /**
+     * Get the average priority of Items
+     * * 🚩由总权重精确算出
+     */
+    @Override
+    public float averagePriority() {
+        if (size() == 0)
+            return 0.01f;
+        final float f = (float) (this.sum[1] - size()) / (size() * 10000f);
+        return Math.min(f, 1.0f);
+    }
+
+    @Override
+    public boolean contains(E it) {
+        if (it == null)
+            return false;
+        final Slot<E> slot = nameTable.get(it);
+        return slot != null && slot.item == it;
+    }
+
+    @Override
+    public boolean has(String key) {
+        return nameTable.get(key) != null;
+    }
+
+    @Override
+    public boolean has(int keyId) {
+        return nameTable.get(keyId) != null;
+    }
+
+    @Override
+    public E get(String key) {
+        final Slot<E> slot = nameTable.get(key);
+        return slot == null ? null : slot.item;
+    }
+
+    @Override
+    public E get(int keyId) {
+        final Slot<E> slot = nameTable.get(keyId);
+        return slot == null ? null : slot.item;
+    }
+
+    @Override
+    public boolean putIn(E newItem) {
+        validateIn(newItem);
+        this.metrics.insertions++;
+        final Slot<E> newSlot = new Slot<>(newItem);
+        final Slot<E> oldSlot = nameTable.put(newItem, newSlot);
+        // * 🚩同键⇒移出旧的，合并预算值
+        if (oldSlot != null) {
+            this.unlink(oldSlot);
+            this.decay(oldSlot);
+            this.mergeDuplicate(oldSlot.item, newItem);
+        }
+        this.link(newSlot);
+        // * 🚩溢出⇒移除「权重最低且最早放入」者，可能就是新物品
+        boolean added = true;
+        if (this.size() > this.capacity()) {
+            final Slot<E> lowest = this.slots[this.lowestIndex()];
+            this.unlink(lowest);
+            nameTable.remove(lowest.item);
+            added = lowest != newSlot;
+            if (added)
+                this.metrics.evictions++;
+            else
+                this.metrics.rejections++;
+            this.refresh();
+            this.overflowed(lowest.item);
+            return added;
+        }
+        this.refresh();
+        return added;
+    }
+
+    @Override
+    public final E evictLowest() {
+        if (this.isEmpty())
+            return null;
+        final Slot<E> lowest = this.slots[this.lowestIndex()];
+        this.unlink(lowest);
+        nameTable.remove(lowest.item);
+        this.metrics.evictions++;
+        this.refresh();
+        this.overflowed(lowest.item);
+        return lowest.item;
+    }
+
+    /**
+     * 🆕求和树与空闲下标栈在首次放入时分配，此后随物品数翻倍
+     */
+    @Override
+    public final long estimateBytes() {
+        long bytes = Footprint.BAG + this.nameTable.estimateBytes() + (long) this.size() * Footprint.SLOT;
+        if (this.slots != null)
+            bytes += 2 * Footprint.array(leaves << 1, 8) + Footprint.array(leaves, Footprint.REFERENCE)
+                    + Footprint.array(leaves, 4);
+        return bytes;
+    }
+
+    @Override
+    public E takeOut() {
+        if (this.isEmpty())
+            return null;
+        final Slot<E> selected = this.slots[this.sampleIndex()];
+        this.unlink(selected);
+        this.decay(selected);
+        nameTable.remove(selected.item);
+        this.metrics.takeOuts++;
+        this.refresh();
+        return selected.item;
+    }
+
+    /**
+     * 🆕批量取出
+     * * 🚩被拒绝的物品不移出「名称表」与树：遗忘后就地更新权重
+     */
+    @Override
+    public ArrayList<E> takeOutBatch(int maxAccepted, int maxRejections, Predicate<E> accept) {
+        final ArrayList<E> accepted = new ArrayList<>(maxAccepted);
+        int rejectionsInRow = 0;
+        while (accepted.size() < maxAccepted && rejectionsInRow < maxRejections && !this.isEmpty()) {
+            final Slot<E> selected = this.slots[this.sampleIndex()];
+            this.decay(selected);
+            final E item = selected.item;
+            if (accept.test(item)) {
+                this.unlink(selected);
+                nameTable.remove(item);
+                this.metrics.takeOuts++;
+                accepted.add(item);
+                rejectionsInRow = 0;
+            } else {
+                if (!this.lazyForgetting)
+                    this.forget(item);
+                this.reweight(selected);
+                rejectionsInRow++;
+            }
+        }
+        this.refresh();
+        return accepted;
+    }
+
+    @Override
+    public E pickOut(String key) {
+        return this.pickOut(nameTable.remove(key));
+    }
+
+    @Override
+    public E pickOut(int keyId) {
+        return this.pickOut(nameTable.remove(keyId));
+    }
+
+    /** 拿出已从「名称表」中移除的槽位 */
+    private E pickOut(Slot<E> picked) {
+        if (picked == null)
+            return null;
+        this.unlink(picked);
+        this.decay(picked);
+        this.refresh();
+        return picked.item;
+    }
+
+    @Override
+    public E update(String key, Consumer<E> mutator) {
+        return this.update(nameTable.get(key), mutator);
+    }
+
+    @Override
+    public E update(int keyId, Consumer<E> mutator) {
+        return this.update(nameTable.get(keyId), mutator);
+    }
+
+    /** 就地修改槽位中的物品，再更新其权重 */
+    private E update(Slot<E> slot, Consumer<E> mutator) {
+        if (slot == null)
+            return null;
+        this.decay(slot);
+        mutator.accept(slot.item);
+        if (!this.lazyForgetting)
+            this.forget(slot.item);
+        this.reweight(slot);
+        this.refresh();
+        return slot.item;
+    }
+
+    @Override
+    public void forEach(Consumer<? super E> action) {
+        if (this.slots == null)
+            return;
+        for (final Slot<E> slot : this.slots) {
+            if (slot != null)
+                action.accept(slot.item);
+        }
+    }
+
+    /** 按{@link LevelBag}的层级划分统计 */
+    @Override
+    public void addOccupancyTo(BagMetrics metrics) {
+        metrics.addBag();
+        this.forEach(item -> metrics.addLevel(this.totalLevel, getLevel(item), 1));
+    }
+
+    /**
+     * 「惰性遗忘」：结算物品自放入以来应有的遗忘
+     * * 🚩同{@link LevelBag}：以「袋的访问次数 / 袋内物品数」估计物品自身经历的访问次数
+     */
+    private void decay(Slot<E> slot) {
+        if (!this.lazyForgetting)
+            return;
+        final long elapsed = this.accessClock - slot.since;
+        if (elapsed > 0)
+            this.forget(slot.item, (double) elapsed / Math.max(1, this.size()));
+    }
+
+    /* ---------- 快照 ---------- */
+
+    /** 🆕快照中此类袋的标记 */
+    private static final byte STATE_KIND = 2;
+
+    /**
+     * 🆕写出：序号、访问时钟、随机数状态、空闲下标栈，再逐个写出叶子及其物品
+     * * 📌叶子的键（权重与序号）照原样保存：物品的优先级可能在袋中被改过
+     */
+    @Override
+    public void writeState(SnapshotOutput out, ItemWriter<E> writer) throws IOException {
+        this.writeStateHeader(out, STATE_KIND);
+        out.writeLong(this.serial);
+        out.writeLong(this.accessClock);
+        out.writeRandom(this.random);
+        out.writeBoolean(this.sum != null);
+        if (this.sum == null)
+            return;
+        out.writeInt(this.freeCount);
+        for (int i = 0; i < this.freeCount; i++)
+            out.writeInt(this.free[i]);
+        out.writeInt(this.size());
+        for (int index = 0; index < leaves; index++) {
+            final Slot<E> slot = this.slots[index];
+            if (slot == null)
+                continue;
+            out.writeInt(index);
+            out.writeLong(slot.since);
+            out.writeLong(this.min[leaves + index]);
+            writer.write(slot.item);
+        }
+    }
+
+    @Override
+    public void readState(SnapshotInput in, ItemReader<E> reader) throws IOException {
+        this.init();
+        this.readStateHeader(in, STATE_KIND);
+        final long serial = in.readLong();
+        final long accessClock = in.readLong();
+        this.random = in.readRandom();
+        if (!in.readBoolean())
+            return;
+        // * 🚩叶子数不单独保存：恒为物品数与空闲位置数之和
+        final int maxLeaves = leavesFor(this.capacity());
+        final int freeCount = in.readInt();
+        if (freeCount < 0 || freeCount > maxLeaves)
+            throw new IOException("invalid free count: " + freeCount);
+        final int[] free = new int[freeCount];
+        for (int i = 0; i < freeCount; i++)
+            free[i] = in.readInt();
+        final int size = in.readInt();
+        final int leaves = size + freeCount;
+        if (size > this.capacity() || leaves > maxLeaves || Integer.bitCount(leaves) != 1)
+            throw new IOException("invalid bag size: " + size + " with " + freeCount + " free");
+        this.leaves = leaves;
+        this.allocate();
+        System.arraycopy(free, 0, this.free, 0, freeCount);
+        this.freeCount = freeCount;
+        for (int i = 0; i < size; i++) {
+            final int index = in.readInt();
+            if (index < 0 || index >= leaves || this.slots[index] != null)
+                throw new IOException("invalid leaf index: " + index);
+            final long since = in.readLong();
+            final long key = in.readLong();
+            final Slot<E> slot = new Slot<>(reader.read());
+            if (this.nameTable.put(slot.item, slot) != null)
+                throw new IOException("duplicate key in bag: " + slot.item.getKey());
+            slot.index = index;
+            slot.since = since;
+            this.slots[index] = slot;
+            this.sum[leaves + index] = key >>> SERIAL_BITS;
+            this.min[leaves + index] = key;
+        }
+        this.rebuild();
+        this.serial = serial;
+        this.accessClock = accessClock;
+        this.refresh();
+    }
+
+    /* ---------- 求和树 ---------- */
+
+    /** 物品的权重：四位精度的优先级+1 */
+    private static long weightOf(Item item) {
+        return ShortFloat.toShort(item.getPriority()) + 1;
+    }
+
+    /** 能放下给定数量再多一个物品的叶子数 */
+    private static int leavesFor(int items) {
+        int leaves = 1;
+        while (leaves < items + 1)
+            leaves <<= 1;
+        return leaves;
+    }
+
+    /** 把槽位放进一个空闲位置，按当前优先级设置权重 */
+    private void link(Slot<E> slot) {
+        if (this.sum == null)
+            this.allocate();
+        else if (this.freeCount == 0)
+            this.grow();
+        final int index = this.free[--this.freeCount];
+        final long weight = weightOf(slot.item);
+        slot.index = index;
+        slot.since = this.accessClock;
+        this.slots[index] = slot;
+        this.sum[leaves + index] = weight;
+        this.min[leaves + index] = (weight << SERIAL_BITS) | (this.serial++ & ((1L << SERIAL_BITS) - 1));
+        this.updateUpwards(index);
+    }
+
+    /** 首次放入物品时分配求和树与空闲下标栈 */
+    @SuppressWarnings("unchecked")
+    private void allocate() {
+        this.sum = new long[leaves << 1];
+        this.min = new long[leaves << 1];
+        Arrays.fill(this.min, EMPTY);
+        this.slots = (Slot<E>[]) new Slot<?>[leaves];
+        this.free = new int[leaves];
+        for (int i = 0; i < leaves; i++)
+            this.free[i] = leaves - 1 - i;
+        this.freeCount = leaves;
+    }
+
+    /**
+     * 空闲位置用尽时把叶子数翻倍
+     * * 📌已有物品的下标不变；新的位置从小到大依次取用，与{@link #allocate}一致
+     * * ⚠️树的形状改变：此后按同一随机数抽中的位置与翻倍前不同，但仍只取决于种子与操作序列
+     */
+    private void grow() {
+        final int oldLeaves = this.leaves;
+        final int leaves = oldLeaves << 1;
+        final long[] sum = new long[leaves << 1];
+        final long[] min = new long[leaves << 1];
+        Arrays.fill(min, EMPTY);
+        System.arraycopy(this.sum, oldLeaves, sum, leaves, oldLeaves);
+        System.arraycopy(this.min, oldLeaves, min, leaves, oldLeaves);
+        this.slots = Arrays.copyOf(this.slots, leaves);
+        this.free = new int[leaves];
+        for (int i = 0; i < oldLeaves; i++)
+            this.free[i] = leaves - 1 - i;
+        this.freeCount = oldLeaves;
+        this.leaves = leaves;
+        this.sum = sum;
+        this.min = min;
+        this.rebuild();
+    }
+
+    /** 自底向上一次重建内部结点 */
+    private void rebuild() {
+        for (int i = leaves - 1; i >= 1; i--) {
+            this.sum[i] = this.sum[i << 1] + this.sum[(i << 1) | 1];
+            this.min[i] = Math.min(this.min[i << 1], this.min[(i << 1) | 1]);
+        }
+    }
+
+    /**
+     * 按当前优先级就地更新槽位的权重
+     * * 📌取新的放入序号：同权重时视同刚放入
+     */
+    private void reweight(Slot<E> slot) {
+        final int index = slot.index;
+        final long weight = weightOf(slot.item);
+        slot.since = this.accessClock;
+        this.sum[leaves + index] = weight;
+        this.min[leaves + index] = (weight << SERIAL_BITS) | (this.serial++ & ((1L << SERIAL_BITS) - 1));
+        this.updateUpwards(index);
+    }
+
+    /** 把槽位从树中移除，释放其位置 */
+    private void unlink(Slot<E> slot) {
+        final int index = slot.index;
+        this.slots[index] = null;
+        this.sum[leaves + index] = 0;
+        this.min[leaves + index] = EMPTY;
+        this.updateUpwards(index);
+        this.free[this.freeCount++] = index;
+    }
+
+    private void updateUpwards(int index) {
+        for (int i = (leaves + index) >>> 1; i >= 1; i >>>= 1) {
+            this.sum[i] = this.sum[i << 1] + this.sum[(i << 1) | 1];
+            this.min[i] = Math.min(this.min[i << 1], this.min[(i << 1) | 1]);
+        }
+    }
+
+    /** 按权重抽取一个位置，并推进访问时钟 */
+    private int sampleIndex() {
+        long r = nextLong(this.random, this.sum[1]);
+        int i = 1;
+        while (i < leaves) {
+            i <<= 1;
+            if (r >= this.sum[i]) {
+                r -= this.sum[i];
+                i |= 1;
+            }
+        }
+        this.accessClock++;
+        return i - leaves;
+    }
+
+    /**
+     * 在[0, bound)中均匀抽取一个长整数
+     * * 📌与{@link Random#nextInt(int)}同样的拒绝采样，只依赖{@link Random#nextLong()}
+     * * ⚠️不用Java 17才有的`Random.nextLong(long)`：本仓库仍需在Java 11上编译
+     * * 📝种子相同则抽取序列相同，快照恢复后的取样可复现
+     */
+    private static long nextLong(Random random, long bound) {
+        final long m = bound - 1;
+        long r = random.nextLong();
+        if ((bound & m) == 0)
+            return r & m; // * 📝2的幂：直接取低位
+        for (long u = r >>> 1; u + m - (r = u % bound) < 0; u = random.nextLong() >>> 1)
+            ;
+        return r;
+    }
+
+    /** 权重最低（同权重时最早放入）的位置 */
+    private int lowestIndex() {
+        int i = 1;
+        while (i < leaves) {
+            i <<= 1;
+            if (this.min[i] != this.min[i >>> 1])
+                i |= 1;
+        }
+        return i - leaves;
+    }
+
+    /* ---------- display ---------- */
+
+    /**
+     * 按{@link LevelBag}的层级划分显示
+     * * 📌同层级内按槽位顺序
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    Snapshot snapshot(int lowestLevel, boolean longForm) {
+        final Snapshot snapshot = new Snapshot(longForm);
+        if (this.slots == null)
+            return snapshot;
+        final ArrayList<Item>[] byLevel = (ArrayList<Item>[]) new ArrayList<?>[this.totalLevel];
+        for (final Slot<E> slot : this.slots) {
+            if (slot == null)
+                continue;
+            final int level = getLevel(slot.item);
+            if (level + 1 < lowestLevel)
+                continue;
+            if (byLevel[level] == null)
+                byLevel[level] = new ArrayList<>();
+            byLevel[level].add(slot.item);
+        }
+        for (int i = this.totalLevel; i >= lowestLevel; i--) {
+            if (byLevel[i - 1] != null)
+                snapshot.add(i, byLevel[i - 1].toArray(new Item[0]));
+        }
+        return snapshot;
+    }
+
+    /**
+     * 物品在树中的槽位
+     */
+    private static final class Slot<E> {
+        /** 所存放的物品 */
+        final E item;
+        /** 在树中的位置；仅在挂入时设置 */
+        int index;
+        /** 挂入时的访问时钟，用于「惰性遗忘」 */
+        long since;
+
+        Slot(E item) {
+            this.item = item;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package test;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import nars.control.Parameters;
+import nars.entity.BudgetValue;
+import nars.entity.Item.Token;
+import nars.storage.Bag;
+import nars.storage.LevelBag;
+import nars.storage.SumTreeBag;
+
+/**
+ * 🆕「袋」性能测试
+ * * 🎯观察「概念袋」规模操作随填充程度的变化
+ * * 🚩逐步填充到{@link Parameters#CONCEPT_BAG_SIZE}，在每个填充阶段计时
+ * * 📌用法：`java test.BagBenchmark [每阶段操作次数] [容量] [level|sumtree]`
+ * * 📌计时前先做一次固定种子的取样：两个同样填充的袋，取出序列须逐一相同
+ *
+ * @author tc, ARCJ137442
+ */
+public class BagBenchmark {
+
+    public static void main(final String[] args) {
+        final int ops = TestCommon.getN(args, 200000);
+        final int capacity = args.length > 1 ? Integer.parseInt(args[1]) : Parameters.CONCEPT_BAG_SIZE;
+        final boolean sumTree = args.length > 2 && args[2].equals("sumtree");
+        final Random random = new Random(1);
+        final AtomicInteger forgetRate = new AtomicInteger(Parameters.CONCEPT_FORGETTING_CYCLE);
+        final Bag<Token> bag = newBag(sumTree, capacity, forgetRate);
+        final ArrayList<Token> items = new ArrayList<>(capacity);
+        checkReproducible(sumTree, capacity, forgetRate);
+        System.out.println("size\tcontains(ns/op)\tactivate(ns/op)\tupdate(ns/op)\ttakeOut+putBack(ns/op)");
+        for (int stage = 1; stage <= 10; stage++) {
+            // * 🚩填充到当前阶段
+            final int target = capacity * stage / 10;
+            while (bag.size() < target) {
+                final Token item = newItem(items.size(), random);
+                if (bag.putIn(item))
+                    items.add(item);
+            }
+            System.out.println(bag.size()
+                    + "\t" + timeContains(bag, items, ops, random)
+                    + "\t" + timeActivate(bag, items, ops, random)
+                    + "\t" + timeUpdate(bag, items, ops, random)
+                    + "\t" + timeTakeOutPutBack(bag, ops));
+        }
+    }
+
+    private static Bag<Token> newBag(final boolean sumTree, final int capacity, final AtomicInteger forgetRate) {
+        return sumTree
+                ? new SumTreeBag<>(forgetRate, capacity, Bag.KeyMode.Name)
+                : new LevelBag<>(forgetRate, capacity);
+    }
+
+    /**
+     * 固定种子的取样
+     * * 🎯取样只依赖袋自身的种子：同样填充、同样操作的两个袋，取出序列相同
+     * * 🚩取出后降低优先级再放回，使取样覆盖各个权重
+     */
+    private static void checkReproducible(
+            final boolean sumTree, final int capacity, final AtomicInteger forgetRate) {
+        final int draws = 10000;
+        final String[] first = new String[draws];
+        long hash = 0;
+        for (int run = 0; run < 2; run++) {
+            final Random random = new Random(1);
+            final Bag<Token> bag = newBag(sumTree, capacity, forgetRate);
+            for (int i = 0; i < capacity; i++)
+                bag.putIn(newItem(i, random));
+            long h = 0;
+            for (int i = 0; i < draws; i++) {
+                final Token item = bag.takeOut();
+                if (item == null)
+                    throw new AssertionError("empty bag at draw " + i);
+                if (run == 0)
+                    first[i] = item.getKey();
+                else if (!first[i].equals(item.getKey()))
+                    throw new AssertionError("draw " + i + " differs: " + first[i] + " vs " + item.getKey());
+                h = h * 31 + item.getKey().hashCode();
+                item.setPriority(item.getPriority() * 0.9f);
+                bag.putBack(item);
+            }
+            hash = h;
+        }
+        System.out.println("fixed-seed draws: " + draws + " identical, hash " + Long.toHexString(hash));
+    }
+
+    private static Token newItem(final int i, final Random random) {
+        return new Token("concept" + i, new BudgetValue(random.nextFloat(), random.nextFloat(), random.nextFloat()));
+    }
+
+    /** 🎯对应「激活概念」中的存在性检查 */
+    private static double timeContains(
+            final Bag<Token> bag, final ArrayList<Token> items, final int ops, final Random random) {
+        int hits = 0;
+        final long start = System.nanoTime();
+        for (int i = 0; i < ops; i++) {
+            if (bag.contains(items.get(random.nextInt(items.size()))))
+                hits++;
+        }
+        final long elapsed = System.nanoTime() - start;
+        if (hits < 0)
+            System.out.println(hits);
+        return (double) elapsed / ops;
+    }
+
+    /** 🎯对应{@link nars.storage.Memory#activateConceptInner}原先的「拿出→放回」 */
+    private static double timeActivate(
+            final Bag<Token> bag, final ArrayList<Token> items, final int ops, final Random random) {
+        final long start = System.nanoTime();
+        for (int i = 0; i < ops; i++) {
+            final Token item = items.get(random.nextInt(items.size()));
+            if (!bag.contains(item))
+                continue;
+            bag.pickOut(item.getKey());
+            item.setPriority(random.nextFloat());
+            bag.putBack(item);
+        }
+        return (double) (System.nanoTime() - start) / ops;
+    }
+
+    /** 🎯对应{@link nars.storage.Memory#activateConceptInner}中的就地更新 */
+    private static double timeUpdate(
+            final Bag<Token> bag, final ArrayList<Token> items, final int ops, final Random random) {
+        final long start = System.nanoTime();
+        for (int i = 0; i < ops; i++) {
+            final Token item = items.get(random.nextInt(items.size()));
+            if (!bag.contains(item))
+                continue;
+            bag.update(item.getKey(), t -> t.setPriority(random.nextFloat()));
+        }
+        return (double) (System.nanoTime() - start) / ops;
+    }
+
+    /** 🎯对应「概念推理」中的「取出概念→放回概念」 */
+    private static double timeTakeOutPutBack(final Bag<Token> bag, final int ops) {
+        final long start = System.nanoTime();
+        for (int i = 0; i < ops; i++) {
+            final Token item = bag.takeOut();
+            if (item != null)
+                bag.putBack(item);
+        }
+        return (double) (System.nanoTime() - start) / ops;
+    }
+}
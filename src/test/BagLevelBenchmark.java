@@ -0,0 +1,54 @@
+package test;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import nars.control.Parameters;
+import nars.entity.BudgetValue;
+import nars.entity.Item.Token;
+import nars.storage.Bag;
+import nars.storage.LevelBag;
+
+/**
+ * 🆕「袋」层级数性能测试
+ * * 🎯观察层级数对「取出→放回」的影响：层级越多，分派器越长、空层级越多
+ * * 🚩对词项链袋与概念袋两种容量，各用几种层级数（阈值按{@link Parameters#BAG_THRESHOLD}同比缩放）
+ * * 📌用法：`java test.BagLevelBenchmark [每种设置的操作次数]`
+ *
+ * @author tc, ARCJ137442
+ */
+public class BagLevelBenchmark {
+
+    public static void main(final String[] args) {
+        final int ops = TestCommon.getN(args, 2000000);
+        final int[] capacities = { Parameters.TERM_LINK_BAG_SIZE, Parameters.CONCEPT_BAG_SIZE };
+        final int[] levels = { 10, 20, 50, 100, 200, 1000 };
+        System.out.println("capacity\tlevels\ttakeOut+putBack(ns/op)");
+        for (final int capacity : capacities) {
+            for (final int level : levels) {
+                // * 🚩先预热，再正式计时
+                time(capacity, level, ops / 10);
+                System.out.printf("%d\t%d\t%.1f%n", capacity, level, time(capacity, level, ops));
+            }
+        }
+    }
+
+    private static double time(final int capacity, final int totalLevel, final int ops) {
+        final Random random = new Random(1);
+        final Bag<Token> bag = new LevelBag<>(
+                new AtomicInteger(Parameters.CONCEPT_FORGETTING_CYCLE), capacity,
+                totalLevel, totalLevel * Parameters.BAG_THRESHOLD / Parameters.BAG_LEVEL, Bag.KeyMode.Name);
+        for (int i = 0; i < capacity; i++) {
+            bag.putIn(new Token("item" + i,
+                    new BudgetValue(random.nextFloat(), random.nextFloat(), random.nextFloat())));
+        }
+        final long start = System.nanoTime();
+        for (int i = 0; i < ops; i++) {
+            final Token item = bag.takeOut();
+            // * 🚩模拟「激活」：放回前随机改变优先级，使物品在各层级间流动
+            item.setPriority(random.nextFloat());
+            bag.putIn(item);
+        }
+        return (double) (System.nanoTime() - start) / ops;
+    }
+}
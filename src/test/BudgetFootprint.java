@@ -0,0 +1,71 @@
+package test;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import nars.control.Parameters;
+import nars.entity.BudgetValue;
+import nars.entity.Item.Token;
+import nars.entity.TruthValue;
+import nars.language.MakeTerm;
+import nars.storage.Bag;
+import nars.storage.LevelBag;
+import nars.storage.Memory;
+
+/**
+ * 🆕「预算值」与「真值」的堆占用测试
+ * * 🎯观察满载{@link Parameters#CONCEPT_BAG_SIZE}时的内存开销
+ * * 🚩分别构造：装满「令牌」的概念袋、装满概念的记忆区、同样数目的真值；每次前后各做几轮GC再比较已用堆
+ * * 📌用法：`java test.BudgetFootprint`
+ *
+ * @author tc, ARCJ137442
+ */
+public class BudgetFootprint {
+
+    public static void main(final String[] args) {
+        final int n = Parameters.CONCEPT_BAG_SIZE;
+        System.out.println("structure\tcount\tbytes\tbytes/item");
+
+        long before = usedHeap();
+        final Bag<Token> tokens = new LevelBag<>(new AtomicInteger(Parameters.CONCEPT_FORGETTING_CYCLE), n);
+        for (int i = 0; i < n; i++) {
+            tokens.putIn(new Token("concept" + i, new BudgetValue(0.5f, 0.5f, 0.5f)));
+        }
+        report("Bag<Token>", tokens.size(), usedHeap() - before);
+
+        before = usedHeap();
+        final Memory memory = new Memory();
+        for (int i = 0; i < n; i++) {
+            memory.getConceptOrCreate(MakeTerm.makeWord("concept" + i));
+        }
+        report("Memory(concepts)", memory.getConceptBagForDisplay().size(), usedHeap() - before);
+
+        before = usedHeap();
+        final ArrayList<TruthValue> truths = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            truths.add(new TruthValue(1.0f, 0.9f));
+        }
+        report("TruthValue", truths.size(), usedHeap() - before);
+
+        // * 🚩保持可达，直到测量结束
+        if (tokens.isEmpty() || truths.isEmpty())
+            System.out.println(memory);
+    }
+
+    private static void report(final String name, final int count, final long bytes) {
+        System.out.printf("%s\t%d\t%d\t%.1f%n", name, count, bytes, (double) bytes / count);
+    }
+
+    private static long usedHeap() {
+        final Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
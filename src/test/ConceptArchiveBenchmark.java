@@ -0,0 +1,163 @@
+package test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import nars.control.Parameters;
+import nars.control.Reasoner;
+import nars.entity.Concept;
+import nars.language.MakeTerm;
+import nars.language.Term;
+import nars.storage.BagMetrics;
+import nars.storage.ConceptArchive;
+import nars.storage.Memory;
+import nars.storage.MemoryChange;
+import nars.storage.MemoryChangeStream;
+
+/**
+ * 🆕「概念存档」的效果与开销
+ * * 🚩其一：开启存档长时间输入，观察概念袋溢出的是什么、存了多少
+ * * 🚩其二：把填满的概念袋中的概念全部存档，在另一个记忆区中逐个取回（夹杂同样多未存档的词项），
+ * * 统计命中率与取回耗时，并核对取回的信念与原先一致；取回的概念应记为「取回」而非「新建」
+ * * 🚩其三：反复存入同一批概念，迫使整理；整理后目录中只剩一个文件，取回的信念不变
+ * * 📌用法：`java test.ConceptArchiveBenchmark [输入的判断数]`
+ *
+ * @author tc, ARCJ137442
+ */
+public class ConceptArchiveBenchmark {
+
+    public static void main(final String[] args) throws IOException {
+        final File dir = Files.createTempDirectory("nars-archive").toFile();
+        try {
+            overflow(dir, TestCommon.getN(args, 3 * Parameters.CONCEPT_BAG_SIZE));
+            rehydrate(dir);
+            compact(dir);
+        } finally {
+            dir.delete();
+        }
+    }
+
+    /** 其一：反复出现的词汇，远多于概念袋容量的输入 */
+    private static void overflow(final File dir, final int judgements) throws IOException {
+        final Reasoner reasoner = new Reasoner();
+        final ConceptArchive archive = ConceptArchive.createTemp(dir);
+        reasoner.getMemory().useConceptArchive(archive);
+        reasoner.reset();
+        final long start = System.nanoTime();
+        for (int i = 0; i < judgements; i++) {
+            reasoner.textInputLine("<x" + (i % 500) + " --> y" + i + ">.");
+            reasoner.walk(1);
+            reasoner.tick();
+            reasoner.handleOutput();
+        }
+        final double ms = (System.nanoTime() - start) / 1e6;
+        final BagMetrics concepts = reasoner.getMemory().getBagMetrics().concepts();
+        System.out.println(String.format("overflow\t%d judgements\t%.0f ms\tevictions %d\trejections %d",
+                judgements, ms, concepts.evictions(), concepts.rejections()));
+        System.out.println("\t" + archive);
+        archive.close();
+    }
+
+    /** 其二：全部存档，再逐个取回 */
+    private static void rehydrate(final File dir) throws IOException {
+        // * 🚩填满概念袋
+        final Reasoner full = new Reasoner();
+        full.reset();
+        for (int i = 0; full.getMemory().getConceptBagForDisplay().size() < Parameters.CONCEPT_BAG_SIZE; i++) {
+            full.textInputLine("<c" + i + " --> (*,d" + (i % 97) + ",e" + (i % 89) + ")>.");
+            full.walk(1);
+            full.tick();
+        }
+        // * 🚩全部存档，记下各自的信念数
+        final ConceptArchive archive = ConceptArchive.createTemp(dir);
+        final HashMap<Term, Integer> beliefs = new HashMap<>();
+        long start = System.nanoTime();
+        full.getMemory().getConceptBagForDisplay().forEach(concept -> {
+            archive.archive(concept);
+            if (!concept.isEmpty())
+                beliefs.put(concept.getTerm(), concept.getBeliefs().size());
+        });
+        final double archiveMs = (System.nanoTime() - start) / 1e6;
+        // * 🚩另一个记忆区：存档的词项与同样多新词项交替查询
+        final Memory memory = new Memory();
+        memory.useConceptArchive(archive);
+        final MemoryChangeStream.Subscription changes = memory.getChangeStream()
+                .subscribe(8 * beliefs.size(), MemoryChangeStream.OverflowPolicy.DROP);
+        final ArrayList<Term> terms = new ArrayList<>(beliefs.keySet());
+        int mismatches = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < terms.size(); i++) {
+            final Term term = terms.get(i);
+            final Concept concept = memory.getConceptOrCreate(term);
+            if (concept == null || concept.getBeliefs().size() != beliefs.get(term))
+                mismatches++;
+            memory.getConceptOrCreate(MakeTerm.makeWord("unarchived" + i));
+        }
+        final double lookupMs = (System.nanoTime() - start) / 1e6;
+        System.out.println(String.format("rehydrate\t%d concepts archived in %.0f ms\t%d lookups in %.0f ms",
+                beliefs.size(), archiveMs, 2 * terms.size(), lookupMs));
+        System.out.println("\t" + archive);
+        final ArrayList<MemoryChange> published = new ArrayList<>();
+        changes.drainTo(published);
+        changes.close();
+        final long restored = published.stream().filter(c -> c.getKind() == MemoryChange.Kind.CONCEPT_RESTORED).count();
+        final long created = published.stream().filter(c -> c.getKind() == MemoryChange.Kind.CONCEPT_CREATED).count();
+        archive.close();
+        if (mismatches > 0)
+            throw new AssertionError(mismatches + " rehydrated concept(s) differ from the archived ones");
+        if (changes.getDropped() == 0 && (restored != archive.hits() || created != archive.misses()))
+            throw new AssertionError("published " + restored + " restored / " + created + " created, archive had "
+                    + archive.hits() + " hits / " + archive.misses() + " misses");
+    }
+
+    /** 其三：垃圾多于存活的记录时整理，写入新文件并删除旧文件 */
+    private static void compact(final File dir) throws IOException {
+        final Reasoner reasoner = new Reasoner();
+        reasoner.reset();
+        for (int i = 0; i < 200; i++) {
+            reasoner.textInputLine("<k" + i + " --> (*,m" + (i % 7) + ",n" + (i % 5) + ")>.");
+            reasoner.walk(1);
+            reasoner.tick();
+        }
+        final ArrayList<Concept> concepts = new ArrayList<>();
+        final HashMap<Term, Integer> beliefs = new HashMap<>();
+        reasoner.getMemory().getConceptBagForDisplay().forEach(concept -> {
+            if (!concept.isEmpty()) {
+                concepts.add(concept);
+                beliefs.put(concept.getTerm(), concept.getBeliefs().size());
+            }
+        });
+        // * 🚩同一批概念反复存入：新的记录取代旧的，旧的成为垃圾
+        final ConceptArchive archive = ConceptArchive.createTemp(dir);
+        final long start = System.nanoTime();
+        while (archive.compactions() < 2)
+            for (final Concept concept : concepts)
+                archive.archive(concept);
+        final double ms = (System.nanoTime() - start) / 1e6;
+        final String[] files = dir.list();
+        if (archive.dropped() > 0 || files == null || files.length != 1)
+            throw new AssertionError("after compaction: dropped " + archive.dropped() + ", files "
+                    + (files == null ? null : Arrays.toString(files)));
+        final Memory memory = new Memory();
+        memory.useConceptArchive(archive);
+        int mismatches = 0;
+        for (final Term term : beliefs.keySet()) {
+            final Concept concept = memory.getConceptOrCreate(term);
+            if (concept == null || concept.getBeliefs().size() != beliefs.get(term))
+                mismatches++;
+        }
+        System.out.println(String.format("compact	%d concepts archived %d times in %.0f ms",
+                concepts.size(), archive.archived() / Math.max(1, concepts.size()), ms));
+        System.out.println("\t" + archive);
+        archive.close();
+        if (mismatches > 0)
+            throw new AssertionError(mismatches + " concept(s) differ after compaction");
+        final String[] left = dir.list();
+        if (left == null || left.length != 0)
+            throw new AssertionError("files left after close: " + Arrays.toString(left));
+    }
+}
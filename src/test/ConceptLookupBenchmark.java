@@ -0,0 +1,85 @@
+package test;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Random;
+
+import nars.control.Parameters;
+import nars.control.Reasoner;
+import nars.entity.Concept;
+import nars.entity.TermLinkTemplate;
+import nars.language.Term;
+import nars.storage.Memory;
+
+/**
+ * 🆕「词项⇒概念」查找的开销
+ * * 🎯判断是否值得在词项（或词项链模板）上缓存查找结果
+ * * 🚩填满概念袋，取出所有概念的词项链模板中的元素词项，打乱后反复查找
+ * * 🚩对照：每个词项配一个「弱引用+印记」的缓存槽，命中时只做比较与解引用
+ * * * 📌这是缓存的下限开销：此处没有概念离开概念袋，不必使缓存失效
+ * * 📌用法：`java test.ConceptLookupBenchmark [轮数]`
+ *
+ * @author tc, ARCJ137442
+ */
+public class ConceptLookupBenchmark {
+
+    public static void main(final String[] args) {
+        final int rounds = TestCommon.getN(args, 10);
+        // * 🚩填满概念袋
+        final Reasoner reasoner = new Reasoner();
+        reasoner.reset();
+        for (int i = 0; reasoner.getMemory().getConceptBagForDisplay().size() < Parameters.CONCEPT_BAG_SIZE; i++) {
+            reasoner.textInputLine("<c" + i + " --> (*,d" + (i % 97) + ",e" + (i % 89) + ")>.");
+            reasoner.walk(1);
+            reasoner.tick();
+        }
+        final Memory memory = reasoner.getMemory();
+        final ArrayList<Term> terms = new ArrayList<>();
+        memory.getConceptBagForDisplay().forEach(concept -> {
+            for (final TermLinkTemplate template : concept.getLinkTemplatesToSelf())
+                terms.add(template.getTarget());
+        });
+        Collections.shuffle(terms, new Random(1));
+        // * 🚩缓存槽：与词项一一对应
+        final int n = terms.size();
+        final ArrayList<WeakReference<Concept>> refs = new ArrayList<>(n);
+        final int[] stamps = new int[n];
+        for (int i = 0; i < n; i++) {
+            refs.add(new WeakReference<>(memory.termToConcept(terms.get(i))));
+            stamps[i] = GENERATION;
+        }
+        System.out.println("terms\tlookup(ns/op)\tcached(ns/op)");
+        final double[] ns = new double[2];
+        for (int round = 0; round < rounds; round++) {
+            // * 🚩两者轮流先测，抵消先后次序对CPU缓存的影响
+            final int[] found = new int[2];
+            for (int k = 0; k < 2; k++) {
+                final int mode = (k + round) % 2;
+                final long start = System.nanoTime();
+                for (int pass = 0; pass < PASSES; pass++)
+                    for (int i = 0; i < n; i++) {
+                        final Term term = terms.get(i);
+                        final Concept concept = mode == 0 ? memory.termToConcept(term) : cached(refs.get(i), stamps[i], term);
+                        if (concept != null)
+                            found[mode]++;
+                    }
+                ns[mode] = (System.nanoTime() - start) / (double) PASSES / n;
+            }
+            if (found[0] != found[1])
+                throw new AssertionError("cache disagrees with lookup: " + found[1] + " vs " + found[0]);
+            System.out.println(String.format("%d\t%.1f\t%.1f", n, ns[0], ns[1]));
+        }
+    }
+
+    /** 每轮遍历的次数 */
+    private static final int PASSES = 50;
+    /** 缓存有效时的印记 | 此处从不失效 */
+    private static final int GENERATION = 1;
+
+    /** 查缓存槽：印记相符、所指未被回收且名称ID相同⇒命中 */
+    private static Concept cached(final WeakReference<Concept> ref, final int stamp, final Term term) {
+        final Concept concept = stamp == GENERATION ? ref.get() : null;
+        return concept != null && concept.getTerm().getNameId() == term.getNameId() ? concept : null;
+    }
+}
@@ -0,0 +1,173 @@
+package test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import nars.control.Parameters;
+import nars.entity.BudgetValue;
+import nars.entity.Item.Token;
+import nars.storage.Bag;
+import nars.storage.ConcurrentBag;
+import nars.storage.LevelBag;
+
+/**
+ * 🆕「并发袋」争用测试
+ * * 🎯对比「加全局锁的{@link Bag}」与{@link ConcurrentBag}在1~32线程下的吞吐量
+ * * 🚩每个线程循环执行：取出→放回，并穿插「按键挑出→放入」
+ * * 🚩每轮结束后核对：遍历所得的物品数与{@link Bag#size}相符，且键各不相同
+ * * 📌用法：`java test.ConcurrentBagBenchmark [每线程操作次数]`
+ *
+ * @author tc, ARCJ137442
+ */
+public class ConcurrentBagBenchmark {
+
+    /** 统一两种袋的操作，便于同一套负载 */
+    private interface Ops {
+        Token takeOut();
+
+        Token pickOut(String key);
+
+        boolean putIn(Token item);
+
+        boolean putBack(Token item);
+
+        int size();
+
+        void forEach(Consumer<Token> action);
+    }
+
+    public static void main(final String[] args) throws InterruptedException {
+        final int opsPerThread = TestCommon.getN(args, 200000);
+        final int capacity = Parameters.CONCEPT_BAG_SIZE;
+        System.out.println("threads\tlocked Bag(ops/ms)\tConcurrentBag(ops/ms)");
+        for (int threads = 1; threads <= 32; threads *= 2) {
+            final double locked = run(lockedBag(capacity), capacity, threads, opsPerThread);
+            final double concurrent = run(concurrentBag(capacity), capacity, threads, opsPerThread);
+            System.out.printf("%d\t%.1f\t%.1f%n", threads, locked, concurrent);
+        }
+    }
+
+    private static Ops lockedBag(final int capacity) {
+        final Bag<Token> bag = new LevelBag<>(new AtomicInteger(Parameters.CONCEPT_FORGETTING_CYCLE), capacity);
+        return new Ops() {
+            public synchronized Token takeOut() {
+                return bag.takeOut();
+            }
+
+            public synchronized Token pickOut(String key) {
+                return bag.pickOut(key);
+            }
+
+            public synchronized boolean putIn(Token item) {
+                return bag.has(item.getKey()) ? false : bag.putIn(item);
+            }
+
+            public synchronized boolean putBack(Token item) {
+                return bag.has(item.getKey()) ? false : bag.putBack(item);
+            }
+
+            public synchronized int size() {
+                return bag.size();
+            }
+
+            public synchronized void forEach(Consumer<Token> action) {
+                bag.forEach(action);
+            }
+        };
+    }
+
+    private static Ops concurrentBag(final int capacity) {
+        final Bag<Token> bag = new ConcurrentBag<>(
+                new AtomicInteger(Parameters.CONCEPT_FORGETTING_CYCLE), capacity);
+        return new Ops() {
+            public Token takeOut() {
+                return bag.takeOut();
+            }
+
+            public Token pickOut(String key) {
+                return bag.pickOut(key);
+            }
+
+            public boolean putIn(Token item) {
+                return bag.putIn(item);
+            }
+
+            public boolean putBack(Token item) {
+                return bag.putBack(item);
+            }
+
+            public int size() {
+                return bag.size();
+            }
+
+            public void forEach(Consumer<Token> action) {
+                bag.forEach(action);
+            }
+        };
+    }
+
+    /**
+     * 运行一轮负载
+     *
+     * @return 总吞吐量（次/毫秒）
+     */
+    private static double run(final Ops bag, final int capacity, final int threads, final int opsPerThread)
+            throws InterruptedException {
+        // * 🚩预先填满
+        final Random seed = new Random(1);
+        for (int i = 0; i < capacity; i++) {
+            bag.putIn(newItem(i, seed));
+        }
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            final Random random = new Random(t + 1);
+            new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < opsPerThread; i++) {
+                    if (random.nextInt(4) == 0) {
+                        // * 🚩按键挑出→修改预算→放入 | 对应「激活概念」
+                        final Token picked = bag.pickOut("concept" + random.nextInt(capacity));
+                        if (picked != null) {
+                            picked.setPriority(random.nextFloat());
+                            bag.putIn(picked);
+                        }
+                    } else {
+                        // * 🚩取出→放回 | 对应「概念推理」
+                        final Token item = bag.takeOut();
+                        if (item != null)
+                            bag.putBack(item);
+                    }
+                }
+                done.countDown();
+            }).start();
+        }
+        final long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        final double elapsedMs = (System.nanoTime() - begin) / 1e6;
+        if (bag.size() > capacity)
+            throw new AssertionError("bag overflowed: " + bag.size());
+        final HashSet<String> keys = new HashSet<>();
+        final int[] count = { 0 };
+        bag.forEach(item -> {
+            keys.add(item.getKey());
+            count[0]++;
+        });
+        if (count[0] != bag.size() || keys.size() != count[0])
+            throw new AssertionError("bag inconsistent: size " + bag.size() + ", items " + count[0]
+                    + ", keys " + keys.size());
+        return threads * (double) opsPerThread / elapsedMs;
+    }
+
+    private static Token newItem(final int i, final Random random) {
+        return new Token("concept" + i, new BudgetValue(random.nextFloat(), random.nextFloat(), random.nextFloat()));
+    }
+}
@@ -0,0 +1,151 @@
+package test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+
+import nars.control.Parameters;
+import nars.control.Reasoner;
+import nars.entity.Concept;
+import nars.entity.Task;
+import nars.io.OutputChannel;
+import nars.storage.BagMetricsRegistry;
+import nars.storage.Memory;
+
+/**
+ * 🆕「冻结长期不用的概念」的堆占用与解冻开销
+ * * 🚩填满概念袋（{@link Parameters#CONCEPT_BAG_SIZE}个概念）并空转一阵，量一次已用堆
+ * * 🚩冻结优先级低于给定值的概念，再量一次；然后继续推理，统计解冻次数与每步耗时
+ * * 🚩最后逐个访问余下冻结的概念，计时解冻
+ * * 📌用法：`java test.DormantConceptFootprint [优先级阈值×1000]`
+ * * 📌计时前先检查：冻结再解冻后，已回答的问题不再重复回答，推理过程与从不冻结时相同
+ *
+ * @author tc, ARCJ137442
+ */
+public class DormantConceptFootprint {
+
+    public static void main(final String[] args) {
+        final float threshold = TestCommon.getN(args, 100) / 1000f;
+        checkAnswersOnce();
+        final Reasoner reasoner = new Reasoner();
+        reasoner.reset();
+        final Memory memory = reasoner.getMemory();
+        for (int i = 0; memory.getConceptBagForDisplay().size() < Parameters.CONCEPT_BAG_SIZE; i++) {
+            reasoner.textInputLine("<c" + i + " --> (*,d" + (i % 97) + ",e" + (i % 89) + ")>.");
+            reasoner.walk(1);
+            reasoner.tick();
+        }
+        run(reasoner, 2000);
+        final int n = memory.getConceptBagForDisplay().size();
+        System.out.println("state\tconcepts\tfrozen\theap bytes\tbytes/concept");
+        final long live = usedHeap();
+        System.out.printf("live\t%d\t0\t%d\t%.0f%n", n, live, (double) live / n);
+        // * 🚩冻结低优先级的概念
+        final int[] frozen = { 0 };
+        memory.getConceptBagForDisplay().forEach(concept -> {
+            if (concept.getPriority() < threshold && concept.freeze())
+                frozen[0]++;
+        });
+        final long compact = usedHeap();
+        final BagMetricsRegistry metrics = memory.getBagMetrics().collect();
+        System.out.printf("frozen\t%d\t%d\t%d\t%.0f\t(frozen bytes %d, %.0f each)%n", n, frozen[0], compact,
+                (double) compact / n, metrics.frozenBytes(), (double) metrics.frozenBytes() / frozen[0]);
+        // * 🚩继续推理：用到的概念自动解冻
+        final long start = System.nanoTime();
+        run(reasoner, 2000);
+        final double us = (System.nanoTime() - start) / 1e3 / 2000;
+        System.out.printf("2000 cycles\t%.1f us/cycle\tthaws %d%n", us, metrics.thaws());
+        // * 🚩逐个解冻余下的概念
+        final ArrayList<Concept> stillFrozen = new ArrayList<>();
+        memory.getConceptBagForDisplay().forEach(concept -> {
+            if (concept.isFrozen())
+                stillFrozen.add(concept);
+        });
+        final long thawStart = System.nanoTime();
+        for (final Concept concept : stillFrozen)
+            concept.getBeliefs();
+        System.out.printf("thaw\t%d concepts\t%.1f us each%n", stillFrozen.size(),
+                (System.nanoTime() - thawStart) / 1e3 / Math.max(1, stillFrozen.size()));
+    }
+
+    /**
+     * 冻结后再回答问题
+     * * 🎯解冻出的任务须是原先的任务：问题的「最优解」在各处都可见，同一回答不报告两次
+     * * 🚩先提问，冻结所有概念，再给出答案；每过几步就再冻结一次
+     * * 🚩检查：解冻后的问题与冻结前是同一对象，且看得到答案；输出与从不冻结时逐行相同
+     */
+    private static void checkAnswersOnce() {
+        final ArrayList<String> plain = answerTrace(false);
+        final ArrayList<String> frozen = answerTrace(true);
+        int answers = 0;
+        final HashSet<String> seen = new HashSet<>();
+        for (final String line : frozen) {
+            if (!line.startsWith("ANSWER:"))
+                continue;
+            answers++;
+            if (!seen.add(line))
+                throw new AssertionError("answer reported again after freeze/thaw: " + line);
+        }
+        if (answers == 0)
+            throw new AssertionError("question not answered");
+        if (!plain.equals(frozen))
+            throw new AssertionError("freeze/thaw changed the output: " + plain.size() + " vs " + frozen.size()
+                    + " lines");
+        System.out.println("freeze/thaw: " + answers + " answers, each once, output unchanged");
+    }
+
+    private static ArrayList<String> answerTrace(final boolean freeze) {
+        final Reasoner reasoner = new Reasoner();
+        final ArrayList<String> lines = new ArrayList<>();
+        reasoner.addOutputChannel(new OutputChannel() {
+            @Override
+            public void nextOutput(ArrayList<String> output) {
+                lines.addAll(output);
+            }
+
+            @Override
+            public void tickTimer() {
+            }
+        });
+        reasoner.reset();
+        final Memory memory = reasoner.getMemory();
+        reasoner.textInputLine("<robin --> animal>?");
+        run(reasoner, 10);
+        final Concept concept = memory.nameToConcept("<robin --> animal>");
+        final Task question = concept.getQuestion(concept.getTerm());
+        if (freeze) {
+            memory.getConceptBagForDisplay().forEach(Concept::freeze);
+            if (!concept.isFrozen() || concept.getQuestion(concept.getTerm()) != question)
+                throw new AssertionError("thawed question is a copy: " + question);
+        }
+        reasoner.textInputLine("<robin --> bird>.");
+        reasoner.textInputLine("<bird --> animal>.");
+        // * 🚩每过几步就冻结所有概念：下一次用到时解冻
+        for (int i = 0; i < 100; i++) {
+            if (freeze)
+                memory.getConceptBagForDisplay().forEach(Concept::freeze);
+            run(reasoner, 5);
+        }
+        if (question.getBestSolution() == null)
+            throw new AssertionError("answer not visible on the question asked before freezing");
+        return lines;
+    }
+
+    private static void run(final Reasoner reasoner, final int cycles) {
+        reasoner.walk(cycles);
+        for (int i = 0; i < cycles; i++)
+            reasoner.tick();
+    }
+
+    private static long usedHeap() {
+        final Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
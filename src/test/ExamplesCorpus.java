@@ -0,0 +1,159 @@
+package test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import nars.control.Parameters;
+import nars.control.Reasoner;
+import nars.io.OutputChannel;
+import nars.io.Symbols;
+
+/**
+ * 🆕在`nars-dist/Examples`语料上统计吞吐量与「预期输出」的复现率
+ * * 🎯对比不同的运行参数（如{@link Parameters#LAZY_FORGETTING}）
+ * * 🚩逐个文件、逐段（以重置标记分段）运行，收集输出后与文件中的` OUT:`预期比对
+ * * 📌「完全复现」：内容与真值都一致；「内容复现」：只有内容（含标点）一致
+ * * 📌用法：`java [-Dnars.lazyForgetting=true] [-Dnars.linkBagLevel=N] test.ExamplesCorpus [语料目录]`
+ *
+ * @author tc, ARCJ137442
+ */
+public class ExamplesCorpus {
+
+    public static void main(final String[] args) throws IOException {
+        final File dir = new File(args.length > 0 ? args[0] : "nars-dist/Examples");
+        final File[] files = dir.listFiles((d, name) -> name.endsWith("-edited.txt"));
+        if (files == null)
+            throw new IllegalArgumentException("not a directory: " + dir);
+        Arrays.sort(files);
+        System.out.println("lazy forgetting: " + Parameters.LAZY_FORGETTING);
+        System.out.println("bag levels: concept " + Parameters.CONCEPT_BAG_LEVEL + "/" + Parameters.CONCEPT_BAG_THRESHOLD
+                + ", link " + Parameters.LINK_BAG_LEVEL + "/" + Parameters.LINK_BAG_THRESHOLD);
+        System.out.println("file\texpected\texact\tcontent\tanswers\tcycles\tms");
+        final Result total = new Result();
+        for (final File file : files) {
+            final Result result = run(Files.readAllLines(file.toPath(), StandardCharsets.UTF_8));
+            System.out.println(file.getName() + "\t" + result);
+            total.add(result);
+        }
+        System.out.println("TOTAL\t" + total);
+    }
+
+    /** 单个文件的统计 */
+    private static final class Result {
+        int expected, exact, content, answers;
+        long cycles;
+        double ms;
+
+        void add(final Result other) {
+            expected += other.expected;
+            exact += other.exact;
+            content += other.content;
+            answers += other.answers;
+            cycles += other.cycles;
+            ms += other.ms;
+        }
+
+        @Override
+        public String toString() {
+            return expected + "\t" + exact + "\t" + content + "\t" + answers + "\t" + cycles
+                    + "\t" + String.format("%.1f", ms);
+        }
+    }
+
+    private static Result run(final List<String> lines) {
+        final Result result = new Result();
+        final Reasoner reasoner = new Reasoner();
+        final HashSet<String> outputs = new HashSet<>();
+        final ArrayList<String> expected = new ArrayList<>();
+        reasoner.addOutputChannel(new OutputChannel() {
+            @Override
+            public void nextOutput(ArrayList<String> output) {
+                for (final String line : output) {
+                    if (line.startsWith("ANSWER:"))
+                        result.answers++;
+                    outputs.add(normalize(line));
+                }
+            }
+
+            @Override
+            public void tickTimer() {
+            }
+        });
+        reasoner.reset();
+        final long start = System.nanoTime();
+        for (final String rawLine : lines) {
+            final String line = rawLine.trim();
+            if (line.isEmpty() || line.startsWith("//") || line.startsWith("IN:"))
+                continue;
+            // * 🚩预期输出：留待本段结束时比对
+            if (line.startsWith("OUT:")) {
+                expected.add(normalize(line));
+                continue;
+            }
+            // * 🚩新的一段：先结算上一段
+            if (line.charAt(0) == Symbols.RESET_MARK) {
+                match(expected, outputs, result);
+                reasoner.textInputLine(line);
+                reasoner.handleOutput();
+                outputs.clear();
+                continue;
+            }
+            try {
+                final int cycles = Integer.parseInt(line);
+                reasoner.walk(cycles);
+                for (int i = 0; i < cycles; i++) {
+                    reasoner.tick();
+                }
+                result.cycles += cycles;
+            } catch (NumberFormatException e) {
+                reasoner.textInputLine(line);
+            }
+            reasoner.handleOutput();
+        }
+        match(expected, outputs, result);
+        result.ms = (System.nanoTime() - start) / 1e6;
+        return result;
+    }
+
+    /** 比对一段的预期与实际输出，并清空预期 */
+    private static void match(final ArrayList<String> expected, final HashSet<String> outputs, final Result result) {
+        final HashSet<String> contents = new HashSet<>();
+        for (final String output : outputs) {
+            contents.add(content(output));
+        }
+        for (final String sentence : expected) {
+            result.expected++;
+            if (outputs.contains(sentence))
+                result.exact++;
+            if (contents.contains(content(sentence)))
+                result.content++;
+        }
+        expected.clear();
+    }
+
+    /** 去掉输出类型前缀、预算值与时间戳，只留语句本身 */
+    private static String normalize(String line) {
+        final int colon = line.indexOf(": ");
+        if (colon >= 0)
+            line = line.substring(colon + 2);
+        line = line.trim();
+        if (line.startsWith("$"))
+            line = line.substring(line.indexOf('$', 1) + 1).trim();
+        final int stamp = line.indexOf(" {");
+        if (stamp >= 0)
+            line = line.substring(0, stamp);
+        return line.trim();
+    }
+
+    /** 再去掉真值 */
+    private static String content(final String sentence) {
+        final int truth = sentence.indexOf(" %");
+        return truth >= 0 ? sentence.substring(0, truth) : sentence;
+    }
+}
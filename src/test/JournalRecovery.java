@@ -0,0 +1,180 @@
+package test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import nars.control.Reasoner;
+import nars.io.ExperienceReader;
+
+/**
+ * 🆕「预写输入日志」的崩溃恢复测试
+ * * 🎯验证：从检查点加日志恢复的推理器，继续运行的轨迹与未崩溃的推理器完全相同
+ * * 🚩逐个语料文件：开启日志，输入前三分之一后存检查点，再输入中间三分之一后「崩溃」（复制此刻的目录）；
+ * * 原推理器继续输入最后三分之一，新推理器从复制的目录恢复后输入同样的内容，比对两者
+ * * 🚩再逐个文件：经批处理的读取器读入，运行到一半时「崩溃」；新推理器恢复后，新的读取器从中断处续读，比对两者
+ * * 🚩再比较开启与不开启日志时长时间运行的耗时
+ * * 📌用法：`java test.JournalRecovery [语料目录] [步数]`
+ *
+ * @author tc, ARCJ137442
+ */
+public class JournalRecovery {
+
+    public static void main(final String[] args) throws IOException {
+        final File dir = new File(args.length > 0 && !args[0].matches("[0-9]+") ? args[0] : "nars-dist/Examples");
+        final File[] files = dir.listFiles((d, name) -> name.endsWith("-edited.txt"));
+        if (files == null)
+            throw new IllegalArgumentException("not a directory: " + dir);
+        Arrays.sort(files);
+        System.out.println("file\treplayed trace\tbatch resume");
+        int failures = 0;
+        for (final File file : files) {
+            final List<String> lines = SnapshotRoundTrip.inputLines(
+                    Files.readAllLines(file.toPath(), StandardCharsets.UTF_8));
+            final boolean replayed = recover(lines);
+            final boolean resumed = recoverBatch(file);
+            System.out.println(file.getName() + "\t" + (replayed ? "identical" : "DIVERGED")
+                    + "\t" + (resumed ? "identical" : "DIVERGED"));
+            if (!replayed || !resumed)
+                failures++;
+        }
+        timeJournal(SnapshotRoundTrip.inputLines(
+                Files.readAllLines(files[files.length - 1].toPath(), StandardCharsets.UTF_8)),
+                TestCommon.getN(args, 20000));
+        if (failures > 0)
+            throw new AssertionError(failures + " file(s) diverged after recovery");
+    }
+
+    /** 中途「崩溃」并恢复，比对两边对最后三分之一的反应 */
+    private static boolean recover(final List<String> lines) throws IOException {
+        final int third = lines.size() / 3;
+        final Path journalDir = Files.createTempDirectory("nars-journal");
+        final Path crashDir = Files.createTempDirectory("nars-crash");
+        try {
+            // * 🚩原推理器：开启日志运行，中途复制目录
+            final StringBuilder original = new StringBuilder();
+            final Reasoner reasoner = SnapshotRoundTrip.newReasoner(original);
+            reasoner.reset();
+            reasoner.openJournal(journalDir.toFile());
+            SnapshotRoundTrip.feed(reasoner, lines.subList(0, third));
+            reasoner.checkpoint();
+            SnapshotRoundTrip.feed(reasoner, lines.subList(third, 2 * third));
+            reasoner.flushJournal();
+            copy(journalDir, crashDir);
+            original.setLength(0);
+            SnapshotRoundTrip.feed(reasoner, lines.subList(2 * third, lines.size()));
+            reasoner.closeJournal();
+            // * 🚩恢复出的推理器：重放期间不记录，之后接上记录
+            final Reasoner recovered = new Reasoner();
+            recovered.openJournal(crashDir.toFile());
+            final StringBuilder replayed = new StringBuilder();
+            SnapshotRoundTrip.traceInto(recovered, replayed);
+            SnapshotRoundTrip.feed(recovered, lines.subList(2 * third, lines.size()));
+            recovered.closeJournal();
+            return original.toString().equals(replayed.toString());
+        } finally {
+            delete(journalDir);
+            delete(crashDir);
+        }
+    }
+
+    /** 经读取器运行到一半时「崩溃」，恢复后续读，比对两边其后的轨迹与步数 */
+    private static boolean recoverBatch(final File file) throws IOException {
+        // * 🚩先完整运行一遍，得出读完文件的步数
+        final Reasoner dry = new Reasoner();
+        dry.reset();
+        new ExperienceReader(dry).openLoadFile(file.getPath());
+        final long total = runToEnd(dry);
+        final Path journalDir = Files.createTempDirectory("nars-journal");
+        final Path crashDir = Files.createTempDirectory("nars-crash");
+        try {
+            // * 🚩原推理器：开启日志，读到一半时复制目录
+            final StringBuilder original = new StringBuilder();
+            final Reasoner reasoner = SnapshotRoundTrip.newReasoner(original);
+            reasoner.reset();
+            reasoner.openJournal(journalDir.toFile());
+            new ExperienceReader(reasoner).openLoadFile(file.getPath());
+            for (long i = 0; i < total / 2; i++)
+                reasoner.tick();
+            reasoner.flushJournal();
+            copy(journalDir, crashDir);
+            original.setLength(0);
+            final long originalRest = runToEnd(reasoner);
+            reasoner.closeJournal();
+            // * 🚩恢复出的推理器：新的读取器跳过已读的行
+            final Reasoner recovered = new Reasoner();
+            recovered.openJournal(crashDir.toFile());
+            final StringBuilder resumed = new StringBuilder();
+            SnapshotRoundTrip.traceInto(recovered, resumed);
+            final ExperienceReader reader = new ExperienceReader(recovered);
+            reader.openLoadFile(file.getPath());
+            reader.resume(recovered.getInputLines(), recovered.getInputDelay());
+            final long recoveredRest = runToEnd(recovered);
+            recovered.closeJournal();
+            return originalRest == recoveredRest && original.toString().equals(resumed.toString());
+        } finally {
+            delete(journalDir);
+            delete(crashDir);
+        }
+    }
+
+    /** 同{@link nars.main.NARS#run}，但不限步数 | 返回运行的步数 */
+    private static long runToEnd(final Reasoner reasoner) {
+        long ticks = 0;
+        do {
+            reasoner.tick();
+            ticks++;
+        } while (!reasoner.isFinishedInputs());
+        return ticks;
+    }
+
+    /** 同样的输入运行若干步，比较开启日志与否的耗时 */
+    private static void timeJournal(final List<String> lines, final int cycles) throws IOException {
+        for (int round = 0; round < 3; round++) {
+            for (final boolean journaled : new boolean[] { false, true }) {
+                final Path journalDir = Files.createTempDirectory("nars-journal");
+                try {
+                    final Reasoner reasoner = new Reasoner();
+                    reasoner.reset();
+                    if (journaled)
+                        reasoner.openJournal(journalDir.toFile());
+                    final long start = System.nanoTime();
+                    SnapshotRoundTrip.feed(reasoner, lines);
+                    reasoner.walk(cycles);
+                    for (int i = 0; i < cycles; i++)
+                        reasoner.tick();
+                    reasoner.closeJournal();
+                    final double ms = (System.nanoTime() - start) / 1e6;
+                    System.out.println(String.format("%s\tcycles %d\t%.1f ms\t%.2f us/cycle",
+                            journaled ? "journal" : "plain", reasoner.getTime(), ms, ms * 1000 / reasoner.getTime()));
+                } finally {
+                    delete(journalDir);
+                }
+            }
+        }
+    }
+
+    private static void copy(final Path from, final Path to) throws IOException {
+        try (Stream<Path> files = Files.list(from)) {
+            for (final Path file : (Iterable<Path>) files::iterator)
+                Files.copy(file, to.resolve(file.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void delete(final Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            final ArrayList<Path> all = new ArrayList<>();
+            files.sorted(Comparator.reverseOrder()).forEach(all::add);
+            for (final Path file : all)
+                Files.deleteIfExists(file);
+        }
+    }
+}
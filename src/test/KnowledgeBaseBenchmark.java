@@ -0,0 +1,101 @@
+package test;
+
+import java.util.ArrayList;
+
+import nars.control.Reasoner;
+import nars.io.OutputChannel;
+import nars.storage.KnowledgeBase;
+
+/**
+ * 🆕「共享背景知识库」的每租户占用
+ * * 🎯对比：每个推理器各自载入同一份语料 / 载入一次建成知识库，各推理器共享
+ * * 🚩每个推理器各问一个要用到语料的问题，运行相同的周期数，统计：每个推理器的堆占用、概念数、回答数
+ * * 📌用法：`java test.KnowledgeBaseBenchmark [推理器数] [语料中的判断数]`
+ *
+ * @author tc, ARCJ137442
+ */
+public class KnowledgeBaseBenchmark {
+
+    private static final int CYCLES = 1000;
+
+    public static void main(final String[] args) {
+        final int tenants = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        final int judgements = args.length > 1 ? Integer.parseInt(args[1]) : 600;
+        final ArrayList<String> corpus = new ArrayList<>();
+        for (int i = 0; i < judgements; i++)
+            corpus.add(i % 2 == 0
+                    ? "<s" + i + " --> p" + (i % 37) + ">."
+                    : "<p" + (i % 37) + " --> q" + (i % 37 % 11) + ">.");
+        System.out.println(tenants + " reasoners, " + judgements + " judgements in corpus, " + CYCLES
+                + " cycles each");
+        System.out.println("mode\tbytes/reasoner\tconcepts/reasoner\tanswers\tms");
+        run("private", tenants, corpus, null);
+        final Reasoner builder = new Reasoner();
+        builder.reset();
+        load(builder, corpus);
+        final KnowledgeBase base = builder.toKnowledgeBase();
+        System.out.println("knowledge base: " + base.size() + " concepts, ~" + base.estimateBytes() + " bytes");
+        run("shared", tenants, new ArrayList<>(), base);
+    }
+
+    private static void run(String mode, int tenants, ArrayList<String> corpus, KnowledgeBase base) {
+        final ArrayList<Reasoner> reasoners = new ArrayList<>();
+        final int[] answers = { 0 };
+        final long before = usedHeap();
+        final long start = System.nanoTime();
+        for (int t = 0; t < tenants; t++) {
+            final Reasoner reasoner = new Reasoner();
+            reasoner.useKnowledgeBase(base);
+            reasoner.reset();
+            reasoner.addOutputChannel(new OutputChannel() {
+                @Override
+                public void nextOutput(ArrayList<String> output) {
+                    for (final String s : output)
+                        if (s.startsWith("ANSWER"))
+                            answers[0]++;
+                }
+
+                @Override
+                public void tickTimer() {
+                }
+            });
+            load(reasoner, corpus);
+            // * 🚩问一个需要两条语料才能回答的问题
+            final int i = 2 * t;
+            reasoner.textInputLine("<s" + i + " --> q" + i % 37 % 11 + ">?");
+            reasoner.walk(CYCLES);
+            for (int c = 0; c < CYCLES; c++)
+                reasoner.tick();
+            reasoner.handleOutput();
+            reasoners.add(reasoner);
+        }
+        final double ms = (System.nanoTime() - start) / 1e6;
+        final long bytes = (usedHeap() - before) / tenants;
+        int concepts = 0;
+        for (final Reasoner reasoner : reasoners)
+            concepts += reasoner.getMemory().getConceptBagForDisplay().size();
+        System.out.println(String.format("%s\t%d\t%d\t%d\t%.1f", mode, bytes, concepts / tenants, answers[0], ms));
+    }
+
+    private static void load(Reasoner reasoner, ArrayList<String> corpus) {
+        for (final String line : corpus) {
+            reasoner.textInputLine(line);
+            reasoner.walk(1);
+            reasoner.tick();
+        }
+        reasoner.handleOutput();
+    }
+
+    private static long usedHeap() {
+        final Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,79 @@
+package test;
+
+import nars.control.Parameters;
+import nars.control.Reasoner;
+import nars.storage.BagMetrics;
+import nars.storage.Memory;
+
+/**
+ * 🆕「按字节预算限制记忆区」的估算精度与开销
+ * * 🚩不断输入词项很大的判断，定期报告：概念数、记账的字节数、重算的字节数、实测的堆占用
+ * * 🚩最后逐出所有概念，以释放的堆比对估算；此时记账须只剩概念袋自身的结构
+ * * 📌未指定预算时按16MB
+ * * 📌用法：`java -Dnars.memoryBudget=16m test.MemoryBudgetBenchmark [输入的判断数]`
+ *
+ * @author tc, ARCJ137442
+ */
+public class MemoryBudgetBenchmark {
+
+    public static void main(final String[] args) {
+        // * 🚩须在读取参数之前设置
+        if (System.getProperty("nars.memoryBudget") == null)
+            System.setProperty("nars.memoryBudget", "16m");
+        final int judgements = TestCommon.getN(args, 30000);
+        final Reasoner reasoner = new Reasoner();
+        reasoner.reset();
+        final Memory memory = reasoner.getMemory();
+        final long base = usedHeap();
+        System.out.println("budget " + Parameters.MEMORY_BUDGET + " bytes, bag capacity "
+                + memory.getConceptBagForDisplay().capacity());
+        System.out.println("judgements\tconcepts\taccounted\trecounted\tmeasured\tus/judgement");
+        long start = System.nanoTime();
+        for (int i = 1; i <= judgements; i++) {
+            reasoner.textInputLine("<(*,a" + i + ",b" + (i % 13) + ",(&,c" + (i % 7) + ",d" + i + "),{e" + (i % 5)
+                    + ",f" + i + "}) --> (/,r" + (i % 11) + ",_,(*,g" + i + ",h" + (i % 3) + "))>.");
+            reasoner.walk(1);
+            reasoner.tick();
+            reasoner.handleOutput();
+            if (i % (judgements / 5) == 0) {
+                final double us = (System.nanoTime() - start) / 1e3 / (judgements / 5);
+                final long accounted = memory.getAccountedBytes();
+                final long recounted = memory.getBagMetrics().collect().footprintBytes();
+                System.out.println(String.format("%d\t%d\t%d\t%d\t%d\t%.1f", i,
+                        memory.getConceptBagForDisplay().size(), accounted, recounted, usedHeap() - base, us));
+                start = System.nanoTime();
+            }
+        }
+        // * 🚩重算一次：此后记账不应超出预算
+        memory.recountFootprint();
+        if (memory.getAccountedBytes() > Parameters.MEMORY_BUDGET)
+            throw new AssertionError("over budget after recount: " + memory.getAccountedBytes());
+        // * 🚩逐出所有概念，量释放的堆
+        final int n = memory.getConceptBagForDisplay().size();
+        final long estimated = memory.getAccountedBytes();
+        final long before = usedHeap();
+        while (memory.getConceptBagForDisplay().evictLowest() != null)
+            ;
+        final long freed = before - usedHeap();
+        // * 🚩减去的正是当初计入的：逐出所有概念后不多不少
+        final long residual = memory.getAccountedBytes() - memory.getConceptBagForDisplay().estimateBytes();
+        if (residual != 0)
+            throw new AssertionError("accounted bytes left after evicting every concept: " + residual);
+        final BagMetrics concepts = memory.getBagMetrics().concepts();
+        System.out.println(String.format("%d concepts\testimated %d\tfreed %d\tratio %.2f\tevictions %d\trejections %d",
+                n, estimated, freed, (double) estimated / freed, concepts.evictions(), concepts.rejections()));
+    }
+
+    private static long usedHeap() {
+        final Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
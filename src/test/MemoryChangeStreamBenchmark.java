@@ -0,0 +1,90 @@
+package test;
+
+import java.util.EnumMap;
+import java.util.concurrent.TimeUnit;
+
+import nars.control.Reasoner;
+import nars.storage.MemoryChange;
+import nars.storage.MemoryChangeStream;
+import nars.storage.MemoryChangeStream.OverflowPolicy;
+
+/**
+ * 🆕「记忆区变动记录流」的开销与完整性
+ * * 🚩在{@link LongChainDeduction}负载下分别运行：无人订阅、丢弃策略的订阅者、阻塞策略的订阅者
+ * * 🚩订阅者在另一个线程上取出记录，统计各种类的条数与序号的空缺
+ * * 📌阻塞策略下不应有空缺；丢弃策略下空缺数不应多于丢弃数（末尾的丢弃不留空缺）
+ * * 📌用法：`java test.MemoryChangeStreamBenchmark [链长] [缓冲区容量]`
+ *
+ * @author tc, ARCJ137442
+ */
+public class MemoryChangeStreamBenchmark {
+
+    private static final int CYCLES = 20000;
+
+    public static void main(final String[] args) throws InterruptedException {
+        final int n = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        final int capacity = args.length > 1 ? Integer.parseInt(args[1]) : 1024;
+        final String[] lines = LongChainDeduction.testLines(n, 5);
+        System.out.println("chain " + n + ", " + CYCLES + " cycles, buffer " + capacity);
+        System.out.println("subscriber\tcycles/ms\trecords\tgaps\tdropped\tby kind");
+        // * 🚩先空跑一次预热，免得第一项吃亏
+        run("warmup", lines, capacity, null);
+        run("none", lines, capacity, null);
+        run("drop", lines, capacity, OverflowPolicy.DROP);
+        run("block", lines, capacity, OverflowPolicy.BLOCK);
+    }
+
+    private static void run(String name, String[] lines, int capacity, OverflowPolicy policy)
+            throws InterruptedException {
+        final Reasoner reasoner = new Reasoner();
+        reasoner.reset();
+        final MemoryChangeStream stream = reasoner.getMemory().getChangeStream();
+        final MemoryChangeStream.Subscription subscription = policy == null ? null
+                : stream.subscribe(capacity, policy);
+        final EnumMap<MemoryChange.Kind, Integer> byKind = new EnumMap<>(MemoryChange.Kind.class);
+        final long[] counts = { 0, 0 }; // 记录数, 空缺数
+        final Thread consumer = new Thread(() -> {
+            long last = 0;
+            try {
+                while (true) {
+                    final MemoryChange change = subscription.poll(100, TimeUnit.MILLISECONDS);
+                    if (change == null)
+                        continue;
+                    counts[0]++;
+                    counts[1] += change.getSequence() - last - 1;
+                    last = change.getSequence();
+                    byKind.merge(change.getKind(), 1, Integer::sum);
+                }
+            } catch (InterruptedException e) {
+                // * 🚩推理结束：取完剩下的
+                MemoryChange change;
+                while ((change = subscription.poll()) != null) {
+                    counts[0]++;
+                    counts[1] += change.getSequence() - last - 1;
+                    last = change.getSequence();
+                    byKind.merge(change.getKind(), 1, Integer::sum);
+                }
+            }
+        }, "change stream consumer");
+        if (subscription != null)
+            consumer.start();
+        for (final String line : lines)
+            reasoner.textInputLine(line.trim());
+        final long start = System.nanoTime();
+        reasoner.walk(CYCLES);
+        for (int i = 0; i < CYCLES; i++)
+            reasoner.tick();
+        final double ms = (System.nanoTime() - start) / 1e6;
+        if (subscription != null) {
+            consumer.interrupt();
+            consumer.join();
+            subscription.close();
+        }
+        System.out.printf("%s\t%.1f\t%d\t%d\t%d\t%s%n", name, CYCLES / ms, counts[0], counts[1],
+                subscription == null ? 0 : subscription.getDropped(), byKind);
+        if (policy == OverflowPolicy.BLOCK && counts[1] != 0)
+            throw new AssertionError("records lost under blocking policy: " + counts[1]);
+        if (policy == OverflowPolicy.DROP && counts[1] > subscription.getDropped())
+            throw new AssertionError("gaps " + counts[1] + " > dropped " + subscription.getDropped());
+    }
+}
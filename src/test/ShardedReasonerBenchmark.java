@@ -0,0 +1,64 @@
+package test;
+
+import java.util.ArrayList;
+
+import nars.control.ShardedReasoner;
+import nars.io.OutputChannel;
+
+/**
+ * 🆕「分片推理器」吞吐量测试
+ * * 🎯对比1、2、4…个分片在{@link LongChainDeduction}负载下的工作周期吞吐量
+ * * 🚩输入长链演绎的判断与问题，每个分片走相同的周期数，统计：总周期数/毫秒、回答数、最后一问何时被回答
+ * * 📌一个分片时与单个推理器的行为相同，可作基准
+ * * 📌用法：`java test.ShardedReasonerBenchmark [链长] [最多分片数]`
+ *
+ * @author tc, ARCJ137442
+ */
+public class ShardedReasonerBenchmark {
+
+    public static void main(final String[] args) {
+        final int n = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        final int maxShards = args.length > 1 ? Integer.parseInt(args[1])
+                : Math.max(4, Runtime.getRuntime().availableProcessors());
+        final int cycles = 20000;
+        final int step = 100;
+        final String[] lines = LongChainDeduction.testLines(n, 5);
+        final String lastQuestion = lines[lines.length - 1];
+        final String lastAnswer = lastQuestion.substring(0, lastQuestion.length() - 1);
+        System.out.println(Runtime.getRuntime().availableProcessors() + " processors, chain " + n
+                + ", " + cycles + " cycles per shard");
+        System.out.println("shards\tcycles/ms\tanswers\tlast answered at\tmessages\tdropped");
+        for (int shards = 1; shards <= maxShards; shards *= 2) {
+            final ShardedReasoner reasoner = new ShardedReasoner(shards);
+            final int[] answers = { 0 };
+            final long[] answeredAt = { -1 };
+            reasoner.addOutputChannel(new OutputChannel() {
+                @Override
+                public void nextOutput(ArrayList<String> output) {
+                    for (final String s : output)
+                        if (s.startsWith("ANSWER")) {
+                            answers[0]++;
+                            if (answeredAt[0] < 0 && s.contains(lastAnswer))
+                                answeredAt[0] = reasoner.getTime();
+                        }
+                }
+
+                @Override
+                public void tickTimer() {
+                }
+            });
+            reasoner.reset();
+            for (final String line : lines)
+                reasoner.textInputLine(line.trim());
+            final long start = System.nanoTime();
+            for (int i = 0; i < cycles; i += step) {
+                reasoner.walk(step);
+                reasoner.handleOutput();
+            }
+            final double ms = (System.nanoTime() - start) / 1e6;
+            System.out.printf("%d\t%.1f\t%d\t%d\t%d\t%d%n", shards, (double) cycles * shards / ms, answers[0],
+                    answeredAt[0], reasoner.getMessagesSent(), reasoner.getMessagesDropped());
+            reasoner.shutdown();
+        }
+    }
+}
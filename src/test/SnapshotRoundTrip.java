@@ -0,0 +1,181 @@
+package test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import nars.control.Parameters;
+import nars.control.Reasoner;
+import nars.io.IInferenceRecorder;
+import nars.io.OutputChannel;
+
+/**
+ * 🆕「推理器快照」的往返测试
+ * * 🎯验证：从快照还原的推理器，继续运行的轨迹与原推理器完全相同
+ * * 🚩逐个语料文件：输入前一半后存快照；原推理器与还原出的推理器各自输入后一半，比对推理记录与输出
+ * * 🚩再填满概念袋（{@link Parameters#CONCEPT_BAG_SIZE}个概念），计时存取
+ * * 📌用法：`java test.SnapshotRoundTrip [语料目录]`
+ *
+ * @author tc, ARCJ137442
+ */
+public class SnapshotRoundTrip {
+
+    public static void main(final String[] args) throws IOException {
+        final File dir = new File(args.length > 0 ? args[0] : "nars-dist/Examples");
+        final File[] files = dir.listFiles((d, name) -> name.endsWith("-edited.txt"));
+        if (files == null)
+            throw new IllegalArgumentException("not a directory: " + dir);
+        Arrays.sort(files);
+        System.out.println("file\tbytes\tcontinued trace");
+        int failures = 0;
+        for (final File file : files) {
+            final boolean same = roundTrip(Files.readAllLines(file.toPath(), StandardCharsets.UTF_8), file.getName());
+            if (!same)
+                failures++;
+        }
+        timeFullMemory();
+        if (failures > 0)
+            throw new AssertionError(failures + " file(s) diverged after restore");
+    }
+
+    /** 前一半输入后存快照，比对两边对后一半的反应 */
+    private static boolean roundTrip(final List<String> rawLines, final String name) throws IOException {
+        final ArrayList<String> lines = inputLines(rawLines);
+        final List<String> before = lines.subList(0, lines.size() / 2);
+        final List<String> after = lines.subList(lines.size() / 2, lines.size());
+        // * 🚩原推理器
+        final StringBuilder original = new StringBuilder();
+        final Reasoner reasoner = newReasoner(original);
+        reasoner.reset();
+        feed(reasoner, before);
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        reasoner.saveSnapshot(bytes);
+        original.setLength(0);
+        feed(reasoner, after);
+        // * 🚩还原出的推理器
+        final StringBuilder restored = new StringBuilder();
+        final Reasoner restoredReasoner = newReasoner(restored);
+        restoredReasoner.loadSnapshot(new ByteArrayInputStream(bytes.toByteArray()));
+        feed(restoredReasoner, after);
+        final boolean same = original.toString().equals(restored.toString());
+        System.out.println(name + "\t" + bytes.size() + "\t" + (same ? "identical" : "DIVERGED"));
+        return same;
+    }
+
+    /** 语料文件中的输入行：去掉空行、注释与预期的输入输出 */
+    static ArrayList<String> inputLines(final List<String> rawLines) {
+        final ArrayList<String> lines = new ArrayList<>();
+        for (final String rawLine : rawLines) {
+            final String line = rawLine.trim();
+            if (!line.isEmpty() && !line.startsWith("//") && !line.startsWith("IN:") && !line.startsWith("OUT:"))
+                lines.add(line);
+        }
+        return lines;
+    }
+
+    /** 输入一行行文本，数字⇒运行相应步数 */
+    static void feed(final Reasoner reasoner, final List<String> lines) {
+        for (final String line : lines) {
+            try {
+                final int cycles = Integer.parseInt(line);
+                reasoner.walk(cycles);
+                for (int i = 0; i < cycles; i++)
+                    reasoner.tick();
+            } catch (NumberFormatException e) {
+                reasoner.textInputLine(line);
+            }
+            reasoner.handleOutput();
+        }
+        reasoner.walk(100);
+        for (int i = 0; i < 100; i++)
+            reasoner.tick();
+        reasoner.handleOutput();
+    }
+
+    /** 推理记录与输出都记到同一处 */
+    static Reasoner newReasoner(final StringBuilder trace) {
+        final Reasoner reasoner = new Reasoner();
+        traceInto(reasoner, trace);
+        return reasoner;
+    }
+
+    /** 把推理器的推理记录与输出接到同一处 */
+    static void traceInto(final Reasoner reasoner, final StringBuilder trace) {
+        reasoner.setRecorder(new IInferenceRecorder() {
+            @Override
+            public void init() {
+            }
+
+            @Override
+            public void show() {
+            }
+
+            @Override
+            public void play() {
+            }
+
+            @Override
+            public void stop() {
+            }
+
+            @Override
+            public void append(String s) {
+                trace.append(s);
+            }
+
+            @Override
+            public void openLogFile() {
+            }
+
+            @Override
+            public void closeLogFile() {
+            }
+
+            @Override
+            public boolean isLogging() {
+                return true;
+            }
+        });
+        reasoner.addOutputChannel(new OutputChannel() {
+            @Override
+            public void nextOutput(ArrayList<String> output) {
+                for (final String line : output)
+                    trace.append("OUT ").append(line).append('\n');
+            }
+
+            @Override
+            public void tickTimer() {
+            }
+        });
+    }
+
+    /** 填满概念袋后计时存取 */
+    private static void timeFullMemory() throws IOException {
+        final Reasoner reasoner = new Reasoner();
+        reasoner.reset();
+        for (int i = 0; reasoner.getMemory().getConceptBagForDisplay().size() < Parameters.CONCEPT_BAG_SIZE; i++) {
+            reasoner.textInputLine("<c" + i + " --> (*,d" + (i % 97) + ",e" + (i % 89) + ")>.");
+            reasoner.walk(1);
+            reasoner.tick();
+        }
+        final int concepts = reasoner.getMemory().getConceptBagForDisplay().size();
+        for (int round = 0; round < 5; round++) {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            long start = System.nanoTime();
+            reasoner.saveSnapshot(bytes);
+            final double saveMs = (System.nanoTime() - start) / 1e6;
+            final Reasoner restored = new Reasoner();
+            start = System.nanoTime();
+            restored.loadSnapshot(new ByteArrayInputStream(bytes.toByteArray()));
+            final double loadMs = (System.nanoTime() - start) / 1e6;
+            System.out.println(String.format("concepts %d\tbytes %d\tsave %.1f ms\tload %.1f ms",
+                    concepts, bytes.size(), saveMs, loadMs));
+        }
+    }
+}
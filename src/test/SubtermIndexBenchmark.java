@@ -0,0 +1,95 @@
+package test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+
+import nars.control.Parameters;
+import nars.control.Reasoner;
+import nars.entity.Concept;
+import nars.language.CompoundTerm;
+import nars.language.MakeTerm;
+import nars.language.Term;
+import nars.language.Variable;
+import nars.storage.BagMetrics;
+import nars.storage.Memory;
+import nars.storage.SubtermIndex;
+
+/**
+ * 🆕「概念袋倒排索引」的正确性与开销
+ * * 🚩持续输入远多于概念袋容量的判断，概念不断进出；随后遍历概念袋重算一遍，与索引逐项比对
+ * * 🚩再比较「按索引查询」与「遍历所有概念」的耗时
+ * * 📌用法：`java test.SubtermIndexBenchmark [输入的判断数]`
+ *
+ * @author tc, ARCJ137442
+ */
+public class SubtermIndexBenchmark {
+
+    public static void main(final String[] args) {
+        final int judgements = TestCommon.getN(args, 3 * Parameters.CONCEPT_BAG_SIZE);
+        final Reasoner reasoner = new Reasoner();
+        reasoner.reset();
+        final long start = System.nanoTime();
+        for (int i = 0; i < judgements; i++) {
+            reasoner.textInputLine("<{t" + (i % 300) + "} --> (/,murder,_,v" + i + ")>.");
+            reasoner.walk(1);
+            reasoner.tick();
+            reasoner.handleOutput();
+        }
+        final double ms = (System.nanoTime() - start) / 1e6;
+        final Memory memory = reasoner.getMemory();
+        final SubtermIndex index = memory.getSubtermIndex();
+        final BagMetrics concepts = memory.getBagMetrics().concepts();
+        System.out.println(String.format(
+                "%d judgements\t%.0f ms\tinsertions %d\tevictions %d\trejections %d\tcomponents %d\tentries %d",
+                judgements, ms, concepts.insertions(), concepts.evictions(), concepts.rejections(),
+                index.components(), index.entries()));
+        // * 🚩遍历概念袋重算
+        final HashMap<Term, HashSet<Concept>> expected = new HashMap<>();
+        memory.getConceptBagForDisplay().forEach(concept -> collect(concept.getTerm(), concept, expected));
+        int entries = 0, mismatches = 0;
+        for (final HashMap.Entry<Term, HashSet<Concept>> entry : expected.entrySet()) {
+            entries += entry.getValue().size();
+            if (!new HashSet<>(index.containing(entry.getKey())).equals(entry.getValue()))
+                mismatches++;
+        }
+        if (entries != index.entries() || expected.size() != index.components())
+            mismatches++;
+        // * 🚩查询计时：索引 vs 遍历
+        final Term murder = MakeTerm.makeWord("murder");
+        final int rounds = 1000;
+        long t = System.nanoTime();
+        int found = 0;
+        for (int i = 0; i < rounds; i++)
+            found += index.containing(murder).size();
+        final double indexUs = (System.nanoTime() - t) / 1e3 / rounds;
+        t = System.nanoTime();
+        final int[] scanned = { 0 };
+        for (int i = 0; i < rounds; i++)
+            memory.getConceptBagForDisplay().forEach(concept -> {
+                if (concept.getTerm() instanceof CompoundTerm
+                        && ((CompoundTerm) concept.getTerm()).containTerm(murder))
+                    scanned[0]++;
+            });
+        final double scanUs = (System.nanoTime() - t) / 1e3 / rounds;
+        System.out.println(String.format("query murder\t%d concepts\tindex %.1f us\tscan %.1f us",
+                found / rounds, indexUs, scanUs));
+        if (found != scanned[0])
+            mismatches++;
+        if (mismatches > 0)
+            throw new AssertionError(mismatches + " mismatch(es) between the index and the concept bag");
+    }
+
+    /** 收集词项中（任意深度）的非变量元素 */
+    private static void collect(final Term term, final Concept concept, final HashMap<Term, HashSet<Concept>> into) {
+        if (!(term instanceof CompoundTerm))
+            return;
+        final CompoundTerm compound = (CompoundTerm) term;
+        for (int i = 0; i < compound.size(); i++) {
+            final Term component = compound.componentAt(i);
+            if (component instanceof Variable)
+                continue;
+            into.computeIfAbsent(component, k -> new HashSet<>()).add(concept);
+            collect(component, concept, into);
+        }
+    }
+}
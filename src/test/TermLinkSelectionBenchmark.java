@@ -0,0 +1,95 @@
+package test;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import nars.control.Parameters;
+import nars.entity.BudgetValue;
+import nars.entity.Item.Token;
+import nars.storage.Bag;
+import nars.storage.LevelBag;
+
+/**
+ * 🆕「选取词项链」性能测试
+ * * 🎯对比「逐个取出→不合要求则当即放回」与{@link Bag#takeOutBatch}批量选取
+ * * 🚩模拟每次「概念推理」：在词项链袋中选出至多{@link Parameters#MAX_REASONED_TERM_LINK}个「新近」的词项链，推理后再放回
+ * * 📌用法：`java test.TermLinkSelectionBenchmark [概念激发次数] [「新近」的比例]`
+ *
+ * @author tc, ARCJ137442
+ */
+public class TermLinkSelectionBenchmark {
+
+    public static void main(final String[] args) {
+        final int fires = TestCommon.getN(args, 1000000);
+        final float novelRate = args.length > 1 ? Float.parseFloat(args[1]) : 0.25f;
+        System.out.println("novel rate\tone by one(ns/fire)\tbatch(ns/fire)");
+        // * 🚩先各跑一轮预热，再正式计时
+        timeOneByOne(fires / 10, novelRate);
+        timeBatch(fires / 10, novelRate);
+        System.out.printf("%.2f\t%.1f\t%.1f%n", novelRate,
+                timeOneByOne(fires, novelRate), timeBatch(fires, novelRate));
+    }
+
+    private static Bag<Token> newBag() {
+        final Random random = new Random(1);
+        final Bag<Token> bag = new LevelBag<>(
+                new AtomicInteger(Parameters.TERM_LINK_FORGETTING_CYCLE), Parameters.TERM_LINK_BAG_SIZE);
+        for (int i = 0; i < Parameters.TERM_LINK_BAG_SIZE; i++) {
+            bag.putIn(new Token("termLink" + i,
+                    new BudgetValue(random.nextFloat(), random.nextFloat(), random.nextFloat())));
+        }
+        return bag;
+    }
+
+    /** 🎯原先的做法：每个词项链各自「取出→放回」 */
+    private static double timeOneByOne(final int fires, final float novelRate) {
+        final Bag<Token> bag = newBag();
+        final Random random = new Random(2);
+        final ArrayList<Token> selected = new ArrayList<>();
+        final long start = System.nanoTime();
+        for (int fire = 0; fire < fires; fire++) {
+            for (int count = 0; count < Parameters.MAX_REASONED_TERM_LINK; count++) {
+                Token found = null;
+                for (int i = 0; i < Parameters.MAX_MATCHED_TERM_LINK; i++) {
+                    final Token item = bag.takeOut();
+                    if (item == null)
+                        break;
+                    if (random.nextFloat() < novelRate) {
+                        found = item;
+                        break;
+                    }
+                    bag.putBack(item);
+                }
+                if (found == null)
+                    break;
+                selected.add(found);
+            }
+            putBackAll(bag, selected);
+        }
+        return (double) (System.nanoTime() - start) / fires;
+    }
+
+    /** 🎯批量选取 */
+    private static double timeBatch(final int fires, final float novelRate) {
+        final Bag<Token> bag = newBag();
+        final Random random = new Random(2);
+        final long start = System.nanoTime();
+        for (int fire = 0; fire < fires; fire++) {
+            final ArrayList<Token> selected = bag.takeOutBatch(
+                    Parameters.MAX_REASONED_TERM_LINK,
+                    Parameters.MAX_MATCHED_TERM_LINK,
+                    item -> random.nextFloat() < novelRate);
+            putBackAll(bag, selected);
+        }
+        return (double) (System.nanoTime() - start) / fires;
+    }
+
+    /** 🎯对应「推理后放回词项链」 */
+    private static void putBackAll(final Bag<Token> bag, final ArrayList<Token> selected) {
+        for (final Token item : selected) {
+            bag.putBack(item);
+        }
+        selected.clear();
+    }
+}